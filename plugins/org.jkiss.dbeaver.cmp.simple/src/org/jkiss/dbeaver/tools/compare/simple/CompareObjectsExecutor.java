@@ -17,29 +17,40 @@
 package org.jkiss.dbeaver.tools.compare.simple;
 
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBConstants;
 import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
 import org.jkiss.dbeaver.model.DBPNamedObject;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseFolder;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 import org.jkiss.dbeaver.model.navigator.meta.DBXTreeNode;
 import org.jkiss.dbeaver.model.preferences.DBPPropertyDescriptor;
-import org.jkiss.dbeaver.model.runtime.DBRProgressListener;
-import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
-import org.jkiss.dbeaver.model.runtime.SubTaskProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.*;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
 import org.jkiss.dbeaver.runtime.properties.*;
+import org.jkiss.utils.CommonUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 public class CompareObjectsExecutor {
 
     private static final Log log = Log.getLog(CompareObjectsExecutor.class);
 
+    private static final int MAX_PREFETCH_THREADS = 4;
+
     private final Object PROPS_LOCK = new Object();
 
     private CompareObjectsSettings settings;
@@ -53,6 +64,11 @@ public class CompareObjectsExecutor {
     private volatile int initializedCount = 0;
     private volatile IStatus initializeError;
     private final Map<Object, Map<DBPPropertyDescriptor, Object>> propertyValues = new IdentityHashMap<>();
+    private final Map<PropertiesKey, List<ObjectPropertyDescriptor>> objectProperties = new HashMap<>();
+    // Containers which structure was read before compare
+    private final Set<DBSObjectContainer> prefetchedContainers = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Hashes of node properties and of all its children
+    private final Map<DBNDatabaseNode, byte[]> fingerprints = new IdentityHashMap<>();
 
     private final List<CompareReportLine> reportLines = new ArrayList<>();
     private int reportDepth = 0;
@@ -161,7 +177,10 @@ public class CompareObjectsExecutor {
     {
         reportLines.clear();
         lastLine = null;
+        prefetchedContainers.clear();
+        fingerprints.clear();
 
+        prefetchStructure(monitor, nodes);
         compareNodes(monitor, nodes);
         return new CompareReport(rootNodes, reportLines);
     }
@@ -173,6 +192,10 @@ public class CompareObjectsExecutor {
 
         try {
             if (nodes.size() > 1) {
+                if (settings.isShowOnlyDifferences() && !lastLine.hasDifference && haveEqualFingerprints(monitor, nodes)) {
+                    // Whole subtree is the same and equal lines are not shown - skip it
+                    return;
+                }
                 // Go deeper only if we have more than one node
                 if (!(nodes.get(0) instanceof DBNDatabaseFolder)) {
                     compareProperties(monitor, nodes);
@@ -219,10 +242,7 @@ public class CompareObjectsExecutor {
         boolean compareLazyProperties = false;
 
         DBNDatabaseNode firstNode = nodes.get(0);
-        List<ObjectPropertyDescriptor> properties = ObjectPropertyDescriptor.extractAnnotations(
-            null,
-            ObjectPropertyDescriptor.getObjectClass(firstNode.getObject()),
-            getDataSourceFilter(firstNode), null);
+        List<ObjectPropertyDescriptor> properties = getObjectProperties(firstNode);
         for (ObjectPropertyDescriptor prop : properties) {
             if (prop.isLazy()) {
                 compareLazyProperties = true;
@@ -250,32 +270,11 @@ public class CompareObjectsExecutor {
             }
             PropertyCollector propertySource = new PropertyCollector(databaseObject, compareLazyProperties || compareScripts);
             for (ObjectPropertyDescriptor prop : properties) {
-                boolean isScriptProperty = prop.getId().equals(DBConstants.PARAM_OBJECT_DEFINITION_TEXT) || prop.getId().equals(DBConstants.PARAM_EXTENDED_DEFINITION_TEXT);
-                if (prop.isLazy()) {
-                    if (!compareLazyProperties) {
-                        if (compareScripts) {
-                            // Only DBPScriptObject methods
-                            if (!isScriptProperty) {
-                                continue;
-                            }
-                        } else {
-                            continue;
-                        }
-                    }
-                } else {
-                    if (prop.isHidden()) {
-                        continue;
-                    }
-                }
-                if (onlyStruct && !isScriptProperty) {
+                if (!isPropertyCompared(prop, compareLazyProperties, compareScripts)) {
                     continue;
                 }
-                Object propertyValue = propertySource.getPropertyValue(monitor, databaseObject, prop, true);
+                Object propertyValue = readPropertyValue(monitor, propertySource, databaseObject, prop);
                 synchronized (PROPS_LOCK) {
-                    if (propertyValue instanceof DBPNamedObject) {
-                        // Compare just object names
-                        propertyValue = ((DBPNamedObject) propertyValue).getName();
-                    }
                     nodeProperties.put(prop, propertyValue);
                 }
             }
@@ -296,18 +295,7 @@ public class CompareObjectsExecutor {
         // Use submonitor to avoid huge number of tasks
         DBRProgressMonitor subMonitor = new SubTaskProgressMonitor(monitor);
         for (int i = 0; i < nodeCount; i++) {
-            DBNDatabaseNode node = nodes.get(i);
-            // Cache structure if possible
-            if (node.getObject() instanceof DBSObjectContainer) {
-                ((DBSObjectContainer) node.getObject()).cacheStructure(subMonitor, DBSObjectContainer.STRUCT_ALL);
-            }
-            try {
-                DBNDatabaseNode[] children = node.getChildren(subMonitor);
-                allChildren.add(children);
-            } catch (Exception e) {
-                log.warn("Error reading child nodes for compare", e);
-                allChildren.add(null);
-            }
+            allChildren.add(readChildren(subMonitor, nodes.get(i)));
         }
 
         Set<String> allChildNames = new LinkedHashSet<>();
@@ -365,6 +353,238 @@ public class CompareObjectsExecutor {
     }
 
 
+    @Nullable
+    private DBNDatabaseNode[] readChildren(DBRProgressMonitor monitor, DBNDatabaseNode node) throws DBException
+    {
+        // Cache structure if possible
+        if (node.getObject() instanceof DBSObjectContainer container && !prefetchedContainers.contains(container)) {
+            container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ALL);
+        }
+        try {
+            return node.getChildren(monitor);
+        } catch (Exception e) {
+            log.warn("Error reading child nodes for compare", e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads structure of compared containers and their nested containers (e.g. schemas of compared databases).
+     * Containers read all tables, columns, keys and indexes with a few catalog queries, so the following
+     * compare works with cached metadata. Containers are read in parallel.
+     */
+    private void prefetchStructure(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes) throws InterruptedException
+    {
+        List<DBSObjectContainer> containers = new ArrayList<>();
+        for (DBNDatabaseNode node : nodes) {
+            if (node.getObject() instanceof DBSObjectContainer container) {
+                containers.add(container);
+            }
+        }
+        monitor.subTask("Read metadata");
+        cacheStructures(monitor, containers);
+
+        List<DBSObjectContainer> nestedContainers = new ArrayList<>();
+        for (DBSObjectContainer container : containers) {
+            try {
+                for (DBSObject child : CommonUtils.safeCollection(container.getChildren(monitor))) {
+                    if (child instanceof DBSObjectContainer nestedContainer && !(child instanceof DBSEntity) &&
+                        !(settings.isSkipSystemObjects() && DBUtils.isSystemObject(child)))
+                    {
+                        nestedContainers.add(nestedContainer);
+                    }
+                }
+            } catch (DBException e) {
+                log.debug("Error reading nested containers of '" + container.getName() + "'", e);
+            }
+        }
+        cacheStructures(monitor, nestedContainers);
+    }
+
+    private void cacheStructures(DBRProgressMonitor monitor, List<DBSObjectContainer> containers) throws InterruptedException
+    {
+        List<DBSObjectContainer> toRead = new ArrayList<>();
+        for (DBSObjectContainer container : containers) {
+            if (prefetchedContainers.add(container)) {
+                toRead.add(container);
+            }
+        }
+        if (toRead.isEmpty()) {
+            return;
+        }
+        JobGroup group = new JobGroup("Read compared metadata", Math.min(toRead.size(), MAX_PREFETCH_THREADS), toRead.size());
+        for (DBSObjectContainer container : toRead) {
+            String containerName = DBUtils.getObjectFullName(container, DBPEvaluationContext.UI);
+            AbstractJob job = new AbstractJob("Read metadata of " + containerName) {
+                @Override
+                protected IStatus run(DBRProgressMonitor jobMonitor)
+                {
+                    try {
+                        container.cacheStructure(jobMonitor, DBSObjectContainer.STRUCT_ALL);
+                    } catch (Throwable e) {
+                        // Not fatal, metadata will be read on demand
+                        log.debug("Error reading metadata of '" + containerName + "'", e);
+                    }
+                    return Status.OK_STATUS;
+                }
+            };
+            job.setUser(false);
+            job.setSystem(true);
+            job.setJobGroup(group);
+            job.schedule();
+        }
+        try {
+            group.join(0, new ProxyProgressMonitor(monitor));
+        } catch (OperationCanceledException e) {
+            group.cancel();
+            throw new InterruptedException();
+        }
+    }
+
+    private boolean haveEqualFingerprints(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes)
+        throws DBException, InterruptedException
+    {
+        byte[] firstFingerprint = getFingerprint(monitor, nodes.get(0));
+        for (int i = 1; i < nodes.size(); i++) {
+            if (!Arrays.equals(firstFingerprint, getFingerprint(monitor, nodes.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates hash of compared node properties and fingerprints of its children.
+     * Equal fingerprints mean that the whole subtrees are equal.
+     */
+    private byte[] getFingerprint(DBRProgressMonitor monitor, DBNDatabaseNode node) throws DBException, InterruptedException
+    {
+        byte[] fingerprint = fingerprints.get(node);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        if (monitor.isCanceled()) {
+            throw new InterruptedException();
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new DBException("Fingerprint algorithm not available", e);
+        }
+        updateDigest(digest, node.getNodeType());
+        if (!(node instanceof DBNDatabaseFolder) && !(settings.isCompareOnlyStructure() && !settings.isCompareScripts())) {
+            DBSObject databaseObject = node.getObject();
+            List<ObjectPropertyDescriptor> properties = getObjectProperties(node);
+            boolean hasLazyProperties = properties.stream().anyMatch(ObjectPropertyDescriptor::isLazy);
+            boolean compareScripts = hasLazyProperties && settings.isCompareScripts();
+            boolean compareLazyProperties = hasLazyProperties && settings.isCompareLazyProperties();
+            PropertyCollector propertySource = new PropertyCollector(databaseObject, compareLazyProperties || compareScripts);
+            for (ObjectPropertyDescriptor prop : properties) {
+                if (!isPropertyCompared(prop, compareLazyProperties, compareScripts)) {
+                    continue;
+                }
+                updateDigest(digest, prop.getId());
+                updateDigest(digest, getPropertyValueKey(readPropertyValue(monitor, propertySource, databaseObject, prop)));
+            }
+        }
+        DBNDatabaseNode[] children = readChildren(new SubTaskProgressMonitor(monitor), node);
+        if (children != null) {
+            List<DBNDatabaseNode> comparedChildren = new ArrayList<>(children.length);
+            for (DBNDatabaseNode child : children) {
+                if (!child.getMeta().isVirtual() && !(settings.isSkipSystemObjects() && DBUtils.isSystemObject(child.getObject()))) {
+                    comparedChildren.add(child);
+                }
+            }
+            comparedChildren.sort(Comparator.comparing(DBNDatabaseNode::getNodeDisplayName));
+            for (DBNDatabaseNode child : comparedChildren) {
+                updateDigest(digest, child.getNodeDisplayName());
+                digest.update(getFingerprint(monitor, child));
+            }
+        }
+        fingerprint = digest.digest();
+        fingerprints.put(node, fingerprint);
+        return fingerprint;
+    }
+
+    private static void updateDigest(MessageDigest digest, String value)
+    {
+        if (value == null) {
+            digest.update((byte) 0);
+        } else {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            // Separator, so adjacent values can't be mixed up
+            digest.update((byte) 1);
+        }
+    }
+
+    /**
+     * Returns string which is equal for values considered equal by {@link CompareUtils#equalPropertyValues(Object, Object)}
+     */
+    private static String getPropertyValueKey(Object value)
+    {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof DBSObject) {
+            StringBuilder key = new StringBuilder();
+            for (DBSObject object = (DBSObject) value; object != null && !(object instanceof DBPDataSourceContainer); object = object.getParentObject()) {
+                key.append(object.getClass().getName()).append(':').append(object.getName()).append('/');
+            }
+            return key.toString();
+        }
+        if (value instanceof Object[]) {
+            return Arrays.deepToString((Object[]) value);
+        }
+        return value.getClass().getName() + ":" + value;
+    }
+
+    private boolean isPropertyCompared(ObjectPropertyDescriptor prop, boolean compareLazyProperties, boolean compareScripts)
+    {
+        boolean isScriptProperty = prop.getId().equals(DBConstants.PARAM_OBJECT_DEFINITION_TEXT) || prop.getId().equals(DBConstants.PARAM_EXTENDED_DEFINITION_TEXT);
+        if (prop.isLazy()) {
+            if (!compareLazyProperties) {
+                if (compareScripts) {
+                    // Only DBPScriptObject methods
+                    if (!isScriptProperty) {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+            }
+        } else {
+            if (prop.isHidden()) {
+                return false;
+            }
+        }
+        return !settings.isCompareOnlyStructure() || isScriptProperty;
+    }
+
+    private static Object readPropertyValue(
+        DBRProgressMonitor monitor,
+        PropertyCollector propertySource,
+        DBSObject databaseObject,
+        ObjectPropertyDescriptor prop)
+    {
+        Object propertyValue = propertySource.getPropertyValue(monitor, databaseObject, prop, true);
+        if (propertyValue instanceof DBPNamedObject) {
+            // Compare just object names
+            propertyValue = ((DBPNamedObject) propertyValue).getName();
+        }
+        return propertyValue;
+    }
+
+    private List<ObjectPropertyDescriptor> getObjectProperties(DBNDatabaseNode node)
+    {
+        // Property descriptors are extracted with reflection, so they are cached per object class
+        PropertiesKey key = new PropertiesKey(ObjectPropertyDescriptor.getObjectClass(node.getObject()), getDataSourceFilter(node));
+        return objectProperties.computeIfAbsent(key, k -> ObjectPropertyDescriptor.extractAnnotations(
+            null,
+            k.objectClass(),
+            k.filter(), null));
+    }
+
     private DataSourcePropertyFilter getDataSourceFilter(DBNDatabaseNode node)
     {
         DBPDataSource dataSource = node.getDataSourceContainer().getDataSource();
@@ -379,4 +599,7 @@ public class CompareObjectsExecutor {
         return filter;
     }
 
-}
\ No newline at end of file
+    private record PropertiesKey(Class<?> objectClass, DataSourcePropertyFilter filter) {
+    }
+
+}
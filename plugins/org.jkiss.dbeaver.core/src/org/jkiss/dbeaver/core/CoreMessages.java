@@ -299,6 +299,8 @@ public class CoreMessages extends NLS {
     public static String pref_page_database_general_group_performance;
     public static String pref_page_database_general_checkbox_disable_extra_metadata;
     public static String pref_page_database_general_checkbox_disable_extra_metadata_tip;
+    public static String pref_page_database_general_checkbox_persistent_metadata_cache;
+    public static String pref_page_database_general_checkbox_persistent_metadata_cache_tip;
     public static String pref_page_database_general_checkbox_rollback_on_error;
     public static String pref_page_database_general_checkbox_show_row_count;
     public static String pref_page_database_general_group_metadata;
@@ -46,6 +46,7 @@ public class PrefPageMetaData extends TargetPrefPage
     private Button caseSensitiveNamesCheck;
     private Button serverSideFiltersCheck;
     private Button addExtraDDLInfo;
+    private Button persistentCacheCheck;
 
     public PrefPageMetaData()
     {
@@ -61,7 +62,8 @@ public class PrefPageMetaData extends TargetPrefPage
             store.contains(ModelPreferences.META_SEPARATE_CONNECTION) ||
             store.contains(ModelPreferences.META_CASE_SENSITIVE) ||
             store.contains(ModelPreferences.META_DISABLE_EXTRA_READ) ||
-            store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS)
+            store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS) ||
+            store.contains(ModelPreferences.META_PERSISTENT_CACHE)
             ;
     }
 
@@ -141,6 +143,12 @@ public class PrefPageMetaData extends TargetPrefPage
                 CoreMessages.pref_page_database_general_checkbox_show_row_count_tip,
                 false,
                 1);
+            persistentCacheCheck = UIUtils.createCheckbox(
+                performanceGroup,
+                CoreMessages.pref_page_database_general_checkbox_persistent_metadata_cache,
+                CoreMessages.pref_page_database_general_checkbox_persistent_metadata_cache_tip,
+                false,
+                1);
         }
 
         return composite;
@@ -158,6 +166,7 @@ public class PrefPageMetaData extends TargetPrefPage
             disableExtraMetadataRead.setSelection(store.getBoolean(ModelPreferences.META_DISABLE_EXTRA_READ));
             addExtraDDLInfo.setSelection(store.getBoolean(ModelPreferences.META_EXTRA_DDL_INFO));
             serverSideFiltersCheck.setSelection(store.getBoolean(ModelPreferences.META_USE_SERVER_SIDE_FILTERS));
+            persistentCacheCheck.setSelection(store.getBoolean(ModelPreferences.META_PERSISTENT_CACHE));
 
         } catch (Exception e) {
             log.warn(e);
@@ -177,6 +186,7 @@ public class PrefPageMetaData extends TargetPrefPage
             store.setValue(ModelPreferences.META_DISABLE_EXTRA_READ, disableExtraMetadataRead.getSelection());
             store.setValue(ModelPreferences.META_EXTRA_DDL_INFO, addExtraDDLInfo.getSelection());
             store.setValue(ModelPreferences.META_USE_SERVER_SIDE_FILTERS, serverSideFiltersCheck.getSelection());
+            store.setValue(ModelPreferences.META_PERSISTENT_CACHE, persistentCacheCheck.getSelection());
 
         } catch (Exception e) {
             log.warn(e);
@@ -193,6 +203,7 @@ public class PrefPageMetaData extends TargetPrefPage
         store.setToDefault(ModelPreferences.META_DISABLE_EXTRA_READ);
         store.setToDefault(ModelPreferences.META_USE_SERVER_SIDE_FILTERS);
         store.setToDefault(ModelPreferences.META_EXTRA_DDL_INFO);
+        store.setToDefault(ModelPreferences.META_PERSISTENT_CACHE);
     }
 
     @Override
@@ -206,6 +217,7 @@ public class PrefPageMetaData extends TargetPrefPage
         disableExtraMetadataRead.setSelection(store.getDefaultBoolean(ModelPreferences.META_DISABLE_EXTRA_READ));
         addExtraDDLInfo.setSelection(store.getDefaultBoolean(ModelPreferences.META_EXTRA_DDL_INFO));
         serverSideFiltersCheck.setSelection(store.getDefaultBoolean(ModelPreferences.META_USE_SERVER_SIDE_FILTERS));
+        persistentCacheCheck.setSelection(store.getDefaultBoolean(ModelPreferences.META_PERSISTENT_CACHE));
         super.performDefaults();
     }
 
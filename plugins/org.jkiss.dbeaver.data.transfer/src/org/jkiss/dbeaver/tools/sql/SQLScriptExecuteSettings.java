@@ -40,6 +40,8 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<Path> {
 
     private static final Log log = Log.getLog(SQLScriptExecuteSettings.class);
 
+    public static final int DEFAULT_INSERT_BATCH_SIZE = 100;
+
     private List<DBPDataSourceContainer> dataSources = new ArrayList<>();
     private List<String> scriptFiles = new ArrayList<>();
 
@@ -48,6 +50,8 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<Path> {
 
     private boolean ignoreErrors;
     private boolean dumpQueryResultsToLog;
+    // Max number of single-row INSERT statements executed as one statement. Zero disables grouping.
+    private int insertBatchSize;
 
     public List<String> getScriptFiles() {
         return scriptFiles;
@@ -81,6 +85,14 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<Path> {
         this.dumpQueryResultsToLog = dumpQueryResultsToLog;
     }
 
+    public int getInsertBatchSize() {
+        return insertBatchSize;
+    }
+
+    public void setInsertBatchSize(int insertBatchSize) {
+        this.insertBatchSize = insertBatchSize;
+    }
+
     public boolean isAutoCommit() {
         return autoCommit;
     }
@@ -134,6 +146,7 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<Path> {
 
         ignoreErrors = JSONUtils.getBoolean(config, "ignoreErrors");
         dumpQueryResultsToLog = JSONUtils.getBoolean(config, "dumpQueryResultsToLog");
+        insertBatchSize = JSONUtils.getInteger(config, "insertBatchSize");
 
         autoCommit = JSONUtils.getBoolean(config, "autoCommit");
     }
@@ -151,6 +164,7 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<Path> {
 
         config.put("ignoreErrors", ignoreErrors);
         config.put("dumpQueryResultsToLog", dumpQueryResultsToLog);
+        config.put("insertBatchSize", insertBatchSize);
 
         config.put("autoCommit", autoCommit);
     }
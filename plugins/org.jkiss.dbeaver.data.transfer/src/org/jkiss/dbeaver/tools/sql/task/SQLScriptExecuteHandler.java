@@ -32,10 +32,9 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableContext;
 import org.jkiss.dbeaver.model.sql.SQLScriptCommitType;
 import org.jkiss.dbeaver.model.sql.SQLScriptContext;
-import org.jkiss.dbeaver.model.sql.SQLScriptElement;
 import org.jkiss.dbeaver.model.sql.SQLScriptErrorHandling;
 import org.jkiss.dbeaver.model.sql.exec.SQLScriptProcessor;
-import org.jkiss.dbeaver.model.sql.parser.SQLScriptParser;
+import org.jkiss.dbeaver.model.sql.parser.SQLScriptStreamParser;
 import org.jkiss.dbeaver.model.struct.rdb.DBSCatalog;
 import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
 import org.jkiss.dbeaver.model.task.*;
@@ -43,10 +42,7 @@ import org.jkiss.dbeaver.tools.sql.SQLScriptExecuteSettings;
 import org.jkiss.dbeaver.tools.transfer.DTUtils;
 import org.jkiss.utils.IOUtils;
 
-import java.io.IOException;
-import java.io.PrintStream;
-import java.io.PrintWriter;
-import java.io.Reader;
+import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -117,7 +113,6 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
         for (String filePath : settings.getScriptFiles()) {
             try {
                 for (DBPDataSourceContainer dataSourceContainer : dataSources) {
-                    var sqlScriptContent = readScriptContents(monitor, task.getProject(), filePath);
                     if (!dataSourceContainer.isConnected()) {
                         dataSourceContainer.connect(monitor, true, true);
                     }
@@ -140,7 +135,7 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
                         }
                     }
 
-                    processScript(monitor, task, settings, executionContext, filePath, sqlScriptContent, log, logStream);
+                    processScript(monitor, task, settings, executionContext, filePath, log, logStream);
                 }
             } catch (Throwable e) {
                 Throwable error = e instanceof InvocationTargetException ? ((InvocationTargetException) e).getTargetException() : e;
@@ -149,16 +144,26 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
         }
     }
 
-    private void processScript(DBRProgressMonitor monitor, DBTTask task, SQLScriptExecuteSettings settings, DBCExecutionContext executionContext, String filePath, String sqlScriptContent, Log log, PrintStream logStream) throws DBException {
+    private void processScript(DBRProgressMonitor monitor, DBTTask task, SQLScriptExecuteSettings settings, DBCExecutionContext executionContext, String filePath, Log log, PrintStream logStream) throws DBException, IOException {
         PrintWriter logWriter = new PrintWriter(logStream, true);
-        List<SQLScriptElement> scriptElements = SQLScriptParser.parseScript(executionContext.getDataSource(), sqlScriptContent);
+        // Script is parsed while it is executed, so large dumps are not loaded into memory
+        try (SQLScriptStreamParser scriptParser = new SQLScriptStreamParser(
+            executionContext.getDataSource(),
+            openScriptReader(monitor, task.getProject(), filePath)))
+        {
+            processScript(monitor, task, settings, executionContext, scriptParser, log, logWriter);
+        }
+    }
+
+    private void processScript(DBRProgressMonitor monitor, DBTTask task, SQLScriptExecuteSettings settings, DBCExecutionContext executionContext, SQLScriptStreamParser scriptParser, Log log, PrintWriter logWriter) throws DBException {
         SQLScriptContext scriptContext = new SQLScriptContext(null, () -> executionContext, null, logWriter, null);
         scriptContext.setVariables(DBTaskUtils.getVariables(task));
         SQLScriptDataReceiver dataReceiver = new SQLScriptDataReceiver();
-        SQLScriptProcessor scriptProcessor = new SQLScriptProcessor(executionContext, scriptElements, scriptContext, dataReceiver, log);
+        SQLScriptProcessor scriptProcessor = new SQLScriptProcessor(executionContext, scriptParser, -1, scriptContext, dataReceiver, log);
 
         scriptProcessor.setCommitType(settings.isAutoCommit() ? SQLScriptCommitType.AUTOCOMMIT : SQLScriptCommitType.AT_END);
         scriptProcessor.setErrorHandling(settings.isIgnoreErrors() ? SQLScriptErrorHandling.IGNORE : SQLScriptErrorHandling.STOP_ROLLBACK);
+        scriptProcessor.setInsertBatchSize(settings.getInsertBatchSize());
         if (settings.isDumpQueryResultsToLog()) {
             dataReceiver.setDumpWriter(logWriter);
         }
@@ -168,6 +173,32 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
         totalStatistics.accumulate(scriptProcessor.getTotalStatistics());
     }
 
+    @NotNull
+    public static Reader openScriptReader(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBPProject project,
+        @NotNull String filePath
+    ) throws DBException, IOException {
+        java.nio.file.Path nioPath = DBFUtils.resolvePathFromString(monitor, project, filePath);
+        if (!IOUtils.isLocalPath(nioPath)) {
+            // Remote file
+            return Files.newBufferedReader(nioPath);
+        }
+
+        RMControllerProvider rmControllerProvider = DBUtils.getAdapter(RMControllerProvider.class, project);
+        if (rmControllerProvider != null) {
+            var rmController = rmControllerProvider.getResourceController();
+            return new InputStreamReader(
+                new ByteArrayInputStream(rmController.getResourceContents(project.getId(), filePath)),
+                StandardCharsets.UTF_8);
+        }
+        var sqlFile = DTUtils.findProjectFile(project, filePath);
+        if (sqlFile == null) {
+            throw new DBException("File " + filePath + " is not found in project " + project.getId());
+        }
+        return Files.newBufferedReader(sqlFile);
+    }
+
     public static String readScriptContents(
         @NotNull DBRProgressMonitor monitor,
         @NotNull DBPProject project,
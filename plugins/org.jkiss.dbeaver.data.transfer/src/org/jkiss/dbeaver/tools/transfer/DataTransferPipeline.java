@@ -0,0 +1,231 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelined data receiver.
+ * Row values are read by the producer thread and passed in batches to the consumer job through a bounded queue.
+ * Thus result set reading overlaps with values conversion and writing. If the consumer is slower than the producer
+ * the queue becomes full and the producer waits (backpressure).
+ * If consumer doesn't support pipelining for the current result set then rows are passed to it synchronously.
+ */
+public class DataTransferPipeline implements DBDDataReceiver {
+
+    private static final Log log = Log.getLog(DataTransferPipeline.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_QUEUE_SIZE = 4;
+
+    private static final long QUEUE_POLL_TIMEOUT = 100;
+
+    // Marks end of data. Compared by reference.
+    private static final List<Object[]> END_OF_DATA = Collections.unmodifiableList(new ArrayList<>());
+
+    private final IDataTransferPipelinedConsumer consumer;
+    private final int batchSize;
+    private final int queueSize;
+
+    private BlockingQueue<List<Object[]>> queue;
+    private List<Object[]> batch;
+    private ConsumerJob consumerJob;
+    private volatile Throwable consumerError;
+
+    public DataTransferPipeline(@NotNull IDataTransferPipelinedConsumer consumer) {
+        this(consumer, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_SIZE);
+    }
+
+    public DataTransferPipeline(@NotNull IDataTransferPipelinedConsumer consumer, int batchSize, int queueSize) {
+        this.consumer = consumer;
+        this.batchSize = Math.max(batchSize, 1);
+        this.queueSize = Math.max(queueSize, 1);
+    }
+
+    @Override
+    public void fetchStart(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+        consumer.fetchStart(session, resultSet, offset, maxRows);
+        if (consumer.isPipelineSupported(session)) {
+            // Fetch may be started multiple times (segmented read)
+            queue = new ArrayBlockingQueue<>(queueSize);
+            batch = new ArrayList<>(batchSize);
+            consumerError = null;
+            consumerJob = new ConsumerJob(session, resultSet);
+            consumerJob.schedule();
+        } else {
+            log.debug("Consumer doesn't support pipelined transfer of the current result set. Rows are processed synchronously.");
+        }
+    }
+
+    @Override
+    public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+        if (consumerJob == null) {
+            consumer.fetchRow(session, resultSet);
+            return;
+        }
+        checkConsumerError();
+        batch.add(consumer.fetchRowValues(session, resultSet));
+        if (batch.size() >= batchSize) {
+            putBatch(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @Override
+    public void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+        try {
+            if (consumerJob != null) {
+                try {
+                    if (!batch.isEmpty() && consumerError == null) {
+                        putBatch(batch);
+                    }
+                } finally {
+                    finishConsumer(false);
+                }
+            }
+        } finally {
+            // Consumer finishes fetch even after row processing error, the same way as in synchronous mode
+            consumer.fetchEnd(session, resultSet);
+        }
+        checkConsumerError();
+    }
+
+    @Override
+    public void close() {
+        if (consumerJob != null) {
+            // Fetch wasn't finished normally. Discard pending rows.
+            try {
+                finishConsumer(true);
+            } catch (DBCException e) {
+                log.debug("Error stopping pipelined consumer", e);
+            }
+        }
+        consumer.close();
+    }
+
+    private void putBatch(@NotNull List<Object[]> rows) throws DBCException {
+        try {
+            while (!queue.offer(rows, QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                // Queue is full. Wait for consumer unless it failed.
+                checkConsumerError();
+                if (consumerJob.getState() == Job.NONE) {
+                    throw new DBCException("Pipelined consumer terminated unexpectedly");
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new DBCException("Pipelined transfer interrupted", e);
+        }
+    }
+
+    private void finishConsumer(boolean discardRows) throws DBCException {
+        ConsumerJob job = consumerJob;
+        consumerJob = null;
+        if (discardRows) {
+            job.discardRows = true;
+            queue.clear();
+        }
+        try {
+            while (!queue.offer(END_OF_DATA, QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                if (job.getState() == Job.NONE) {
+                    break;
+                }
+            }
+            job.join();
+        } catch (InterruptedException e) {
+            job.cancel();
+            throw new DBCException("Pipelined transfer interrupted", e);
+        } finally {
+            queue = null;
+            batch = null;
+        }
+    }
+
+    /**
+     * Throws error which occurred during rows processing in the last fetch.
+     * Data containers only log errors thrown by {@link #fetchEnd}, so the producer must check it explicitly.
+     */
+    public void checkConsumerError() throws DBCException {
+        Throwable error = consumerError;
+        if (error instanceof DBCException) {
+            throw (DBCException) error;
+        } else if (error != null) {
+            throw new DBCException("Error processing rows", error);
+        }
+    }
+
+    private class ConsumerJob extends AbstractJob {
+        private final DBCSession session;
+        private final DBCResultSet resultSet;
+        private volatile boolean discardRows;
+
+        ConsumerJob(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) {
+            super("Process transferred rows");
+            this.session = session;
+            this.resultSet = resultSet;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            final BlockingQueue<List<Object[]>> rowQueue = queue;
+            for (;;) {
+                List<Object[]> rows;
+                try {
+                    rows = rowQueue.take();
+                } catch (InterruptedException e) {
+                    consumerError = e;
+                    break;
+                }
+                if (rows == END_OF_DATA) {
+                    break;
+                }
+                if (discardRows || consumerError != null) {
+                    // Keep draining the queue so producer never blocks
+                    continue;
+                }
+                try {
+                    for (Object[] row : rows) {
+                        consumer.processRowValues(session, resultSet, row);
+                    }
+                } catch (Throwable e) {
+                    consumerError = e;
+                }
+            }
+            // Errors are reported by the producer
+            return Status.OK_STATUS;
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+
+/**
+ * Consumer which splits row processing into two phases: reading of row values from the result set
+ * and processing (conversion, writing) of read values.
+ * Phases may be executed by different threads, see {@link DataTransferPipeline}.
+ */
+public interface IDataTransferPipelinedConsumer extends DBDDataReceiver {
+
+    /**
+     * Checks whether rows of the current result set can be processed asynchronously.
+     * Called after {@link #fetchStart}.
+     */
+    boolean isPipelineSupported(@NotNull DBCSession session);
+
+    /**
+     * Reads values of the current row. Called by the thread which reads the result set.
+     * Returned values must not depend on the result set state.
+     */
+    @NotNull
+    Object[] fetchRowValues(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException;
+
+    /**
+     * Processes values previously read by {@link #fetchRowValues}.
+     * Rows are processed in the same order they were read, always by a single thread.
+     */
+    void processRowValues(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, @NotNull Object[] values) throws DBCException;
+
+}
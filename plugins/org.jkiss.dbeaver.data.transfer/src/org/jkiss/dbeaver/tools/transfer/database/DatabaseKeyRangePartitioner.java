@@ -0,0 +1,136 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCStatement;
+import org.jkiss.dbeaver.model.exec.DBCStatementType;
+import org.jkiss.dbeaver.model.struct.DBSDataPartitioner;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Default partitioner. Splits entity by ranges of single-column integer unique key.
+ * Used when data source doesn't provide its own partitioner.
+ */
+class DatabaseKeyRangePartitioner implements DBSDataPartitioner {
+
+    @NotNull
+    @Override
+    public List<String> splitData(@NotNull DBCSession session, @NotNull DBSEntity entity, int partitionCount) throws DBException {
+        if (partitionCount < 2) {
+            return Collections.emptyList();
+        }
+        List<? extends DBSEntityAttribute> identifier = DBUtils.getBestTableIdentifier(session.getProgressMonitor(), entity);
+        if (identifier.size() != 1) {
+            return Collections.emptyList();
+        }
+        DBSEntityAttribute keyAttribute = identifier.get(0);
+        if (keyAttribute.getDataKind() != DBPDataKind.NUMERIC ||
+            (keyAttribute.getScale() != null && keyAttribute.getScale() > 0))
+        {
+            return Collections.emptyList();
+        }
+        String keyName = DBUtils.getQuotedIdentifier(keyAttribute);
+        String query = "SELECT MIN(" + keyName + "), MAX(" + keyName + ") FROM " +
+            DBUtils.getObjectFullName(entity, DBPEvaluationContext.DML);
+
+        Object minValue = null, maxValue = null;
+        try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query, false, false, false)) {
+            if (dbStat.executeStatement()) {
+                try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                    if (dbResult != null && dbResult.nextRow()) {
+                        minValue = dbResult.getAttributeValue(0);
+                        maxValue = dbResult.getAttributeValue(1);
+                    }
+                }
+            }
+        }
+        if (!(minValue instanceof Number) || !(maxValue instanceof Number)) {
+            // Empty table or key type we can't split
+            return Collections.emptyList();
+        }
+        Long minKeyValue = toLongKey((Number) minValue);
+        Long maxKeyValue = toLongKey((Number) maxValue);
+        if (minKeyValue == null || maxKeyValue == null) {
+            // Keys out of long range or with fraction
+            return Collections.emptyList();
+        }
+        long minKey = minKeyValue;
+        long maxKey = maxKeyValue;
+        long keySpan;
+        try {
+            keySpan = Math.addExact(Math.subtractExact(maxKey, minKey), 1);
+        } catch (ArithmeticException e) {
+            return Collections.emptyList();
+        }
+        if (keySpan < partitionCount) {
+            return Collections.emptyList();
+        }
+        long rangeSize = keySpan / partitionCount;
+        List<String> conditions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            long rangeStart = minKey + i * rangeSize;
+            long rangeEnd = rangeStart + rangeSize;
+            if (i == 0) {
+                // Unique key may be nullable
+                conditions.add(keyName + " < " + rangeEnd + " OR " + keyName + " IS NULL");
+            } else if (i == partitionCount - 1) {
+                // Last range is open to include keys added after the bounds were read
+                conditions.add(keyName + " >= " + rangeStart);
+            } else {
+                conditions.add(keyName + " >= " + rangeStart + " AND " + keyName + " < " + rangeEnd);
+            }
+        }
+        return conditions;
+    }
+
+    @Nullable
+    private static Long toLongKey(@NotNull Number value) {
+        try {
+            if (value instanceof BigDecimal decimal) {
+                return decimal.longValueExact();
+            } else if (value instanceof BigInteger integer) {
+                return integer.longValueExact();
+            } else if (value instanceof Double || value instanceof Float) {
+                double doubleValue = value.doubleValue();
+                // Long.MAX_VALUE is not exact as double, so the upper bound is exclusive
+                if (doubleValue != Math.rint(doubleValue) || doubleValue < Long.MIN_VALUE || doubleValue >= 0x1p63) {
+                    return null;
+                }
+                return (long) doubleValue;
+            }
+            return value.longValue();
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+}
@@ -32,16 +32,20 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
     public enum ExtractType {
         SINGLE_QUERY,
-        SEGMENTS
+        SEGMENTS,
+        PARTITIONS
     }
 
     private static final int DEFAULT_SEGMENT_SIZE = 100000;
     private static final int DEFAULT_FETCH_SIZE = 10000;
+    private static final int DEFAULT_PARTITION_COUNT = 4;
 
     private int segmentSize = DEFAULT_SEGMENT_SIZE;
+    private int partitionCount = DEFAULT_PARTITION_COUNT;
 
     private boolean openNewConnections = true;
     private boolean queryRowCount = true;
+    private boolean pipelinedTransfer = false;
     private boolean selectedRowsOnly = false;
     private boolean selectedColumnsOnly = false;
     private ExtractType extractType = ExtractType.SINGLE_QUERY;
@@ -60,6 +64,16 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         }
     }
 
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(int partitionCount) {
+        if (partitionCount > 0) {
+            this.partitionCount = partitionCount;
+        }
+    }
+
     public boolean isQueryRowCount() {
         return queryRowCount;
     }
@@ -68,6 +82,14 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.queryRowCount = queryRowCount;
     }
 
+    public boolean isPipelinedTransfer() {
+        return pipelinedTransfer;
+    }
+
+    public void setPipelinedTransfer(boolean pipelinedTransfer) {
+        this.pipelinedTransfer = pipelinedTransfer;
+    }
+
     public int getFetchSize() {
         return fetchSize;
     }
@@ -112,9 +134,11 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     public void loadSettings(DBRRunnableContext runnableContext, DataTransferSettings dataTransferSettings, Map<String, Object> settings) {
         extractType = CommonUtils.valueOf(ExtractType.class, (String) settings.get("extractType"), extractType);
         segmentSize = CommonUtils.toInt(settings.get("segmentSize"), DEFAULT_SEGMENT_SIZE);
+        partitionCount = CommonUtils.toInt(settings.get("partitionCount"), DEFAULT_PARTITION_COUNT);
         fetchSize = CommonUtils.toInt(settings.get("fetchSize"), fetchSize);
         openNewConnections = CommonUtils.toBoolean(settings.get("openNewConnections"));
         queryRowCount = CommonUtils.toBoolean(settings.get("queryRowCount"));
+        pipelinedTransfer = CommonUtils.toBoolean(settings.get("pipelinedTransfer"));
         selectedColumnsOnly = CommonUtils.toBoolean(settings.get("selectedColumnsOnly"));
         selectedRowsOnly = CommonUtils.toBoolean(settings.get("selectedRowsOnly"));
     }
@@ -123,9 +147,11 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     public void saveSettings(Map<String, Object> settings) {
         settings.put("extractType", extractType.name());
         settings.put("segmentSize", segmentSize);
+        settings.put("partitionCount", partitionCount);
         settings.put("fetchSize", fetchSize);
         settings.put("openNewConnections", openNewConnections);
         settings.put("queryRowCount", queryRowCount);
+        settings.put("pipelinedTransfer", pipelinedTransfer);
         settings.put("selectedColumnsOnly", selectedColumnsOnly);
         settings.put("selectedRowsOnly", selectedRowsOnly);
     }
@@ -136,7 +162,11 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_new_connection, openNewConnections);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_extract_type, extractType.name());
+        if (extractType == ExtractType.PARTITIONS) {
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_partition_count, partitionCount);
+        }
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_select_row_count, queryRowCount);
+        DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_pipelined_transfer, pipelinedTransfer);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_rows_only, selectedRowsOnly);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_columns_only, selectedColumnsOnly);
 
@@ -64,7 +64,7 @@ import java.util.Map;
  */
 @DBSerializable(DatabaseTransferConsumer.NODE_ID)
 public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseConsumerSettings, IDataTransferProcessor>,
-        IDataTransferNodePrimary, DBPReferentialIntegrityController {
+        IDataTransferNodePrimary, IDataTransferPipelinedConsumer, DBPReferentialIntegrityController {
     private static final Log log = Log.getLog(DatabaseTransferConsumer.class);
 
     public static final String NODE_ID = "databaseTransferConsumer";
@@ -322,27 +322,43 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
 
     @Override
     public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
-        final Object document;
+        processRowValues(session, resultSet, fetchRowValues(session, resultSet));
+    }
+
+    @Override
+    public boolean isPipelineSupported(@NotNull DBCSession session) {
+        if (isPreview || targetContext == null || targetContext == session.getExecutionContext()) {
+            // Source and target can't share the same connection between threads
+            return false;
+        }
+        for (ColumnMapping column : columnMappings) {
+            if (column != null && column.targetIndex >= 0 && column.sourceAttr.getDataKind() == DBPDataKind.CONTENT) {
+                // LOB contents may be bound to the current result set row
+                return false;
+            }
+        }
+        return true;
+    }
 
+    /**
+     * Reads source values of mapped columns. The last element is the source document (for dynamic metadata sources).
+     */
+    @NotNull
+    @Override
+    public Object[] fetchRowValues(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+        Object[] sourceValues = new Object[columnMappings.length + 1];
         if (session.getDataSource().getInfo().isDynamicMetadata()) {
             final DBDAttributeBinding attr = DBUtils.getAttributeBindings(session, getSourceObject(), resultSet.getMeta())[0];
-            document = attr.getValueHandler().fetchValueObject(session, resultSet, attr, attr.getOrdinalPosition());
-        } else {
-            document = null;
+            sourceValues[columnMappings.length] = attr.getValueHandler().fetchValueObject(session, resultSet, attr, attr.getOrdinalPosition());
         }
-
-        Object[] rowValues = new Object[targetAttributes.size()];
         for (int i = 0; i < columnMappings.length; i++) {
             ColumnMapping column = columnMappings[i];
             if (column == null || column.targetIndex < 0) {
                 continue;
             }
-            Object attrValue;
             if (column.sourceValueHandler != null) {
-                if (column.sourceAttr instanceof DBDAttributeBindingCustom) {
-                    attrValue = DBUtils.getAttributeValue(column.sourceAttr, sourceBindings, rowValues);
-                } else {
-                    attrValue = column.sourceValueHandler.fetchValueObject(
+                if (!(column.sourceAttr instanceof DBDAttributeBindingCustom)) {
+                    sourceValues[i] = column.sourceValueHandler.fetchValueObject(
                         session,
                         resultSet,
                         column.sourceAttr,
@@ -350,7 +366,27 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 }
             } else {
                 // No value handler - get raw value
-                attrValue = resultSet.getAttributeValue(i);
+                sourceValues[i] = resultSet.getAttributeValue(i);
+            }
+        }
+        return sourceValues;
+    }
+
+    @Override
+    public void processRowValues(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, @NotNull Object[] sourceValues) throws DBCException {
+        final Object document = sourceValues[columnMappings.length];
+
+        Object[] rowValues = new Object[targetAttributes.size()];
+        for (int i = 0; i < columnMappings.length; i++) {
+            ColumnMapping column = columnMappings[i];
+            if (column == null || column.targetIndex < 0) {
+                continue;
+            }
+            Object attrValue;
+            if (column.sourceValueHandler != null && column.sourceAttr instanceof DBDAttributeBindingCustom) {
+                attrValue = DBUtils.getAttributeValue(column.sourceAttr, sourceBindings, rowValues);
+            } else {
+                attrValue = sourceValues[i];
             }
 
             if (containerMapping != null && containerMapping.getTarget() instanceof DBSDocumentContainer) {
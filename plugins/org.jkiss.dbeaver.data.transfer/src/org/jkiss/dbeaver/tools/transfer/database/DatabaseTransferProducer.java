@@ -18,6 +18,10 @@
 package org.jkiss.dbeaver.tools.transfer.database;
 
 import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
@@ -25,24 +29,30 @@ import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.*;
 import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.impl.DataSourceContextProvider;
 import org.jkiss.dbeaver.model.meta.DBSerializable;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableContext;
+import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLQuery;
 import org.jkiss.dbeaver.model.sql.SQLQueryContainer;
 import org.jkiss.dbeaver.model.sql.SQLScriptContext;
 import org.jkiss.dbeaver.model.sql.SQLScriptElement;
 import org.jkiss.dbeaver.model.sql.data.SQLQueryDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSDataPartitioner;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.task.DBTTask;
 import org.jkiss.dbeaver.model.task.DBTaskUtils;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.jkiss.dbeaver.tools.transfer.DataTransferPipeline;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferNodePrimary;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferPipelinedConsumer;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProcessor;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProducer;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
@@ -53,9 +63,7 @@ import org.jkiss.utils.CommonUtils;
 
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Data container transfer producer
@@ -265,17 +273,40 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                         try {
                             monitor.subTask("Read data");
 
+                            DataTransferPipeline pipeline = null;
+                            DBDDataReceiver dataReceiver = consumer;
+                            if (settings.isPipelinedTransfer() && consumer instanceof IDataTransferPipelinedConsumer) {
+                                // Process rows in a separate thread.
+                                // Partitioned read doesn't use pipeline: partitions are already read concurrently.
+                                pipeline = new DataTransferPipeline((IDataTransferPipelinedConsumer) consumer);
+                                dataReceiver = pipeline;
+                            }
+
                             // Perform export
-                            if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
+                            DatabaseProducerSettings.ExtractType extractType = settings.getExtractType();
+                            if (extractType == DatabaseProducerSettings.ExtractType.PARTITIONS &&
+                                (selectiveExportFromUI || !newConnection ||
+                                    !readPartitionedData(monitor, session, savepoint, consumer, settings, readFlags)))
+                            {
+                                // Partitioned read isn't possible, read data in single query
+                                extractType = DatabaseProducerSettings.ExtractType.SINGLE_QUERY;
+                            }
+                            if (extractType == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
                                 // Just do it in single query
-                                producerStatistics.accumulate(dataContainer.readData(transferSource, session, consumer, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
-                            } else {
+                                producerStatistics.accumulate(dataContainer.readData(transferSource, session, dataReceiver, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
+                                if (pipeline != null) {
+                                    pipeline.checkConsumerError();
+                                }
+                            } else if (extractType == DatabaseProducerSettings.ExtractType.SEGMENTS) {
                                 // Read all data by segments
                                 long offset = 0;
                                 int segmentSize = settings.getSegmentSize();
                                 for (; ; ) {
                                     DBCStatistics statistics = dataContainer.readData(
-                                        transferSource, session, consumer, dataFilter, offset, segmentSize, readFlags, settings.getFetchSize());
+                                        transferSource, session, dataReceiver, dataFilter, offset, segmentSize, readFlags, settings.getFetchSize());
+                                    if (pipeline != null) {
+                                        pipeline.checkConsumerError();
+                                    }
                                     if (statistics == null || statistics.getRowsFetched() < segmentSize) {
                                         // Done
                                         break;
@@ -314,6 +345,106 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
         });
     }
 
+    /**
+     * Reads entity data by partitions. Each partition is read in a separate job over its own connection.
+     * Rows of different partitions are passed to the consumer in the order they were fetched.
+     * If data source partitioner shares snapshots then coordinator session transaction keeps the snapshot
+     * until all partitions are read.
+     *
+     * @return false if entity can't be partitioned
+     */
+    private boolean readPartitionedData(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCSession session,
+        @Nullable DBCSavepoint savepoint,
+        @NotNull IDataTransferConsumer consumer,
+        @NotNull DatabaseProducerSettings settings,
+        long readFlags
+    ) throws DBException {
+        if (!(dataContainer instanceof DBSEntity) || (dataFilter != null && dataFilter.hasOrdering())) {
+            // Ordered output can't be produced by concurrent readers
+            return false;
+        }
+        DBSEntity entity = (DBSEntity) dataContainer;
+        List<String> partitions = Collections.emptyList();
+        DBSDataPartitioner partitioner = DBUtils.getAdapter(DBSDataPartitioner.class, session.getDataSource());
+        String snapshotId = null;
+        try {
+            if (partitioner != null) {
+                partitions = partitioner.splitData(session, entity, settings.getPartitionCount());
+            }
+            if (partitions.isEmpty()) {
+                partitions = new DatabaseKeyRangePartitioner().splitData(session, entity, settings.getPartitionCount());
+            }
+            if (partitions.size() >= 2 && partitioner != null) {
+                snapshotId = partitioner.exportSnapshot(session);
+            }
+        } catch (DBException e) {
+            log.warn("Can't split '" + entity.getName() + "' data into partitions", e);
+            partitions = Collections.emptyList();
+            DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+            if (txnManager != null && !txnManager.isAutoCommit()) {
+                txnManager.rollback(session, savepoint);
+            }
+        }
+        if (partitions.size() < 2) {
+            log.debug("Table '" + entity.getName() + "' can't be partitioned. Read data in single query.");
+            return false;
+        }
+
+        PartitionDataReceiver dataReceiver = new PartitionDataReceiver(consumer, partitions.size());
+        JobGroup group = new JobGroup("Read " + entity.getName() + " partitions", partitions.size(), partitions.size());
+        List<PartitionReadJob> jobs = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            DBDDataFilter partitionFilter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+            String condition = partitions.get(i);
+            partitionFilter.setWhere(CommonUtils.isEmpty(partitionFilter.getWhere()) ?
+                condition : "(" + partitionFilter.getWhere() + ") AND (" + condition + ")");
+
+            PartitionReadJob job = new PartitionReadJob(
+                entity.getName() + " [" + (i + 1) + "/" + partitions.size() + "]",
+                session.getExecutionContext(),
+                dataReceiver,
+                consumer,
+                partitionFilter,
+                snapshotId == null ? null : partitioner,
+                snapshotId,
+                readFlags,
+                settings.getFetchSize());
+            job.setJobGroup(group);
+            jobs.add(job);
+        }
+        for (PartitionReadJob job : jobs) {
+            job.schedule();
+        }
+
+        Throwable error = null;
+        try {
+            group.join(0, new ProxyProgressMonitor(monitor));
+        } catch (InterruptedException | OperationCanceledException e) {
+            group.cancel();
+            error = e;
+        }
+        for (PartitionReadJob job : jobs) {
+            if (job.error != null) {
+                if (error == null) {
+                    error = job.error;
+                } else {
+                    error.addSuppressed(job.error);
+                }
+            }
+            producerStatistics.accumulate(job.statistics);
+        }
+        // Fetch is finished by the last partition
+        consumer.close();
+        if (error instanceof DBException) {
+            throw (DBException) error;
+        } else if (error != null) {
+            throw new DBException("Error reading partitioned data", error);
+        }
+        return true;
+    }
+
     @Override
     public boolean equals(Object obj) {
         return obj instanceof DatabaseTransferProducer &&
@@ -327,6 +458,160 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
         return producerStatistics;
     }
 
+    /**
+     * Passes rows of all partitions to the single consumer.
+     * Fetch is started by the first partition and finished by the last one, while its result set is still open.
+     */
+    private static class PartitionDataReceiver {
+        private final DBDDataReceiver target;
+        private int remainingPartitions;
+        private boolean started;
+
+        PartitionDataReceiver(@NotNull DBDDataReceiver target, int partitionCount) {
+            this.target = target;
+            this.remainingPartitions = partitionCount;
+        }
+
+        /**
+         * Creates receiver of a single partition. Each partition must be finished with
+         * {@link DBDDataReceiver#fetchEnd(DBCSession, DBCResultSet)} or {@link #partitionFinished(DBDDataReceiver)} if it fails.
+         */
+        @NotNull
+        DBDDataReceiver createPartitionReceiver() {
+            return new PartitionReceiver();
+        }
+
+        synchronized void partitionFinished(@NotNull DBDDataReceiver partitionReceiver) {
+            if (!((PartitionReceiver) partitionReceiver).ended) {
+                ((PartitionReceiver) partitionReceiver).ended = true;
+                remainingPartitions--;
+            }
+        }
+
+        private class PartitionReceiver implements DBDDataReceiver {
+            private boolean ended;
+
+            @Override
+            public void fetchStart(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+                synchronized (PartitionDataReceiver.this) {
+                    if (!started) {
+                        target.fetchStart(session, resultSet, offset, maxRows);
+                        started = true;
+                    }
+                }
+            }
+
+            @Override
+            public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+                synchronized (PartitionDataReceiver.this) {
+                    target.fetchRow(session, resultSet);
+                }
+            }
+
+            @Override
+            public void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+                synchronized (PartitionDataReceiver.this) {
+                    if (ended) {
+                        return;
+                    }
+                    ended = true;
+                    remainingPartitions--;
+                    if (remainingPartitions == 0 && started) {
+                        // Last partition. Its result set is still open.
+                        target.fetchEnd(session, resultSet);
+                    }
+                }
+            }
+
+            @Override
+            public void close() {
+                // Target is closed by the producer
+            }
+        }
+    }
+
+    private class PartitionReadJob extends AbstractJob {
+        private final DBCExecutionContext parentContext;
+        private final PartitionDataReceiver dataReceiver;
+        private final IDataTransferConsumer consumer;
+        private final DBDDataFilter partitionFilter;
+        @Nullable
+        private final DBSDataPartitioner partitioner;
+        @Nullable
+        private final String snapshotId;
+        private final long readFlags;
+        private final int fetchSize;
+        private final DBCStatistics statistics = new DBCStatistics();
+        private volatile Throwable error;
+
+        PartitionReadJob(
+            @NotNull String name,
+            @NotNull DBCExecutionContext parentContext,
+            @NotNull PartitionDataReceiver dataReceiver,
+            @NotNull IDataTransferConsumer consumer,
+            @NotNull DBDDataFilter partitionFilter,
+            @Nullable DBSDataPartitioner partitioner,
+            @Nullable String snapshotId,
+            long readFlags,
+            int fetchSize
+        ) {
+            super("Read partition " + name);
+            this.parentContext = parentContext;
+            this.dataReceiver = dataReceiver;
+            this.consumer = consumer;
+            this.partitionFilter = partitionFilter;
+            this.partitioner = partitioner;
+            this.snapshotId = snapshotId;
+            this.readFlags = readFlags;
+            this.fetchSize = fetchSize;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            DBDDataReceiver partitionReceiver = dataReceiver.createPartitionReceiver();
+            try {
+                DBPDataSource dataSource = parentContext.getDataSource();
+                DBCExecutionContext context = DBUtils.getObjectOwnerInstance(dataContainer).openIsolatedContext(
+                    monitor, "Data transfer producer partition", parentContext);
+                try {
+                    DBExecUtils.setExecutionContextDefaults(monitor, dataSource, context, defaultCatalog, null, defaultSchema);
+                    try (DBCSession session = context.openSession(monitor, DBCExecutionPurpose.UTIL, getName())) {
+                        session.enableLogging(false);
+                        DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+                        if (txnManager != null && txnManager.isSupportsTransactions()) {
+                            // Some drivers read LOBs in transactional mode only
+                            txnManager.setAutoCommit(monitor, false);
+                        }
+                        try {
+                            if (partitioner != null && snapshotId != null) {
+                                // Read the same data as other partitions
+                                partitioner.importSnapshot(session, snapshotId);
+                            }
+                            statistics.accumulate(dataContainer.readData(
+                                new AbstractExecutionSource(dataContainer, context, consumer),
+                                session, partitionReceiver, partitionFilter, -1, -1, readFlags, fetchSize));
+                        } finally {
+                            if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                                txnManager.rollback(session, null);
+                            }
+                        }
+                    }
+                } finally {
+                    context.close();
+                }
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                // Partition may fail or be canceled before fetch end
+                dataReceiver.partitionFinished(partitionReceiver);
+            }
+            // Errors are reported by the producer
+            return Status.OK_STATUS;
+        }
+    }
+
     public static class ObjectSerializer implements DTObjectSerializer<DBTTask, DatabaseTransferProducer> {
 
         @Override
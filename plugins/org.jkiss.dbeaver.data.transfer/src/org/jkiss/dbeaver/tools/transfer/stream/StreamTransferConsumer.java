@@ -46,6 +46,7 @@ import org.jkiss.dbeaver.tools.transfer.DTConstants;
 import org.jkiss.dbeaver.tools.transfer.DTUtils;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferEventProcessor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferPipelinedConsumer;
 import org.jkiss.dbeaver.tools.transfer.internal.DTActivator;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
 import org.jkiss.dbeaver.tools.transfer.registry.DataTransferEventProcessorDescriptor;
@@ -78,7 +79,8 @@ import java.util.zip.ZipOutputStream;
  * Stream transfer consumer
  */
 @DBSerializable(StreamTransferConsumer.NODE_ID)
-public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsumerSettings, IStreamDataExporter> {
+public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsumerSettings, IStreamDataExporter>,
+    IDataTransferPipelinedConsumer {
 
     private static final Log log = Log.getLog(StreamTransferConsumer.class);
 
@@ -196,6 +198,31 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
 
     @Override
     public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+        processRowValues(session, resultSet, fetchRowValues(session, resultSet));
+    }
+
+    @Override
+    public boolean isPipelineSupported(@NotNull DBCSession session) {
+        if (columnMetas == null) {
+            return false;
+        }
+        for (DBDAttributeBinding attr : columnMetas) {
+            if (attr.getDataKind() == DBPDataKind.CONTENT) {
+                // LOB contents may be bound to the current result set row
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    @Override
+    public Object[] fetchRowValues(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+        return fetchRow(session, resultSet, columnMetas);
+    }
+
+    @Override
+    public void processRowValues(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, @NotNull Object[] srcRow) throws DBCException {
         try {
             // Check for file split
             if (settings.isSplitOutFiles() && !parameters.isBinary && !firstRow) {
@@ -209,8 +236,6 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
                 }
             }
 
-            // Get values
-            Object[] srcRow = fetchRow(session, resultSet, columnMetas);
             Object[] targetRow;
             targetRow = new Object[columnBindings.length];
             for (int i = 0; i < columnBindings.length; i++) {
@@ -0,0 +1,576 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Apache Arrow IPC reader. Reads both file and streaming formats sequentially (file footer is not used).
+ * Supports flat schemas of primitive, string, binary, decimal and temporal types,
+ * dictionary encoded columns and LZ4_FRAME buffer compression.
+ * Each record batch is read as a single batch.
+ */
+public class ArrowReader implements ColumnarReader {
+
+    private static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_DICTIONARY_BATCH = 2;
+    private static final byte HEADER_RECORD_BATCH = 3;
+
+    private static final byte TYPE_NULL = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_BINARY = 4;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DECIMAL = 7;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final byte TYPE_FIXED_SIZE_BINARY = 15;
+    private static final byte TYPE_LARGE_BINARY = 19;
+    private static final byte TYPE_LARGE_UTF8 = 20;
+
+    private static final short PRECISION_SINGLE = 1;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short DATE_UNIT_DAY = 0;
+    private static final short TIME_UNIT_SECOND = 0;
+    private static final short TIME_UNIT_MILLISECOND = 1;
+    private static final short TIME_UNIT_NANOSECOND = 3;
+    private static final byte COMPRESSION_LZ4_FRAME = 0;
+
+    // FieldNode and Buffer structs are 16 bytes long
+    private static final int STRUCT_SIZE = 16;
+
+    @NotNull
+    private final InputStream in;
+    private final List<ColumnDescriptor> columns = new ArrayList<>();
+    private final List<FieldInfo> fields = new ArrayList<>();
+    private final Map<Long, ColumnVector> dictionaries = new HashMap<>();
+    private final Map<Long, FieldInfo> dictionaryFields = new HashMap<>();
+    private boolean finished;
+
+    public ArrowReader(@NotNull InputStream stream) throws IOException {
+        this.in = stream.markSupported() ? stream : new BufferedInputStream(stream);
+        try {
+            // File format starts with magic, streaming format starts with the first message
+            in.mark(8);
+            byte[] head = in.readNBytes(8);
+            if (head.length < MAGIC.length || !Arrays.equals(head, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+                in.reset();
+            }
+            Message message = readMessage();
+            if (message == null || message.headerType != HEADER_SCHEMA) {
+                throw new IOException("Arrow schema is missing");
+            }
+            readSchema(message.header);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    @NotNull
+    @Override
+    public List<ColumnDescriptor> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    @Override
+    public int readBatch(@NotNull ColumnVector[] vectors) throws IOException {
+        while (!finished) {
+            Message message = readMessage();
+            if (message == null) {
+                finished = true;
+                break;
+            }
+            switch (message.headerType) {
+                case HEADER_DICTIONARY_BATCH:
+                    readDictionaryBatch(message);
+                    break;
+                case HEADER_RECORD_BATCH: {
+                    long rowCount = message.header.getLong(0, 0);
+                    if (rowCount > Integer.MAX_VALUE) {
+                        throw new IOException("Record batch is too big: " + rowCount + " rows");
+                    }
+                    BatchDecoder decoder = new BatchDecoder(message.header, message.body);
+                    for (int i = 0; i < fields.size(); i++) {
+                        decoder.decodeField(fields.get(i), vectors[i]);
+                    }
+                    if (rowCount > 0) {
+                        return (int) rowCount;
+                    }
+                    break;
+                }
+                default:
+                    throw new IOException("Unexpected Arrow message type " + message.headerType);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readSchema(FlatBufferTable schema) throws IOException {
+        int fieldCount = schema.getVectorLength(1);
+        for (int i = 0; i < fieldCount; i++) {
+            FlatBufferTable field = schema.getTableElement(1, i);
+            String name = field.getString(0);
+            if (name == null || name.isEmpty()) {
+                name = "column_" + (i + 1);
+            }
+            if (field.getVectorLength(5) > 0) {
+                throw new IOException("Nested Arrow columns are not supported (column '" + name + "')");
+            }
+            FieldInfo info = new FieldInfo(name, field.getByte(2, (byte) 0), field.getTable(3));
+            FlatBufferTable dictionary = field.getTable(4);
+            if (dictionary != null) {
+                long dictionaryId = dictionary.getLong(0, 0);
+                FlatBufferTable indexType = dictionary.getTable(1);
+                FieldInfo indexInfo = new FieldInfo(name, TYPE_INT, indexType);
+                if (indexType == null) {
+                    indexInfo.bitWidth = 32;
+                    indexInfo.signed = true;
+                }
+                info.dictionaryId = dictionaryId;
+                info.dictionaryIndex = indexInfo;
+                dictionaryFields.put(dictionaryId, info);
+            }
+            fields.add(info);
+            columns.add(info.type == ColumnType.DECIMAL ?
+                new ColumnDescriptor(name, info.type, info.precision, info.scale) :
+                new ColumnDescriptor(name, info.type));
+        }
+    }
+
+    private void readDictionaryBatch(Message message) throws IOException {
+        long dictionaryId = message.header.getLong(0, 0);
+        FieldInfo field = dictionaryFields.get(dictionaryId);
+        FlatBufferTable data = message.header.getTable(1);
+        if (field == null || data == null) {
+            throw new IOException("Unknown Arrow dictionary " + dictionaryId);
+        }
+        ColumnVector values = dictionaries.get(dictionaryId);
+        if (values == null) {
+            values = new ColumnVector(field.type, (int) Math.min(data.getLong(0, 0), 1024));
+            dictionaries.put(dictionaryId, values);
+        } else if (!message.header.getBoolean(2, false)) {
+            // Not a delta: dictionary replacement
+            values.reset();
+        }
+        new BatchDecoder(data, message.body).decodeValues(field, values);
+    }
+
+    @Nullable
+    private Message readMessage() throws IOException {
+        int length;
+        try {
+            length = readInt(true);
+            if (length == CONTINUATION_MARKER) {
+                length = readInt(false);
+            }
+        } catch (EOFException e) {
+            // Stream without end-of-stream marker
+            return null;
+        }
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Bad Arrow message length " + length);
+        }
+        Message message = new Message();
+        FlatBufferTable root = FlatBufferTable.getRoot(readBytes(length));
+        message.headerType = root.getByte(1, (byte) 0);
+        message.header = root.getTable(2);
+        long bodyLength = root.getLong(3, 0);
+        if (message.header == null || bodyLength < 0 || bodyLength > Integer.MAX_VALUE - 8) {
+            throw new IOException("Bad Arrow message");
+        }
+        message.body = readBytes((int) bodyLength);
+        return message;
+    }
+
+    private int readInt(boolean eofAllowed) throws IOException {
+        byte[] bytes = in.readNBytes(4);
+        if (bytes.length < 4) {
+            if (bytes.length == 0 && eofAllowed) {
+                throw new EOFException();
+            }
+            throw new IOException("Unexpected end of Arrow stream");
+        }
+        return (bytes[0] & 0xFF) | (bytes[1] & 0xFF) << 8 | (bytes[2] & 0xFF) << 16 | (bytes[3] & 0xFF) << 24;
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new IOException("Unexpected end of Arrow stream");
+        }
+        return bytes;
+    }
+
+    private static long readLongLE(byte[] data, int pos) {
+        long result = 0;
+        for (int i = 7; i >= 0; i--) {
+            result = (result << 8) | (data[pos + i] & 0xFF);
+        }
+        return result;
+    }
+
+    private static int readIntLE(byte[] data, int pos) {
+        return (data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8 | (data[pos + 2] & 0xFF) << 16 | (data[pos + 3] & 0xFF) << 24;
+    }
+
+    private static class Message {
+        byte headerType;
+        FlatBufferTable header;
+        byte[] body;
+    }
+
+    /**
+     * Arrow field type converted to column type
+     */
+    private static class FieldInfo {
+        final String name;
+        final byte typeId;
+        ColumnType type;
+        int bitWidth;
+        boolean signed;
+        short unit;
+        int byteWidth;
+        int precision;
+        int scale;
+        // Decimal which doesn't fit in 38 digits is converted to string
+        boolean decimalAsString;
+        long dictionaryId = -1;
+        FieldInfo dictionaryIndex;
+
+        FieldInfo(String name, byte typeId, @Nullable FlatBufferTable typeTable) throws IOException {
+            this.name = name;
+            this.typeId = typeId;
+            switch (typeId) {
+                case TYPE_NULL:
+                    type = ColumnType.STRING;
+                    break;
+                case TYPE_INT:
+                    bitWidth = typeTable == null ? 32 : typeTable.getInt(0, 32);
+                    signed = typeTable == null || typeTable.getBoolean(1, false);
+                    if (bitWidth != 8 && bitWidth != 16 && bitWidth != 32 && bitWidth != 64) {
+                        throw new IOException("Bad integer bit width " + bitWidth + " of column '" + name + "'");
+                    }
+                    type = bitWidth < 32 || (bitWidth == 32 && signed) ? ColumnType.INT32 : ColumnType.INT64;
+                    break;
+                case TYPE_FLOATING_POINT:
+                    unit = typeTable == null ? 0 : typeTable.getShort(0, (short) 0);
+                    if (unit != PRECISION_SINGLE && unit != PRECISION_DOUBLE) {
+                        throw new IOException("Half-precision floating point column '" + name + "' is not supported");
+                    }
+                    type = ColumnType.DOUBLE;
+                    break;
+                case TYPE_UTF8:
+                case TYPE_LARGE_UTF8:
+                    type = ColumnType.STRING;
+                    break;
+                case TYPE_BINARY:
+                case TYPE_LARGE_BINARY:
+                    type = ColumnType.BINARY;
+                    break;
+                case TYPE_FIXED_SIZE_BINARY:
+                    byteWidth = typeTable == null ? 0 : typeTable.getInt(0, 0);
+                    type = ColumnType.BINARY;
+                    break;
+                case TYPE_BOOL:
+                    type = ColumnType.BOOLEAN;
+                    break;
+                case TYPE_DECIMAL:
+                    if (typeTable == null) {
+                        throw new IOException("Decimal type of column '" + name + "' is incomplete");
+                    }
+                    precision = typeTable.getInt(0, 0);
+                    scale = typeTable.getInt(1, 0);
+                    bitWidth = typeTable.getInt(2, 128);
+                    if (bitWidth != 128 && bitWidth != 256) {
+                        throw new IOException("Bad decimal bit width " + bitWidth + " of column '" + name + "'");
+                    }
+                    if (precision > 0 && precision <= ColumnDescriptor.MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                        type = ColumnType.DECIMAL;
+                    } else {
+                        type = ColumnType.STRING;
+                        decimalAsString = true;
+                    }
+                    break;
+                case TYPE_DATE:
+                    // Default unit is milliseconds
+                    unit = typeTable == null ? 1 : typeTable.getShort(0, (short) 1);
+                    type = ColumnType.DATE;
+                    break;
+                case TYPE_TIMESTAMP: {
+                    unit = typeTable == null ? TIME_UNIT_SECOND : typeTable.getShort(0, TIME_UNIT_SECOND);
+                    String timezone = typeTable == null ? null : typeTable.getString(1);
+                    type = timezone == null || timezone.isEmpty() ? ColumnType.TIMESTAMP : ColumnType.TIMESTAMP_TZ;
+                    break;
+                }
+                default:
+                    throw new IOException("Arrow type " + typeId + " of column '" + name + "' is not supported");
+            }
+        }
+    }
+
+    /**
+     * Decodes record batch body. Field nodes and buffers are consumed in schema order.
+     */
+    private class BatchDecoder {
+        private final FlatBufferTable batch;
+        private final byte[] body;
+        private final int nodeCount;
+        private final int bufferCount;
+        private final boolean compressed;
+        private int nextNode;
+        private int nextBuffer;
+
+        BatchDecoder(FlatBufferTable batch, byte[] body) throws IOException {
+            this.batch = batch;
+            this.body = body;
+            this.nodeCount = batch.getVectorLength(1);
+            this.bufferCount = batch.getVectorLength(2);
+            FlatBufferTable compression = batch.getTable(3);
+            if (compression != null && compression.getByte(0, COMPRESSION_LZ4_FRAME) != COMPRESSION_LZ4_FRAME) {
+                throw new IOException("Arrow ZSTD compression is not supported");
+            }
+            this.compressed = compression != null;
+        }
+
+        void decodeField(FieldInfo field, ColumnVector vector) throws IOException {
+            if (field.dictionaryIndex == null) {
+                decodeValues(field, vector);
+                return;
+            }
+            ColumnVector dictionary = dictionaries.get(field.dictionaryId);
+            if (dictionary == null) {
+                throw new IOException("Dictionary of column '" + field.name + "' is missing");
+            }
+            ColumnVector indexes = new ColumnVector(field.dictionaryIndex.type, 0);
+            decodeValues(field.dictionaryIndex, indexes);
+            for (int i = 0; i < indexes.size(); i++) {
+                if (indexes.isNull(i)) {
+                    vector.appendNull();
+                    continue;
+                }
+                long index = indexes.getLong(i);
+                if (index < 0 || index >= dictionary.size()) {
+                    throw new IOException("Dictionary index " + index + " of column '" + field.name + "' is out of range");
+                }
+                vector.appendFrom(dictionary, (int) index);
+            }
+        }
+
+        void decodeValues(FieldInfo field, ColumnVector vector) throws IOException {
+            if (nextNode >= nodeCount) {
+                throw new IOException("Record batch has no node for column '" + field.name + "'");
+            }
+            long length = batch.getStructLong(1, nextNode, STRUCT_SIZE, 0);
+            long nullCount = batch.getStructLong(1, nextNode, STRUCT_SIZE, 8);
+            nextNode++;
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("Bad length of column '" + field.name + "'");
+            }
+            int rowCount = (int) length;
+            if (field.typeId == TYPE_NULL) {
+                for (int i = 0; i < rowCount; i++) {
+                    vector.appendNull();
+                }
+                return;
+            }
+            byte[] validity = nextBuffer();
+            boolean hasNulls = nullCount != 0 && validity.length > 0;
+            byte[] data = nextBuffer();
+            byte[] values = null;
+            boolean largeOffsets = field.typeId == TYPE_LARGE_UTF8 || field.typeId == TYPE_LARGE_BINARY;
+            if (field.typeId == TYPE_UTF8 || field.typeId == TYPE_BINARY || largeOffsets) {
+                values = nextBuffer();
+            }
+            int width = getValueWidth(field);
+            if (width > 0 && (long) width * rowCount > data.length) {
+                throw new IOException("Data buffer of column '" + field.name + "' is truncated");
+            } else if (field.typeId == TYPE_BOOL && (rowCount + 7) / 8 > data.length) {
+                throw new IOException("Data buffer of column '" + field.name + "' is truncated");
+            } else if (values != null && (long) (rowCount + 1) * (largeOffsets ? 8 : 4) > data.length) {
+                throw new IOException("Offsets buffer of column '" + field.name + "' is truncated");
+            }
+            if (hasNulls && (rowCount + 7) / 8 > validity.length) {
+                throw new IOException("Validity buffer of column '" + field.name + "' is truncated");
+            }
+            for (int i = 0; i < rowCount; i++) {
+                if (hasNulls && ((validity[i >> 3] >> (i & 7)) & 1) == 0) {
+                    vector.appendNull();
+                    continue;
+                }
+                switch (field.typeId) {
+                    case TYPE_INT:
+                        vector.appendLong(readInteger(data, i, field.bitWidth, field.signed));
+                        break;
+                    case TYPE_FLOATING_POINT:
+                        if (field.unit == PRECISION_SINGLE) {
+                            vector.appendDouble(Float.intBitsToFloat(readIntLE(data, i * 4)));
+                        } else {
+                            vector.appendDouble(Double.longBitsToDouble(readLongLE(data, i * 8)));
+                        }
+                        break;
+                    case TYPE_BOOL:
+                        vector.appendLong((data[i >> 3] >> (i & 7)) & 1);
+                        break;
+                    case TYPE_DATE:
+                        if (field.unit == DATE_UNIT_DAY) {
+                            vector.appendLong(readIntLE(data, i * 4));
+                        } else {
+                            vector.appendLong(Math.floorDiv(readLongLE(data, i * 8), 86_400_000L));
+                        }
+                        break;
+                    case TYPE_TIMESTAMP:
+                        vector.appendLong(toMicros(readLongLE(data, i * 8), field.unit));
+                        break;
+                    case TYPE_DECIMAL: {
+                        // Little-endian two's complement
+                        int byteWidth = field.bitWidth / 8;
+                        byte[] unscaled = new byte[byteWidth];
+                        for (int b = 0; b < byteWidth; b++) {
+                            unscaled[b] = data[i * byteWidth + byteWidth - 1 - b];
+                        }
+                        BigInteger value = new BigInteger(unscaled);
+                        if (field.decimalAsString) {
+                            vector.appendObject(new BigDecimal(value, field.scale).toPlainString().getBytes(StandardCharsets.UTF_8));
+                        } else {
+                            vector.appendObject(value);
+                        }
+                        break;
+                    }
+                    case TYPE_FIXED_SIZE_BINARY:
+                        vector.appendObject(Arrays.copyOfRange(data, i * field.byteWidth, (i + 1) * field.byteWidth));
+                        break;
+                    default: {
+                        long start = largeOffsets ? readLongLE(data, i * 8) : readIntLE(data, i * 4);
+                        long end = largeOffsets ? readLongLE(data, i * 8 + 8) : readIntLE(data, i * 4 + 4);
+                        if (start < 0 || end < start || end > values.length) {
+                            throw new IOException("Bad value offsets of column '" + field.name + "'");
+                        }
+                        vector.appendObject(Arrays.copyOfRange(values, (int) start, (int) end));
+                        break;
+                    }
+                }
+            }
+        }
+
+        private byte[] nextBuffer() throws IOException {
+            if (nextBuffer >= bufferCount) {
+                throw new IOException("Record batch has not enough buffers");
+            }
+            long offset = batch.getStructLong(2, nextBuffer, STRUCT_SIZE, 0);
+            long length = batch.getStructLong(2, nextBuffer, STRUCT_SIZE, 8);
+            nextBuffer++;
+            if (offset < 0 || length < 0 || offset + length > body.length) {
+                throw new IOException("Bad Arrow buffer bounds");
+            }
+            if (length == 0) {
+                return new byte[0];
+            }
+            if (!compressed) {
+                return Arrays.copyOfRange(body, (int) offset, (int) (offset + length));
+            }
+            // Compressed buffer is prefixed with uncompressed length, -1 means buffer is not compressed
+            if (length < 8) {
+                throw new IOException("Bad compressed Arrow buffer");
+            }
+            long uncompressedLength = readLongLE(body, (int) offset);
+            if (uncompressedLength == -1) {
+                return Arrays.copyOfRange(body, (int) offset + 8, (int) (offset + length));
+            }
+            if (uncompressedLength < 0 || uncompressedLength > Integer.MAX_VALUE - 8) {
+                throw new IOException("Bad compressed Arrow buffer");
+            }
+            return CompressionCodec.LZ4_FRAME.decompress(body, (int) offset + 8, (int) length - 8, (int) uncompressedLength);
+        }
+    }
+
+    private static int getValueWidth(FieldInfo field) {
+        switch (field.typeId) {
+            case TYPE_INT:
+            case TYPE_DECIMAL:
+                return field.bitWidth / 8;
+            case TYPE_FLOATING_POINT:
+                return field.unit == PRECISION_SINGLE ? 4 : 8;
+            case TYPE_DATE:
+                return field.unit == DATE_UNIT_DAY ? 4 : 8;
+            case TYPE_TIMESTAMP:
+                return 8;
+            case TYPE_FIXED_SIZE_BINARY:
+                return field.byteWidth;
+            default:
+                return 0;
+        }
+    }
+
+    private static long readInteger(byte[] data, int index, int bitWidth, boolean signed) {
+        switch (bitWidth) {
+            case 8:
+                return signed ? data[index] : data[index] & 0xFF;
+            case 16: {
+                int value = (data[index * 2] & 0xFF) | (data[index * 2 + 1] & 0xFF) << 8;
+                return signed ? (short) value : value;
+            }
+            case 32: {
+                int value = readIntLE(data, index * 4);
+                return signed ? value : value & 0xFFFFFFFFL;
+            }
+            default:
+                return readLongLE(data, index * 8);
+        }
+    }
+
+    private static long toMicros(long value, short unit) {
+        switch (unit) {
+            case TIME_UNIT_SECOND:
+                return value * 1_000_000L;
+            case TIME_UNIT_MILLISECOND:
+                return value * 1000L;
+            case TIME_UNIT_NANOSECOND:
+                return Math.floorDiv(value, 1000L);
+            default:
+                return value;
+        }
+    }
+
+}
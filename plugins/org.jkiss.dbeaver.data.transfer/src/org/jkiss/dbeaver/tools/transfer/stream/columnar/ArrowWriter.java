@@ -0,0 +1,578 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Apache Arrow IPC file format writer.
+ * Each batch is written as a record batch. String columns with low cardinality in the first batch
+ * are dictionary encoded, new dictionary values of the following batches are written as delta dictionary batches.
+ * Body buffers may be compressed with LZ4 frame codec.
+ */
+public class ArrowWriter implements ColumnarWriter {
+
+    private static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+    private static final short METADATA_VERSION_V5 = 4;
+
+    // Message header types
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_DICTIONARY_BATCH = 2;
+    private static final byte HEADER_RECORD_BATCH = 3;
+
+    // Type union ids
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_BINARY = 4;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DECIMAL = 7;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIMESTAMP = 10;
+
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short DATE_UNIT_DAY = 0;
+    private static final short TIME_UNIT_MICROSECOND = 2;
+    private static final int DECIMAL_BIT_WIDTH = 128;
+    private static final byte COMPRESSION_LZ4_FRAME = 0;
+    private static final byte COMPRESSION_METHOD_BUFFER = 0;
+    private static final int BLOCK_SIZE = 24;
+    private static final int BUFFER_ALIGNMENT = 8;
+
+    @NotNull
+    private final OutputStream out;
+    @NotNull
+    private final List<ColumnDescriptor> columns;
+    @NotNull
+    private final CompressionCodec codec;
+    private final boolean useDictionary;
+
+    private boolean started;
+    private long position;
+    // Dictionary values of dictionary encoded columns (null for plain columns)
+    private final List<Map<ByteBuffer, Integer>> dictionaries = new ArrayList<>();
+    private final List<Block> dictionaryBlocks = new ArrayList<>();
+    private final List<Block> recordBatchBlocks = new ArrayList<>();
+
+    public ArrowWriter(
+        @NotNull OutputStream out,
+        @NotNull List<ColumnDescriptor> columns,
+        @NotNull CompressionCodec codec,
+        boolean useDictionary
+    ) {
+        if (codec != CompressionCodec.NONE && codec != CompressionCodec.LZ4_FRAME) {
+            throw new IllegalArgumentException("Compression " + codec + " is not supported by Arrow writer");
+        }
+        this.out = out;
+        this.columns = new ArrayList<>(columns);
+        this.codec = codec;
+        this.useDictionary = useDictionary;
+    }
+
+    @Override
+    public void writeBatch(@NotNull ColumnVector[] vectors, int rowCount) throws IOException {
+        if (rowCount == 0) {
+            return;
+        }
+        if (!started) {
+            start(vectors, rowCount);
+        }
+        int[][] dictionaryIndexes = new int[columns.size()][];
+        for (int i = 0; i < columns.size(); i++) {
+            if (dictionaries.get(i) != null) {
+                dictionaryIndexes[i] = writeDictionary(i, vectors[i], rowCount);
+            }
+        }
+
+        MessageBody body = new MessageBody();
+        for (int i = 0; i < columns.size(); i++) {
+            if (dictionaryIndexes[i] != null) {
+                addIndexVector(body, vectors[i], dictionaryIndexes[i], rowCount);
+            } else {
+                addVector(body, columns.get(i).getType(), vectors[i], rowCount);
+            }
+        }
+        FlatBufferBuilder fb = new FlatBufferBuilder(1024);
+        int recordBatch = buildRecordBatch(fb, rowCount, body);
+        recordBatchBlocks.add(writeMessage(fb, HEADER_RECORD_BATCH, recordBatch, body));
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!started) {
+            start(null, 0);
+        }
+        // End-of-stream marker
+        ByteOutput eos = new ByteOutput(8);
+        eos.writeIntLE(CONTINUATION_MARKER);
+        eos.writeIntLE(0);
+        write(eos);
+
+        FlatBufferBuilder fb = new FlatBufferBuilder(1024);
+        int schema = buildSchema(fb);
+        int dictionaryBlocksVector = buildBlockVector(fb, dictionaryBlocks);
+        int recordBatchBlocksVector = buildBlockVector(fb, recordBatchBlocks);
+        fb.startTable(5);
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addOffset(1, schema);
+        fb.addOffset(2, dictionaryBlocksVector);
+        fb.addOffset(3, recordBatchBlocksVector);
+        int footer = fb.endTable();
+        fb.finish(footer);
+        byte[] footerBytes = fb.toByteArray();
+
+        ByteOutput tail = new ByteOutput(footerBytes.length + 16);
+        tail.writeBytes(footerBytes);
+        tail.writeIntLE(footerBytes.length);
+        tail.writeBytes(MAGIC);
+        write(tail);
+        out.flush();
+    }
+
+    private void start(ColumnVector[] vectors, int rowCount) throws IOException {
+        started = true;
+        for (int i = 0; i < columns.size(); i++) {
+            boolean dictionaryEncoded = useDictionary && vectors != null &&
+                columns.get(i).getType() == ColumnType.STRING && isLowCardinality(vectors[i], rowCount);
+            dictionaries.add(dictionaryEncoded ? new HashMap<>() : null);
+        }
+        ByteOutput header = new ByteOutput(8);
+        header.writeBytes(MAGIC);
+        header.align(BUFFER_ALIGNMENT);
+        write(header);
+
+        FlatBufferBuilder fb = new FlatBufferBuilder(1024);
+        int schema = buildSchema(fb);
+        writeMessage(fb, HEADER_SCHEMA, schema, new MessageBody());
+    }
+
+    private static boolean isLowCardinality(ColumnVector vector, int rowCount) {
+        int valueCount = rowCount - vector.getNullCount();
+        if (valueCount < 2) {
+            return false;
+        }
+        Map<ByteBuffer, Boolean> values = new HashMap<>();
+        for (int i = 0; i < rowCount; i++) {
+            if (!vector.isNull(i) && values.put(ByteBuffer.wrap((byte[]) vector.getObject(i)), Boolean.TRUE) == null &&
+                values.size() > valueCount / 2)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds new values of the batch to the column dictionary and writes them as dictionary batch.
+     *
+     * @return dictionary indexes of batch values
+     */
+    private int[] writeDictionary(int columnIndex, ColumnVector vector, int rowCount) throws IOException {
+        Map<ByteBuffer, Integer> dictionary = dictionaries.get(columnIndex);
+        boolean delta = !dictionary.isEmpty();
+        int[] indexes = new int[rowCount];
+        List<byte[]> newValues = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            if (vector.isNull(i)) {
+                continue;
+            }
+            byte[] value = (byte[]) vector.getObject(i);
+            Integer index = dictionary.get(ByteBuffer.wrap(value));
+            if (index == null) {
+                index = dictionary.size();
+                dictionary.put(ByteBuffer.wrap(value), index);
+                newValues.add(value);
+            }
+            indexes[i] = index;
+        }
+        if (newValues.isEmpty() && delta) {
+            return indexes;
+        }
+
+        ColumnVector dictionaryVector = new ColumnVector(ColumnType.STRING, newValues.size());
+        for (byte[] value : newValues) {
+            dictionaryVector.appendObject(value);
+        }
+        MessageBody body = new MessageBody();
+        addVector(body, ColumnType.STRING, dictionaryVector, newValues.size());
+
+        FlatBufferBuilder fb = new FlatBufferBuilder(512);
+        int recordBatch = buildRecordBatch(fb, newValues.size(), body);
+        fb.startTable(3);
+        fb.addLong(0, columnIndex);
+        fb.addOffset(1, recordBatch);
+        fb.addBoolean(2, delta);
+        int dictionaryBatch = fb.endTable();
+        dictionaryBlocks.add(writeMessage(fb, HEADER_DICTIONARY_BATCH, dictionaryBatch, body));
+        return indexes;
+    }
+
+    ///////////////////////////////////////////////////////////////
+    // Body buffers
+
+    private void addVector(MessageBody body, ColumnType type, ColumnVector vector, int rowCount) throws IOException {
+        body.addNode(rowCount, vector.getNullCount());
+        addValidity(body, vector, rowCount);
+        switch (type) {
+            case BOOLEAN: {
+                byte[] bits = new byte[(rowCount + 7) / 8];
+                for (int i = 0; i < rowCount; i++) {
+                    if (!vector.isNull(i) && vector.getLong(i) != 0) {
+                        bits[i >> 3] |= (byte) (1 << (i & 7));
+                    }
+                }
+                body.addBuffer(bits, bits.length);
+                break;
+            }
+            case INT32:
+            case DATE: {
+                ByteOutput data = new ByteOutput(rowCount * 4);
+                for (int i = 0; i < rowCount; i++) {
+                    data.writeIntLE(vector.isNull(i) ? 0 : (int) vector.getLong(i));
+                }
+                body.addBuffer(data.array(), data.size());
+                break;
+            }
+            case INT64:
+            case TIMESTAMP:
+            case TIMESTAMP_TZ: {
+                ByteOutput data = new ByteOutput(rowCount * 8);
+                for (int i = 0; i < rowCount; i++) {
+                    data.writeLongLE(vector.isNull(i) ? 0 : vector.getLong(i));
+                }
+                body.addBuffer(data.array(), data.size());
+                break;
+            }
+            case DOUBLE: {
+                ByteOutput data = new ByteOutput(rowCount * 8);
+                for (int i = 0; i < rowCount; i++) {
+                    data.writeLongLE(vector.isNull(i) ? 0 : Double.doubleToLongBits(vector.getDouble(i)));
+                }
+                body.addBuffer(data.array(), data.size());
+                break;
+            }
+            case DECIMAL: {
+                ByteOutput data = new ByteOutput(rowCount * 16);
+                for (int i = 0; i < rowCount; i++) {
+                    writeDecimal128(data, vector.isNull(i) ? BigInteger.ZERO : (BigInteger) vector.getObject(i));
+                }
+                body.addBuffer(data.array(), data.size());
+                break;
+            }
+            default: {
+                ByteOutput offsets = new ByteOutput((rowCount + 1) * 4);
+                ByteOutput data = new ByteOutput(rowCount * 16);
+                offsets.writeIntLE(0);
+                for (int i = 0; i < rowCount; i++) {
+                    if (!vector.isNull(i)) {
+                        data.writeBytes((byte[]) vector.getObject(i));
+                    }
+                    offsets.writeIntLE(data.size());
+                }
+                body.addBuffer(offsets.array(), offsets.size());
+                body.addBuffer(data.array(), data.size());
+                break;
+            }
+        }
+    }
+
+    private void addIndexVector(MessageBody body, ColumnVector vector, int[] indexes, int rowCount) throws IOException {
+        body.addNode(rowCount, vector.getNullCount());
+        addValidity(body, vector, rowCount);
+        ByteOutput data = new ByteOutput(rowCount * 4);
+        for (int i = 0; i < rowCount; i++) {
+            data.writeIntLE(indexes[i]);
+        }
+        body.addBuffer(data.array(), data.size());
+    }
+
+    private static void addValidity(MessageBody body, ColumnVector vector, int rowCount) throws IOException {
+        if (vector.getNullCount() == 0) {
+            // Validity bitmap may be omitted if there are no nulls
+            body.addBuffer(new byte[0], 0);
+            return;
+        }
+        byte[] bits = new byte[(rowCount + 7) / 8];
+        for (int i = 0; i < rowCount; i++) {
+            if (!vector.isNull(i)) {
+                bits[i >> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        body.addBuffer(bits, bits.length);
+    }
+
+    private static void writeDecimal128(ByteOutput data, BigInteger value) {
+        // Little-endian two's complement
+        byte[] bytes = value.toByteArray();
+        byte signByte = (byte) (value.signum() < 0 ? 0xFF : 0);
+        for (int i = 0; i < 16; i++) {
+            int index = bytes.length - 1 - i;
+            data.writeByte(index >= 0 ? bytes[index] : signByte);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////
+    // Metadata
+
+    private int buildSchema(FlatBufferBuilder fb) {
+        int[] fields = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            fields[i] = buildField(fb, i, columns.get(i));
+        }
+        int fieldsVector = fb.createOffsetVector(fields);
+        fb.startTable(2);
+        fb.addShort(0, 0);
+        fb.addOffset(1, fieldsVector);
+        return fb.endTable();
+    }
+
+    private int buildField(FlatBufferBuilder fb, int index, ColumnDescriptor column) {
+        int name = fb.createString(column.getName());
+        int type = buildType(fb, column);
+        int dictionary = 0;
+        if (dictionaries.get(index) != null) {
+            int indexType = buildIntType(fb, 32);
+            fb.startTable(3);
+            fb.addLong(0, index);
+            fb.addOffset(1, indexType);
+            fb.addBoolean(2, false);
+            dictionary = fb.endTable();
+        }
+        int children = fb.createOffsetVector(new int[0]);
+        fb.startTable(6);
+        fb.addOffset(0, name);
+        fb.addBoolean(1, true);
+        fb.addByte(2, getTypeId(column.getType()));
+        fb.addOffset(3, type);
+        if (dictionary != 0) {
+            fb.addOffset(4, dictionary);
+        }
+        fb.addOffset(5, children);
+        return fb.endTable();
+    }
+
+    private static int buildType(FlatBufferBuilder fb, ColumnDescriptor column) {
+        switch (column.getType()) {
+            case INT32:
+                return buildIntType(fb, 32);
+            case INT64:
+                return buildIntType(fb, 64);
+            case DOUBLE:
+                fb.startTable(1);
+                fb.addShort(0, PRECISION_DOUBLE);
+                return fb.endTable();
+            case DECIMAL:
+                fb.startTable(3);
+                fb.addInt(0, column.getPrecision());
+                fb.addInt(1, column.getScale());
+                fb.addInt(2, DECIMAL_BIT_WIDTH);
+                return fb.endTable();
+            case DATE:
+                fb.startTable(1);
+                fb.addShort(0, DATE_UNIT_DAY);
+                return fb.endTable();
+            case TIMESTAMP:
+            case TIMESTAMP_TZ: {
+                // Timestamp without time zone is a local date-time
+                int timezone = column.getType() == ColumnType.TIMESTAMP_TZ ? fb.createString("UTC") : 0;
+                fb.startTable(2);
+                fb.addShort(0, TIME_UNIT_MICROSECOND);
+                if (timezone != 0) {
+                    fb.addOffset(1, timezone);
+                }
+                return fb.endTable();
+            }
+            default:
+                // Bool, Utf8 and Binary types have no properties
+                fb.startTable(0);
+                return fb.endTable();
+        }
+    }
+
+    private static int buildIntType(FlatBufferBuilder fb, int bitWidth) {
+        fb.startTable(2);
+        fb.addInt(0, bitWidth);
+        fb.addBoolean(1, true);
+        return fb.endTable();
+    }
+
+    private static byte getTypeId(ColumnType type) {
+        switch (type) {
+            case BOOLEAN:
+                return TYPE_BOOL;
+            case INT32:
+            case INT64:
+                return TYPE_INT;
+            case DOUBLE:
+                return TYPE_FLOATING_POINT;
+            case DECIMAL:
+                return TYPE_DECIMAL;
+            case DATE:
+                return TYPE_DATE;
+            case TIMESTAMP:
+            case TIMESTAMP_TZ:
+                return TYPE_TIMESTAMP;
+            case STRING:
+                return TYPE_UTF8;
+            default:
+                return TYPE_BINARY;
+        }
+    }
+
+    private int buildRecordBatch(FlatBufferBuilder fb, int rowCount, MessageBody body) {
+        // Struct vectors: FieldNode {length, null_count}, Buffer {offset, length}
+        fb.startVector(16, body.nodes.size() / 2, 8);
+        for (int i = body.nodes.size() - 2; i >= 0; i -= 2) {
+            fb.prep(8, 16);
+            fb.putLong(body.nodes.get(i + 1));
+            fb.putLong(body.nodes.get(i));
+        }
+        int nodes = fb.endVector();
+        fb.startVector(16, body.buffers.size() / 2, 8);
+        for (int i = body.buffers.size() - 2; i >= 0; i -= 2) {
+            fb.prep(8, 16);
+            fb.putLong(body.buffers.get(i + 1));
+            fb.putLong(body.buffers.get(i));
+        }
+        int buffers = fb.endVector();
+        int compression = 0;
+        if (codec == CompressionCodec.LZ4_FRAME) {
+            fb.startTable(2);
+            fb.addByte(0, COMPRESSION_LZ4_FRAME);
+            fb.addByte(1, COMPRESSION_METHOD_BUFFER);
+            compression = fb.endTable();
+        }
+        fb.startTable(4);
+        fb.addLong(0, rowCount);
+        fb.addOffset(1, nodes);
+        fb.addOffset(2, buffers);
+        if (compression != 0) {
+            fb.addOffset(3, compression);
+        }
+        return fb.endTable();
+    }
+
+    private static int buildBlockVector(FlatBufferBuilder fb, List<Block> blocks) {
+        fb.startVector(BLOCK_SIZE, blocks.size(), 8);
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            Block block = blocks.get(i);
+            fb.prep(8, BLOCK_SIZE);
+            fb.putLong(block.bodyLength);
+            fb.pad(4);
+            fb.putInt(block.metadataLength);
+            fb.putLong(block.offset);
+        }
+        return fb.endVector();
+    }
+
+    /**
+     * Writes encapsulated message: continuation marker, metadata length, metadata flatbuffer and body.
+     */
+    private Block writeMessage(FlatBufferBuilder fb, byte headerType, int header, MessageBody body) throws IOException {
+        fb.startTable(4);
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addByte(1, headerType);
+        fb.addOffset(2, header);
+        fb.addLong(3, body.data.size());
+        int message = fb.endTable();
+        fb.finish(message);
+        byte[] metadata = fb.toByteArray();
+
+        ByteOutput prefix = new ByteOutput(metadata.length + 16);
+        prefix.writeIntLE(CONTINUATION_MARKER);
+        prefix.writeIntLE(0);
+        prefix.writeBytes(metadata);
+        prefix.align(BUFFER_ALIGNMENT);
+        int metadataLength = prefix.size();
+        byte[] prefixBytes = prefix.array();
+        int paddedLength = metadataLength - 8;
+        prefixBytes[4] = (byte) paddedLength;
+        prefixBytes[5] = (byte) (paddedLength >>> 8);
+        prefixBytes[6] = (byte) (paddedLength >>> 16);
+        prefixBytes[7] = (byte) (paddedLength >>> 24);
+
+        Block block = new Block(position, metadataLength, body.data.size());
+        write(prefix);
+        write(body.data);
+        return block;
+    }
+
+    private void write(ByteOutput data) throws IOException {
+        data.writeTo(out);
+        position += data.size();
+    }
+
+    private static class Block {
+        final long offset;
+        final int metadataLength;
+        final long bodyLength;
+
+        Block(long offset, int metadataLength, long bodyLength) {
+            this.offset = offset;
+            this.metadataLength = metadataLength;
+            this.bodyLength = bodyLength;
+        }
+    }
+
+    /**
+     * Record batch body with field nodes and buffer locations
+     */
+    private class MessageBody {
+        final ByteOutput data = new ByteOutput(4096);
+        // Pairs of (length, null count)
+        final List<Long> nodes = new ArrayList<>();
+        // Pairs of (offset, length)
+        final List<Long> buffers = new ArrayList<>();
+
+        void addNode(long length, long nullCount) {
+            nodes.add(length);
+            nodes.add(nullCount);
+        }
+
+        void addBuffer(byte[] buffer, int length) throws IOException {
+            int offset = data.size();
+            if (length > 0 && codec != CompressionCodec.NONE) {
+                byte[] compressed = codec.compress(buffer, 0, length);
+                if (compressed.length < length) {
+                    data.writeLongLE(length);
+                    data.writeBytes(compressed);
+                } else {
+                    // Length -1 marks uncompressed buffer
+                    data.writeLongLE(-1);
+                    data.writeBytes(buffer, 0, length);
+                }
+            } else {
+                data.writeBytes(buffer, 0, length);
+            }
+            buffers.add((long) offset);
+            buffers.add((long) (data.size() - offset));
+            data.align(BUFFER_ALIGNMENT);
+        }
+    }
+
+}
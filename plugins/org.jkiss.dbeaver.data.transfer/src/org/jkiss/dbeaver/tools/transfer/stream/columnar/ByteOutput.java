@@ -0,0 +1,152 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable little-endian byte buffer.
+ * Unlike ByteArrayOutputStream it is not synchronized and gives access to the internal array.
+ */
+final class ByteOutput {
+
+    private byte[] buffer;
+    private int size;
+
+    ByteOutput() {
+        this(1024);
+    }
+
+    ByteOutput(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Internal array. Only first {@link #size()} bytes are valid.
+     */
+    @NotNull
+    byte[] array() {
+        return buffer;
+    }
+
+    @NotNull
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    void writeBytes(@NotNull byte[] bytes) {
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    void writeBytes(@NotNull byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    void writeShortLE(int value) {
+        ensureCapacity(2);
+        buffer[size++] = (byte) value;
+        buffer[size++] = (byte) (value >>> 8);
+    }
+
+    void writeIntLE(int value) {
+        ensureCapacity(4);
+        buffer[size++] = (byte) value;
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) (value >>> 16);
+        buffer[size++] = (byte) (value >>> 24);
+    }
+
+    void writeLongLE(long value) {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[size++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    /**
+     * Writes unsigned LEB128 varint
+     */
+    void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /**
+     * Appends {@code length} bytes starting from {@code fromPosition} of this buffer. Ranges may overlap.
+     */
+    void copyWithin(int fromPosition, int length) {
+        ensureCapacity(length);
+        if (fromPosition + length <= size) {
+            System.arraycopy(buffer, fromPosition, buffer, size, length);
+            size += length;
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer[size++] = buffer[fromPosition + i];
+            }
+        }
+    }
+
+    void writeZeros(int count) {
+        ensureCapacity(count);
+        Arrays.fill(buffer, size, size + count, (byte) 0);
+        size += count;
+    }
+
+    /**
+     * Pads buffer with zeros to make its size multiple of alignment
+     */
+    void align(int alignment) {
+        int remainder = size % alignment;
+        if (remainder != 0) {
+            writeZeros(alignment - remainder);
+        }
+    }
+
+    void writeTo(@NotNull OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            int newCapacity = Math.max(buffer.length * 2, size + extra);
+            buffer = Arrays.copyOf(buffer, newCapacity);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+/**
+ * Columnar file column
+ */
+public final class ColumnDescriptor {
+
+    public static final int MAX_DECIMAL_PRECISION = 38;
+
+    @NotNull
+    private final String name;
+    @NotNull
+    private final ColumnType type;
+    private final int precision;
+    private final int scale;
+
+    public ColumnDescriptor(@NotNull String name, @NotNull ColumnType type) {
+        this(name, type, 0, 0);
+    }
+
+    public ColumnDescriptor(@NotNull String name, @NotNull ColumnType type, int precision, int scale) {
+        if (type == ColumnType.DECIMAL && (precision < 1 || precision > MAX_DECIMAL_PRECISION || scale < 0 || scale > precision)) {
+            throw new IllegalArgumentException("Bad decimal column '" + name + "' precision/scale: " + precision + "/" + scale);
+        }
+        this.name = name;
+        this.type = type;
+        this.precision = precision;
+        this.scale = scale;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public ColumnType getType() {
+        return type;
+    }
+
+    /**
+     * Decimal precision
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Decimal scale
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + type + (type == ColumnType.DECIMAL ? "(" + precision + "," + scale + ")" : "");
+    }
+
+}
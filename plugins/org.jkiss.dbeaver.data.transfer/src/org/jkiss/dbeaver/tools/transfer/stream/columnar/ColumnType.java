@@ -0,0 +1,49 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+/**
+ * Logical type of columnar file column.
+ * Each type defines how values are kept in {@link ColumnVector}.
+ */
+public enum ColumnType {
+    /** Stored as long: 1 or 0 */
+    BOOLEAN,
+    /** Stored as long */
+    INT32,
+    /** Stored as long */
+    INT64,
+    /** Stored as double */
+    DOUBLE,
+    /** Stored as {@link java.math.BigInteger} unscaled value */
+    DECIMAL,
+    /** Stored as long: days since epoch */
+    DATE,
+    /** Stored as long: microseconds since epoch of local date-time (without time zone) */
+    TIMESTAMP,
+    /** Stored as long: microseconds since epoch in UTC */
+    TIMESTAMP_TZ,
+    /** Stored as UTF-8 encoded byte array */
+    STRING,
+    /** Stored as byte array */
+    BINARY;
+
+    public boolean isObjectValue() {
+        return this == DECIMAL || this == STRING || this == BINARY;
+    }
+
+}
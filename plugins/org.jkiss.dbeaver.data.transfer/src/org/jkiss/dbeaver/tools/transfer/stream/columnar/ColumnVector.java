@@ -0,0 +1,143 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Values of a single column for a batch of rows.
+ * Primitive values are kept in primitive arrays to avoid boxing.
+ */
+public final class ColumnVector {
+
+    @NotNull
+    private final ColumnType type;
+    private boolean[] nulls;
+    private long[] longs;
+    private double[] doubles;
+    private Object[] objects;
+    private int size;
+    private int nullCount;
+
+    public ColumnVector(@NotNull ColumnType type, int capacity) {
+        this.type = type;
+        capacity = Math.max(capacity, 16);
+        this.nulls = new boolean[capacity];
+        if (type == ColumnType.DOUBLE) {
+            doubles = new double[capacity];
+        } else if (type.isObjectValue()) {
+            objects = new Object[capacity];
+        } else {
+            longs = new long[capacity];
+        }
+    }
+
+    @NotNull
+    public ColumnType getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    public boolean isNull(int index) {
+        return nulls[index];
+    }
+
+    public long getLong(int index) {
+        return longs[index];
+    }
+
+    public double getDouble(int index) {
+        return doubles[index];
+    }
+
+    public Object getObject(int index) {
+        return objects[index];
+    }
+
+    public void appendNull() {
+        ensureCapacity();
+        nulls[size++] = true;
+        nullCount++;
+    }
+
+    public void appendLong(long value) {
+        ensureCapacity();
+        longs[size++] = value;
+    }
+
+    public void appendDouble(double value) {
+        ensureCapacity();
+        doubles[size++] = value;
+    }
+
+    public void appendObject(@NotNull Object value) {
+        ensureCapacity();
+        objects[size++] = value;
+    }
+
+    /**
+     * Appends value of another vector of the same type
+     */
+    public void appendFrom(@NotNull ColumnVector source, int index) {
+        if (source.isNull(index)) {
+            appendNull();
+        } else if (longs != null) {
+            appendLong(source.getLong(index));
+        } else if (doubles != null) {
+            appendDouble(source.getDouble(index));
+        } else {
+            appendObject(source.getObject(index));
+        }
+    }
+
+    /**
+     * Clears values. Allocated arrays are reused.
+     */
+    public void reset() {
+        Arrays.fill(nulls, 0, size, false);
+        if (objects != null) {
+            Arrays.fill(objects, 0, size, null);
+        }
+        size = 0;
+        nullCount = 0;
+    }
+
+    private void ensureCapacity() {
+        if (size < nulls.length) {
+            return;
+        }
+        int newCapacity = nulls.length * 2;
+        nulls = Arrays.copyOf(nulls, newCapacity);
+        if (longs != null) {
+            longs = Arrays.copyOf(longs, newCapacity);
+        } else if (doubles != null) {
+            doubles = Arrays.copyOf(doubles, newCapacity);
+        } else {
+            objects = Arrays.copyOf(objects, newCapacity);
+        }
+    }
+
+}
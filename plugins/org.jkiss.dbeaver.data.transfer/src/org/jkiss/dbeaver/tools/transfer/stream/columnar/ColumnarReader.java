@@ -0,0 +1,41 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Columnar file reader.
+ * Rows are read in batches. Each row group (record batch) of the file is a separate batch.
+ */
+public interface ColumnarReader extends Closeable {
+
+    @NotNull
+    List<ColumnDescriptor> getColumns();
+
+    /**
+     * Reads next batch of rows. Values are appended to vectors which must follow the order of reader columns.
+     *
+     * @return number of read rows or 0 if there are no more rows
+     */
+    int readBatch(@NotNull ColumnVector[] columns) throws IOException;
+
+}
@@ -0,0 +1,39 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Columnar file writer.
+ * Rows are written in batches. Each batch becomes a separate row group (record batch).
+ */
+public interface ColumnarWriter {
+
+    /**
+     * Writes batch of rows. Vectors must follow the order of writer columns.
+     */
+    void writeBatch(@NotNull ColumnVector[] columns, int rowCount) throws IOException;
+
+    /**
+     * Writes file footer. Output stream is not closed.
+     */
+    void finish() throws IOException;
+
+}
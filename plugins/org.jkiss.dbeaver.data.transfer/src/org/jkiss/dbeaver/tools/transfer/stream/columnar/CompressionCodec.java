@@ -0,0 +1,96 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression codecs of columnar formats.
+ * Implemented in pure Java. Parquet supports SNAPPY and GZIP, Arrow IPC supports LZ4_FRAME.
+ */
+public enum CompressionCodec {
+    NONE,
+    SNAPPY,
+    GZIP,
+    LZ4_FRAME;
+
+    @NotNull
+    public byte[] compress(@NotNull byte[] data, int offset, int length) throws IOException {
+        switch (this) {
+            case SNAPPY:
+                return SnappyCodec.compress(data, offset, length);
+            case GZIP: {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(length / 2 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, 64 * 1024)) {
+                    gzip.write(data, offset, length);
+                }
+                return buffer.toByteArray();
+            }
+            case LZ4_FRAME:
+                return LZ4FrameCodec.compress(data, offset, length);
+            default:
+                return Arrays.copyOfRange(data, offset, offset + length);
+        }
+    }
+
+    /**
+     * Decompresses data
+     *
+     * @param uncompressedLength uncompressed length if it is known, otherwise -1
+     */
+    @NotNull
+    public byte[] decompress(@NotNull byte[] data, int offset, int length, int uncompressedLength) throws IOException {
+        switch (this) {
+            case SNAPPY:
+                return SnappyCodec.decompress(data, offset, length);
+            case GZIP:
+                try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data, offset, length), 64 * 1024)) {
+                    return gzip.readAllBytes();
+                }
+            case LZ4_FRAME:
+                return LZ4FrameCodec.decompress(data, offset, length, uncompressedLength);
+            default:
+                return Arrays.copyOfRange(data, offset, offset + length);
+        }
+    }
+
+    /**
+     * Parses codec name (case-insensitive). Empty name means no compression.
+     */
+    @NotNull
+    public static CompressionCodec fromName(@Nullable String name) {
+        if (name == null || name.isBlank()) {
+            return NONE;
+        }
+        String codecName = name.trim().toUpperCase(Locale.ENGLISH);
+        if (codecName.equals("LZ4")) {
+            return LZ4_FRAME;
+        }
+        return valueOf(codecName);
+    }
+
+}
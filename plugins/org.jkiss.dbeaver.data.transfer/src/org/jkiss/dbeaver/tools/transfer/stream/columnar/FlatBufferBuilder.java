@@ -0,0 +1,233 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal FlatBuffers builder. Used to write Arrow IPC metadata.
+ * Buffer is built back to front: children objects must be created before the tables which refer them.
+ * Table fields are always written (even if equal to schema defaults), vtables are not shared.
+ */
+final class FlatBufferBuilder {
+
+    private byte[] buffer;
+    // Position of the first used byte
+    private int space;
+    private int minAlign = 1;
+    private int[] vtable = new int[16];
+    private int vtableInUse;
+    private int objectStart;
+    private int vectorElements;
+
+    FlatBufferBuilder(int initialSize) {
+        buffer = new byte[Math.max(initialSize, 64)];
+        space = buffer.length;
+    }
+
+    /**
+     * Offset of the last written object from the end of the buffer
+     */
+    int offset() {
+        return buffer.length - space;
+    }
+
+    void finish(int rootTable) {
+        prep(minAlign, 4);
+        addOffset(rootTable);
+    }
+
+    @NotNull
+    byte[] toByteArray() {
+        return Arrays.copyOfRange(buffer, space, buffer.length);
+    }
+
+    /**
+     * Aligns buffer so that after writing {@code additionalBytes} the next {@code size} bytes are aligned by size
+     */
+    void prep(int size, int additionalBytes) {
+        if (size > minAlign) {
+            minAlign = size;
+        }
+        int alignSize = (~(buffer.length - space + additionalBytes) + 1) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            grow();
+        }
+        pad(alignSize);
+    }
+
+    void pad(int count) {
+        for (int i = 0; i < count; i++) {
+            buffer[--space] = 0;
+        }
+    }
+
+    void putByte(int value) {
+        buffer[--space] = (byte) value;
+    }
+
+    void putShort(int value) {
+        space -= 2;
+        buffer[space] = (byte) value;
+        buffer[space + 1] = (byte) (value >>> 8);
+    }
+
+    void putInt(int value) {
+        space -= 4;
+        writeIntAt(space, value);
+    }
+
+    void putLong(long value) {
+        space -= 8;
+        for (int i = 0; i < 8; i++) {
+            buffer[space + i] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    void addByte(int value) {
+        prep(1, 0);
+        putByte(value);
+    }
+
+    void addShort(int value) {
+        prep(2, 0);
+        putShort(value);
+    }
+
+    void addInt(int value) {
+        prep(4, 0);
+        putInt(value);
+    }
+
+    void addLong(long value) {
+        prep(8, 0);
+        putLong(value);
+    }
+
+    /**
+     * Adds reference to already written object
+     */
+    void addOffset(int objectOffset) {
+        prep(4, 0);
+        putInt(offset() - objectOffset + 4);
+    }
+
+    void startVector(int elementSize, int elementCount, int alignment) {
+        vectorElements = elementCount;
+        prep(4, elementSize * elementCount);
+        prep(alignment, elementSize * elementCount);
+    }
+
+    int endVector() {
+        putInt(vectorElements);
+        return offset();
+    }
+
+    int createString(@NotNull String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        addByte(0);
+        startVector(1, bytes.length, 1);
+        space -= bytes.length;
+        System.arraycopy(bytes, 0, buffer, space, bytes.length);
+        return endVector();
+    }
+
+    int createOffsetVector(@NotNull int[] offsets) {
+        startVector(4, offsets.length, 4);
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            addOffset(offsets[i]);
+        }
+        return endVector();
+    }
+
+    void startTable(int fieldCount) {
+        if (vtable.length < fieldCount) {
+            vtable = new int[fieldCount];
+        }
+        Arrays.fill(vtable, 0, fieldCount, 0);
+        vtableInUse = fieldCount;
+        objectStart = offset();
+    }
+
+    void addBoolean(int slot, boolean value) {
+        addByte(value ? 1 : 0);
+        vtable[slot] = offset();
+    }
+
+    void addByte(int slot, int value) {
+        addByte(value);
+        vtable[slot] = offset();
+    }
+
+    void addShort(int slot, int value) {
+        addShort(value);
+        vtable[slot] = offset();
+    }
+
+    void addInt(int slot, int value) {
+        addInt(value);
+        vtable[slot] = offset();
+    }
+
+    void addLong(int slot, long value) {
+        addLong(value);
+        vtable[slot] = offset();
+    }
+
+    void addOffset(int slot, int objectOffset) {
+        addOffset(objectOffset);
+        vtable[slot] = offset();
+    }
+
+    int endTable() {
+        // Placeholder for vtable offset
+        addInt(0);
+        int tableOffset = offset();
+        int lastField = vtableInUse - 1;
+        while (lastField >= 0 && vtable[lastField] == 0) {
+            lastField--;
+        }
+        for (int i = lastField; i >= 0; i--) {
+            addShort(vtable[i] != 0 ? tableOffset - vtable[i] : 0);
+        }
+        addShort(tableOffset - objectStart);
+        addShort((lastField + 1 + 2) * 2);
+        // Table refers vtable which is placed right before it
+        writeIntAt(buffer.length - tableOffset, offset() - tableOffset);
+        vtableInUse = 0;
+        return tableOffset;
+    }
+
+    private void writeIntAt(int index, int value) {
+        buffer[index] = (byte) value;
+        buffer[index + 1] = (byte) (value >>> 8);
+        buffer[index + 2] = (byte) (value >>> 16);
+        buffer[index + 3] = (byte) (value >>> 24);
+    }
+
+    private void grow() {
+        int oldSize = buffer.length;
+        byte[] newBuffer = new byte[oldSize * 2];
+        System.arraycopy(buffer, space, newBuffer, oldSize * 2 - (oldSize - space), oldSize - space);
+        space += oldSize;
+        buffer = newBuffer;
+    }
+
+}
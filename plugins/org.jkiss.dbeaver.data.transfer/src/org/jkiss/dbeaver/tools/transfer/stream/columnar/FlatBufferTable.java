@@ -0,0 +1,157 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal FlatBuffers table accessor. Used to read Arrow IPC metadata.
+ * Fields are addressed by slot (field index in schema). Absent fields return defaults.
+ */
+final class FlatBufferTable {
+
+    @NotNull
+    private final ByteBuffer buffer;
+    private final int position;
+    private final int vtable;
+    private final int vtableSize;
+
+    private FlatBufferTable(@NotNull ByteBuffer buffer, int position) throws IOException {
+        this.buffer = buffer;
+        this.position = position;
+        checkPosition(position, 4);
+        this.vtable = position - buffer.getInt(position);
+        checkPosition(vtable, 4);
+        this.vtableSize = buffer.getShort(vtable) & 0xFFFF;
+        checkPosition(vtable, vtableSize);
+    }
+
+    @NotNull
+    static FlatBufferTable getRoot(@NotNull byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.length < 4) {
+            throw new IOException("FlatBuffer is too short");
+        }
+        return new FlatBufferTable(buffer, buffer.getInt(0));
+    }
+
+    boolean has(int slot) {
+        return fieldOffset(slot) != 0;
+    }
+
+    byte getByte(int slot, byte defaultValue) throws IOException {
+        int offset = fieldPosition(slot, 1);
+        return offset == 0 ? defaultValue : buffer.get(offset);
+    }
+
+    boolean getBoolean(int slot, boolean defaultValue) throws IOException {
+        int offset = fieldPosition(slot, 1);
+        return offset == 0 ? defaultValue : buffer.get(offset) != 0;
+    }
+
+    short getShort(int slot, short defaultValue) throws IOException {
+        int offset = fieldPosition(slot, 2);
+        return offset == 0 ? defaultValue : buffer.getShort(offset);
+    }
+
+    int getInt(int slot, int defaultValue) throws IOException {
+        int offset = fieldPosition(slot, 4);
+        return offset == 0 ? defaultValue : buffer.getInt(offset);
+    }
+
+    long getLong(int slot, long defaultValue) throws IOException {
+        int offset = fieldPosition(slot, 8);
+        return offset == 0 ? defaultValue : buffer.getLong(offset);
+    }
+
+    @Nullable
+    FlatBufferTable getTable(int slot) throws IOException {
+        int offset = fieldPosition(slot, 4);
+        return offset == 0 ? null : new FlatBufferTable(buffer, offset + buffer.getInt(offset));
+    }
+
+    @Nullable
+    String getString(int slot) throws IOException {
+        int offset = fieldPosition(slot, 4);
+        if (offset == 0) {
+            return null;
+        }
+        int start = offset + buffer.getInt(offset);
+        checkPosition(start, 4);
+        int length = buffer.getInt(start);
+        checkPosition(start + 4, length);
+        return new String(buffer.array(), start + 4, length, StandardCharsets.UTF_8);
+    }
+
+    int getVectorLength(int slot) throws IOException {
+        int start = vectorStart(slot);
+        return start == 0 ? 0 : buffer.getInt(start - 4);
+    }
+
+    @NotNull
+    FlatBufferTable getTableElement(int slot, int index) throws IOException {
+        int element = vectorStart(slot) + index * 4;
+        checkPosition(element, 4);
+        return new FlatBufferTable(buffer, element + buffer.getInt(element));
+    }
+
+    /**
+     * Reads long field of struct element of vector
+     */
+    long getStructLong(int slot, int index, int structSize, int fieldOffset) throws IOException {
+        int position = vectorStart(slot) + index * structSize + fieldOffset;
+        checkPosition(position, 8);
+        return buffer.getLong(position);
+    }
+
+    private int vectorStart(int slot) throws IOException {
+        int offset = fieldPosition(slot, 4);
+        if (offset == 0) {
+            return 0;
+        }
+        int start = offset + buffer.getInt(offset);
+        checkPosition(start, 4);
+        return start + 4;
+    }
+
+    private int fieldOffset(int slot) {
+        int vtableOffset = 4 + slot * 2;
+        return vtableOffset < vtableSize ? buffer.getShort(vtable + vtableOffset) & 0xFFFF : 0;
+    }
+
+    private int fieldPosition(int slot, int size) throws IOException {
+        int offset = fieldOffset(slot);
+        if (offset == 0) {
+            return 0;
+        }
+        checkPosition(position + offset, size);
+        return position + offset;
+    }
+
+    private void checkPosition(int position, int size) throws IOException {
+        if (position < 0 || size < 0 || position > buffer.limit() - size) {
+            throw new IOException("Corrupted FlatBuffer data");
+        }
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * LZ4 frame format codec.
+ * Compressed frame consists of independent blocks compressed by greedy single-pass matcher.
+ * Block and content checksums are not written on compression and not verified on decompression.
+ */
+final class LZ4FrameCodec {
+
+    private static final int FRAME_MAGIC = 0x184D2204;
+    // Version 01, independent blocks
+    private static final int FRAME_FLAGS = 0x60;
+    // Max block size 4Mb
+    private static final int FRAME_BLOCK_DESCRIPTOR = 0x70;
+    private static final int MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+    private static final int UNCOMPRESSED_BLOCK_FLAG = 0x80000000;
+    private static final int FLAG_BLOCK_CHECKSUM = 0x10;
+    private static final int FLAG_CONTENT_SIZE = 0x08;
+    private static final int FLAG_CONTENT_CHECKSUM = 0x04;
+    private static final int FLAG_DICTIONARY_ID = 0x01;
+
+    private static final int HASH_BITS = 12;
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 0xFFFF;
+    // Last match must start at least 12 bytes before the end of block
+    private static final int MATCH_FIND_LIMIT = 12;
+    // Last 5 bytes are always literals
+    private static final int LAST_LITERALS = 5;
+
+    private static final int XXH_PRIME1 = 0x9E3779B1;
+    private static final int XXH_PRIME2 = 0x85EBCA77;
+    private static final int XXH_PRIME3 = 0xC2B2AE3D;
+    private static final int XXH_PRIME4 = 0x27D4EB2F;
+    private static final int XXH_PRIME5 = 0x165667B1;
+
+    private LZ4FrameCodec() {
+    }
+
+    @NotNull
+    static byte[] compress(@NotNull byte[] src, int offset, int length) {
+        ByteOutput out = new ByteOutput(length + length / 255 + 64);
+        out.writeIntLE(FRAME_MAGIC);
+        out.writeByte(FRAME_FLAGS);
+        out.writeByte(FRAME_BLOCK_DESCRIPTOR);
+        out.writeByte((xxHash32(new byte[] {(byte) FRAME_FLAGS, (byte) FRAME_BLOCK_DESCRIPTOR}) >>> 8) & 0xFF);
+
+        int[] table = new int[1 << HASH_BITS];
+        ByteOutput block = new ByteOutput(Math.min(length, MAX_BLOCK_SIZE) + 64);
+        for (int blockStart = offset; blockStart < offset + length; blockStart += MAX_BLOCK_SIZE) {
+            int blockLength = Math.min(MAX_BLOCK_SIZE, offset + length - blockStart);
+            block.reset();
+            compressBlock(src, blockStart, blockLength, table, block);
+            if (block.size() < blockLength) {
+                out.writeIntLE(block.size());
+                out.writeBytes(block.array(), 0, block.size());
+            } else {
+                out.writeIntLE(blockLength | UNCOMPRESSED_BLOCK_FLAG);
+                out.writeBytes(src, blockStart, blockLength);
+            }
+        }
+        // End mark
+        out.writeIntLE(0);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses LZ4 frame
+     *
+     * @param expectedLength uncompressed length if it is known, otherwise -1
+     */
+    @NotNull
+    static byte[] decompress(@NotNull byte[] src, int offset, int length, int expectedLength) throws IOException {
+        int end = offset + length;
+        if (length < 7 || readInt(src, offset) != FRAME_MAGIC) {
+            throw new IOException("Bad LZ4 frame magic");
+        }
+        int flags = src[offset + 4] & 0xFF;
+        if ((flags & 0xC0) != 0x40) {
+            throw new IOException("Unsupported LZ4 frame version");
+        }
+        int pos = offset + 6;
+        if ((flags & FLAG_CONTENT_SIZE) != 0) {
+            pos += 8;
+        }
+        if ((flags & FLAG_DICTIONARY_ID) != 0) {
+            pos += 4;
+        }
+        // Header checksum
+        pos++;
+
+        ByteOutput out = new ByteOutput(expectedLength >= 0 ? expectedLength : length * 3);
+        while (true) {
+            if (pos + 4 > end) {
+                throw new IOException("Truncated LZ4 frame");
+            }
+            int blockSize = readInt(src, pos);
+            pos += 4;
+            if (blockSize == 0) {
+                break;
+            }
+            int blockLength = blockSize & ~UNCOMPRESSED_BLOCK_FLAG;
+            if (blockLength < 0 || pos + blockLength > end) {
+                throw new IOException("Truncated LZ4 block");
+            }
+            if ((blockSize & UNCOMPRESSED_BLOCK_FLAG) != 0) {
+                out.writeBytes(src, pos, blockLength);
+            } else {
+                decompressBlock(src, pos, blockLength, out);
+            }
+            pos += blockLength;
+            if ((flags & FLAG_BLOCK_CHECKSUM) != 0) {
+                pos += 4;
+            }
+        }
+        if (expectedLength >= 0 && out.size() != expectedLength) {
+            throw new IOException("LZ4 frame size mismatch: expected " + expectedLength + " bytes, got " + out.size());
+        }
+        return out.size() == out.array().length ? out.array() : out.toByteArray();
+    }
+
+    private static void decompressBlock(byte[] src, int pos, int length, ByteOutput out) throws IOException {
+        int end = pos + length;
+        while (pos < end) {
+            int token = src[pos++] & 0xFF;
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    if (pos >= end) {
+                        throw new IOException("Corrupted LZ4 block");
+                    }
+                    b = src[pos++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            if (pos + literalLength > end) {
+                throw new IOException("Corrupted LZ4 block: bad literal length");
+            }
+            out.writeBytes(src, pos, literalLength);
+            pos += literalLength;
+            if (pos >= end) {
+                // Last sequence has no match
+                break;
+            }
+            if (pos + 2 > end) {
+                throw new IOException("Corrupted LZ4 block");
+            }
+            int matchOffset = (src[pos] & 0xFF) | (src[pos + 1] & 0xFF) << 8;
+            pos += 2;
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (pos >= end) {
+                        throw new IOException("Corrupted LZ4 block");
+                    }
+                    b = src[pos++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (matchOffset == 0 || matchOffset > out.size()) {
+                throw new IOException("Corrupted LZ4 block: bad match offset");
+            }
+            out.copyWithin(out.size() - matchOffset, matchLength);
+        }
+    }
+
+    private static void compressBlock(byte[] src, int offset, int length, int[] table, ByteOutput out) {
+        int end = offset + length;
+        int literalStart = offset;
+        if (length > MATCH_FIND_LIMIT) {
+            Arrays.fill(table, -1);
+            int matchLimit = end - MATCH_FIND_LIMIT;
+            int extendLimit = end - LAST_LITERALS;
+            int pos = offset;
+            while (pos < matchLimit) {
+                int value = readInt(src, pos);
+                int hash = (value * XXH_PRIME1) >>> (32 - HASH_BITS);
+                int candidate = table[hash];
+                table[hash] = pos;
+                if (candidate < 0 || pos - candidate > MAX_OFFSET || readInt(src, candidate) != value) {
+                    pos++;
+                    continue;
+                }
+                int matchLength = MIN_MATCH;
+                while (pos + matchLength < extendLimit && src[candidate + matchLength] == src[pos + matchLength]) {
+                    matchLength++;
+                }
+                writeSequence(out, src, literalStart, pos - literalStart, pos - candidate, matchLength);
+                pos += matchLength;
+                literalStart = pos;
+            }
+        }
+        // Last sequence contains literals only
+        writeSequence(out, src, literalStart, end - literalStart, 0, 0);
+    }
+
+    private static void writeSequence(ByteOutput out, byte[] src, int literalOffset, int literalLength, int matchOffset, int matchLength) {
+        int matchCode = matchLength == 0 ? 0 : matchLength - MIN_MATCH;
+        out.writeByte((Math.min(literalLength, 15) << 4) | Math.min(matchCode, 15));
+        if (literalLength >= 15) {
+            writeLength(out, literalLength - 15);
+        }
+        out.writeBytes(src, literalOffset, literalLength);
+        if (matchLength > 0) {
+            out.writeShortLE(matchOffset);
+            if (matchCode >= 15) {
+                writeLength(out, matchCode - 15);
+            }
+        }
+    }
+
+    private static void writeLength(ByteOutput out, int length) {
+        while (length >= 255) {
+            out.writeByte(255);
+            length -= 255;
+        }
+        out.writeByte(length);
+    }
+
+    private static int readInt(byte[] src, int pos) {
+        return (src[pos] & 0xFF) | (src[pos + 1] & 0xFF) << 8 | (src[pos + 2] & 0xFF) << 16 | (src[pos + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * xxHash32 with zero seed for short inputs (less than 16 bytes). Used for frame descriptor checksum.
+     */
+    private static int xxHash32(byte[] data) {
+        int hash = XXH_PRIME5 + data.length;
+        int pos = 0;
+        for (; pos + 4 <= data.length; pos += 4) {
+            hash += readInt(data, pos) * XXH_PRIME3;
+            hash = Integer.rotateLeft(hash, 17) * XXH_PRIME4;
+        }
+        for (; pos < data.length; pos++) {
+            hash += (data[pos] & 0xFF) * XXH_PRIME5;
+            hash = Integer.rotateLeft(hash, 11) * XXH_PRIME1;
+        }
+        hash ^= hash >>> 15;
+        hash *= XXH_PRIME2;
+        hash ^= hash >>> 13;
+        hash *= XXH_PRIME3;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+}
@@ -0,0 +1,670 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Apache Parquet file reader.
+ * Supports flat schemas (optional and required primitive columns), data pages v1 and v2,
+ * PLAIN, dictionary and RLE (boolean) encodings and SNAPPY/GZIP compression.
+ * Each row group is read as a single batch.
+ */
+public class ParquetReader implements ColumnarReader {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    // Physical types
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_INT32 = 1;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_INT96 = 3;
+    private static final int TYPE_FLOAT = 4;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int REPETITION_REPEATED = 2;
+
+    // Legacy converted types
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_ENUM = 4;
+    private static final int CONVERTED_DECIMAL = 5;
+    private static final int CONVERTED_DATE = 6;
+    private static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    private static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    private static final int CONVERTED_UINT_32 = 13;
+    private static final int CONVERTED_JSON = 19;
+
+    // Logical types (union field ids)
+    private static final int LOGICAL_STRING = 1;
+    private static final int LOGICAL_ENUM = 4;
+    private static final int LOGICAL_DECIMAL = 5;
+    private static final int LOGICAL_DATE = 6;
+    private static final int LOGICAL_TIMESTAMP = 8;
+    private static final int LOGICAL_INTEGER = 10;
+    private static final int LOGICAL_JSON = 12;
+    private static final int TIME_UNIT_MILLIS = 1;
+    private static final int TIME_UNIT_MICROS = 2;
+    private static final int TIME_UNIT_NANOS = 3;
+
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+    private static final int PAGE_DATA_V2 = 3;
+
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_PLAIN_DICTIONARY = 2;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+
+    private static final long JULIAN_EPOCH_DAY = 2_440_588L;
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+
+    @NotNull
+    private final FileChannel channel;
+    private final List<ColumnDescriptor> columns = new ArrayList<>();
+    private final List<LeafColumn> leaves = new ArrayList<>();
+    private List<ThriftCompactReader.Struct> rowGroups;
+    private int nextRowGroup;
+
+    public ParquetReader(@NotNull Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            readMetadata();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @NotNull
+    @Override
+    public List<ColumnDescriptor> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Total number of rows
+     */
+    public long getRowCount() {
+        long rowCount = 0;
+        for (ThriftCompactReader.Struct rowGroup : rowGroups) {
+            rowCount += rowGroup.getLong(3, 0);
+        }
+        return rowCount;
+    }
+
+    @Override
+    public int readBatch(@NotNull ColumnVector[] vectors) throws IOException {
+        while (nextRowGroup < rowGroups.size()) {
+            ThriftCompactReader.Struct rowGroup = rowGroups.get(nextRowGroup++);
+            long rowCount = rowGroup.getLong(3, 0);
+            if (rowCount == 0) {
+                continue;
+            }
+            if (rowCount > Integer.MAX_VALUE) {
+                throw new IOException("Row group is too big: " + rowCount + " rows");
+            }
+            List<ThriftCompactReader.Struct> chunks = rowGroup.getStructList(1);
+            if (chunks.size() != leaves.size()) {
+                throw new IOException("Row group has " + chunks.size() + " columns, " + leaves.size() + " expected");
+            }
+            for (int i = 0; i < leaves.size(); i++) {
+                readColumnChunk(chunks.get(i), leaves.get(i), vectors[i]);
+            }
+            return (int) rowCount;
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readMetadata() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < MAGIC.length * 2 + 4) {
+            throw new IOException("File is too short to be a Parquet file");
+        }
+        byte[] tail = read(fileSize - 8, 8);
+        if (!Arrays.equals(tail, 4, 8, MAGIC, 0, 4)) {
+            throw new IOException("Not a Parquet file (bad magic)");
+        }
+        int metadataLength = readIntLE(tail, 0);
+        if (metadataLength <= 0 || metadataLength > fileSize - 12) {
+            throw new IOException("Bad Parquet metadata length " + metadataLength);
+        }
+        byte[] metadataBytes = read(fileSize - 8 - metadataLength, metadataLength);
+        ThriftCompactReader.Struct metadata = new ThriftCompactReader(metadataBytes, 0, metadataLength).readStruct();
+
+        List<ThriftCompactReader.Struct> schema = metadata.getStructList(2);
+        if (schema.isEmpty()) {
+            throw new IOException("Parquet schema is empty");
+        }
+        for (int i = 1; i < schema.size(); i++) {
+            ThriftCompactReader.Struct element = schema.get(i);
+            String name = element.getString(4);
+            if (element.getInt(5, 0) > 0 || element.getInt(3, 0) == REPETITION_REPEATED) {
+                throw new IOException("Nested and repeated Parquet columns are not supported (column '" + name + "')");
+            }
+            LeafColumn leaf = new LeafColumn(element);
+            leaves.add(leaf);
+            columns.add(leaf.makeDescriptor(name == null ? "column_" + i : name));
+        }
+        rowGroups = metadata.getStructList(4);
+    }
+
+    private void readColumnChunk(ThriftCompactReader.Struct chunk, LeafColumn leaf, ColumnVector vector) throws IOException {
+        ThriftCompactReader.Struct meta = chunk.getStruct(3);
+        if (meta == null) {
+            throw new IOException("Column chunks in external files are not supported");
+        }
+        CompressionCodec codec = getCodec(meta.getInt(4, 0));
+        long valueCount = meta.getLong(5, 0);
+        long dataPageOffset = meta.getLong(9, 0);
+        long dictionaryPageOffset = meta.getLong(11, 0);
+        long chunkStart = dictionaryPageOffset > 0 && dictionaryPageOffset < dataPageOffset ? dictionaryPageOffset : dataPageOffset;
+        long chunkLength = meta.getLong(7, 0);
+        if (chunkLength < 0 || chunkLength > Integer.MAX_VALUE - 8) {
+            throw new IOException("Bad column chunk size " + chunkLength);
+        }
+        byte[] data = read(chunkStart, (int) chunkLength);
+
+        ColumnVector dictionary = null;
+        long valuesRead = 0;
+        int pos = 0;
+        while (valuesRead < valueCount && pos < data.length) {
+            ThriftCompactReader headerReader = new ThriftCompactReader(data, pos, data.length - pos);
+            ThriftCompactReader.Struct header = headerReader.readStruct();
+            pos = headerReader.position();
+            int pageType = header.getInt(1, -1);
+            int uncompressedSize = header.getInt(2, 0);
+            int compressedSize = header.getInt(3, 0);
+            if (compressedSize < 0 || compressedSize > data.length - pos) {
+                throw new IOException("Bad page size " + compressedSize);
+            }
+            switch (pageType) {
+                case PAGE_DICTIONARY: {
+                    ThriftCompactReader.Struct pageHeader = requireStruct(header, 7);
+                    byte[] page = codec.decompress(data, pos, compressedSize, uncompressedSize);
+                    int entryCount = pageHeader.getInt(1, 0);
+                    dictionary = new ColumnVector(leaf.type, entryCount);
+                    decodePlain(leaf, page, 0, page.length, entryCount, null, dictionary);
+                    break;
+                }
+                case PAGE_DATA: {
+                    ThriftCompactReader.Struct pageHeader = requireStruct(header, 5);
+                    int pageValues = pageHeader.getInt(1, 0);
+                    byte[] page = codec.decompress(data, pos, compressedSize, uncompressedSize);
+                    int valuesPos = 0;
+                    int[] levels = null;
+                    if (leaf.optional) {
+                        if (pageHeader.getInt(3, ENCODING_RLE) != ENCODING_RLE) {
+                            throw new IOException("Unsupported definition levels encoding");
+                        }
+                        int levelsLength = readIntLE(page, 0);
+                        levels = new int[pageValues];
+                        decodeHybrid(page, 4, 4 + levelsLength, 1, levels, pageValues);
+                        valuesPos = 4 + levelsLength;
+                    }
+                    decodeValues(leaf, pageHeader.getInt(2, ENCODING_PLAIN), page, valuesPos, page.length, pageValues, levels, dictionary, vector);
+                    valuesRead += pageValues;
+                    break;
+                }
+                case PAGE_DATA_V2: {
+                    ThriftCompactReader.Struct pageHeader = requireStruct(header, 8);
+                    int pageValues = pageHeader.getInt(1, 0);
+                    int levelsLength = pageHeader.getInt(5, 0);
+                    int repetitionLength = pageHeader.getInt(6, 0);
+                    // Levels are never compressed
+                    int levelsEnd = pos + repetitionLength + levelsLength;
+                    int[] levels = null;
+                    if (leaf.optional) {
+                        levels = new int[pageValues];
+                        decodeHybrid(data, pos + repetitionLength, levelsEnd, 1, levels, pageValues);
+                    }
+                    byte[] page;
+                    int valuesLength = compressedSize - repetitionLength - levelsLength;
+                    if (pageHeader.getBoolean(7, true)) {
+                        page = codec.decompress(data, levelsEnd, valuesLength, uncompressedSize - repetitionLength - levelsLength);
+                    } else {
+                        page = Arrays.copyOfRange(data, levelsEnd, levelsEnd + valuesLength);
+                    }
+                    decodeValues(leaf, pageHeader.getInt(4, ENCODING_PLAIN), page, 0, page.length, pageValues, levels, dictionary, vector);
+                    valuesRead += pageValues;
+                    break;
+                }
+                default:
+                    // Index pages are skipped
+                    break;
+            }
+            pos += compressedSize;
+        }
+        if (valuesRead < valueCount) {
+            throw new IOException("Column chunk is truncated: " + valuesRead + " of " + valueCount + " values read");
+        }
+    }
+
+    private static void decodeValues(
+        LeafColumn leaf,
+        int encoding,
+        byte[] page,
+        int pos,
+        int end,
+        int valueCount,
+        @Nullable int[] levels,
+        @Nullable ColumnVector dictionary,
+        ColumnVector vector
+    ) throws IOException {
+        int nonNullCount = valueCount;
+        if (levels != null) {
+            nonNullCount = 0;
+            for (int i = 0; i < valueCount; i++) {
+                nonNullCount += levels[i];
+            }
+        }
+        switch (encoding) {
+            case ENCODING_PLAIN:
+                decodePlain(leaf, page, pos, end, valueCount, levels, vector);
+                break;
+            case ENCODING_PLAIN_DICTIONARY:
+            case ENCODING_RLE_DICTIONARY: {
+                if (dictionary == null) {
+                    throw new IOException("Dictionary page is missing");
+                }
+                if (nonNullCount == 0) {
+                    appendNulls(vector, valueCount);
+                    break;
+                }
+                checkBounds(pos, 1, end);
+                int bitWidth = page[pos] & 0xFF;
+                int[] indexes = new int[nonNullCount];
+                decodeHybrid(page, pos + 1, end, bitWidth, indexes, nonNullCount);
+                for (int i = 0, valueIndex = 0; i < valueCount; i++) {
+                    if (levels != null && levels[i] == 0) {
+                        vector.appendNull();
+                        continue;
+                    }
+                    int index = indexes[valueIndex++];
+                    if (index < 0 || index >= dictionary.size()) {
+                        throw new IOException("Dictionary index " + index + " is out of range");
+                    }
+                    vector.appendFrom(dictionary, index);
+                }
+                break;
+            }
+            case ENCODING_RLE: {
+                if (leaf.physicalType != TYPE_BOOLEAN) {
+                    throw new IOException("RLE encoding is supported for boolean columns only");
+                }
+                checkBounds(pos, 4, end);
+                int length = readIntLE(page, pos);
+                int[] values = new int[nonNullCount];
+                decodeHybrid(page, pos + 4, pos + 4 + length, 1, values, nonNullCount);
+                for (int i = 0, valueIndex = 0; i < valueCount; i++) {
+                    if (levels != null && levels[i] == 0) {
+                        vector.appendNull();
+                    } else {
+                        vector.appendLong(values[valueIndex++]);
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unsupported Parquet encoding " + encoding);
+        }
+    }
+
+    private static void decodePlain(
+        LeafColumn leaf,
+        byte[] page,
+        int pos,
+        int end,
+        int valueCount,
+        @Nullable int[] levels,
+        ColumnVector vector
+    ) throws IOException {
+        int bitIndex = 0;
+        for (int i = 0; i < valueCount; i++) {
+            if (levels != null && levels[i] == 0) {
+                vector.appendNull();
+                continue;
+            }
+            switch (leaf.physicalType) {
+                case TYPE_BOOLEAN:
+                    checkBounds(pos + (bitIndex >> 3), 1, end);
+                    vector.appendLong((page[pos + (bitIndex >> 3)] >> (bitIndex & 7)) & 1);
+                    bitIndex++;
+                    break;
+                case TYPE_INT32:
+                    checkBounds(pos, 4, end);
+                    leaf.appendLong(vector, readIntLE(page, pos));
+                    pos += 4;
+                    break;
+                case TYPE_INT64:
+                    checkBounds(pos, 8, end);
+                    leaf.appendLong(vector, readLongLE(page, pos));
+                    pos += 8;
+                    break;
+                case TYPE_INT96: {
+                    // Legacy timestamp: nanoseconds of day and julian day
+                    checkBounds(pos, 12, end);
+                    long nanos = readLongLE(page, pos);
+                    long julianDay = readIntLE(page, pos + 8);
+                    vector.appendLong((julianDay - JULIAN_EPOCH_DAY) * MICROS_PER_DAY + nanos / 1000);
+                    pos += 12;
+                    break;
+                }
+                case TYPE_FLOAT:
+                    checkBounds(pos, 4, end);
+                    vector.appendDouble(Float.intBitsToFloat(readIntLE(page, pos)));
+                    pos += 4;
+                    break;
+                case TYPE_DOUBLE:
+                    checkBounds(pos, 8, end);
+                    vector.appendDouble(Double.longBitsToDouble(readLongLE(page, pos)));
+                    pos += 8;
+                    break;
+                case TYPE_BYTE_ARRAY: {
+                    checkBounds(pos, 4, end);
+                    int length = readIntLE(page, pos);
+                    pos += 4;
+                    checkBounds(pos, length, end);
+                    leaf.appendBytes(vector, Arrays.copyOfRange(page, pos, pos + length));
+                    pos += length;
+                    break;
+                }
+                case TYPE_FIXED_LEN_BYTE_ARRAY:
+                    checkBounds(pos, leaf.typeLength, end);
+                    leaf.appendBytes(vector, Arrays.copyOfRange(page, pos, pos + leaf.typeLength));
+                    pos += leaf.typeLength;
+                    break;
+                default:
+                    throw new IOException("Unsupported Parquet type " + leaf.physicalType);
+            }
+        }
+    }
+
+    /**
+     * Decodes values encoded with RLE/bit-packing hybrid encoding
+     */
+    static int decodeHybrid(byte[] data, int pos, int end, int bitWidth, int[] values, int count) throws IOException {
+        if (bitWidth < 0 || bitWidth > 32) {
+            throw new IOException("Bad bit width " + bitWidth);
+        }
+        int valueMask = bitWidth == 32 ? -1 : (1 << bitWidth) - 1;
+        int n = 0;
+        while (n < count) {
+            long header = 0;
+            for (int shift = 0; ; shift += 7) {
+                checkBounds(pos, 1, end);
+                int b = data[pos++] & 0xFF;
+                header |= (long) (b & 0x7F) << shift;
+                if (b < 0x80) {
+                    break;
+                }
+                if (shift > 28) {
+                    throw new IOException("Bad run header");
+                }
+            }
+            if ((header & 1) == 0) {
+                // RLE run
+                int runLength = (int) Math.min(header >>> 1, count - n);
+                int byteWidth = (bitWidth + 7) / 8;
+                checkBounds(pos, byteWidth, end);
+                int value = 0;
+                for (int i = 0; i < byteWidth; i++) {
+                    value |= (data[pos + i] & 0xFF) << (8 * i);
+                }
+                pos += byteWidth;
+                Arrays.fill(values, n, n + runLength, value);
+                n += runLength;
+            } else {
+                // Bit-packed groups of 8 values. Last group may be truncated by some writers.
+                long groupCount = header >>> 1;
+                int runEnd = (int) Math.min(pos + groupCount * bitWidth, end);
+                long valueCount = groupCount * 8;
+                long buffer = 0;
+                int bufferBits = 0;
+                for (long i = 0; i < valueCount && n < count; i++) {
+                    while (bufferBits < bitWidth) {
+                        buffer |= (long) (pos < runEnd ? data[pos] & 0xFF : 0) << bufferBits;
+                        pos++;
+                        bufferBits += 8;
+                    }
+                    values[n++] = (int) (buffer & valueMask);
+                    buffer >>>= bitWidth;
+                    bufferBits -= bitWidth;
+                }
+                pos = runEnd;
+            }
+        }
+        return pos;
+    }
+
+    private static void appendNulls(ColumnVector vector, int count) {
+        for (int i = 0; i < count; i++) {
+            vector.appendNull();
+        }
+    }
+
+    private static ThriftCompactReader.Struct requireStruct(ThriftCompactReader.Struct struct, int fieldId) throws IOException {
+        ThriftCompactReader.Struct result = struct.getStruct(fieldId);
+        if (result == null) {
+            throw new IOException("Page header is incomplete");
+        }
+        return result;
+    }
+
+    private static CompressionCodec getCodec(int codecId) throws IOException {
+        switch (codecId) {
+            case 0:
+                return CompressionCodec.NONE;
+            case 1:
+                return CompressionCodec.SNAPPY;
+            case 2:
+                return CompressionCodec.GZIP;
+            default:
+                throw new IOException("Parquet compression codec " + codecId + " is not supported");
+        }
+    }
+
+    private byte[] read(long position, int length) throws IOException {
+        byte[] result = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(result);
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position + buffer.position());
+            if (count < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return result;
+    }
+
+    private static void checkBounds(int pos, int length, int end) throws IOException {
+        if (length < 0 || pos + length > end) {
+            throw new IOException("Parquet page is truncated");
+        }
+    }
+
+    private static int readIntLE(byte[] data, int pos) {
+        return (data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8 | (data[pos + 2] & 0xFF) << 16 | (data[pos + 3] & 0xFF) << 24;
+    }
+
+    private static long readLongLE(byte[] data, int pos) {
+        return (readIntLE(data, pos) & 0xFFFFFFFFL) | ((long) readIntLE(data, pos + 4) << 32);
+    }
+
+    /**
+     * Leaf column of flat schema. Converts physical values to column vector values.
+     */
+    private static final class LeafColumn {
+        final int physicalType;
+        final int typeLength;
+        final boolean optional;
+        ColumnType type;
+        int timeUnit = TIME_UNIT_MICROS;
+        int precision;
+        int scale;
+        boolean unsigned32;
+        // Decimal which doesn't fit in 128 bits is converted to string
+        boolean decimalAsString;
+
+        LeafColumn(ThriftCompactReader.Struct element) throws IOException {
+            physicalType = element.getInt(1, -1);
+            typeLength = element.getInt(2, 0);
+            optional = element.getInt(3, REPETITION_OPTIONAL) == REPETITION_OPTIONAL;
+            int convertedType = element.getInt(6, -1);
+            ThriftCompactReader.Struct logical = element.getStruct(10);
+            int logicalId = logical == null ? 0 : logical.getUnionFieldId();
+            ThriftCompactReader.Struct logicalType = logical == null ? null : logical.getStruct(logicalId);
+
+            boolean decimal = logicalId == LOGICAL_DECIMAL || convertedType == CONVERTED_DECIMAL;
+            if (decimal) {
+                precision = logicalId == LOGICAL_DECIMAL ? logicalType.getInt(2, 0) : element.getInt(8, 0);
+                scale = logicalId == LOGICAL_DECIMAL ? logicalType.getInt(1, 0) : element.getInt(7, 0);
+            }
+            switch (physicalType) {
+                case TYPE_BOOLEAN:
+                    type = ColumnType.BOOLEAN;
+                    break;
+                case TYPE_INT32:
+                    if (decimal) {
+                        setDecimalType();
+                    } else if (logicalId == LOGICAL_DATE || convertedType == CONVERTED_DATE) {
+                        type = ColumnType.DATE;
+                    } else if (convertedType == CONVERTED_UINT_32 ||
+                        (logicalId == LOGICAL_INTEGER && !logicalType.getBoolean(2, true) && logicalType.getInt(1, 32) == 32))
+                    {
+                        unsigned32 = true;
+                        type = ColumnType.INT64;
+                    } else {
+                        type = ColumnType.INT32;
+                    }
+                    break;
+                case TYPE_INT64:
+                    if (decimal) {
+                        setDecimalType();
+                    } else if (logicalId == LOGICAL_TIMESTAMP) {
+                        ThriftCompactReader.Struct unit = logicalType.getStruct(2);
+                        timeUnit = unit == null ? TIME_UNIT_MILLIS : unit.getUnionFieldId();
+                        type = logicalType.getBoolean(1, false) ? ColumnType.TIMESTAMP_TZ : ColumnType.TIMESTAMP;
+                    } else if (convertedType == CONVERTED_TIMESTAMP_MILLIS || convertedType == CONVERTED_TIMESTAMP_MICROS) {
+                        // Legacy converted types are UTC-adjusted
+                        timeUnit = convertedType == CONVERTED_TIMESTAMP_MILLIS ? TIME_UNIT_MILLIS : TIME_UNIT_MICROS;
+                        type = ColumnType.TIMESTAMP_TZ;
+                    } else {
+                        type = ColumnType.INT64;
+                    }
+                    break;
+                case TYPE_INT96:
+                    type = ColumnType.TIMESTAMP;
+                    break;
+                case TYPE_FLOAT:
+                case TYPE_DOUBLE:
+                    type = ColumnType.DOUBLE;
+                    break;
+                case TYPE_BYTE_ARRAY:
+                case TYPE_FIXED_LEN_BYTE_ARRAY:
+                    if (decimal) {
+                        setDecimalType();
+                    } else if (physicalType == TYPE_BYTE_ARRAY && (
+                        logicalId == LOGICAL_STRING || logicalId == LOGICAL_ENUM || logicalId == LOGICAL_JSON ||
+                            convertedType == CONVERTED_UTF8 || convertedType == CONVERTED_ENUM || convertedType == CONVERTED_JSON))
+                    {
+                        type = ColumnType.STRING;
+                    } else {
+                        type = ColumnType.BINARY;
+                    }
+                    break;
+                default:
+                    throw new IOException("Unsupported Parquet type " + physicalType);
+            }
+        }
+
+        private void setDecimalType() {
+            if (precision > 0 && precision <= ColumnDescriptor.MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                type = ColumnType.DECIMAL;
+            } else {
+                type = ColumnType.STRING;
+                decimalAsString = true;
+            }
+        }
+
+        ColumnDescriptor makeDescriptor(String name) {
+            if (type == ColumnType.DECIMAL) {
+                return new ColumnDescriptor(name, type, precision, scale);
+            }
+            return new ColumnDescriptor(name, type);
+        }
+
+        void appendLong(ColumnVector vector, long value) {
+            switch (type) {
+                case DECIMAL:
+                    vector.appendObject(BigInteger.valueOf(value));
+                    break;
+                case STRING:
+                    vector.appendObject(new BigDecimal(BigInteger.valueOf(value), scale).toPlainString().getBytes(StandardCharsets.UTF_8));
+                    break;
+                case TIMESTAMP:
+                case TIMESTAMP_TZ:
+                    if (timeUnit == TIME_UNIT_MILLIS) {
+                        vector.appendLong(value * 1000);
+                    } else if (timeUnit == TIME_UNIT_NANOS) {
+                        vector.appendLong(Math.floorDiv(value, 1000));
+                    } else {
+                        vector.appendLong(value);
+                    }
+                    break;
+                default:
+                    vector.appendLong(unsigned32 ? value & 0xFFFFFFFFL : value);
+                    break;
+            }
+        }
+
+        void appendBytes(ColumnVector vector, byte[] value) {
+            if (type == ColumnType.DECIMAL || decimalAsString) {
+                // Big-endian two's complement unscaled value
+                BigInteger unscaled = value.length == 0 ? BigInteger.ZERO : new BigInteger(value);
+                if (decimalAsString) {
+                    vector.appendObject(new BigDecimal(unscaled, scale).toPlainString().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    vector.appendObject(unscaled);
+                }
+            } else {
+                vector.appendObject(value);
+            }
+        }
+    }
+
+}
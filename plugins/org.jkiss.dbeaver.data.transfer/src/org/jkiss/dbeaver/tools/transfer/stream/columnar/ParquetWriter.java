@@ -0,0 +1,591 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Apache Parquet file writer.
+ * Writes flat schema of optional columns. Each batch becomes a row group with a single data page (v1) per column.
+ * Column chunks are dictionary encoded when dictionary makes them smaller, otherwise PLAIN encoding is used.
+ */
+public class ParquetWriter implements ColumnarWriter {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final String CREATED_BY = "DBeaver";
+
+    // Physical types
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_INT32 = 1;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_BYTE_ARRAY = 6;
+
+    // Encodings
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+
+    // Legacy converted types
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_DECIMAL = 5;
+    private static final int CONVERTED_DATE = 6;
+    private static final int CONVERTED_TIMESTAMP_MICROS = 10;
+
+    // Logical types (union field ids)
+    private static final int LOGICAL_STRING = 1;
+    private static final int LOGICAL_DECIMAL = 5;
+    private static final int LOGICAL_DATE = 6;
+    private static final int LOGICAL_TIMESTAMP = 8;
+    private static final int TIME_UNIT_MICROS = 2;
+
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+    private static final int REPETITION_OPTIONAL = 1;
+
+    private static final int CODEC_UNCOMPRESSED = 0;
+    private static final int CODEC_SNAPPY = 1;
+    private static final int CODEC_GZIP = 2;
+
+    private static final int MAX_DECIMAL_INT64_PRECISION = 18;
+    private static final int MAX_DICTIONARY_BYTES = 1024 * 1024;
+    private static final int MAX_BIT_PACKED_GROUPS = 63;
+
+    @NotNull
+    private final OutputStream out;
+    @NotNull
+    private final List<ColumnDescriptor> columns;
+    @NotNull
+    private final CompressionCodec codec;
+    private final boolean useDictionary;
+
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+    private long position;
+    private long totalRows;
+
+    public ParquetWriter(
+        @NotNull OutputStream out,
+        @NotNull List<ColumnDescriptor> columns,
+        @NotNull CompressionCodec codec,
+        boolean useDictionary
+    ) {
+        if (codec != CompressionCodec.NONE && codec != CompressionCodec.SNAPPY && codec != CompressionCodec.GZIP) {
+            throw new IllegalArgumentException("Compression " + codec + " is not supported by Parquet writer");
+        }
+        this.out = out;
+        this.columns = new ArrayList<>(columns);
+        this.codec = codec;
+        this.useDictionary = useDictionary;
+    }
+
+    @Override
+    public void writeBatch(@NotNull ColumnVector[] vectors, int rowCount) throws IOException {
+        if (rowCount == 0) {
+            return;
+        }
+        writeMagic();
+        RowGroupInfo rowGroup = new RowGroupInfo(rowCount);
+        for (int i = 0; i < columns.size(); i++) {
+            rowGroup.chunks.add(writeColumnChunk(columns.get(i), vectors[i], rowCount));
+        }
+        rowGroups.add(rowGroup);
+        totalRows += rowCount;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writeMagic();
+        byte[] metadata = writeFileMetadata();
+        write(metadata, metadata.length);
+        ByteOutput tail = new ByteOutput(8);
+        tail.writeIntLE(metadata.length);
+        tail.writeBytes(MAGIC);
+        write(tail.array(), tail.size());
+        out.flush();
+    }
+
+    private void writeMagic() throws IOException {
+        if (position == 0) {
+            write(MAGIC, MAGIC.length);
+        }
+    }
+
+    private ColumnChunkInfo writeColumnChunk(ColumnDescriptor column, ColumnVector vector, int rowCount) throws IOException {
+        int physicalType = getPhysicalType(column);
+        ColumnChunkInfo chunk = new ColumnChunkInfo(rowCount);
+        chunk.startOffset = position;
+
+        ByteOutput page = new ByteOutput(rowCount * 4 + 64);
+        // Definition levels: 1 for values, 0 for nulls. Prefixed with length in data page v1.
+        int[] levels = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            levels[i] = vector.isNull(i) ? 0 : 1;
+        }
+        int lengthPos = page.size();
+        page.writeIntLE(0);
+        encodeHybrid(levels, rowCount, 1, page);
+        patchIntLE(page, lengthPos, page.size() - lengthPos - 4);
+
+        Dictionary dictionary = null;
+        if (useDictionary && physicalType != TYPE_BOOLEAN) {
+            dictionary = buildDictionary(column, physicalType, vector, rowCount);
+        }
+        int encoding;
+        if (dictionary != null) {
+            ByteOutput dictionaryPage = new ByteOutput(dictionary.byteSize + 16);
+            for (int i = 0; i < dictionary.entryCount; i++) {
+                writePlainValue(dictionaryPage, column, physicalType, vector, dictionary.entryRows[i]);
+            }
+            chunk.dictionaryPageOffset = position;
+            writePage(PAGE_DICTIONARY, dictionaryPage, dictionary.entryCount, ENCODING_PLAIN, chunk);
+
+            int bitWidth = Math.max(1, 32 - Integer.numberOfLeadingZeros(dictionary.entryCount - 1));
+            page.writeByte(bitWidth);
+            encodeHybrid(dictionary.indexes, dictionary.indexCount, bitWidth, page);
+            encoding = ENCODING_RLE_DICTIONARY;
+        } else {
+            if (physicalType == TYPE_BOOLEAN) {
+                writePlainBooleans(page, vector, rowCount);
+            } else {
+                for (int i = 0; i < rowCount; i++) {
+                    if (!vector.isNull(i)) {
+                        writePlainValue(page, column, physicalType, vector, i);
+                    }
+                }
+            }
+            encoding = ENCODING_PLAIN;
+        }
+        chunk.dataPageOffset = position;
+        writePage(PAGE_DATA, page, rowCount, encoding, chunk);
+        chunk.encodings.add(ENCODING_RLE);
+        return chunk;
+    }
+
+    private void writePage(int pageType, ByteOutput body, int valueCount, int encoding, ColumnChunkInfo chunk) throws IOException {
+        byte[] data = body.array();
+        int dataLength = body.size();
+        if (codec != CompressionCodec.NONE) {
+            data = codec.compress(data, 0, dataLength);
+            dataLength = data.length;
+        }
+        ThriftCompactWriter header = new ThriftCompactWriter();
+        header.structBegin();
+        header.fieldI32(1, pageType);
+        header.fieldI32(2, body.size());
+        header.fieldI32(3, dataLength);
+        if (pageType == PAGE_DATA) {
+            header.fieldStruct(5);
+            header.fieldI32(1, valueCount);
+            header.fieldI32(2, encoding);
+            header.fieldI32(3, ENCODING_RLE);
+            header.fieldI32(4, ENCODING_RLE);
+            header.structEnd();
+        } else {
+            header.fieldStruct(7);
+            header.fieldI32(1, valueCount);
+            header.fieldI32(2, encoding);
+            header.structEnd();
+        }
+        header.structEnd();
+
+        byte[] headerBytes = header.toByteArray();
+        write(headerBytes, headerBytes.length);
+        write(data, dataLength);
+        chunk.uncompressedSize += headerBytes.length + body.size();
+        chunk.compressedSize += headerBytes.length + dataLength;
+        chunk.encodings.add(encoding);
+    }
+
+    @Nullable
+    private Dictionary buildDictionary(ColumnDescriptor column, int physicalType, ColumnVector vector, int rowCount) {
+        int valueCount = rowCount - vector.getNullCount();
+        if (valueCount < 2) {
+            return null;
+        }
+        Map<Object, Integer> entries = new HashMap<>();
+        int[] entryRows = new int[16];
+        int[] indexes = new int[valueCount];
+        int indexCount = 0;
+        int byteSize = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (vector.isNull(i)) {
+                continue;
+            }
+            Object key = getDictionaryKey(vector, i);
+            Integer index = entries.get(key);
+            if (index == null) {
+                index = entries.size();
+                entries.put(key, index);
+                if (index == entryRows.length) {
+                    entryRows = Arrays.copyOf(entryRows, index * 2);
+                }
+                entryRows[index] = i;
+                byteSize += getPlainValueSize(column, physicalType, vector, i);
+                if (byteSize > MAX_DICTIONARY_BYTES || entries.size() > valueCount / 2) {
+                    // Dictionary is too big or values are mostly unique
+                    return null;
+                }
+            }
+            indexes[indexCount++] = index;
+        }
+        Dictionary dictionary = new Dictionary();
+        dictionary.entryCount = entries.size();
+        dictionary.entryRows = entryRows;
+        dictionary.indexes = indexes;
+        dictionary.indexCount = indexCount;
+        dictionary.byteSize = byteSize;
+        return dictionary;
+    }
+
+    private static Object getDictionaryKey(ColumnVector vector, int row) {
+        switch (vector.getType()) {
+            case DOUBLE:
+                return vector.getDouble(row);
+            case DECIMAL:
+                return vector.getObject(row);
+            case STRING:
+            case BINARY:
+                return ByteBuffer.wrap((byte[]) vector.getObject(row));
+            default:
+                return vector.getLong(row);
+        }
+    }
+
+    private static int getPlainValueSize(ColumnDescriptor column, int physicalType, ColumnVector vector, int row) {
+        switch (physicalType) {
+            case TYPE_INT32:
+                return 4;
+            case TYPE_INT64:
+            case TYPE_DOUBLE:
+                return 8;
+            default:
+                return 4 + getByteArrayValue(column, vector, row).length;
+        }
+    }
+
+    private static void writePlainValue(ByteOutput page, ColumnDescriptor column, int physicalType, ColumnVector vector, int row) {
+        switch (physicalType) {
+            case TYPE_INT32:
+                page.writeIntLE((int) vector.getLong(row));
+                break;
+            case TYPE_INT64:
+                if (column.getType() == ColumnType.DECIMAL) {
+                    page.writeLongLE(((BigInteger) vector.getObject(row)).longValue());
+                } else {
+                    page.writeLongLE(vector.getLong(row));
+                }
+                break;
+            case TYPE_DOUBLE:
+                page.writeLongLE(Double.doubleToLongBits(vector.getDouble(row)));
+                break;
+            case TYPE_BYTE_ARRAY: {
+                byte[] bytes = getByteArrayValue(column, vector, row);
+                page.writeIntLE(bytes.length);
+                page.writeBytes(bytes);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unexpected physical type " + physicalType);
+        }
+    }
+
+    private static byte[] getByteArrayValue(ColumnDescriptor column, ColumnVector vector, int row) {
+        if (column.getType() == ColumnType.DECIMAL) {
+            // Big-endian two's complement unscaled value
+            return ((BigInteger) vector.getObject(row)).toByteArray();
+        }
+        return (byte[]) vector.getObject(row);
+    }
+
+    private static void writePlainBooleans(ByteOutput page, ColumnVector vector, int rowCount) {
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (vector.isNull(i)) {
+                continue;
+            }
+            if (vector.getLong(i) != 0) {
+                bits |= 1 << bitCount;
+            }
+            if (++bitCount == 8) {
+                page.writeByte(bits);
+                bits = 0;
+                bitCount = 0;
+            }
+        }
+        if (bitCount > 0) {
+            page.writeByte(bits);
+        }
+    }
+
+    /**
+     * Writes values with RLE/bit-packing hybrid encoding.
+     * Runs of 8 and more equal values are RLE encoded, other values are bit-packed in groups of 8.
+     * Only the last group may be padded.
+     */
+    static void encodeHybrid(int[] values, int count, int bitWidth, ByteOutput out) {
+        int packedStart = 0;
+        int packedCount = 0;
+        int pos = 0;
+        while (pos < count) {
+            int runEnd = pos + 1;
+            while (runEnd < count && values[runEnd] == values[pos]) {
+                runEnd++;
+            }
+            if (runEnd - pos >= 8) {
+                writeBitPacked(values, packedStart, packedCount, bitWidth, out);
+                packedCount = 0;
+                out.writeVarint((long) (runEnd - pos) << 1);
+                int value = values[pos];
+                for (int i = 0; i < (bitWidth + 7) / 8; i++) {
+                    out.writeByte(value >>> (i * 8));
+                }
+                pos = runEnd;
+            } else {
+                if (packedCount == 0) {
+                    packedStart = pos;
+                }
+                int groupSize = Math.min(8, count - pos);
+                packedCount += groupSize;
+                pos += groupSize;
+            }
+        }
+        writeBitPacked(values, packedStart, packedCount, bitWidth, out);
+    }
+
+    private static void writeBitPacked(int[] values, int start, int count, int bitWidth, ByteOutput out) {
+        while (count > 0) {
+            int groups = Math.min((count + 7) / 8, MAX_BIT_PACKED_GROUPS);
+            int runLength = Math.min(count, groups * 8);
+            out.writeVarint(((long) groups << 1) | 1);
+            long buffer = 0;
+            int bufferBits = 0;
+            for (int i = 0; i < groups * 8; i++) {
+                long value = i < runLength ? values[start + i] : 0;
+                buffer |= value << bufferBits;
+                bufferBits += bitWidth;
+                while (bufferBits >= 8) {
+                    out.writeByte((int) buffer);
+                    buffer >>>= 8;
+                    bufferBits -= 8;
+                }
+            }
+            start += runLength;
+            count -= runLength;
+        }
+    }
+
+    private byte[] writeFileMetadata() {
+        ThriftCompactWriter meta = new ThriftCompactWriter();
+        meta.structBegin();
+        meta.fieldI32(1, 1);
+
+        meta.fieldList(2, ThriftCompactWriter.TYPE_STRUCT, columns.size() + 1);
+        meta.structBegin();
+        meta.fieldString(4, "schema");
+        meta.fieldI32(5, columns.size());
+        meta.structEnd();
+        for (ColumnDescriptor column : columns) {
+            writeSchemaElement(meta, column);
+        }
+
+        meta.fieldI64(3, totalRows);
+
+        meta.fieldList(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (RowGroupInfo rowGroup : rowGroups) {
+            long totalUncompressed = 0, totalCompressed = 0;
+            meta.structBegin();
+            meta.fieldList(1, ThriftCompactWriter.TYPE_STRUCT, rowGroup.chunks.size());
+            for (int i = 0; i < rowGroup.chunks.size(); i++) {
+                ColumnDescriptor column = columns.get(i);
+                ColumnChunkInfo chunk = rowGroup.chunks.get(i);
+                totalUncompressed += chunk.uncompressedSize;
+                totalCompressed += chunk.compressedSize;
+
+                meta.structBegin();
+                meta.fieldI64(2, chunk.startOffset);
+                meta.fieldStruct(3);
+                meta.fieldI32(1, getPhysicalType(column));
+                meta.fieldList(2, ThriftCompactWriter.TYPE_I32, chunk.encodings.size());
+                for (Integer encoding : chunk.encodings) {
+                    meta.listI32(encoding);
+                }
+                meta.fieldList(3, ThriftCompactWriter.TYPE_BINARY, 1);
+                meta.listString(column.getName());
+                meta.fieldI32(4, getCodecId());
+                meta.fieldI64(5, chunk.valueCount);
+                meta.fieldI64(6, chunk.uncompressedSize);
+                meta.fieldI64(7, chunk.compressedSize);
+                meta.fieldI64(9, chunk.dataPageOffset);
+                if (chunk.dictionaryPageOffset >= 0) {
+                    meta.fieldI64(11, chunk.dictionaryPageOffset);
+                }
+                meta.structEnd();
+                meta.structEnd();
+            }
+            meta.fieldI64(2, totalUncompressed);
+            meta.fieldI64(3, rowGroup.rowCount);
+            meta.fieldI64(5, rowGroup.chunks.get(0).startOffset);
+            meta.fieldI64(6, totalCompressed);
+            meta.structEnd();
+        }
+
+        meta.fieldString(6, CREATED_BY);
+        meta.structEnd();
+        return meta.toByteArray();
+    }
+
+    private static void writeSchemaElement(ThriftCompactWriter meta, ColumnDescriptor column) {
+        meta.structBegin();
+        meta.fieldI32(1, getPhysicalType(column));
+        meta.fieldI32(3, REPETITION_OPTIONAL);
+        meta.fieldString(4, column.getName());
+        switch (column.getType()) {
+            case STRING:
+                meta.fieldI32(6, CONVERTED_UTF8);
+                meta.fieldStruct(10);
+                meta.fieldStruct(LOGICAL_STRING);
+                meta.structEnd();
+                meta.structEnd();
+                break;
+            case DECIMAL:
+                meta.fieldI32(6, CONVERTED_DECIMAL);
+                meta.fieldI32(7, column.getScale());
+                meta.fieldI32(8, column.getPrecision());
+                meta.fieldStruct(10);
+                meta.fieldStruct(LOGICAL_DECIMAL);
+                meta.fieldI32(1, column.getScale());
+                meta.fieldI32(2, column.getPrecision());
+                meta.structEnd();
+                meta.structEnd();
+                break;
+            case DATE:
+                meta.fieldI32(6, CONVERTED_DATE);
+                meta.fieldStruct(10);
+                meta.fieldStruct(LOGICAL_DATE);
+                meta.structEnd();
+                meta.structEnd();
+                break;
+            case TIMESTAMP:
+            case TIMESTAMP_TZ: {
+                boolean adjustedToUTC = column.getType() == ColumnType.TIMESTAMP_TZ;
+                if (adjustedToUTC) {
+                    // Legacy converted type implies UTC-adjusted values
+                    meta.fieldI32(6, CONVERTED_TIMESTAMP_MICROS);
+                }
+                meta.fieldStruct(10);
+                meta.fieldStruct(LOGICAL_TIMESTAMP);
+                meta.fieldBoolean(1, adjustedToUTC);
+                meta.fieldStruct(2);
+                meta.fieldStruct(TIME_UNIT_MICROS);
+                meta.structEnd();
+                meta.structEnd();
+                meta.structEnd();
+                meta.structEnd();
+                break;
+            }
+            default:
+                break;
+        }
+        meta.structEnd();
+    }
+
+    private static int getPhysicalType(ColumnDescriptor column) {
+        switch (column.getType()) {
+            case BOOLEAN:
+                return TYPE_BOOLEAN;
+            case INT32:
+            case DATE:
+                return TYPE_INT32;
+            case INT64:
+            case TIMESTAMP:
+            case TIMESTAMP_TZ:
+                return TYPE_INT64;
+            case DOUBLE:
+                return TYPE_DOUBLE;
+            case DECIMAL:
+                return column.getPrecision() <= MAX_DECIMAL_INT64_PRECISION ? TYPE_INT64 : TYPE_BYTE_ARRAY;
+            default:
+                return TYPE_BYTE_ARRAY;
+        }
+    }
+
+    private int getCodecId() {
+        switch (codec) {
+            case SNAPPY:
+                return CODEC_SNAPPY;
+            case GZIP:
+                return CODEC_GZIP;
+            default:
+                return CODEC_UNCOMPRESSED;
+        }
+    }
+
+    private void write(byte[] data, int length) throws IOException {
+        out.write(data, 0, length);
+        position += length;
+    }
+
+    private static void patchIntLE(ByteOutput buffer, int pos, int value) {
+        byte[] array = buffer.array();
+        array[pos] = (byte) value;
+        array[pos + 1] = (byte) (value >>> 8);
+        array[pos + 2] = (byte) (value >>> 16);
+        array[pos + 3] = (byte) (value >>> 24);
+    }
+
+    private static class Dictionary {
+        int entryCount;
+        // Row of the first occurrence of each dictionary entry
+        int[] entryRows;
+        int[] indexes;
+        int indexCount;
+        int byteSize;
+    }
+
+    private static class ColumnChunkInfo {
+        final long valueCount;
+        final Set<Integer> encodings = new LinkedHashSet<>();
+        long startOffset;
+        long dataPageOffset;
+        long dictionaryPageOffset = -1;
+        long uncompressedSize;
+        long compressedSize;
+
+        ColumnChunkInfo(long valueCount) {
+            this.valueCount = valueCount;
+        }
+    }
+
+    private static class RowGroupInfo {
+        final long rowCount;
+        final List<ColumnChunkInfo> chunks = new ArrayList<>();
+
+        RowGroupInfo(long rowCount) {
+            this.rowCount = rowCount;
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Snappy block (raw format) codec.
+ * Compressor is a greedy single-pass matcher with 2-byte offsets. Compression ratio is slightly worse than in
+ * the reference implementation but output is readable by any Snappy decoder.
+ */
+final class SnappyCodec {
+
+    private static final int HASH_BITS = 14;
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 0xFFFF;
+    private static final int MAX_COPY_LENGTH = 64;
+    // Last bytes are always emitted as literals, so we never read past the input
+    private static final int INPUT_MARGIN = 15;
+
+    private SnappyCodec() {
+    }
+
+    @NotNull
+    static byte[] compress(@NotNull byte[] src, int offset, int length) {
+        ByteOutput out = new ByteOutput(length + length / 6 + 32);
+        out.writeVarint(length);
+
+        int end = offset + length;
+        int literalStart = offset;
+        if (length >= INPUT_MARGIN) {
+            int[] table = new int[1 << HASH_BITS];
+            Arrays.fill(table, -1);
+            int matchLimit = end - INPUT_MARGIN;
+            int pos = offset;
+            while (pos < matchLimit) {
+                int value = readInt(src, pos);
+                int hash = hash(value);
+                int candidate = table[hash];
+                table[hash] = pos;
+                if (candidate < 0 || pos - candidate > MAX_OFFSET || readInt(src, candidate) != value) {
+                    pos++;
+                    continue;
+                }
+                int matchLength = MIN_MATCH;
+                while (pos + matchLength < end && src[candidate + matchLength] == src[pos + matchLength]) {
+                    matchLength++;
+                }
+                writeLiteral(out, src, literalStart, pos - literalStart);
+                writeCopy(out, pos - candidate, matchLength);
+                pos += matchLength;
+                literalStart = pos;
+            }
+        }
+        writeLiteral(out, src, literalStart, end - literalStart);
+        return out.toByteArray();
+    }
+
+    @NotNull
+    static byte[] decompress(@NotNull byte[] src, int offset, int length) throws IOException {
+        int end = offset + length;
+        int pos = offset;
+        long uncompressedLength = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (pos >= end || shift > 28) {
+                throw new IOException("Corrupted Snappy data: bad length preamble");
+            }
+            int b = src[pos++] & 0xFF;
+            uncompressedLength |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                break;
+            }
+        }
+        if (uncompressedLength > Integer.MAX_VALUE) {
+            throw new IOException("Snappy block is too big: " + uncompressedLength);
+        }
+        byte[] out = new byte[(int) uncompressedLength];
+        int outPos = 0;
+        while (pos < end) {
+            int tag = src[pos++] & 0xFF;
+            int elementLength;
+            int copyOffset;
+            switch (tag & 3) {
+                case 0: {
+                    elementLength = tag >>> 2;
+                    if (elementLength >= 60) {
+                        int lengthBytes = elementLength - 59;
+                        if (pos + lengthBytes > end) {
+                            throw new IOException("Corrupted Snappy data: truncated literal");
+                        }
+                        elementLength = 0;
+                        for (int i = 0; i < lengthBytes; i++) {
+                            elementLength |= (src[pos++] & 0xFF) << (8 * i);
+                        }
+                    }
+                    elementLength++;
+                    if (elementLength <= 0 || pos + elementLength > end || outPos + elementLength > out.length) {
+                        throw new IOException("Corrupted Snappy data: bad literal length");
+                    }
+                    System.arraycopy(src, pos, out, outPos, elementLength);
+                    pos += elementLength;
+                    outPos += elementLength;
+                    continue;
+                }
+                case 1:
+                    if (pos >= end) {
+                        throw new IOException("Corrupted Snappy data: truncated copy");
+                    }
+                    elementLength = ((tag >>> 2) & 7) + 4;
+                    copyOffset = ((tag >>> 5) << 8) | (src[pos++] & 0xFF);
+                    break;
+                case 2:
+                    if (pos + 2 > end) {
+                        throw new IOException("Corrupted Snappy data: truncated copy");
+                    }
+                    elementLength = (tag >>> 2) + 1;
+                    copyOffset = (src[pos] & 0xFF) | (src[pos + 1] & 0xFF) << 8;
+                    pos += 2;
+                    break;
+                default:
+                    if (pos + 4 > end) {
+                        throw new IOException("Corrupted Snappy data: truncated copy");
+                    }
+                    elementLength = (tag >>> 2) + 1;
+                    copyOffset = readInt(src, pos);
+                    pos += 4;
+                    break;
+            }
+            if (copyOffset <= 0 || copyOffset > outPos || outPos + elementLength > out.length) {
+                throw new IOException("Corrupted Snappy data: bad copy offset");
+            }
+            // Source and target may overlap
+            for (int i = 0; i < elementLength; i++, outPos++) {
+                out[outPos] = out[outPos - copyOffset];
+            }
+        }
+        if (outPos != out.length) {
+            throw new IOException("Corrupted Snappy data: expected " + out.length + " bytes, got " + outPos);
+        }
+        return out;
+    }
+
+    private static void writeLiteral(ByteOutput out, byte[] src, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        int n = length - 1;
+        if (n < 60) {
+            out.writeByte(n << 2);
+        } else if (n < (1 << 8)) {
+            out.writeByte(60 << 2);
+            out.writeByte(n);
+        } else if (n < (1 << 16)) {
+            out.writeByte(61 << 2);
+            out.writeShortLE(n);
+        } else if (n < (1 << 24)) {
+            out.writeByte(62 << 2);
+            out.writeShortLE(n);
+            out.writeByte(n >>> 16);
+        } else {
+            out.writeByte(63 << 2);
+            out.writeIntLE(n);
+        }
+        out.writeBytes(src, offset, length);
+    }
+
+    private static void writeCopy(ByteOutput out, int matchOffset, int length) {
+        while (length > 0) {
+            int copyLength = Math.min(length, MAX_COPY_LENGTH);
+            // Copy with 2-byte offset
+            out.writeByte(((copyLength - 1) << 2) | 2);
+            out.writeShortLE(matchOffset);
+            length -= copyLength;
+        }
+    }
+
+    private static int readInt(byte[] src, int pos) {
+        return (src[pos] & 0xFF) | (src[pos + 1] & 0xFF) << 8 | (src[pos + 2] & 0xFF) << 16 | (src[pos + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(int value) {
+        return (value * 0x1E35A7BD) >>> (32 - HASH_BITS);
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Minimal Thrift compact protocol reader. Used to read Parquet metadata structures.
+ * Structs are read into field id maps, unknown fields are kept but ignored by callers.
+ */
+final class ThriftCompactReader {
+
+    private static final int MAX_DEPTH = 64;
+
+    private final byte[] data;
+    private final int end;
+    private int pos;
+    private int depth;
+
+    ThriftCompactReader(@NotNull byte[] data, int offset, int length) {
+        this.data = data;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    @NotNull
+    Struct readStruct() throws IOException {
+        if (++depth > MAX_DEPTH) {
+            throw new IOException("Thrift structure is too deep");
+        }
+        Map<Integer, Object> fields = new HashMap<>();
+        int lastFieldId = 0;
+        while (true) {
+            int header = readByte();
+            if (header == 0) {
+                break;
+            }
+            int type = header & 0x0F;
+            int delta = header >>> 4;
+            int fieldId = delta == 0 ? (short) readZigZagInt() : lastFieldId + delta;
+            lastFieldId = fieldId;
+            Object value;
+            if (type == ThriftCompactWriter.TYPE_BOOLEAN_TRUE || type == ThriftCompactWriter.TYPE_BOOLEAN_FALSE) {
+                // Boolean field value is encoded in the field type
+                value = type == ThriftCompactWriter.TYPE_BOOLEAN_TRUE;
+            } else {
+                value = readValue(type);
+            }
+            fields.put(fieldId, value);
+        }
+        depth--;
+        return new Struct(fields);
+    }
+
+    private Object readValue(int type) throws IOException {
+        switch (type) {
+            case ThriftCompactWriter.TYPE_BOOLEAN_TRUE:
+            case ThriftCompactWriter.TYPE_BOOLEAN_FALSE:
+                return readByte() == ThriftCompactWriter.TYPE_BOOLEAN_TRUE;
+            case ThriftCompactWriter.TYPE_BYTE:
+                return (int) (byte) readByte();
+            case 4: // i16
+            case ThriftCompactWriter.TYPE_I32:
+                return readZigZagInt();
+            case ThriftCompactWriter.TYPE_I64: {
+                long value = readVarint();
+                return (value >>> 1) ^ -(value & 1);
+            }
+            case 7: { // double
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits |= (long) readByte() << (i * 8);
+                }
+                return Double.longBitsToDouble(bits);
+            }
+            case ThriftCompactWriter.TYPE_BINARY: {
+                int length = (int) readVarint();
+                if (length < 0 || pos + length > end) {
+                    throw new IOException("Bad Thrift binary length " + length);
+                }
+                byte[] value = Arrays.copyOfRange(data, pos, pos + length);
+                pos += length;
+                return value;
+            }
+            case ThriftCompactWriter.TYPE_LIST:
+            case 10: { // set
+                int header = readByte();
+                int size = header >>> 4;
+                if (size == 15) {
+                    size = (int) readVarint();
+                }
+                if (size < 0 || size > end - pos) {
+                    throw new IOException("Bad Thrift list size " + size);
+                }
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(header & 0x0F));
+                }
+                return list;
+            }
+            case 11: { // map
+                int size = (int) readVarint();
+                if (size < 0 || size > end - pos) {
+                    throw new IOException("Bad Thrift map size " + size);
+                }
+                List<Object> entries = new ArrayList<>(size * 2);
+                if (size > 0) {
+                    int types = readByte();
+                    for (int i = 0; i < size; i++) {
+                        entries.add(readValue(types >>> 4));
+                        entries.add(readValue(types & 0x0F));
+                    }
+                }
+                return entries;
+            }
+            case ThriftCompactWriter.TYPE_STRUCT:
+                return readStruct();
+            default:
+                throw new IOException("Unsupported Thrift type " + type);
+        }
+    }
+
+    private int readByte() throws IOException {
+        if (pos >= end) {
+            throw new IOException("Unexpected end of Thrift data");
+        }
+        return data[pos++] & 0xFF;
+    }
+
+    private long readVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return result;
+            }
+        }
+        throw new IOException("Bad Thrift varint");
+    }
+
+    private int readZigZagInt() throws IOException {
+        int value = (int) readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Thrift struct fields
+     */
+    static final class Struct {
+        private final Map<Integer, Object> fields;
+
+        private Struct(Map<Integer, Object> fields) {
+            this.fields = fields;
+        }
+
+        boolean has(int fieldId) {
+            return fields.containsKey(fieldId);
+        }
+
+        int getInt(int fieldId, int defaultValue) {
+            Object value = fields.get(fieldId);
+            return value instanceof Number number ? number.intValue() : defaultValue;
+        }
+
+        long getLong(int fieldId, long defaultValue) {
+            Object value = fields.get(fieldId);
+            return value instanceof Number number ? number.longValue() : defaultValue;
+        }
+
+        boolean getBoolean(int fieldId, boolean defaultValue) {
+            Object value = fields.get(fieldId);
+            return value instanceof Boolean bool ? bool : defaultValue;
+        }
+
+        @Nullable
+        String getString(int fieldId) {
+            Object value = fields.get(fieldId);
+            return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : null;
+        }
+
+        @Nullable
+        Struct getStruct(int fieldId) {
+            Object value = fields.get(fieldId);
+            return value instanceof Struct struct ? struct : null;
+        }
+
+        @NotNull
+        List<Struct> getStructList(int fieldId) {
+            Object value = fields.get(fieldId);
+            if (!(value instanceof List<?> list)) {
+                return Collections.emptyList();
+            }
+            List<Struct> result = new ArrayList<>(list.size());
+            for (Object item : list) {
+                if (item instanceof Struct struct) {
+                    result.add(struct);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns field id of the first set field. Used for unions.
+         */
+        int getUnionFieldId() {
+            return fields.isEmpty() ? 0 : fields.keySet().iterator().next();
+        }
+    }
+
+}
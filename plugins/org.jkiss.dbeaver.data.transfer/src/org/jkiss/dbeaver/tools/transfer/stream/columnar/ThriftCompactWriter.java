@@ -0,0 +1,144 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal Thrift compact protocol writer. Used to write Parquet metadata structures.
+ * Fields must be written in increasing field id order.
+ */
+final class ThriftCompactWriter {
+
+    static final byte TYPE_BOOLEAN_TRUE = 1;
+    static final byte TYPE_BOOLEAN_FALSE = 2;
+    static final byte TYPE_BYTE = 3;
+    static final byte TYPE_I32 = 5;
+    static final byte TYPE_I64 = 6;
+    static final byte TYPE_BINARY = 8;
+    static final byte TYPE_LIST = 9;
+    static final byte TYPE_STRUCT = 12;
+
+    private final ByteOutput out = new ByteOutput(256);
+    private short[] fieldIdStack = new short[16];
+    private int stackDepth;
+    private short lastFieldId;
+
+    int size() {
+        return out.size();
+    }
+
+    @NotNull
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    /**
+     * Starts top-level struct or list element struct
+     */
+    void structBegin() {
+        if (stackDepth == fieldIdStack.length) {
+            fieldIdStack = Arrays.copyOf(fieldIdStack, stackDepth * 2);
+        }
+        fieldIdStack[stackDepth++] = lastFieldId;
+        lastFieldId = 0;
+    }
+
+    void structEnd() {
+        // Field stop
+        out.writeByte(0);
+        lastFieldId = fieldIdStack[--stackDepth];
+    }
+
+    /**
+     * Starts struct field. Must be closed with {@link #structEnd()}
+     */
+    void fieldStruct(int fieldId) {
+        fieldHeader(fieldId, TYPE_STRUCT);
+        structBegin();
+    }
+
+    void fieldBoolean(int fieldId, boolean value) {
+        fieldHeader(fieldId, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    void fieldByte(int fieldId, int value) {
+        fieldHeader(fieldId, TYPE_BYTE);
+        out.writeByte(value);
+    }
+
+    void fieldI32(int fieldId, int value) {
+        fieldHeader(fieldId, TYPE_I32);
+        writeI32(value);
+    }
+
+    void fieldI64(int fieldId, long value) {
+        fieldHeader(fieldId, TYPE_I64);
+        out.writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void fieldString(int fieldId, @NotNull String value) {
+        fieldHeader(fieldId, TYPE_BINARY);
+        writeString(value);
+    }
+
+    /**
+     * Starts list field. Elements must be written with list element methods or as structs.
+     */
+    void fieldList(int fieldId, byte elementType, int size) {
+        fieldHeader(fieldId, TYPE_LIST);
+        if (size < 15) {
+            out.writeByte((size << 4) | elementType);
+        } else {
+            out.writeByte(0xF0 | elementType);
+            out.writeVarint(size);
+        }
+    }
+
+    void listI32(int value) {
+        writeI32(value);
+    }
+
+    void listString(@NotNull String value) {
+        writeString(value);
+    }
+
+    private void fieldHeader(int fieldId, byte type) {
+        int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            out.writeByte((delta << 4) | type);
+        } else {
+            out.writeByte(type);
+            writeI32(fieldId);
+        }
+        lastFieldId = (short) fieldId;
+    }
+
+    private void writeI32(int value) {
+        out.writeVarint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarint(bytes.length);
+        out.writeBytes(bytes);
+    }
+
+}
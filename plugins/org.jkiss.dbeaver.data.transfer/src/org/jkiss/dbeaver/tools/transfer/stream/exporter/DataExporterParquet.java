@@ -0,0 +1,63 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ColumnDescriptor;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ColumnarWriter;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.CompressionCodec;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ParquetWriter;
+
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Apache Parquet exporter. Each batch of rows is written as a separate row group.
+ */
+public class DataExporterParquet extends StreamExporterColumnar {
+
+    private static final int DEFAULT_ROW_GROUP_SIZE = 100_000;
+
+    @NotNull
+    @Override
+    protected ColumnarWriter createWriter(
+        @NotNull OutputStream out,
+        @NotNull List<ColumnDescriptor> columns,
+        boolean useDictionary,
+        @NotNull String compression
+    ) {
+        return new ParquetWriter(out, columns, CompressionCodec.fromName(compression), useDictionary);
+    }
+
+    @NotNull
+    @Override
+    protected String getFormatName() {
+        return "Parquet";
+    }
+
+    @Override
+    protected int getDefaultBatchSize() {
+        return DEFAULT_ROW_GROUP_SIZE;
+    }
+
+    @NotNull
+    @Override
+    protected String getDefaultCompression() {
+        return "snappy";
+    }
+
+}
@@ -0,0 +1,395 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.DTUtils;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.*;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.*;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+
+/**
+ * Base exporter of columnar binary formats.
+ * Rows are collected in column vectors and written by batches. Attribute types are mapped to columnar types
+ * by data kind and JDBC type, values which can't be mapped are written as strings.
+ * Values are never rounded or truncated: export fails if value doesn't fit the column type.
+ */
+public abstract class StreamExporterColumnar extends StreamExporterAbstract {
+
+    public static final String PROP_BATCH_SIZE = "batchSize";
+    public static final String PROP_COMPRESSION = "compression";
+    public static final String PROP_DICTIONARY = "dictionaryEncoding";
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    // Max number of decimal digits of unsigned 64-bit integer
+    private static final int UNSIGNED_BIGINT_PRECISION = 20;
+
+    private DBDAttributeBinding[] attributes;
+    private List<ColumnDescriptor> columns;
+    private ColumnVector[] vectors;
+    private ColumnarWriter writer;
+    private int batchSize;
+    private String compression;
+    private boolean useDictionary;
+    private int batchRows;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException {
+        super.init(site);
+        Map<String, Object> properties = site.getProperties();
+        batchSize = Math.max(CommonUtils.toInt(properties.get(PROP_BATCH_SIZE), getDefaultBatchSize()), 1);
+        compression = CommonUtils.toString(properties.get(PROP_COMPRESSION), getDefaultCompression());
+        useDictionary = CommonUtils.getBoolean(properties.get(PROP_DICTIONARY), true);
+    }
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException {
+        attributes = getSite().getAttributes();
+        columns = new ArrayList<>(attributes.length);
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < attributes.length; i++) {
+            DBDAttributeBinding attribute = attributes[i];
+            String name = CommonUtils.isEmpty(attribute.getLabel()) ? attribute.getName() : attribute.getLabel();
+            if (CommonUtils.isEmpty(name)) {
+                name = "column_" + (i + 1);
+            }
+            // Columnar formats require unique column names
+            String uniqueName = name;
+            for (int suffix = 2; !names.add(uniqueName); suffix++) {
+                uniqueName = name + "_" + suffix;
+            }
+            columns.add(makeColumnDescriptor(uniqueName, attribute));
+        }
+        vectors = new ColumnVector[columns.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new ColumnVector(columns.get(i).getType(), Math.min(batchSize, 8192));
+        }
+        try {
+            writer = createWriter(getOutputStream(), columns, useDictionary, compression);
+        } catch (IllegalArgumentException e) {
+            throw new DBException("Can't create " + getFormatName() + " writer", e);
+        }
+        batchRows = 0;
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = row[i];
+            if (value instanceof DBDContent content) {
+                try {
+                    appendContent(session.getProgressMonitor(), columns.get(i), vectors[i], content);
+                } finally {
+                    DTUtils.closeContents(resultSet, content);
+                }
+            } else {
+                appendValue(attributes[i], columns.get(i), vectors[i], value);
+            }
+        }
+        if (++batchRows >= batchSize) {
+            flushBatch();
+        }
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws DBException, IOException {
+        flushBatch();
+        writer.finish();
+    }
+
+    /**
+     * Creates format writer
+     *
+     * @throws IllegalArgumentException if compression is not supported by the format
+     */
+    @NotNull
+    protected abstract ColumnarWriter createWriter(
+        @NotNull OutputStream out,
+        @NotNull List<ColumnDescriptor> columns,
+        boolean useDictionary,
+        @NotNull String compression
+    );
+
+    @NotNull
+    protected abstract String getFormatName();
+
+    protected abstract int getDefaultBatchSize();
+
+    @NotNull
+    protected abstract String getDefaultCompression();
+
+    private void flushBatch() throws IOException {
+        if (batchRows == 0) {
+            return;
+        }
+        writer.writeBatch(vectors, batchRows);
+        for (ColumnVector vector : vectors) {
+            vector.reset();
+        }
+        batchRows = 0;
+    }
+
+    @NotNull
+    private static ColumnDescriptor makeColumnDescriptor(@NotNull String name, @NotNull DBDAttributeBinding attribute) {
+        int typeID = attribute.getTypeID();
+        switch (attribute.getDataKind()) {
+            case BOOLEAN:
+                return new ColumnDescriptor(name, ColumnType.BOOLEAN);
+            case NUMERIC:
+                switch (typeID) {
+                    case Types.TINYINT:
+                    case Types.SMALLINT:
+                        return new ColumnDescriptor(name, ColumnType.INT32);
+                    case Types.INTEGER:
+                        return new ColumnDescriptor(name, isUnsigned(attribute) ? ColumnType.INT64 : ColumnType.INT32);
+                    case Types.BIGINT:
+                        if (isUnsigned(attribute)) {
+                            return new ColumnDescriptor(name, ColumnType.DECIMAL, UNSIGNED_BIGINT_PRECISION, 0);
+                        }
+                        return new ColumnDescriptor(name, ColumnType.INT64);
+                    case Types.DECIMAL:
+                    case Types.NUMERIC: {
+                        int precision = CommonUtils.toInt(attribute.getPrecision());
+                        int scale = CommonUtils.toInt(attribute.getScale());
+                        if (precision > 0 && precision <= ColumnDescriptor.MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                            return new ColumnDescriptor(name, ColumnType.DECIMAL, precision, scale);
+                        }
+                        // Unbounded numbers can't be stored as decimals without loss
+                        return new ColumnDescriptor(name, ColumnType.STRING);
+                    }
+                    default:
+                        return new ColumnDescriptor(name, ColumnType.DOUBLE);
+                }
+            case DATETIME:
+                switch (typeID) {
+                    case Types.DATE:
+                        return new ColumnDescriptor(name, ColumnType.DATE);
+                    case Types.TIMESTAMP:
+                        return new ColumnDescriptor(name, ColumnType.TIMESTAMP);
+                    case Types.TIMESTAMP_WITH_TIMEZONE:
+                        return new ColumnDescriptor(name, ColumnType.TIMESTAMP_TZ);
+                    default:
+                        return new ColumnDescriptor(name, ColumnType.STRING);
+                }
+            case BINARY:
+            case CONTENT:
+                switch (typeID) {
+                    case Types.CLOB:
+                    case Types.NCLOB:
+                    case Types.LONGVARCHAR:
+                    case Types.LONGNVARCHAR:
+                    case Types.SQLXML:
+                        return new ColumnDescriptor(name, ColumnType.STRING);
+                    default:
+                        return new ColumnDescriptor(name, ColumnType.BINARY);
+                }
+            default:
+                return new ColumnDescriptor(name, ColumnType.STRING);
+        }
+    }
+
+    private static boolean isUnsigned(@NotNull DBDAttributeBinding attribute) {
+        String typeName = attribute.getTypeName();
+        return typeName != null && typeName.toUpperCase(Locale.ENGLISH).contains("UNSIGNED");
+    }
+
+    private void appendContent(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull ColumnDescriptor column,
+        @NotNull ColumnVector vector,
+        @NotNull DBDContent content
+    ) throws DBException {
+        if (content.isNull()) {
+            vector.appendNull();
+            return;
+        }
+        byte[] bytes;
+        if (column.getType() == ColumnType.BINARY && !ContentUtils.isTextContent(content)) {
+            bytes = ContentUtils.getContentBinaryValue(monitor, content);
+        } else {
+            String text = ContentUtils.getContentStringValue(monitor, content);
+            bytes = text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+        }
+        if (bytes == null) {
+            vector.appendNull();
+        } else {
+            vector.appendObject(bytes);
+        }
+    }
+
+    private void appendValue(
+        @NotNull DBDAttributeBinding attribute,
+        @NotNull ColumnDescriptor column,
+        @NotNull ColumnVector vector,
+        Object value
+    ) throws DBException {
+        if (DBUtils.isNullValue(value)) {
+            vector.appendNull();
+            return;
+        }
+        try {
+            switch (column.getType()) {
+                case BOOLEAN:
+                    vector.appendLong(toBoolean(value) ? 1 : 0);
+                    break;
+                case INT32:
+                    vector.appendLong(Math.toIntExact(toLong(value)));
+                    break;
+                case INT64:
+                    vector.appendLong(toLong(value));
+                    break;
+                case DOUBLE:
+                    vector.appendDouble(value instanceof Number number ? number.doubleValue() : Double.parseDouble(value.toString().trim()));
+                    break;
+                case DECIMAL:
+                    vector.appendObject(toUnscaledDecimal(value, column));
+                    break;
+                case DATE:
+                    vector.appendLong(toLocalDateTime(value).toLocalDate().toEpochDay());
+                    break;
+                case TIMESTAMP:
+                    vector.appendLong(toMicros(toLocalDateTime(value).toInstant(ZoneOffset.UTC)));
+                    break;
+                case TIMESTAMP_TZ:
+                    vector.appendLong(toMicros(toInstant(value)));
+                    break;
+                case BINARY:
+                    if (value instanceof byte[] bytes) {
+                        vector.appendObject(bytes);
+                        break;
+                    }
+                    // Fall through to string representation
+                default:
+                    vector.appendObject(getValueDisplayString(attribute, value).getBytes(StandardCharsets.UTF_8));
+                    break;
+            }
+        } catch (RuntimeException e) {
+            throw new DBException("Can't convert value '" + value + "' of column " + column.getName() + " to " + column.getType(), e);
+        }
+    }
+
+    private static boolean toBoolean(@NotNull Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        } else if (value instanceof Number number) {
+            return number.intValue() != 0;
+        }
+        return CommonUtils.getBoolean(value.toString(), false);
+    }
+
+    private static long toLong(@NotNull Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        // Fails on fractional and out of range values
+        return toDecimal(value).longValueExact();
+    }
+
+    /**
+     * Returns unscaled value of the decimal with the column scale
+     *
+     * @throws ArithmeticException if value has more fractional digits than column scale or more digits than column precision
+     */
+    @NotNull
+    private static BigInteger toUnscaledDecimal(@NotNull Object value, @NotNull ColumnDescriptor column) {
+        // Only trailing zeros may be dropped
+        BigDecimal decimal = toDecimal(value).setScale(column.getScale(), RoundingMode.UNNECESSARY);
+        if (decimal.precision() > column.getPrecision()) {
+            throw new ArithmeticException("Value precision " + decimal.precision() + " exceeds column precision " + column.getPrecision());
+        }
+        return decimal.unscaledValue();
+    }
+
+    @NotNull
+    private static BigDecimal toDecimal(@NotNull Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        } else if (value instanceof BigInteger integer) {
+            return new BigDecimal(integer);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    @NotNull
+    private static LocalDateTime toLocalDateTime(@NotNull Object value) {
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        } else if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().atStartOfDay();
+        } else if (value instanceof Date date) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        } else if (value instanceof LocalDateTime dateTime) {
+            return dateTime;
+        } else if (value instanceof LocalDate date) {
+            return date.atStartOfDay();
+        } else if (value instanceof OffsetDateTime dateTime) {
+            return dateTime.toLocalDateTime();
+        } else if (value instanceof ZonedDateTime dateTime) {
+            return dateTime.toLocalDateTime();
+        } else if (value instanceof Instant instant) {
+            return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        }
+        // Values may be strings if native date/time format is used
+        String text = value.toString().trim().replace(' ', 'T');
+        return text.indexOf('T') < 0 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text);
+    }
+
+    @NotNull
+    private static Instant toInstant(@NotNull Object value) {
+        if (value instanceof Date date) {
+            return date.toInstant();
+        } else if (value instanceof OffsetDateTime dateTime) {
+            return dateTime.toInstant();
+        } else if (value instanceof ZonedDateTime dateTime) {
+            return dateTime.toInstant();
+        } else if (value instanceof Instant instant) {
+            return instant;
+        } else if (value instanceof TemporalAccessor && !(value instanceof LocalDateTime) && !(value instanceof LocalDate)) {
+            return Instant.from((TemporalAccessor) value);
+        } else if (value instanceof String text) {
+            return OffsetDateTime.parse(text.trim().replace(' ', 'T')).toInstant();
+        }
+        // Local values are in the client time zone
+        return toLocalDateTime(value).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static long toMicros(@NotNull Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), MICROS_PER_SECOND), instant.getNano() / 1000);
+    }
+
+}
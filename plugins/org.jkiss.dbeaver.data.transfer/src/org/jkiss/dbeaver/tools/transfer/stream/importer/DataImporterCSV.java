@@ -16,7 +16,10 @@
  */
 package org.jkiss.dbeaver.tools.transfer.stream.importer;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBFetchProgress;
@@ -27,6 +30,7 @@ import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
 import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferUtils;
@@ -38,10 +42,17 @@ import org.jkiss.utils.csv.CSVReader;
 import org.jkiss.utils.io.BOMInputStream;
 
 import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
 
 /**
  * CSV importer
@@ -57,7 +68,11 @@ public class DataImporterCSV extends StreamImporterAbstract {
     private static final String PROP_EMPTY_STRING_NULL = "emptyStringNull";
     private static final String PROP_ESCAPE_CHAR = "escapeChar";
     private static final String PROP_TRIM_WHITESPACES = "trimWhitespaces";
+    private static final String PROP_PARALLEL_PARSING = "parallelParsing";
+    private static final String PROP_PARSER_THREADS = "parserThreads";
     public static final int READ_BUFFER_SIZE = 255 * 1024;
+    // Size of file chunk parsed by one job in parallel mode
+    private static final int PARALLEL_CHUNK_SIZE = 4 * 1024 * 1024;
 
     public enum HeaderPosition {
         none,
@@ -159,20 +174,25 @@ public class DataImporterCSV extends StreamImporterAbstract {
 
     private CSVReader openCSVReader(Reader reader, Map<String, Object> processorProperties) {
         String delimiter = StreamTransferUtils.getDelimiterString(processorProperties, PROP_DELIMITER);
+        return new CSVReader(reader, delimiter.charAt(0), getQuoteChar(processorProperties), getEscapeChar(processorProperties));
+    }
+
+    private static char getQuoteChar(Map<String, Object> processorProperties) {
         String quoteChar = CommonUtils.toString(processorProperties.get(PROP_QUOTE_CHAR));
-        if (CommonUtils.isEmpty(quoteChar)) {
-            quoteChar = "'";
-        }
+        return CommonUtils.isEmpty(quoteChar) ? '\'' : quoteChar.charAt(0);
+    }
+
+    private static char getEscapeChar(Map<String, Object> processorProperties) {
         String escapeChar = CommonUtils.toString(processorProperties.get(PROP_ESCAPE_CHAR));
-        if (CommonUtils.isEmpty(escapeChar)) {
-            escapeChar = "\\";
-        }
-        return new CSVReader(reader, delimiter.charAt(0), quoteChar.charAt(0), escapeChar.charAt(0));
+        return CommonUtils.isEmpty(escapeChar) ? '\\' : escapeChar.charAt(0);
+    }
+
+    private static Charset getCharset(Map<String, Object> processorProperties) {
+        return Charset.forName(CommonUtils.toString(processorProperties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING));
     }
 
     private Reader openStreamReader(InputStream inputStream, Map<String, Object> processorProperties, boolean useBufferedStream) throws UnsupportedEncodingException {
-        final String encoding = CommonUtils.toString(processorProperties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING);
-        final Charset charset = Charset.forName(encoding);
+        final Charset charset = getCharset(processorProperties);
         if (useBufferedStream) {
             inputStream = new BufferedInputStream(inputStream, READ_BUFFER_SIZE);
         }
@@ -202,10 +222,8 @@ public class DataImporterCSV extends StreamImporterAbstract {
         IStreamDataImporterSite site = getSite();
         StreamEntityMapping entityMapping = site.getSourceObject();
         Map<String, Object> properties = site.getProcessorProperties();
-        HeaderPosition headerPosition = getHeaderPosition(properties);
-        boolean emptyStringNull = CommonUtils.getBoolean(properties.get(PROP_EMPTY_STRING_NULL), false);
-        boolean trimWhitespaces = CommonUtils.getBoolean(properties.get(PROP_TRIM_WHITESPACES), false);
-        String nullValueMark = CommonUtils.toString(properties.get(PROP_NULL_STRING));
+        LineProcessor lineProcessor = new LineProcessor(entityMapping.getStreamColumns().size(), properties);
+        int parserThreads = getParserThreads(properties);
 
         DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
         try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
@@ -216,16 +234,350 @@ public class DataImporterCSV extends StreamImporterAbstract {
 
             applyTransformHints(resultSet, consumer, properties, PROP_TIMESTAMP_FORMAT, PROP_TIMESTAMP_ZONE);
 
-            try (Reader reader = openStreamReader(inputStream, properties, true)) {
-                try (CSVReader csvReader = openCSVReader(reader, properties)) {
+            try {
+                Path inputFile = entityMapping.getInputFile();
+                if (parserThreads > 1 && isParallelParsingSupported(inputFile, properties)) {
+                    importInParallel(monitor, producerSession, resultSet, consumer, inputFile, properties, lineProcessor, parserThreads);
+                } else {
+                    importSequentially(monitor, producerSession, resultSet, consumer, inputStream, properties, lineProcessor);
+                }
+            } catch (IOException e) {
+                throw new DBException("IO error reading CSV", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
 
-                    int maxRows = site.getSettings().getMaxRows();
-                    int targetAttrSize = entityMapping.getStreamColumns().size();
-                    boolean headerRead = false;
-                    for (long lineNum = 0; ; ) {
-                        if (monitor.isCanceled()) {
-                            break;
+    }
+
+    private void importSequentially(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCSession producerSession,
+        @NotNull StreamTransferResultSet resultSet,
+        @NotNull IDataTransferConsumer consumer,
+        @NotNull InputStream inputStream,
+        @NotNull Map<String, Object> properties,
+        @NotNull LineProcessor lineProcessor
+    ) throws IOException, DBException {
+        HeaderPosition headerPosition = getHeaderPosition(properties);
+        try (Reader reader = openStreamReader(inputStream, properties, true)) {
+            try (CSVReader csvReader = openCSVReader(reader, properties)) {
+
+                int maxRows = getSite().getSettings().getMaxRows();
+                boolean headerRead = false;
+                for (long lineNum = 0; ; ) {
+                    if (monitor.isCanceled()) {
+                        break;
+                    }
+                    String[] line = csvReader.readNext();
+                    if (line == null) {
+                        if (csvReader.getParser().isPending()) {
+                            throw new IOException("Un-terminated quote sequence was detected");
+                        }
+                        break;
+                    }
+                    if (line.length == 0) {
+                        continue;
+                    }
+                    if (headerPosition != HeaderPosition.none && !headerRead) {
+                        // First line is a header
+                        headerRead = true;
+                        continue;
+                    }
+                    if (maxRows > 0 && lineNum >= maxRows) {
+                        break;
+                    }
+
+                    resultSet.setStreamRow(lineProcessor.process(line));
+                    consumer.fetchRow(producerSession, resultSet);
+                    lineNum++;
+
+                    if (DBFetchProgress.monitorFetchProgress(lineNum)) {
+                        monitor.subTask(Long.toUnsignedString(lineNum) + " rows processed");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits file into chunks at record boundaries and parses chunks in background jobs.
+     * Parsed chunks are passed to the consumer in file order, so row order is preserved.
+     */
+    private void importInParallel(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCSession producerSession,
+        @NotNull StreamTransferResultSet resultSet,
+        @NotNull IDataTransferConsumer consumer,
+        @NotNull Path inputFile,
+        @NotNull Map<String, Object> properties,
+        @NotNull LineProcessor lineProcessor,
+        int parserThreads
+    ) throws IOException, DBException {
+        Charset charset = getCharset(properties);
+        boolean hasHeader = getHeaderPosition(properties) != HeaderPosition.none;
+        int maxRows = getSite().getSettings().getMaxRows();
+
+        try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            ChunkSplitter splitter = new ChunkSplitter(channel, charset, getQuoteChar(properties), getEscapeChar(properties));
+            // At most one chunk per thread is parsed ahead of the consumer
+            Deque<ChunkParseJob> jobs = new ArrayDeque<>();
+            try {
+                long lineNum = 0;
+                while (!monitor.isCanceled()) {
+                    while (jobs.size() < parserThreads && splitter.hasNext()) {
+                        boolean firstChunk = splitter.isFirstChunk();
+                        long chunkStart = splitter.getPosition();
+                        long chunkEnd = splitter.nextChunk();
+                        ChunkParseJob job = new ChunkParseJob(
+                            channel, chunkStart, chunkEnd, charset, properties, lineProcessor, firstChunk && hasHeader);
+                        job.schedule();
+                        jobs.add(job);
+                    }
+                    ChunkParseJob job = jobs.poll();
+                    if (job == null) {
+                        break;
+                    }
+                    try {
+                        job.join();
+                    } catch (InterruptedException e) {
+                        throw new DBException("CSV parsing was interrupted", e);
+                    }
+                    if (job.error instanceof IOException) {
+                        throw (IOException) job.error;
+                    } else if (job.error != null) {
+                        throw new DBException("Error parsing CSV", job.error);
+                    }
+                    for (String[] line : job.lines) {
+                        if (monitor.isCanceled() || (maxRows > 0 && lineNum >= maxRows)) {
+                            return;
+                        }
+                        resultSet.setStreamRow(line);
+                        consumer.fetchRow(producerSession, resultSet);
+                        lineNum++;
+
+                        if (DBFetchProgress.monitorFetchProgress(lineNum)) {
+                            monitor.subTask(Long.toUnsignedString(lineNum) + " rows processed");
                         }
+                    }
+                }
+            } finally {
+                for (ChunkParseJob job : jobs) {
+                    job.cancel();
+                }
+            }
+        }
+    }
+
+    private static int getParserThreads(Map<String, Object> properties) {
+        if (!CommonUtils.getBoolean(properties.get(PROP_PARALLEL_PARSING), false)) {
+            return 1;
+        }
+        int threads = CommonUtils.toInt(properties.get(PROP_PARSER_THREADS), 0);
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static boolean isParallelParsingSupported(@Nullable Path inputFile, Map<String, Object> properties) {
+        // Memory mapping is available for local files only
+        if (inputFile == null || inputFile.getFileSystem() != FileSystems.getDefault()) {
+            return false;
+        }
+        try {
+            if (Files.size(inputFile) <= PARALLEL_CHUNK_SIZE) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        // Record boundaries are searched by bytes, so line feed, quote and escape characters
+        // must be encoded as single ASCII bytes which never appear inside other characters
+        char quoteChar = getQuoteChar(properties);
+        char escapeChar = getEscapeChar(properties);
+        if (quoteChar >= 0x80 || escapeChar >= 0x80) {
+            return false;
+        }
+        Charset charset = getCharset(properties);
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return true;
+        }
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1) {
+            return false;
+        }
+        String specialChars = "\n" + quoteChar + escapeChar;
+        return Arrays.equals(specialChars.getBytes(charset), specialChars.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Post-processes parsed line: pads short lines and converts empty strings and NULL marks to nulls.
+     * Thread-safe.
+     */
+    private static class LineProcessor {
+        private final int targetAttrSize;
+        private final boolean emptyStringNull;
+        private final boolean trimWhitespaces;
+        private final String nullValueMark;
+
+        LineProcessor(int targetAttrSize, Map<String, Object> properties) {
+            this.targetAttrSize = targetAttrSize;
+            this.emptyStringNull = CommonUtils.getBoolean(properties.get(PROP_EMPTY_STRING_NULL), false);
+            this.trimWhitespaces = CommonUtils.getBoolean(properties.get(PROP_TRIM_WHITESPACES), false);
+            this.nullValueMark = CommonUtils.toString(properties.get(PROP_NULL_STRING));
+        }
+
+        String[] process(String[] line) {
+            if (line.length < targetAttrSize) {
+                // Stream row may be shorter than header
+                String[] newLine = new String[targetAttrSize];
+                System.arraycopy(line, 0, newLine, 0, line.length);
+                line = newLine;
+            }
+            for (int i = 0; i < line.length; i++) {
+                String value = line[i];
+                if (value == null) {
+                    continue;
+                }
+                if (trimWhitespaces) {
+                    value = value.trim();
+                }
+                if ((emptyStringNull && value.isEmpty()) || (!CommonUtils.isEmpty(nullValueMark) && nullValueMark.equals(value))) {
+                    value = null;
+                }
+                line[i] = value;
+            }
+            return line;
+        }
+    }
+
+    /**
+     * Splits file into chunks which end at record boundaries.
+     * Quote state is tracked from the beginning of file, so line feeds inside quoted values do not split records.
+     */
+    public static class ChunkSplitter {
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int chunkSize;
+        private final byte quoteChar;
+        private final byte escapeChar;
+        private final long dataStart;
+        private long position;
+        private boolean inQuotes;
+        private boolean escapePending;
+
+        ChunkSplitter(FileChannel channel, Charset charset, char quoteChar, char escapeChar) throws IOException {
+            this(channel, charset, quoteChar, escapeChar, PARALLEL_CHUNK_SIZE);
+        }
+
+        // Constructor for tests
+        public ChunkSplitter(FileChannel channel, Charset charset, char quoteChar, char escapeChar, int chunkSize) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+            this.chunkSize = chunkSize;
+            this.quoteChar = (byte) quoteChar;
+            this.escapeChar = (byte) escapeChar;
+            long start = 0;
+            if (charset.equals(StandardCharsets.UTF_8) && fileSize >= 3) {
+                // Skip BOM
+                MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+                if ((head.get(0) & 0xFF) == 0xEF && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF) {
+                    start = 3;
+                }
+            }
+            this.dataStart = start;
+            this.position = start;
+        }
+
+        public boolean hasNext() {
+            return position < fileSize;
+        }
+
+        public boolean isFirstChunk() {
+            return position == dataStart;
+        }
+
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * Finds the end of chunk which starts at the current position
+         */
+        public long nextChunk() throws IOException {
+            long minEnd = position + chunkSize;
+            for (long windowStart = position; windowStart < fileSize; ) {
+                int windowSize = (int) Math.min(chunkSize, fileSize - windowStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                for (int i = 0; i < windowSize; i++) {
+                    byte b = window.get(i);
+                    if (escapePending) {
+                        escapePending = false;
+                        if (b == quoteChar || b == escapeChar) {
+                            continue;
+                        }
+                    }
+                    if (b == escapeChar && escapeChar != quoteChar) {
+                        escapePending = true;
+                    } else if (b == quoteChar) {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n' && !inQuotes && windowStart + i + 1 >= minEnd) {
+                        position = windowStart + i + 1;
+                        return position;
+                    }
+                }
+                windowStart += windowSize;
+            }
+            position = fileSize;
+            return position;
+        }
+    }
+
+    private class ChunkParseJob extends AbstractJob {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final Charset charset;
+        private final Map<String, Object> properties;
+        private final LineProcessor lineProcessor;
+        private final boolean skipHeader;
+        private final List<String[]> lines = new ArrayList<>();
+        private volatile Throwable error;
+
+        ChunkParseJob(
+            @NotNull FileChannel channel,
+            long start,
+            long end,
+            @NotNull Charset charset,
+            @NotNull Map<String, Object> properties,
+            @NotNull LineProcessor lineProcessor,
+            boolean skipHeader
+        ) {
+            super("Parse CSV chunk at " + start);
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.charset = charset;
+            this.properties = properties;
+            this.lineProcessor = lineProcessor;
+            this.skipHeader = skipHeader;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                CharBuffer chars = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(buffer);
+                Reader reader = new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+                try (CSVReader csvReader = openCSVReader(reader, properties)) {
+                    boolean headerRead = !skipHeader;
+                    while (!monitor.isCanceled()) {
                         String[] line = csvReader.readNext();
                         if (line == null) {
                             if (csvReader.getParser().isPending()) {
@@ -236,64 +588,20 @@ public class DataImporterCSV extends StreamImporterAbstract {
                         if (line.length == 0) {
                             continue;
                         }
-                        if (headerPosition != HeaderPosition.none && !headerRead) {
+                        if (!headerRead) {
                             // First line is a header
                             headerRead = true;
                             continue;
                         }
-                        if (maxRows > 0 && lineNum >= maxRows) {
-                            break;
-                        }
-
-                        if (line.length < targetAttrSize) {
-                            // Stream row may be shorter than header
-                            String[] newLine = new String[targetAttrSize];
-                            System.arraycopy(line, 0, newLine, 0, line.length);
-                            for (int i = line.length; i < targetAttrSize; i++) {
-                                newLine[i] = null;
-                            }
-                            line = newLine;
-                        }
-                        if (trimWhitespaces) {
-                            for (int i = 0; i < line.length; i++) {
-                                line[i] = line[i].trim();
-                            }
-                        }
-                        if (emptyStringNull) {
-                            for (int i = 0; i < line.length; i++) {
-                                if ("".equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
-                        if (!CommonUtils.isEmpty(nullValueMark)) {
-                            for (int i = 0; i < line.length; i++) {
-                                if (nullValueMark.equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
-
-                        resultSet.setStreamRow(line);
-                        consumer.fetchRow(producerSession, resultSet);
-                        lineNum++;
-
-                        if (DBFetchProgress.monitorFetchProgress(lineNum)) {
-                            monitor.subTask(Long.toUnsignedString(lineNum) + " rows processed");
-                        }
+                        lines.add(lineProcessor.process(line));
                     }
                 }
-            } catch (IOException e) {
-                throw new DBException("IO error reading CSV", e);
-            } finally {
-                try {
-                    consumer.fetchEnd(producerSession, resultSet);
-                } finally {
-                    consumer.close();
-                }
+            } catch (Throwable e) {
+                error = e;
             }
+            // Errors are reported by the importer
+            return Status.OK_STATUS;
         }
-
     }
 
 }
@@ -0,0 +1,255 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBFetchProgress;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferResultSet;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.io.BOMInputStream;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * JSON Lines (newline delimited JSON) importer.
+ * Each line is a JSON object. Columns are the union of object keys found in sampled lines.
+ * Nested objects and arrays are imported as JSON text.
+ */
+public class DataImporterJSONL extends StreamImporterAbstract {
+    private static final Log log = Log.getLog(DataImporterJSONL.class);
+
+    private static final String PROP_ENCODING = "encoding";
+
+    private static final String TYPE_INTEGER = "INTEGER";
+    private static final String TYPE_REAL = "REAL";
+
+    @NotNull
+    @Override
+    public List<StreamDataImporterColumnInfo> readColumnsInfo(StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws DBException {
+        Map<String, Object> processorProperties = getSite().getProcessorProperties();
+        final String encoding = CommonUtils.toString(processorProperties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING);
+        final int columnSamplesCount = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_SAMPLES), 100), 0);
+        final int columnMinimalLength = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_LENGTH), 1), 1);
+        final boolean columnIsByteLength = CommonUtils.getBoolean(processorProperties.get(PROP_COLUMN_IS_BYTE_LENGTH), false);
+
+        Map<String, StreamDataImporterColumnInfo> columnsInfo = new LinkedHashMap<>();
+        try (BufferedReader reader = openStreamReader(inputStream, processorProperties)) {
+            long lineNum = 0;
+            for (int sample = 0; sample < columnSamplesCount; ) {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                lineNum++;
+                if (CommonUtils.isEmptyTrimmed(line)) {
+                    continue;
+                }
+                JsonObject object = parseLine(line, lineNum);
+                for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                    StreamDataImporterColumnInfo columnInfo = columnsInfo.get(entry.getKey());
+                    if (columnInfo == null) {
+                        columnInfo = new StreamDataImporterColumnInfo(
+                            entityMapping, columnsInfo.size(), entry.getKey(), null, columnMinimalLength, DBPDataKind.UNKNOWN);
+                        columnInfo.setMappingMetadataPresent(true);
+                        columnsInfo.put(entry.getKey(), columnInfo);
+                    }
+                    JsonElement value = entry.getValue();
+                    if (value.isJsonNull()) {
+                        continue;
+                    }
+                    if (value.isJsonPrimitive() && ((JsonPrimitive) value).isBoolean()) {
+                        columnInfo.updateType(DBPDataKind.BOOLEAN, "BOOLEAN");
+                    } else if (value.isJsonPrimitive() && ((JsonPrimitive) value).isNumber()) {
+                        if (toNumber(value.getAsString()) instanceof Long) {
+                            columnInfo.updateType(DBPDataKind.NUMERIC, TYPE_INTEGER);
+                        } else if (columnInfo.getDataKind() == DBPDataKind.NUMERIC) {
+                            // Integer column has fractional values
+                            columnInfo.setTypeName(TYPE_REAL);
+                        } else {
+                            columnInfo.updateType(DBPDataKind.NUMERIC, TYPE_REAL);
+                        }
+                    } else {
+                        String text = toText(value);
+                        columnInfo.updateMaxLength(
+                            entityMapping.getDataSource(),
+                            columnIsByteLength ? text.getBytes(encoding).length : text.length());
+                        columnInfo.updateType(DBPDataKind.STRING, "VARCHAR");
+                    }
+                }
+                sample++;
+            }
+        } catch (IOException e) {
+            throw new DBException("IO error reading JSON lines", e);
+        }
+
+        for (StreamDataImporterColumnInfo columnInfo : columnsInfo.values()) {
+            if (columnInfo.getDataKind() == DBPDataKind.UNKNOWN) {
+                log.warn("Cannot guess data type for column '" + columnInfo.getName() + "', defaulting to VARCHAR");
+                columnInfo.updateType(DBPDataKind.STRING, "VARCHAR");
+            }
+        }
+        return new ArrayList<>(columnsInfo.values());
+    }
+
+    @Override
+    public void runImport(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource, @NotNull InputStream inputStream, @NotNull IDataTransferConsumer consumer) throws DBException {
+        IStreamDataImporterSite site = getSite();
+        StreamEntityMapping entityMapping = site.getSourceObject();
+        Map<String, Object> properties = site.getProcessorProperties();
+
+        List<StreamDataImporterColumnInfo> streamColumns = entityMapping.getStreamColumns();
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        for (int i = 0; i < streamColumns.size(); i++) {
+            columnIndexes.put(streamColumns.get(i).getName(), i);
+        }
+
+        DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
+        try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, entityMapping);
+
+            consumer.fetchStart(producerSession, resultSet, -1, -1);
+
+            applyTransformHints(resultSet, consumer, properties, PROP_TIMESTAMP_FORMAT, PROP_TIMESTAMP_ZONE);
+
+            try (BufferedReader reader = openStreamReader(inputStream, properties)) {
+                int maxRows = site.getSettings().getMaxRows();
+                long lineNum = 0;
+                for (long rowNum = 0; ; ) {
+                    if (monitor.isCanceled() || (maxRows > 0 && rowNum >= maxRows)) {
+                        break;
+                    }
+                    String line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    lineNum++;
+                    if (CommonUtils.isEmptyTrimmed(line)) {
+                        continue;
+                    }
+                    Object[] row = new Object[streamColumns.size()];
+                    for (Map.Entry<String, JsonElement> entry : parseLine(line, lineNum).entrySet()) {
+                        // Keys which were not present in sampled lines are skipped
+                        Integer index = columnIndexes.get(entry.getKey());
+                        if (index != null) {
+                            row[index] = toValue(entry.getValue());
+                        }
+                    }
+
+                    resultSet.setStreamRow(row);
+                    consumer.fetchRow(producerSession, resultSet);
+                    rowNum++;
+
+                    if (DBFetchProgress.monitorFetchProgress(rowNum)) {
+                        monitor.subTask(Long.toUnsignedString(rowNum) + " rows processed");
+                    }
+                }
+            } catch (IOException e) {
+                throw new DBException("IO error reading JSON lines", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
+    }
+
+    private BufferedReader openStreamReader(InputStream inputStream, Map<String, Object> processorProperties) {
+        final String encoding = CommonUtils.toString(processorProperties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING);
+        final Charset charset = Charset.forName(encoding);
+        inputStream = new BufferedInputStream(inputStream, DataImporterCSV.READ_BUFFER_SIZE);
+        try {
+            inputStream = new BOMInputStream(inputStream, charset);
+        } catch (IllegalArgumentException ignored) {
+            // This charset does not have BOM, suppress and continue
+        }
+        return new BufferedReader(new InputStreamReader(inputStream, charset), DataImporterCSV.READ_BUFFER_SIZE);
+    }
+
+    @NotNull
+    private static JsonObject parseLine(@NotNull String line, long lineNum) throws DBException {
+        JsonElement element;
+        try {
+            element = JsonParser.parseString(line);
+        } catch (JsonParseException e) {
+            throw new DBException("Invalid JSON at line " + lineNum, e);
+        }
+        if (!element.isJsonObject()) {
+            throw new DBException("Line " + lineNum + " is not a JSON object");
+        }
+        return element.getAsJsonObject();
+    }
+
+    @Nullable
+    private static Object toValue(@NotNull JsonElement element) {
+        if (element.isJsonNull()) {
+            return null;
+        }
+        if (element.isJsonPrimitive()) {
+            JsonPrimitive primitive = (JsonPrimitive) element;
+            if (primitive.isBoolean()) {
+                return primitive.getAsBoolean();
+            } else if (primitive.isNumber()) {
+                return toNumber(primitive.getAsString());
+            }
+        }
+        return toText(element);
+    }
+
+    @NotNull
+    private static Number toNumber(@NotNull String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // Lenient parser accepts NaN and Infinity which are not decimals
+            return Character.isLetter(text.charAt(text.length() - 1)) ?
+                Double.valueOf(text) : new BigDecimal(text);
+        }
+    }
+
+    @NotNull
+    private static String toText(@NotNull JsonElement element) {
+        // Strings are unquoted, objects and arrays are kept as JSON
+        return element.isJsonPrimitive() ? element.getAsString() : element.toString();
+    }
+
+}
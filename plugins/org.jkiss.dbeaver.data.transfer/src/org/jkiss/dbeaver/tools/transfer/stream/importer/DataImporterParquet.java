@@ -0,0 +1,45 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ColumnarReader;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ParquetReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Apache Parquet importer.
+ * Parquet metadata is located at the end of file, so the file is read directly rather than from the stream.
+ */
+public class DataImporterParquet extends StreamImporterColumnar {
+
+    @NotNull
+    @Override
+    protected ColumnarReader openReader(@NotNull StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws IOException {
+        return new ParquetReader(entityMapping.getInputFile());
+    }
+
+    @NotNull
+    @Override
+    protected String getFormatName() {
+        return "Parquet";
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBFetchProgress;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferResultSet;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ColumnDescriptor;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ColumnType;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ColumnVector;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.ColumnarReader;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base importer of columnar binary formats.
+ * Column names and types are taken from the file schema, rows are read batch by batch.
+ */
+public abstract class StreamImporterColumnar extends StreamImporterAbstract {
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    @NotNull
+    protected abstract ColumnarReader openReader(@NotNull StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws IOException;
+
+    @NotNull
+    protected abstract String getFormatName();
+
+    @NotNull
+    @Override
+    public List<StreamDataImporterColumnInfo> readColumnsInfo(StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws DBException {
+        Map<String, Object> processorProperties = getSite().getProcessorProperties();
+        int columnSamplesCount = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_SAMPLES), 1000), 0);
+        int columnMinimalLength = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_LENGTH), 1), 1);
+
+        List<StreamDataImporterColumnInfo> columnsInfo = new ArrayList<>();
+        try (ColumnarReader reader = openReader(entityMapping, inputStream)) {
+            List<ColumnDescriptor> columns = reader.getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnDescriptor column = columns.get(i);
+                StreamDataImporterColumnInfo columnInfo = new StreamDataImporterColumnInfo(
+                    entityMapping, i, column.getName(), null, columnMinimalLength, DBPDataKind.UNKNOWN);
+                setColumnType(columnInfo, column);
+                columnInfo.setMappingMetadataPresent(true);
+                columnsInfo.add(columnInfo);
+            }
+            // String length is not a part of schema, so sample the first batch
+            if (columnSamplesCount > 0 && !columns.isEmpty()) {
+                ColumnVector[] vectors = createVectors(columns);
+                int rowCount = Math.min(reader.readBatch(vectors), columnSamplesCount);
+                for (int i = 0; i < columns.size(); i++) {
+                    if (vectors[i].getType() != ColumnType.STRING) {
+                        continue;
+                    }
+                    int maxLength = 0;
+                    for (int row = 0; row < rowCount; row++) {
+                        if (!vectors[i].isNull(row)) {
+                            maxLength = Math.max(maxLength, getValue(columns.get(i), vectors[i], row).toString().length());
+                        }
+                    }
+                    columnsInfo.get(i).updateMaxLength(entityMapping.getDataSource(), maxLength);
+                }
+            }
+        } catch (IOException e) {
+            throw new DBException("Error reading " + getFormatName() + " file", e);
+        }
+        return columnsInfo;
+    }
+
+    @Override
+    public void runImport(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource, @NotNull InputStream inputStream, @NotNull IDataTransferConsumer consumer) throws DBException {
+        IStreamDataImporterSite site = getSite();
+        StreamEntityMapping entityMapping = site.getSourceObject();
+        Map<String, Object> properties = site.getProcessorProperties();
+        int maxRows = site.getSettings().getMaxRows();
+
+        DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
+        try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, entityMapping);
+
+            consumer.fetchStart(producerSession, resultSet, -1, -1);
+
+            // Values are already typed, so there is nothing to parse
+            applyTransformHints(resultSet, consumer, properties, null, null);
+
+            try (ColumnarReader reader = openReader(entityMapping, inputStream)) {
+                List<ColumnDescriptor> columns = reader.getColumns();
+                ColumnVector[] vectors = createVectors(columns);
+                int targetAttrSize = entityMapping.getStreamColumns().size();
+                int valueCount = Math.min(targetAttrSize, columns.size());
+                long rowNum = 0;
+                while (!monitor.isCanceled() && (maxRows <= 0 || rowNum < maxRows)) {
+                    int rowCount = reader.readBatch(vectors);
+                    if (rowCount == 0) {
+                        break;
+                    }
+                    for (int row = 0; row < rowCount; row++) {
+                        if (monitor.isCanceled() || (maxRows > 0 && rowNum >= maxRows)) {
+                            break;
+                        }
+                        Object[] values = new Object[targetAttrSize];
+                        for (int i = 0; i < valueCount; i++) {
+                            values[i] = getValue(columns.get(i), vectors[i], row);
+                        }
+                        resultSet.setStreamRow(values);
+                        consumer.fetchRow(producerSession, resultSet);
+                        rowNum++;
+
+                        if (DBFetchProgress.monitorFetchProgress(rowNum)) {
+                            monitor.subTask(Long.toUnsignedString(rowNum) + " rows processed");
+                        }
+                    }
+                    for (ColumnVector vector : vectors) {
+                        vector.reset();
+                    }
+                }
+            } catch (IOException e) {
+                throw new DBException("Error reading " + getFormatName() + " file", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
+    }
+
+    private static ColumnVector[] createVectors(List<ColumnDescriptor> columns) {
+        ColumnVector[] vectors = new ColumnVector[columns.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new ColumnVector(columns.get(i).getType(), 1024);
+        }
+        return vectors;
+    }
+
+    private static void setColumnType(StreamDataImporterColumnInfo columnInfo, ColumnDescriptor column) {
+        switch (column.getType()) {
+            case BOOLEAN:
+                setColumnType(columnInfo, DBPDataKind.BOOLEAN, "BOOLEAN");
+                break;
+            case INT32:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "INTEGER");
+                break;
+            case INT64:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "BIGINT");
+                break;
+            case DOUBLE:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "DOUBLE");
+                break;
+            case DECIMAL:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "NUMERIC");
+                columnInfo.setPrecision(column.getPrecision());
+                columnInfo.setScale(column.getScale());
+                break;
+            case DATE:
+                setColumnType(columnInfo, DBPDataKind.DATETIME, "DATE");
+                break;
+            case TIMESTAMP:
+            case TIMESTAMP_TZ:
+                setColumnType(columnInfo, DBPDataKind.DATETIME, "TIMESTAMP");
+                break;
+            case BINARY:
+                setColumnType(columnInfo, DBPDataKind.BINARY, "VARBINARY");
+                break;
+            default:
+                setColumnType(columnInfo, DBPDataKind.STRING, "VARCHAR");
+                break;
+        }
+    }
+
+    private static void setColumnType(StreamDataImporterColumnInfo columnInfo, DBPDataKind dataKind, String typeName) {
+        columnInfo.setDataKind(dataKind);
+        columnInfo.setTypeName(typeName);
+    }
+
+    @Nullable
+    private static Object getValue(ColumnDescriptor column, ColumnVector vector, int row) {
+        if (vector.isNull(row)) {
+            return null;
+        }
+        switch (column.getType()) {
+            case BOOLEAN:
+                return vector.getLong(row) != 0;
+            case INT32:
+                return (int) vector.getLong(row);
+            case INT64:
+                return vector.getLong(row);
+            case DOUBLE:
+                return vector.getDouble(row);
+            case DECIMAL:
+                return new BigDecimal((BigInteger) vector.getObject(row), column.getScale());
+            case DATE:
+                return java.sql.Date.valueOf(LocalDate.ofEpochDay(vector.getLong(row)));
+            case TIMESTAMP: {
+                long micros = vector.getLong(row);
+                return Timestamp.valueOf(LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(micros, MICROS_PER_SECOND),
+                    (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000,
+                    ZoneOffset.UTC));
+            }
+            case TIMESTAMP_TZ: {
+                long micros = vector.getLong(row);
+                return Timestamp.from(Instant.ofEpochSecond(
+                    Math.floorDiv(micros, MICROS_PER_SECOND),
+                    Math.floorMod(micros, MICROS_PER_SECOND) * 1000));
+            }
+            case STRING:
+                return new String((byte[]) vector.getObject(row), StandardCharsets.UTF_8);
+            default:
+                return vector.getObject(row);
+        }
+    }
+
+}
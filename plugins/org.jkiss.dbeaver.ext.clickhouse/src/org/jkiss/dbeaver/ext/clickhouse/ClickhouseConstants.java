@@ -27,4 +27,6 @@ public class ClickhouseConstants {
 
     public static final String DATA_TYPE_IPV4 = "ipv4";
     public static final String DATA_TYPE_IPV6 = "ipv6";
+
+    public static final String NEW_DRIVER_PACKAGE = "com.clickhouse."; //$NON-NLS-1$
 }
@@ -0,0 +1,85 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.clickhouse.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCBulkLoader;
+
+/**
+ * ClickHouse bulk loader.
+ * Inserts rows with statement which selects from input() table function. Driver recognizes such statements
+ * and sends batches in RowBinary format instead of rendering VALUES clause for each row.
+ *
+ * //        INSERT INTO table1 (a, b) SELECT a, b FROM input('a String, b Int32')
+ */
+public class ClickhouseBulkLoader extends JDBCBulkLoader {
+
+    private JDBCPreparedStatement statement;
+    private int batchRows;
+
+    @Override
+    protected void startLoad(@NotNull JDBCSession session) throws Exception {
+        String columnList = getColumnList();
+        StringBuilder structure = new StringBuilder();
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) {
+                structure.append(", ");
+            }
+            structure.append('`').append(attributes[i].getName().replace("`", "\\`")).append("` ")
+                .append(attributes[i].getFullTypeName());
+        }
+        String query = "INSERT INTO " + getTableName() + " (" + columnList + ") SELECT " + columnList +
+            " FROM input('" + structure.toString().replace("\\", "\\\\").replace("'", "\\'") + "')";
+        statement = session.prepareStatement(query);
+    }
+
+    @Override
+    protected void loadRow(@NotNull JDBCSession session, @NotNull Object[] values) throws Exception {
+        for (int i = 0; i < attributes.length; i++) {
+            valueHandlers[i].bindValueObject(session, statement, attributes[i], i, values[valueIndexes[i]]);
+        }
+        statement.addBatch();
+        batchRows++;
+    }
+
+    @Override
+    protected void flushLoad(@NotNull JDBCSession session) throws Exception {
+        executeBatch();
+    }
+
+    @Override
+    protected void finishLoad(@NotNull JDBCSession session) throws Exception {
+        executeBatch();
+    }
+
+    @Override
+    protected void closeLoad() {
+        if (statement != null) {
+            statement.close();
+            statement = null;
+        }
+    }
+
+    private void executeBatch() throws Exception {
+        if (batchRows > 0) {
+            statement.executeBatch();
+            batchRows = 0;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.duckdb.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableBase;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableColumn;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCBulkLoader;
+import org.jkiss.utils.CommonUtils;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DuckDB bulk loader based on the appender API.
+ * Appender writes rows directly into table storage, values of all table columns must be appended in table order.
+ *
+ * //        DuckDBAppender appender = duckConnection.createAppender("memory", "main", "table1");
+ * //        appender.beginRow(); appender.append(1); appender.append("a"); appender.endRow();
+ * //        appender.close();
+ */
+public class DuckDBBulkLoader extends JDBCBulkLoader {
+
+    private static final String CONNECTION_CLASS = "org.duckdb.DuckDBConnection";
+    private static final String DEFAULT_SCHEMA = "main";
+
+    private Object appender;
+    private Method beginRowMethod;
+    private Method endRowMethod;
+    private Method flushMethod;
+    private Method closeMethod;
+    private final Map<Class<?>, Method> appendMethods = new HashMap<>();
+    // Index of loaded attribute for each table column, -1 if column is not loaded
+    private int[] columnMapping;
+
+    @Override
+    protected void startLoad(@NotNull JDBCSession session) throws Exception {
+        if (!(table instanceof GenericTableBase)) {
+            throw new DBCException("Appender can be used for tables only");
+        }
+        GenericTableBase duckTable = (GenericTableBase) table;
+        List<? extends GenericTableColumn> columns = CommonUtils.safeList(duckTable.getAttributes(session.getProgressMonitor()));
+        columnMapping = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            columnMapping[i] = -1;
+            for (int k = 0; k < attributes.length; k++) {
+                if (attributes[k].getName().equalsIgnoreCase(columns.get(i).getName())) {
+                    columnMapping[i] = k;
+                    break;
+                }
+            }
+        }
+
+        Connection connection = session.getOriginal();
+        Class<?> connectionClass = Class.forName(CONNECTION_CLASS, true, connection.getClass().getClassLoader());
+        Object duckConnection = connection.unwrap(connectionClass);
+        String catalogName = duckTable.getCatalog() == null ? null : duckTable.getCatalog().getName();
+        String schemaName = duckTable.getSchema() == null ? DEFAULT_SCHEMA : duckTable.getSchema().getName();
+        Method createWithCatalog = null;
+        try {
+            createWithCatalog = connectionClass.getMethod("createAppender", String.class, String.class, String.class);
+        } catch (NoSuchMethodException e) {
+            // Driver older than 1.1 resolves tables in the current database only
+        }
+        if (createWithCatalog != null && catalogName != null) {
+            appender = createWithCatalog.invoke(duckConnection, catalogName, schemaName, duckTable.getName());
+        } else {
+            if (catalogName != null && !catalogName.equalsIgnoreCase(connection.getCatalog())) {
+                throw new DBCException("DuckDB driver doesn't support appending into attached database '" + catalogName + "'");
+            }
+            appender = connectionClass.getMethod("createAppender", String.class, String.class)
+                .invoke(duckConnection, schemaName, duckTable.getName());
+        }
+
+        Class<?> appenderClass = appender.getClass();
+        beginRowMethod = appenderClass.getMethod("beginRow");
+        endRowMethod = appenderClass.getMethod("endRow");
+        flushMethod = appenderClass.getMethod("flush");
+        closeMethod = appenderClass.getMethod("close");
+    }
+
+    @Override
+    protected void loadRow(@NotNull JDBCSession session, @NotNull Object[] values) throws Exception {
+        beginRowMethod.invoke(appender);
+        for (int attrIndex : columnMapping) {
+            Object value = attrIndex < 0 ? null : getRawValue(values, attrIndex);
+            if (value == null) {
+                getAppendMethod(String.class).invoke(appender, (Object) null);
+                continue;
+            }
+            Method appendMethod = getAppendMethod(value.getClass());
+            if (appendMethod.getParameterTypes()[0] == String.class && !(value instanceof String)) {
+                // Appender casts strings to the column type
+                value = getTextValue(values, attrIndex);
+            }
+            appendMethod.invoke(appender, value);
+        }
+        endRowMethod.invoke(appender);
+    }
+
+    @NotNull
+    private Method getAppendMethod(@NotNull Class<?> valueClass) throws NoSuchMethodException {
+        Method method = appendMethods.get(valueClass);
+        if (method == null) {
+            Class<?> appenderClass = appender.getClass();
+            try {
+                if (valueClass == Boolean.class) {
+                    method = appenderClass.getMethod("append", Boolean.TYPE);
+                } else if (valueClass == Byte.class) {
+                    method = appenderClass.getMethod("append", Byte.TYPE);
+                } else if (valueClass == Short.class) {
+                    method = appenderClass.getMethod("append", Short.TYPE);
+                } else if (valueClass == Integer.class) {
+                    method = appenderClass.getMethod("append", Integer.TYPE);
+                } else if (valueClass == Long.class) {
+                    method = appenderClass.getMethod("append", Long.TYPE);
+                } else if (valueClass == Float.class) {
+                    method = appenderClass.getMethod("append", Float.TYPE);
+                } else if (valueClass == Double.class) {
+                    method = appenderClass.getMethod("append", Double.TYPE);
+                } else if (valueClass == BigDecimal.class) {
+                    method = appenderClass.getMethod("appendBigDecimal", BigDecimal.class);
+                } else if (valueClass == byte[].class) {
+                    method = appenderClass.getMethod("append", byte[].class);
+                }
+            } catch (NoSuchMethodException e) {
+                // Older driver. Pass value as a string.
+            }
+            if (method == null) {
+                method = appenderClass.getMethod("append", String.class);
+            }
+            appendMethods.put(valueClass, method);
+        }
+        return method;
+    }
+
+    @Override
+    protected void flushLoad(@NotNull JDBCSession session) throws Exception {
+        flushMethod.invoke(appender);
+        commitChanges(session);
+    }
+
+    @Override
+    protected void finishLoad(@NotNull JDBCSession session) throws Exception {
+        flushMethod.invoke(appender);
+    }
+
+    @Override
+    protected void closeLoad() throws Exception {
+        if (appender != null) {
+            Object duckAppender = appender;
+            appender = null;
+            closeMethod.invoke(duckAppender);
+        }
+        appendMethods.clear();
+    }
+}
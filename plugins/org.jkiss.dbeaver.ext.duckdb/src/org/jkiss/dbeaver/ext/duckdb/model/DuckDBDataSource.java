@@ -25,6 +25,7 @@ import org.jkiss.dbeaver.model.DBPDataKind;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
 
 import java.util.Locale;
 
@@ -50,4 +51,12 @@ public class DuckDBDataSource extends GenericDataSource {
             default -> super.resolveDataKind(typeName, valueType);
         };
     }
+
+    @Override
+    public <T> T getAdapter(Class<T> adapter) {
+        if (adapter == DBSDataBulkLoader.class) {
+            return adapter.cast(new DuckDBBulkLoader());
+        }
+        return super.getAdapter(adapter);
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mssql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.utils.CommonUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.*;
+
+/**
+ * SQL Server bulk loader based on SQLServerBulkCopy API of Microsoft JDBC driver.
+ * Rows are buffered in memory and written with bulk copy on each flush.
+ *
+ * //        SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(connection);
+ * //        bulkCopy.setDestinationTableName("dbo.table1");
+ * //        bulkCopy.writeToServer(bulkData);
+ */
+public class SQLServerBulkLoader extends JDBCBulkLoader {
+
+    private static final String BULK_COPY_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopy";
+    private static final String BULK_COPY_OPTIONS_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions";
+    private static final String BULK_DATA_CLASS = "com.microsoft.sqlserver.jdbc.ISQLServerBulkData";
+    // Old drivers have bulk record interface only
+    private static final String BULK_RECORD_CLASS = "com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord";
+
+    private Connection connection;
+    private Class<?> bulkCopyClass;
+    private Class<?> bulkDataClass;
+    private Object bulkCopyOptions;
+    private final List<Object[]> rows = new ArrayList<>();
+
+    @Override
+    protected void startLoad(@NotNull JDBCSession session) throws Exception {
+        connection = session.getOriginal();
+        ClassLoader driverClassLoader = connection.getClass().getClassLoader();
+        bulkCopyClass = Class.forName(BULK_COPY_CLASS, true, driverClassLoader);
+        try {
+            bulkDataClass = Class.forName(BULK_DATA_CLASS, true, driverClassLoader);
+        } catch (ClassNotFoundException e) {
+            bulkDataClass = Class.forName(BULK_RECORD_CLASS, true, driverClassLoader);
+        }
+        Class<?> optionsClass = Class.forName(BULK_COPY_OPTIONS_CLASS, true, driverClassLoader);
+        bulkCopyOptions = optionsClass.getConstructor().newInstance();
+        // Default timeout is 60 seconds which is not enough for big batches
+        optionsClass.getMethod("setBulkCopyTimeout", Integer.TYPE).invoke(bulkCopyOptions, 0);
+        if (batchSize > 0) {
+            optionsClass.getMethod("setBatchSize", Integer.TYPE).invoke(bulkCopyOptions, batchSize);
+        }
+    }
+
+    @Override
+    protected void loadRow(@NotNull JDBCSession session, @NotNull Object[] values) throws Exception {
+        Object[] row = new Object[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            row[i] = getRawValue(values, i);
+        }
+        rows.add(row);
+        if (batchSize > 0 && rows.size() >= batchSize) {
+            writeRows();
+        }
+    }
+
+    @Override
+    protected void flushLoad(@NotNull JDBCSession session) throws Exception {
+        writeRows();
+        commitChanges(session);
+    }
+
+    @Override
+    protected void finishLoad(@NotNull JDBCSession session) throws Exception {
+        writeRows();
+    }
+
+    @Override
+    protected void closeLoad() {
+        rows.clear();
+        connection = null;
+    }
+
+    private void writeRows() throws Exception {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Object bulkCopy = bulkCopyClass.getConstructor(Connection.class).newInstance(connection);
+        try {
+            bulkCopyClass.getMethod("setBulkCopyOptions", bulkCopyOptions.getClass()).invoke(bulkCopy, bulkCopyOptions);
+            bulkCopyClass.getMethod("setDestinationTableName", String.class).invoke(bulkCopy, getTableName());
+            Method addColumnMapping = bulkCopyClass.getMethod("addColumnMapping", Integer.TYPE, String.class);
+            for (int i = 0; i < attributes.length; i++) {
+                addColumnMapping.invoke(bulkCopy, i + 1, attributes[i].getName());
+            }
+            bulkCopyClass.getMethod("writeToServer", bulkDataClass).invoke(bulkCopy, createBulkData());
+        } finally {
+            rows.clear();
+            bulkCopyClass.getMethod("close").invoke(bulkCopy);
+        }
+    }
+
+    /**
+     * Creates implementation of driver's bulk data interface over buffered rows
+     */
+    private Object createBulkData() {
+        Iterator<Object[]> rowIterator = rows.iterator();
+        Object[][] currentRow = new Object[1][];
+        return Proxy.newProxyInstance(bulkDataClass.getClassLoader(), new Class[] { bulkDataClass }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getColumnOrdinals": {
+                    Set<Integer> ordinals = new LinkedHashSet<>();
+                    for (int i = 1; i <= attributes.length; i++) {
+                        ordinals.add(i);
+                    }
+                    return ordinals;
+                }
+                case "getColumnName":
+                    return getAttribute(args[0]).getName();
+                case "getColumnType":
+                    return getAttribute(args[0]).getTypeID();
+                case "getPrecision": {
+                    DBSAttributeBase attribute = getAttribute(args[0]);
+                    Integer precision = attribute.getPrecision();
+                    if (precision != null && precision > 0) {
+                        return precision;
+                    }
+                    return (int) Math.min(Math.max(attribute.getMaxLength(), 0), Integer.MAX_VALUE);
+                }
+                case "getScale":
+                    return CommonUtils.toInt(getAttribute(args[0]).getScale());
+                case "next":
+                    if (rowIterator.hasNext()) {
+                        currentRow[0] = rowIterator.next();
+                        return true;
+                    }
+                    return false;
+                case "getRowData":
+                    return currentRow[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Bulk data for " + getTableName();
+                default: {
+                    // Optional metadata (auto increment, date formats, etc)
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType == Boolean.TYPE) {
+                        return false;
+                    } else if (returnType == Integer.TYPE) {
+                        return 0;
+                    }
+                    return null;
+                }
+            }
+        });
+    }
+
+    private DBSAttributeBase getAttribute(Object column) {
+        return attributes[(Integer) column - 1];
+    }
+}
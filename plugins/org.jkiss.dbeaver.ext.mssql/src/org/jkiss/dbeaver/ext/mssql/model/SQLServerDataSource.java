@@ -34,6 +34,7 @@ import org.jkiss.dbeaver.model.*;
 import org.jkiss.dbeaver.model.access.DBAUserPasswordManager;
 import org.jkiss.dbeaver.model.admin.sessions.DBAServerSessionManager;
 import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
+import org.jkiss.dbeaver.model.connection.DBPDriver;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.jdbc.*;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
@@ -479,6 +480,12 @@ public class SQLServerDataSource extends JDBCDataSource implements DBSInstanceCo
             return adapter.cast(new SQLServerSessionManager(this));
         } else if (adapter == DBAUserPasswordManager.class) {
             return adapter.cast(new SQLServerLoginPasswordManager(this));
+        } else if (adapter == DBSDataBulkLoader.class) {
+            DBPDriver driver = getContainer().getDriver();
+            if (!isBabelfish && SQLServerUtils.isDriverSqlServer(driver) && !SQLServerUtils.isDriverJtds(driver)) {
+                // Bulk copy API is provided by Microsoft driver only
+                return adapter.cast(new SQLServerBulkLoader());
+            }
         }
         return super.getAdapter(adapter);
     }
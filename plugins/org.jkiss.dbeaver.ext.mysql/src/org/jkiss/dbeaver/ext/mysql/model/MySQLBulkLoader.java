@@ -0,0 +1,127 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCBulkLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL bulk loader.
+ * Rows are collected into extended (multi-row) INSERT statements with parameter placeholders.
+ * Values are bound as parameters, so the driver escapes them according to the connection sql_mode
+ * (e.g. NO_BACKSLASH_ESCAPES). LOAD DATA LOCAL INFILE can't be used because local infile is disabled
+ * for all connections (see prohibited driver properties).
+ */
+public class MySQLBulkLoader extends JDBCBulkLoader {
+
+    // Keep statement size well below the default max_allowed_packet (4Mb in MySQL 5.7)
+    static final int MAX_STATEMENT_LENGTH = 512 * 1024;
+    // Prepared statement can't have more parameters
+    static final int MAX_STATEMENT_PARAMETERS = 65535;
+    // Estimated length of a literal of a non-string value
+    private static final int VALUE_LENGTH = 16;
+
+    private final List<Object[]> rows = new ArrayList<>();
+    private String insertClause;
+    private String rowPlaceholders;
+    private long statementLength;
+
+    @Override
+    protected void startLoad(@NotNull JDBCSession session) {
+        insertClause = "INSERT INTO " + getTableName() + " (" + getColumnList() + ") VALUES ";
+        StringBuilder placeholders = new StringBuilder("(");
+        for (int i = 0; i < attributes.length; i++) {
+            placeholders.append(i == 0 ? "?" : ",?");
+        }
+        rowPlaceholders = placeholders.append(')').toString();
+        statementLength = insertClause.length();
+    }
+
+    @Override
+    protected void loadRow(@NotNull JDBCSession session, @NotNull Object[] values) throws Exception {
+        if ((long) (rows.size() + 1) * attributes.length > MAX_STATEMENT_PARAMETERS) {
+            executeInsert(session);
+        }
+        Object[] row = new Object[attributes.length];
+        statementLength += rowPlaceholders.length() + 1;
+        for (int i = 0; i < attributes.length; i++) {
+            row[i] = values[valueIndexes[i]];
+            statementLength += estimateLength(row[i]);
+        }
+        rows.add(row);
+        if (statementLength >= MAX_STATEMENT_LENGTH) {
+            executeInsert(session);
+        }
+    }
+
+    @Override
+    protected void flushLoad(@NotNull JDBCSession session) throws Exception {
+        executeInsert(session);
+        commitChanges(session);
+    }
+
+    @Override
+    protected void finishLoad(@NotNull JDBCSession session) throws Exception {
+        executeInsert(session);
+    }
+
+    @Override
+    protected void closeLoad() {
+        rows.clear();
+    }
+
+    private void executeInsert(@NotNull JDBCSession session) throws Exception {
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(insertClause);
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(rowPlaceholders);
+        }
+        try (JDBCPreparedStatement statement = session.prepareStatement(sql.toString())) {
+            int paramIndex = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < attributes.length; i++) {
+                    valueHandlers[i].bindValueObject(session, statement, attributes[i], paramIndex++, row[i]);
+                }
+            }
+            statement.executeUpdate();
+        } finally {
+            rows.clear();
+            statementLength = insertClause.length();
+        }
+    }
+
+    private static int estimateLength(Object value) {
+        if (value instanceof CharSequence str) {
+            // Quotes and escaped characters
+            return str.length() + 2;
+        } else if (value instanceof byte[] bytes) {
+            // Hex literal
+            return bytes.length * 2 + 3;
+        }
+        return VALUE_LENGTH;
+    }
+}
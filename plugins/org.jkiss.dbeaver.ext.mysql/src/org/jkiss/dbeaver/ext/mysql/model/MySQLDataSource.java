@@ -41,6 +41,7 @@ import org.jkiss.dbeaver.model.gis.GisConstants;
 import org.jkiss.dbeaver.model.gis.SpatialDataProvider;
 import org.jkiss.dbeaver.model.impl.jdbc.*;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCBasicDataTypeCache;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataStampProvider;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectCache;
 import org.jkiss.dbeaver.model.impl.jdbc.struct.JDBCDataType;
 import org.jkiss.dbeaver.model.impl.net.SSLConstants;
@@ -52,7 +53,9 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLDialect;
 import org.jkiss.dbeaver.model.sql.SQLHelpProvider;
 import org.jkiss.dbeaver.model.sql.SQLState;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
 import org.jkiss.dbeaver.model.struct.DBSDataType;
+import org.jkiss.dbeaver.model.struct.DBSFullTextSearcher;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectFilter;
 import org.jkiss.dbeaver.model.struct.DBSStructureAssistant;
@@ -74,7 +77,7 @@ import java.util.regex.Pattern;
 /**
  * GenericDataSource
  */
-public class MySQLDataSource extends JDBCDataSource implements DBPObjectStatisticsCollector {
+public class MySQLDataSource extends JDBCDataSource implements DBPObjectStatisticsCollector, JDBCMetadataStampProvider {
     private static final Log log = Log.getLog(MySQLDataSource.class);
     private static final Pattern VERSION_PATTERN = Pattern.compile("([0-9]+\\.[0-9]+\\.[0-9]+).+");
 
@@ -759,6 +762,10 @@ public class MySQLDataSource extends JDBCDataSource implements DBPObjectStatisti
             });
         } else if (adapter == DBCQueryPlanner.class) {
             return adapter.cast(new MySQLPlanAnalyser(this));
+        } else if (adapter == DBSDataBulkLoader.class) {
+            return adapter.cast(new MySQLBulkLoader());
+        } else if (adapter == DBSFullTextSearcher.class) {
+            return adapter.cast(new MySQLFullTextSearcher());
         }
         return super.getAdapter(adapter);
     }
@@ -842,6 +849,37 @@ public class MySQLDataSource extends JDBCDataSource implements DBPObjectStatisti
         }
     }
 
+    @NotNull
+    @Override
+    public Map<String, String> readMetadataStamps(@NotNull JDBCSession session) throws SQLException {
+        // Checksum of object definitions per catalog. TABLES.UPDATE_TIME is not used as it changes on data modification.
+        // Data source level objects (catalogs, users, engines) have no stamp and are always read from the server.
+        Map<String, String> stamps = new HashMap<>();
+        try (JDBCPreparedStatement dbStat = session.prepareStatement(
+            "SELECT s, COUNT(*), SUM(c) FROM (\n" +
+                "SELECT TABLE_SCHEMA s, CRC32(CONCAT_WS('|',TABLE_NAME,TABLE_TYPE,ENGINE,CREATE_TIME,TABLE_COMMENT)) c " +
+                "FROM information_schema.TABLES\n" +
+                "UNION ALL SELECT TABLE_SCHEMA, CRC32(CONCAT_WS('|',TABLE_NAME,COLUMN_NAME,ORDINAL_POSITION,COLUMN_TYPE," +
+                "IS_NULLABLE,COLUMN_DEFAULT,EXTRA,COLUMN_COMMENT)) FROM information_schema.COLUMNS\n" +
+                "UNION ALL SELECT TABLE_SCHEMA, CRC32(CONCAT_WS('|',TABLE_NAME,INDEX_NAME,SEQ_IN_INDEX,COLUMN_NAME,NON_UNIQUE)) " +
+                "FROM information_schema.STATISTICS\n" +
+                "UNION ALL SELECT CONSTRAINT_SCHEMA, CRC32(CONCAT_WS('|',TABLE_NAME,CONSTRAINT_NAME,COLUMN_NAME," +
+                "REFERENCED_TABLE_NAME,REFERENCED_COLUMN_NAME)) FROM information_schema.KEY_COLUMN_USAGE\n" +
+                "UNION ALL SELECT ROUTINE_SCHEMA, CRC32(CONCAT_WS('|',ROUTINE_NAME,ROUTINE_TYPE,LAST_ALTERED)) " +
+                "FROM information_schema.ROUTINES\n" +
+                "UNION ALL SELECT TRIGGER_SCHEMA, CRC32(CONCAT_WS('|',TRIGGER_NAME,EVENT_OBJECT_TABLE,CREATED)) " +
+                "FROM information_schema.TRIGGERS\n" +
+                ") x GROUP BY s"))
+        {
+            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
+                while (dbResult.next()) {
+                    stamps.put(dbResult.getString(1), dbResult.getLong(2) + ":" + dbResult.getString(3));
+                }
+            }
+        }
+        return stamps;
+    }
+
     public class CatalogCache extends JDBCObjectCache<MySQLDataSource, MySQLCatalog> {
         @NotNull
         @Override
@@ -0,0 +1,87 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.ext.mysql.MySQLConstants;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSFullTextSearcher;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Searches text with FULLTEXT indexes.
+ * MATCH column list must be the same as the index column list, so each index makes its own condition.
+ * Search string is matched as a phrase in boolean mode, which doesn't apply the 50% threshold of natural language mode.
+ */
+public class MySQLFullTextSearcher implements DBSFullTextSearcher {
+
+    @Nullable
+    @Override
+    public String makeSearchCondition(
+        @NotNull DBCSession session,
+        @NotNull DBSEntity entity,
+        @NotNull List<DBSEntityAttribute> attributes,
+        @NotNull String searchString,
+        boolean caseSensitive
+    ) throws DBException {
+        if (!(entity instanceof MySQLTable table)) {
+            return null;
+        }
+        String phrase = searchString.replace("\"", " ").trim();
+        if (phrase.isEmpty()) {
+            return null;
+        }
+        String against = SQLUtils.quoteString(entity.getDataSource(), "\"" + phrase + "\"");
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        List<DBSEntityAttribute> coveredAttributes = new ArrayList<>();
+        StringBuilder condition = new StringBuilder();
+        for (MySQLTableIndex index : CommonUtils.safeCollection(table.getIndexes(monitor))) {
+            if (index.getIndexType() != MySQLConstants.INDEX_TYPE_FULLTEXT) {
+                continue;
+            }
+            List<MySQLTableIndexColumn> columns = CommonUtils.safeList(index.getAttributeReferences(monitor));
+            if (columns.isEmpty() || !columns.stream().allMatch(c -> attributes.contains(c.getTableColumn()))) {
+                continue;
+            }
+            if (condition.length() > 0) {
+                condition.append(" OR ");
+            }
+            condition.append("MATCH (");
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    condition.append(",");
+                }
+                condition.append(DBUtils.getQuotedIdentifier(columns.get(i).getTableColumn()));
+                coveredAttributes.add(columns.get(i).getTableColumn());
+            }
+            condition.append(") AGAINST (").append(against).append(" IN BOOLEAN MODE)");
+        }
+        attributes.removeAll(coveredAttributes);
+        return condition.length() == 0 ? null : condition.toString();
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.oracle.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCBulkLoader;
+
+/**
+ * Oracle bulk loader.
+ * Uses array DML (JDBC batch of a single prepared statement) with direct-path insert (APPEND_VALUES hint).
+ * Direct-path insert writes data above the table high water mark bypassing buffer cache.
+ * Table loaded in direct-path mode can't be modified again in the same transaction so each batch is committed.
+ */
+public class OracleBulkLoader extends JDBCBulkLoader {
+
+    private JDBCPreparedStatement statement;
+    private int batchRows;
+
+    @Override
+    protected void startLoad(@NotNull JDBCSession session) throws Exception {
+        StringBuilder query = new StringBuilder();
+        query.append("INSERT /*+ APPEND_VALUES */ INTO ").append(getTableName())
+            .append(" (").append(getColumnList()).append(") VALUES (");
+        for (int i = 0; i < attributes.length; i++) {
+            query.append(i == 0 ? "?" : ",?");
+        }
+        query.append(")");
+        statement = session.prepareStatement(query.toString());
+    }
+
+    @Override
+    protected void loadRow(@NotNull JDBCSession session, @NotNull Object[] values) throws Exception {
+        for (int i = 0; i < attributes.length; i++) {
+            valueHandlers[i].bindValueObject(session, statement, attributes[i], i, values[valueIndexes[i]]);
+        }
+        statement.addBatch();
+        batchRows++;
+    }
+
+    @Override
+    protected void flushLoad(@NotNull JDBCSession session) throws Exception {
+        if (batchRows > 0) {
+            executeBatch();
+            commitChanges(session);
+        }
+    }
+
+    @Override
+    protected void finishLoad(@NotNull JDBCSession session) throws Exception {
+        executeBatch();
+    }
+
+    @Override
+    protected void closeLoad() {
+        if (statement != null) {
+            statement.close();
+            statement = null;
+        }
+    }
+
+    private void executeBatch() throws Exception {
+        if (batchRows > 0) {
+            statement.executeBatch();
+            batchRows = 0;
+        }
+    }
+}
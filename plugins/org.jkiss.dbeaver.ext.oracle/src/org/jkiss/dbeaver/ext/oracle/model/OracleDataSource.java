@@ -46,6 +46,7 @@ import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCRemoteInstance;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataStampProvider;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectCache;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCStructCache;
 import org.jkiss.dbeaver.model.meta.Association;
@@ -53,7 +54,9 @@ import org.jkiss.dbeaver.model.meta.ForTest;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLConstants;
 import org.jkiss.dbeaver.model.sql.SQLState;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
 import org.jkiss.dbeaver.model.struct.DBSDataType;
+import org.jkiss.dbeaver.model.struct.DBSFullTextSearcher;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectFilter;
 import org.jkiss.dbeaver.model.struct.DBSStructureAssistant;
@@ -71,7 +74,8 @@ import java.util.regex.Pattern;
 /**
  * GenericDataSource
  */
-public class OracleDataSource extends JDBCDataSource implements DBPObjectStatisticsCollector, DBPAdaptable, DBDPseudoAttributeContainer {
+public class OracleDataSource extends JDBCDataSource implements DBPObjectStatisticsCollector, DBPAdaptable, DBDPseudoAttributeContainer,
+    JDBCMetadataStampProvider {
     private static final Log log = Log.getLog(OracleDataSource.class);
 
     public static final DBDPseudoAttribute[] KNOWN_GLOBAL_PSEUDO_ATTRS = new DBDPseudoAttribute[] {
@@ -626,6 +630,13 @@ public class OracleDataSource extends JDBCDataSource implements DBPObjectStatist
             return adapter.cast(new OracleChangeUserPasswordManager(this));
         } else if (adapter == DBDAttributeContentTypeProvider.class) {
             return adapter.cast(OracleAttributeContentTypeProvider.INSTANCE);
+        } else if (adapter == DBSDataBulkLoader.class) {
+            if (isServerVersionAtLeast(11, 2)) {
+                // APPEND_VALUES hint was introduced in 11gR2
+                return adapter.cast(new OracleBulkLoader());
+            }
+        } else if (adapter == DBSFullTextSearcher.class) {
+            return adapter.cast(new OracleFullTextSearcher());
         }
         return super.getAdapter(adapter);
     }
@@ -900,6 +911,26 @@ public class OracleDataSource extends JDBCDataSource implements DBPObjectStatist
         }
     }
 
+    @NotNull
+    @Override
+    public Map<String, String> readMetadataStamps(@NotNull JDBCSession session) throws SQLException {
+        // Any DDL (including comments and grants) updates object LAST_DDL_TIME. Count of objects detects drops.
+        // Data source level objects (schemas, users, roles) have no stamp and are always read from the server.
+        Map<String, String> stamps = new HashMap<>();
+        try (JDBCStatement dbStat = session.createStatement()) {
+            try (JDBCResultSet dbResult = dbStat.executeQuery(
+                "SELECT OWNER, COUNT(*), TO_CHAR(MAX(LAST_DDL_TIME),'YYYYMMDDHH24MISS') FROM " +
+                    OracleUtils.getAdminAllViewPrefix(session.getProgressMonitor(), this, "OBJECTS") +
+                    " GROUP BY OWNER"))
+            {
+                while (dbResult.next()) {
+                    stamps.put(dbResult.getString(1), dbResult.getLong(2) + ":" + dbResult.getString(3));
+                }
+            }
+        }
+        return stamps;
+    }
+
     private class OracleOutputReader implements DBCServerOutputReader {
         @Override
         public boolean isServerOutputEnabled() {
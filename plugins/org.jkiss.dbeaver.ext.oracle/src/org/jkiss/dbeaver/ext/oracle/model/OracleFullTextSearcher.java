@@ -0,0 +1,91 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.oracle.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSFullTextSearcher;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Searches text in columns indexed by Oracle Text CONTEXT indexes.
+ * Search string is enclosed in braces so Oracle Text operators and reserved characters are not interpreted.
+ */
+public class OracleFullTextSearcher implements DBSFullTextSearcher {
+
+    @Nullable
+    @Override
+    public String makeSearchCondition(
+        @NotNull DBCSession session,
+        @NotNull DBSEntity entity,
+        @NotNull List<DBSEntityAttribute> attributes,
+        @NotNull String searchString,
+        boolean caseSensitive
+    ) throws DBException {
+        if (!(entity instanceof OracleTableBase table) || searchString.isBlank()) {
+            return null;
+        }
+        OracleDataSource dataSource = (OracleDataSource) session.getDataSource();
+        Set<String> indexedColumns;
+        try {
+            indexedColumns = new HashSet<>(JDBCUtils.queryStrings(
+                (JDBCSession) session,
+                "SELECT ic.COLUMN_NAME FROM " +
+                    OracleUtils.getAdminAllViewPrefix(session.getProgressMonitor(), dataSource, "INDEXES") + " i\n" +
+                    "JOIN " + OracleUtils.getAdminAllViewPrefix(session.getProgressMonitor(), dataSource, "IND_COLUMNS") + " ic " +
+                    "ON i.OWNER = ic.INDEX_OWNER AND i.INDEX_NAME = ic.INDEX_NAME\n" +
+                    "WHERE i.TABLE_OWNER = ? AND i.TABLE_NAME = ? AND i.ITYP_OWNER = 'CTXSYS' AND i.ITYP_NAME = 'CONTEXT' " +
+                    "AND i.DOMIDX_STATUS = 'VALID'",
+                table.getSchema().getName(),
+                table.getName()));
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getExecutionContext());
+        }
+        if (indexedColumns.isEmpty()) {
+            return null;
+        }
+        String textQuery = SQLUtils.quoteString(dataSource, "{" + searchString.replace("}", "}}") + "}");
+        StringBuilder condition = new StringBuilder();
+        for (Iterator<DBSEntityAttribute> iter = attributes.iterator(); iter.hasNext(); ) {
+            DBSEntityAttribute attribute = iter.next();
+            if (!indexedColumns.contains(attribute.getName())) {
+                continue;
+            }
+            if (condition.length() > 0) {
+                condition.append(" OR ");
+            }
+            condition.append("CONTAINS(").append(DBUtils.getQuotedIdentifier(attribute)).append(", ").append(textQuery).append(") > 0");
+            iter.remove();
+        }
+        return condition.length() == 0 ? null : condition.toString();
+    }
+
+}
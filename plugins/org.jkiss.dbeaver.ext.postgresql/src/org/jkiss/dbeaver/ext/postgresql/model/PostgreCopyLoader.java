@@ -18,226 +18,140 @@ package org.jkiss.dbeaver.ext.postgresql.model;
 
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.Log;
-import org.jkiss.dbeaver.model.DBPEvaluationContext;
-import org.jkiss.dbeaver.model.DBUtils;
-import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
-import org.jkiss.dbeaver.model.data.DBDValueHandler;
-import org.jkiss.dbeaver.model.exec.DBCException;
-import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
-import org.jkiss.dbeaver.model.exec.DBCSession;
-import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
-import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
-import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
-import org.jkiss.dbeaver.model.struct.DBSDataContainer;
-import org.jkiss.dbeaver.runtime.DBWorkbench;
-import org.jkiss.utils.ArrayUtils;
-import org.jkiss.utils.CommonUtils;
-
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.Reader;
-import java.io.Writer;
-import java.lang.reflect.InvocationTargetException;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCBulkLoader;
+
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.sql.Connection;
-import java.util.List;
-import java.util.Map;
 
 /**
- * Bulk loader based on CopyManager
+ * Bulk loader based on CopyManager.
+ * Rows are streamed to the server while COPY is in progress, no intermediate file is used.
  *
- * //        new CopyManager((BaseConnection) conn)
- * //            .copyIn(
- * //                "COPY table1 FROM STDIN (FORMAT csv)",
- * //                new BufferedReader(new FileReader("data.csv"))
- * //            );
+ * //        CopyIn copyIn = new CopyManager((BaseConnection) conn).copyIn("COPY table1 FROM STDIN (FORMAT csv)");
+ * //        copyIn.writeToCopy(data, 0, data.length);
+ * //        copyIn.endCopy();
  */
-public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+public class PostgreCopyLoader extends JDBCBulkLoader {
 
     private static final Log log = Log.getLog(PostgreCopyLoader.class);
 
-    private final PostgreDataSource dataSource;
-    private PostgreTableReal table;
-    private Object copyManager;
-    private Method copyInMethod;
-    private Writer csvWriter;
-    private Path csvFile;
-
-    private AttrMapping[] mappings;
-
-    private int copyBufferSize = 100 * 1024;
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
 
-    private static class AttrMapping {
-        PostgreTableColumn tableAttr;
-        DBDValueHandler valueHandler;
-        int srcPos;
+    private final PostgreDataSource dataSource;
+    private Object copyIn;
+    private Method writeToCopyMethod;
+    private Method flushCopyMethod;
+    private Method endCopyMethod;
+    private Method cancelCopyMethod;
+    private Method isActiveMethod;
 
-        AttrMapping(PostgreTableColumn tableAttr, DBDValueHandler valueHandler, int srcPos) {
-            this.tableAttr = tableAttr;
-            this.valueHandler = valueHandler;
-            this.srcPos = srcPos;
-        }
-    }
+    private final StringBuilder line = new StringBuilder();
+    private byte[] copyBuffer;
+    private int copyBufferLength;
 
     public PostgreCopyLoader(PostgreDataSource dataSource) {
         this.dataSource = dataSource;
     }
 
-    @NotNull
     @Override
-    public BulkLoadManager createBulkLoad(
-        @NotNull DBCSession session,
-        @NotNull DBSDataContainer dataContainer,
-        @NotNull DBSAttributeBase[] attributes,
-        @NotNull DBCExecutionSource source,
-        int batchSize,
-        Map<String, Object> options) throws DBCException
-    {
-        this.table = (PostgreTableReal) dataContainer;
-        try {
-            // Use reflection to create copy manager
-            Connection pgConnection = ((JDBCSession) session).getOriginal();
-            ClassLoader driverClassLoader = pgConnection.getClass().getClassLoader();
-
-            Class<?> baseConnectionClass = Class.forName("org.postgresql.core.BaseConnection", true, driverClassLoader);
-            Class<?> copyManagerClass = Class.forName("org.postgresql.copy.CopyManager", true, driverClassLoader);
-
-            // Get method copyIn(final String sql, Reader from, int bufferSize)
-            copyInMethod = copyManagerClass.getMethod("copyIn", String.class, Reader.class, Integer.TYPE);
-
-            copyManager = copyManagerClass.getConstructor(baseConnectionClass).newInstance(pgConnection);
-
-            Path tempFolder = DBWorkbench.getPlatform().getTempFolder(session.getProgressMonitor(), "postgesql-copy-datasets");
-            csvFile = tempFolder.resolve(CommonUtils.escapeFileName(table.getFullyQualifiedName(DBPEvaluationContext.DML)) + "-" + System.currentTimeMillis() + ".csv");  //$NON-NLS-1$ //$NON-NLS-2$
-            try {
-                Files.createFile(csvFile);
-            } catch (IOException ex) {
-                throw new IOException("Can't create CSV file " + csvFile);
-            }
+    protected void startLoad(@NotNull JDBCSession session) throws Exception {
+        // Use reflection to create copy manager
+        Connection pgConnection = session.getOriginal();
+        ClassLoader driverClassLoader = pgConnection.getClass().getClassLoader();
+
+        Class<?> baseConnectionClass = Class.forName("org.postgresql.core.BaseConnection", true, driverClassLoader);
+        Class<?> copyManagerClass = Class.forName("org.postgresql.copy.CopyManager", true, driverClassLoader);
+        Class<?> copyInClass = Class.forName("org.postgresql.copy.CopyIn", true, driverClassLoader);
+
+        writeToCopyMethod = copyInClass.getMethod("writeToCopy", byte[].class, Integer.TYPE, Integer.TYPE);
+        flushCopyMethod = copyInClass.getMethod("flushCopy");
+        endCopyMethod = copyInClass.getMethod("endCopy");
+        cancelCopyMethod = copyInClass.getMethod("cancelCopy");
+        isActiveMethod = copyInClass.getMethod("isActive");
+
+        Object copyManager = copyManagerClass.getConstructor(baseConnectionClass).newInstance(pgConnection);
+        String queryText = "COPY " + getTableName() + " (" + getColumnList() + ") FROM STDIN (FORMAT CSV, ESCAPE '\\')";
+        copyIn = copyManagerClass.getMethod("copyIn", String.class).invoke(copyManager, queryText);
+        copyBuffer = new byte[COPY_BUFFER_SIZE];
+        copyBufferLength = 0;
+    }
 
-            csvWriter = new BufferedWriter(
-                Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8),
-                copyBufferSize
-                );
-
-            List<? extends PostgreTableColumn> tableAttrs = CommonUtils.safeList(table.getAttributes(session.getProgressMonitor()));
-            tableAttrs.removeIf(a -> a.getOrdinalPosition() < 0);
-            mappings = new AttrMapping[tableAttrs.size()];
-
-            for (int i = 0; i < tableAttrs.size(); i++) {
-                PostgreTableColumn attr = tableAttrs.get(i);
-                DBDValueHandler valueHandler = DBUtils.findValueHandler(session, attr);
-                AttrMapping mapping = new AttrMapping(
-                    attr,
-                    valueHandler,
-                    ArrayUtils.indexOf(attributes, attr)
-                );
-                mappings[i] = mapping;
+    @Override
+    protected void loadRow(@NotNull JDBCSession session, @NotNull Object[] values) throws Exception {
+        line.setLength(0);
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object srcValue = getRawValue(values, i);
+            if (srcValue instanceof Number) {
+                line.append(getTextValue(values, i));
+            } else if (srcValue != null) {
+                appendQuotedValue(getTextValue(values, i));
             }
-        } catch (Exception e) {
-            throw new DBCException("Can't instantiate CopyManager", e);
         }
-        return this;
+        line.append('\n');
+        writeData(line.toString().getBytes(StandardCharsets.UTF_8));
     }
 
-    @Override
-    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
-        StringBuilder line = new StringBuilder();
-        boolean hasCell = false;
-        for (AttrMapping mapping : mappings) {
-            if (mapping.srcPos >= 0) {
-                if (hasCell) {
-                    line.append(",");
-                }
-                Object srcValue = attributeValues[mapping.srcPos];
-                if (!DBUtils.isNullValue(srcValue)) {
-                    if (srcValue instanceof Number) {
-                        line.append(srcValue);
-                    } else {
-                        String strValue = mapping.valueHandler.getValueDisplayString(
-                            mapping.tableAttr, srcValue, DBDDisplayFormat.NATIVE);
-                        strValue = convertStringValueToCell(strValue);
-                        line.append(strValue);
-                    }
-                }
-                hasCell = true;
+    private void appendQuotedValue(String strValue) {
+        line.append('"');
+        for (int i = 0; i < strValue.length(); i++) {
+            char c = strValue.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\');
             }
+            line.append(c);
         }
-        line.append("\n");
-        try {
-            csvWriter.write(line.toString());
-        } catch (IOException e) {
-            throw new DBCException("Error writing CSV line", e);
-        }
+        line.append('"');
     }
 
-    private String convertStringValueToCell(String strValue) {
-        return '"' +
-            strValue.replace("\"", "\\\"") +
-            '"';
+    private void writeData(byte[] data) throws Exception {
+        if (copyBufferLength + data.length > copyBuffer.length) {
+            sendBuffer();
+        }
+        if (data.length > copyBuffer.length) {
+            writeToCopyMethod.invoke(copyIn, data, 0, data.length);
+        } else {
+            System.arraycopy(data, 0, copyBuffer, copyBufferLength, data.length);
+            copyBufferLength += data.length;
+        }
     }
 
-    @Override
-    public void flushRows(@NotNull DBCSession session) throws DBCException {
-        try {
-            csvWriter.flush();
-        } catch (IOException e) {
-            throw new DBCException("Error saving CSV data", e);
+    private void sendBuffer() throws Exception {
+        if (copyBufferLength > 0) {
+            writeToCopyMethod.invoke(copyIn, copyBuffer, 0, copyBufferLength);
+            copyBufferLength = 0;
         }
     }
 
     @Override
-    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
-        try {
-            csvWriter.flush();
-            csvWriter.close();
-        } catch (IOException e) {
-            log.debug(e);
-        }
-        csvWriter = null;
-
-        String tableFQN = table.getFullyQualifiedName(DBPEvaluationContext.DML);
-
-        session.getProgressMonitor().subTask("Copy into " + tableFQN);
-
-        String queryText = "COPY " + tableFQN + " FROM STDIN (FORMAT CSV, ESCAPE '\\')";
-
-        try {
-            Object rowCount;
-            try (Reader csvReader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
-                rowCount = copyInMethod.invoke(copyManager, queryText, csvReader, copyBufferSize);
-            }
-
-            // Commit changes
-            DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
-            if (txnManager != null && !txnManager.isAutoCommit()) {
-                session.getProgressMonitor().subTask("Commit COPY");
-                txnManager.commit(session);
-            }
-
-            log.debug("CSV has been imported (" + rowCount + ")");
-        } catch (Throwable e) {
-            if (e instanceof InvocationTargetException) {
-                e = ((InvocationTargetException) e).getTargetException();
-            }
-            throw new DBCException("Error copying dataset on remote server", e);
-        }
+    protected void flushLoad(@NotNull JDBCSession session) throws Exception {
+        // Transaction can't be committed while COPY is in progress. Just push data to the server.
+        sendBuffer();
+        flushCopyMethod.invoke(copyIn);
     }
 
     @Override
+    protected void finishLoad(@NotNull JDBCSession session) throws Exception {
+        session.getProgressMonitor().subTask("Copy into " + getTableName());
+        sendBuffer();
+        Object rowCount = endCopyMethod.invoke(copyIn);
+        copyIn = null;
+        log.debug("COPY completed (" + rowCount + ")");
+    }
 
-    public void close() {
-        if (csvFile != null && Files.exists(csvFile)) {
-            try {
-                Files.delete(csvFile);
-            } catch (IOException e) {
-                log.debug("Error deleting CSV file " + csvFile, e);
-                csvFile.toFile().deleteOnExit();
+    @Override
+    protected void closeLoad() throws Exception {
+        if (copyIn != null) {
+            Object copy = copyIn;
+            copyIn = null;
+            if (Boolean.TRUE.equals(isActiveMethod.invoke(copy))) {
+                cancelCopyMethod.invoke(copy);
             }
         }
+        copyBuffer = null;
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSDataPartitioner;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits table heap into ranges of physical pages (ctid ranges).
+ * Ctid range conditions are executed as TID Range Scan which is available since PostgreSQL 14.
+ * <p>
+ * An updated row gets a new ctid, so partitions must read the same snapshot. Coordinator exports its snapshot
+ * and each partition imports it in a REPEATABLE READ transaction.
+ */
+public class PostgreDataPartitioner implements DBSDataPartitioner {
+
+    @NotNull
+    @Override
+    public List<String> splitData(@NotNull DBCSession session, @NotNull DBSEntity entity, int partitionCount) throws DBException {
+        if (partitionCount < 2 || !(entity instanceof PostgreTableReal) || entity instanceof PostgreTableForeign) {
+            return Collections.emptyList();
+        }
+        long pageCount;
+        try {
+            Long pages = JDBCUtils.queryLong(
+                (JDBCSession) session,
+                "SELECT pg_catalog.pg_relation_size(?) / pg_catalog.current_setting('block_size')::int",
+                ((PostgreTableReal) entity).getObjectId());
+            pageCount = pages == null ? 0 : pages;
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getExecutionContext());
+        }
+        if (pageCount < partitionCount) {
+            return Collections.emptyList();
+        }
+        long pagesPerPartition = pageCount / partitionCount;
+        List<String> conditions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            long startPage = i * pagesPerPartition;
+            long endPage = startPage + pagesPerPartition;
+            if (i == 0) {
+                conditions.add("ctid < '(" + endPage + ",0)'::tid");
+            } else if (i == partitionCount - 1) {
+                // Last range is open to include pages added after the size was read
+                conditions.add("ctid >= '(" + startPage + ",0)'::tid");
+            } else {
+                conditions.add("ctid >= '(" + startPage + ",0)'::tid AND ctid < '(" + endPage + ",0)'::tid");
+            }
+        }
+        return conditions;
+    }
+
+    @Nullable
+    @Override
+    public String exportSnapshot(@NotNull DBCSession session) throws DBException {
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager == null || txnManager.isAutoCommit()) {
+            // Snapshot is released at the end of the exporting transaction
+            throw new DBCException("Snapshot can't be exported in auto-commit mode");
+        }
+        try {
+            JDBCSession jdbcSession = (JDBCSession) session;
+            if (Boolean.TRUE.equals(JDBCUtils.queryObject(jdbcSession, "SELECT pg_catalog.pg_is_in_recovery()"))) {
+                throw new DBCException("Snapshot can't be shared on standby server");
+            }
+            return JDBCUtils.queryString(jdbcSession, "SELECT pg_catalog.pg_export_snapshot()");
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getExecutionContext());
+        }
+    }
+
+    @Override
+    public void importSnapshot(@NotNull DBCSession session, @NotNull String snapshotId) throws DBException {
+        try {
+            JDBCSession jdbcSession = (JDBCSession) session;
+            JDBCUtils.executeStatement(jdbcSession, "SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+            JDBCUtils.executeStatement(jdbcSession, "SET TRANSACTION SNAPSHOT " + SQLUtils.quoteString(session.getDataSource(), snapshotId));
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getExecutionContext());
+        }
+    }
+
+}
@@ -40,6 +40,7 @@ import org.jkiss.dbeaver.model.exec.jdbc.*;
 import org.jkiss.dbeaver.model.exec.output.DBCServerOutputReader;
 import org.jkiss.dbeaver.model.exec.plan.DBCQueryPlanner;
 import org.jkiss.dbeaver.model.impl.jdbc.*;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataStampProvider;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectLookupCache;
 import org.jkiss.dbeaver.model.impl.net.SSLHandlerTrustStoreImpl;
 import org.jkiss.dbeaver.model.impl.sql.QueryTransformerLimit;
@@ -72,7 +73,7 @@ import java.util.regex.Pattern;
  * PostgreDataSource
  */
 public class PostgreDataSource extends JDBCDataSource implements DBSInstanceContainer, DBPAdaptable,
-    DBPObjectStatisticsCollector {
+    DBPObjectStatisticsCollector, JDBCMetadataStampProvider {
 
     private static final Log log = Log.getLog(PostgreDataSource.class);
     private static final PostgrePrivilegeType[] SUPPORTED_PRIVILEGE_TYPES = new PostgrePrivilegeType[]{
@@ -607,6 +608,12 @@ public class PostgreDataSource extends JDBCDataSource implements DBSInstanceCont
             if (getServerType().supportsCopyFromStdIn()) {
                 return adapter.cast(new PostgreCopyLoader(this));
             }
+        } else if (adapter == DBSDataPartitioner.class) {
+            if (getServerType() instanceof PostgreServerPostgreSQL && isServerVersionAtLeast(14, 0)) {
+                return adapter.cast(new PostgreDataPartitioner());
+            }
+        } else if (adapter == DBSFullTextSearcher.class) {
+            return adapter.cast(new PostgreFullTextSearcher());
         } else if (adapter == DBAUserPasswordManager.class) {
             if (getServerType().supportsAlterUserChangePassword()) {
                 return adapter.cast(new PostgresUserPasswordManager(this));
@@ -772,6 +779,71 @@ public class PostgreDataSource extends JDBCDataSource implements DBSInstanceCont
         }
     }
 
+    @NotNull
+    @Override
+    public Map<String, String> readMetadataStamps(@NotNull JDBCSession session) throws SQLException {
+        // Catalog rows get new xmin on each change. Count of rows detects drops.
+        // Catalogs are per-database so stamps are read only for the current database.
+        // Data source level objects (settings, databases) have no stamp and are always read from the server.
+        Map<String, String> stamps = new HashMap<>();
+        String databaseName, descriptionStamp;
+        try (JDBCPreparedStatement dbStat = session.prepareStatement(
+            "SELECT pg_catalog.current_database()," +
+                "(SELECT COUNT(*) || ':' || COALESCE(MAX(xmin::text::bigint),0) FROM pg_catalog.pg_namespace)," +
+                "(SELECT COUNT(*) || ':' || COALESCE(MAX(xmin::text::bigint),0) FROM pg_catalog.pg_description)," +
+                "(SELECT COUNT(*) || ':' || COALESCE(MAX(xmin::text::bigint),0) FROM pg_catalog.pg_database)," +
+                "(SELECT COUNT(*) || ':' || COALESCE(MAX(xmin::text::bigint),0) FROM pg_catalog.pg_tablespace)," +
+                "(SELECT pg_catalog.md5(COALESCE(pg_catalog.string_agg(r::text, ',' ORDER BY r.oid),'')) FROM pg_catalog.pg_roles r)"))
+        {
+            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
+                if (!dbResult.next()) {
+                    return stamps;
+                }
+                databaseName = dbResult.getString(1);
+                // Comments of all objects are in the same catalog
+                descriptionStamp = dbResult.getString(3);
+                stamps.put(
+                    databaseName,
+                    dbResult.getString(2) + "/" + descriptionStamp + "/" + dbResult.getString(4) + "/" +
+                        dbResult.getString(5) + "/" + dbResult.getString(6));
+            }
+        }
+        try (JDBCPreparedStatement dbStat = session.prepareStatement(
+            "SELECT n.nspname, COUNT(*), MAX(s.x) FROM (\n" +
+                "SELECT relnamespace AS nsp, xmin::text::bigint AS x FROM pg_catalog.pg_class\n" +
+                "UNION ALL SELECT c.relnamespace, a.xmin::text::bigint FROM pg_catalog.pg_attribute a " +
+                "JOIN pg_catalog.pg_class c ON c.oid=a.attrelid\n" +
+                "UNION ALL SELECT c.relnamespace, t.xmin::text::bigint FROM pg_catalog.pg_trigger t " +
+                "JOIN pg_catalog.pg_class c ON c.oid=t.tgrelid\n" +
+                "UNION ALL SELECT connamespace, xmin::text::bigint FROM pg_catalog.pg_constraint\n" +
+                "UNION ALL SELECT pronamespace, xmin::text::bigint FROM pg_catalog.pg_proc\n" +
+                "UNION ALL SELECT typnamespace, xmin::text::bigint FROM pg_catalog.pg_type\n" +
+                ") s JOIN pg_catalog.pg_namespace n ON n.oid=s.nsp GROUP BY n.nspname"))
+        {
+            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
+                while (dbResult.next()) {
+                    stamps.put(
+                        databaseName + "/" + dbResult.getString(1),
+                        dbResult.getLong(2) + ":" + dbResult.getLong(3) + "/" + descriptionStamp);
+                }
+            }
+        }
+        return stamps;
+    }
+
+    @NotNull
+    @Override
+    public String getMetadataContainer(@NotNull DBSObject object) {
+        for (DBSObject parent = object; parent != null; parent = parent.getParentObject()) {
+            if (parent instanceof PostgreSchema schema) {
+                return schema.getDatabase().getName() + "/" + schema.getName();
+            } else if (parent instanceof PostgreDatabase database) {
+                return database.getName();
+            }
+        }
+        return "";
+    }
+
     private static class DatabaseCache extends SimpleObjectCache<PostgreDataSource, PostgreDatabase> {
     }
 
@@ -0,0 +1,106 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLConstants;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSFullTextSearcher;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Searches text in columns covered by pg_trgm indexes.
+ * Trigram GIN/GiST indexes serve LIKE and ILIKE with leading wildcard, unlike regular B-tree indexes.
+ */
+public class PostgreFullTextSearcher implements DBSFullTextSearcher {
+
+    private static final String[] TRIGRAM_OPERATOR_CLASSES = {"gin_trgm_ops", "gist_trgm_ops"};
+
+    @Nullable
+    @Override
+    public String makeSearchCondition(
+        @NotNull DBCSession session,
+        @NotNull DBSEntity entity,
+        @NotNull List<DBSEntityAttribute> attributes,
+        @NotNull String searchString,
+        boolean caseSensitive
+    ) throws DBException {
+        if (!(entity instanceof PostgreTable table)) {
+            return null;
+        }
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        Set<PostgreAttribute> indexedAttributes = new HashSet<>();
+        for (PostgreIndex index : CommonUtils.safeCollection(table.getIndexes(monitor))) {
+            if (!index.isValid() || !CommonUtils.isEmpty(index.getPredicateExpression())) {
+                // Partial indexes do not cover all rows
+                continue;
+            }
+            for (PostgreIndexColumn column : CommonUtils.safeCollection(index.getAttributeReferences(monitor))) {
+                PostgreOperatorClass operatorClass = column.getOperatorClass(monitor);
+                if (operatorClass != null && column.getTableColumn() != null &&
+                    ArrayUtils.contains(TRIGRAM_OPERATOR_CLASSES, operatorClass.getName()))
+                {
+                    indexedAttributes.add(column.getTableColumn());
+                }
+            }
+        }
+        if (indexedAttributes.isEmpty()) {
+            return null;
+        }
+        // Wildcards in the search string are searched literally
+        String pattern = SQLUtils.quoteString(entity.getDataSource(), "%" + escapeLikePattern(searchString) + "%") +
+            " ESCAPE " + SQLUtils.quoteString(entity.getDataSource(), SQLConstants.DEFAULT_LIKE_ESCAPE);
+        StringBuilder condition = new StringBuilder();
+        for (Iterator<DBSEntityAttribute> iter = attributes.iterator(); iter.hasNext(); ) {
+            DBSEntityAttribute attribute = iter.next();
+            if (!indexedAttributes.contains(attribute)) {
+                continue;
+            }
+            if (condition.length() > 0) {
+                condition.append(" OR ");
+            }
+            condition.append(DBUtils.getQuotedIdentifier(attribute))
+                .append(caseSensitive ? " LIKE " : " ILIKE ")
+                .append(pattern);
+            iter.remove();
+        }
+        return condition.length() == 0 ? null : condition.toString();
+    }
+
+    @NotNull
+    private static String escapeLikePattern(@NotNull String value) {
+        String escape = SQLConstants.DEFAULT_LIKE_ESCAPE;
+        return value
+            .replace(escape, escape + escape)
+            .replace("%", escape + "%")
+            .replace("_", escape + "_");
+    }
+
+}
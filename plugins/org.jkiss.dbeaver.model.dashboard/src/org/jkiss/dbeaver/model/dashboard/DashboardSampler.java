@@ -0,0 +1,148 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.dashboard;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.DBRRunnableWithProgress;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dashboard sampling engine.
+ * <p>
+ * Each source (usually a data source container) is sampled by its own job. Jobs run in a job group
+ * with a bounded number of threads, so a slow source delays only itself.
+ * A new sample of a source is not started while its previous sample is running.
+ * Sample which runs longer than its timeout is canceled (which also cancels its running queries).
+ * Source is released only when its job is done, so a canceled but still running sample blocks new samples.
+ */
+public class DashboardSampler {
+
+    private static final Log log = Log.getLog(DashboardSampler.class);
+
+    public static final long DEFAULT_SAMPLE_TIMEOUT = 30 * 1000;
+
+    private static final int MAX_SAMPLING_THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private static DashboardSampler instance;
+
+    private final JobGroup jobGroup = new JobGroup("Dashboard sampling", MAX_SAMPLING_THREADS, 0);
+    private final Map<Object, SampleJob> activeJobs = new ConcurrentHashMap<>();
+
+    public static synchronized DashboardSampler getInstance() {
+        if (instance == null) {
+            instance = new DashboardSampler();
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules sample of the source.
+     *
+     * @param source  sampled source. Samples of the same source never run concurrently.
+     * @param timeout sample timeout in milliseconds
+     * @return false if previous sample of this source is still running
+     */
+    public boolean sample(@NotNull Object source, @NotNull String name, long timeout, @NotNull DBRRunnableWithProgress task) {
+        checkTimeouts();
+        SampleJob job = new SampleJob(source, name, timeout, task);
+        if (activeJobs.putIfAbsent(source, job) != null) {
+            return false;
+        }
+        job.setJobGroup(jobGroup);
+        job.schedule();
+        return true;
+    }
+
+    /**
+     * Returns true if sample of the source is scheduled or running
+     */
+    public boolean isSampling(@NotNull Object source) {
+        return activeJobs.containsKey(source);
+    }
+
+    /**
+     * Cancels samples which exceeded their timeouts
+     */
+    public void checkTimeouts() {
+        long currentTime = System.currentTimeMillis();
+        for (SampleJob job : activeJobs.values()) {
+            long startTime = job.startTime;
+            if (startTime > 0 && currentTime - startTime > job.timeout && !job.isCanceled()) {
+                log.debug("Dashboard sample '" + job.getName() + "' timed out after " + (currentTime - startTime) + "ms");
+                job.cancel();
+            }
+        }
+    }
+
+    /**
+     * Cancels all samples
+     */
+    public void cancelAll() {
+        // Jobs remove themselves from active jobs when they are done (or canceled before start)
+        jobGroup.cancel();
+    }
+
+    private class SampleJob extends AbstractJob {
+        private final Object source;
+        private final long timeout;
+        private final DBRRunnableWithProgress task;
+        private volatile long startTime;
+
+        SampleJob(@NotNull Object source, @NotNull String name, long timeout, @NotNull DBRRunnableWithProgress task) {
+            super(name);
+            this.source = source;
+            this.timeout = timeout;
+            this.task = task;
+            setUser(false);
+            setSystem(true);
+            addJobChangeListener(new JobChangeAdapter() {
+                @Override
+                public void done(IJobChangeEvent event) {
+                    activeJobs.remove(source, SampleJob.this);
+                }
+            });
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            startTime = System.currentTimeMillis();
+            try {
+                task.run(monitor);
+            } catch (InvocationTargetException e) {
+                log.debug("Error sampling dashboard '" + getName() + "': " + GeneralUtils.getRootCause(e).getMessage());
+            } catch (InterruptedException e) {
+                // Canceled
+            } catch (Throwable e) {
+                log.debug("Internal error sampling dashboard '" + getName() + "'", e);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.dashboard.data;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fixed-size time series ring buffer.
+ * Keeps the last {@code capacity} samples in primitive arrays. Non-numeric values are stored as NaN.
+ * <p>
+ * Samples are appended by the sampling thread, subscribers read new samples with {@link #getDataset(long, long)}.
+ * Each sample gets a sequence number so subscriber can read only samples it hasn't seen yet.
+ */
+public class DashboardTimeSeries {
+
+    /**
+     * Time series subscriber
+     */
+    public interface Listener {
+        /**
+         * Called in the sampling thread after new samples were appended
+         */
+        void samplesAdded(@NotNull DashboardTimeSeries series);
+    }
+
+    private final int capacity;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private String[] columnNames = new String[0];
+    private final long[] timestamps;
+    // Values by column
+    private double[][] values = new double[0][];
+    // Number of samples appended since creation. Last sample has sequence number equal to this value.
+    private long sequence;
+    private int size;
+
+    public DashboardTimeSeries(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Bad time series capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns sequence number of the last sample
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    @NotNull
+    public synchronized String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    public void addListener(@NotNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Appends all rows of the dataset and notifies subscribers.
+     * If dataset columns differ from current columns then buffered samples are discarded.
+     */
+    public void append(@NotNull DashboardDataset dataset) {
+        synchronized (this) {
+            String[] datasetColumns = dataset.getColumnNames();
+            if (!Arrays.equals(columnNames, datasetColumns)) {
+                columnNames = datasetColumns.clone();
+                values = new double[columnNames.length][capacity];
+                size = 0;
+            }
+            for (DashboardDatasetRow row : dataset.getRows()) {
+                int slot = (int) (sequence % capacity);
+                timestamps[slot] = row.getTimestamp() == null ? System.currentTimeMillis() : row.getTimestamp().getTime();
+                Object[] rowValues = row.getValues();
+                for (int i = 0; i < values.length; i++) {
+                    Object value = i < rowValues.length ? rowValues[i] : null;
+                    values[i][slot] = value instanceof Number number ? number.doubleValue() : Double.NaN;
+                }
+                sequence++;
+                if (size < capacity) {
+                    size++;
+                }
+            }
+        }
+        for (Listener listener : listeners) {
+            listener.samplesAdded(this);
+        }
+    }
+
+    /**
+     * Returns samples with sequence numbers greater than {@code afterSequence} and not greater than {@code lastSequence}.
+     * Samples which were overwritten in the ring buffer are skipped. NaN values are returned as nulls.
+     */
+    @NotNull
+    public synchronized DashboardDataset getDataset(long afterSequence, long lastSequence) {
+        DashboardDataset dataset = new DashboardDataset(columnNames.clone());
+        long firstSequence = Math.max(afterSequence, sequence - size);
+        long endSequence = Math.min(lastSequence, sequence);
+        for (long seq = firstSequence; seq < endSequence; seq++) {
+            int slot = (int) (seq % capacity);
+            Object[] rowValues = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                double value = values[i][slot];
+                rowValues[i] = Double.isNaN(value) ? null : value;
+            }
+            dataset.addRow(new DashboardDatasetRow(new Date(timestamps[slot]), rowValues));
+        }
+        return dataset;
+    }
+
+    /**
+     * Discards all samples
+     */
+    public synchronized void clear() {
+        size = 0;
+    }
+
+}
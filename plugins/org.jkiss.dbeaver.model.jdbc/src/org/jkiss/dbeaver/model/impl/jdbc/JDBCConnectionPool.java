@@ -0,0 +1,245 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.DBCConnectionPool;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pool of standby connections of a remote instance.
+ * <p>
+ * Connections are opened in background and given to new isolated contexts, so these contexts
+ * do not wait for the network, tunnel and authentication handshake. Connections are never returned back:
+ * a used connection may have session state (variables, temporary tables, open transaction) which can't be
+ * reset reliably. Instead, the pool opens a replacement after each taken connection.
+ * <p>
+ * Pool keeps at least {@code minIdle} connections. If the pool was empty on request it keeps one more
+ * connection next time, up to {@code maxIdle}. Connections which weren't used for {@code idleTimeout}
+ * are closed and the pool shrinks back to {@code minIdle}.
+ */
+public class JDBCConnectionPool implements DBCConnectionPool {
+
+    private static final Log log = Log.getLog(JDBCConnectionPool.class);
+
+    private static final String STANDBY_PURPOSE = "Standby";
+
+    @NotNull
+    private final JDBCRemoteInstance instance;
+    private final int minIdle;
+    private final int maxIdle;
+    private final long idleTimeout;
+
+    // Newest connections first
+    private final Deque<StandbyConnection> idleConnections = new ArrayDeque<>();
+    private int poolSize;
+    private int openingCount;
+    private volatile boolean closed;
+    private final AtomicBoolean fillScheduled = new AtomicBoolean();
+    private JDBCExecutionContext standbyContext;
+
+    private record StandbyConnection(@NotNull Connection connection, long openTime) {
+    }
+
+    public JDBCConnectionPool(@NotNull JDBCRemoteInstance instance, int minIdle, int maxIdle, long idleTimeout) {
+        this.instance = instance;
+        this.minIdle = minIdle;
+        this.maxIdle = Math.max(minIdle, maxIdle);
+        this.idleTimeout = idleTimeout;
+        this.poolSize = minIdle;
+    }
+
+    @Override
+    public synchronized int getIdleCount() {
+        return idleConnections.size();
+    }
+
+    /**
+     * Takes standby connection from the pool and schedules opening of a replacement.
+     *
+     * @return connection or null if there are no standby connections
+     */
+    @Nullable
+    public Connection takeConnection() {
+        if (closed) {
+            return null;
+        }
+        Connection result = null;
+        List<StandbyConnection> staleConnections = new ArrayList<>();
+        synchronized (this) {
+            for (StandbyConnection standby = idleConnections.pollFirst(); standby != null; standby = idleConnections.pollFirst()) {
+                if (isClosed(standby.connection())) {
+                    staleConnections.add(standby);
+                } else {
+                    result = standby.connection();
+                    break;
+                }
+            }
+            if (result == null && poolSize < maxIdle) {
+                // Demand is higher than the pool size
+                poolSize++;
+            }
+        }
+        closeConnections(staleConnections);
+        scheduleFill();
+        return result;
+    }
+
+    @Override
+    public void validateConnections(@NotNull DBRProgressMonitor monitor) {
+        if (closed) {
+            return;
+        }
+        List<StandbyConnection> connections;
+        synchronized (this) {
+            connections = new ArrayList<>(idleConnections);
+            idleConnections.clear();
+        }
+        long currentTime = System.currentTimeMillis();
+        List<StandbyConnection> aliveConnections = new ArrayList<>(connections.size());
+        List<StandbyConnection> staleConnections = new ArrayList<>();
+        for (StandbyConnection standby : connections) {
+            if (isExpired(standby, currentTime)) {
+                staleConnections.add(standby);
+                synchronized (this) {
+                    // Connection wasn't requested for a long time
+                    poolSize = Math.max(minIdle, poolSize - 1);
+                }
+            } else if (!JDBCUtils.isConnectionAlive(instance.getDataSource(), standby.connection())) {
+                staleConnections.add(standby);
+            } else {
+                aliveConnections.add(standby);
+            }
+        }
+        synchronized (this) {
+            if (closed) {
+                staleConnections.addAll(aliveConnections);
+            } else {
+                // Connections taken during validation were newer, keep order
+                idleConnections.addAll(aliveConnections);
+            }
+        }
+        closeConnections(staleConnections);
+        fill(monitor);
+    }
+
+    /**
+     * Closes all standby connections. Closed pool doesn't open new connections.
+     */
+    public void close() {
+        closed = true;
+        List<StandbyConnection> connections;
+        synchronized (this) {
+            connections = new ArrayList<>(idleConnections);
+            idleConnections.clear();
+        }
+        closeConnections(connections);
+    }
+
+    void scheduleFill() {
+        if (closed || !fillScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        AbstractJob fillJob = new AbstractJob("Open standby connections (" + instance.getName() + ")") {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                try {
+                    fill(monitor);
+                } finally {
+                    fillScheduled.set(false);
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        fillJob.setUser(false);
+        fillJob.setSystem(true);
+        fillJob.schedule();
+    }
+
+    private void fill(@NotNull DBRProgressMonitor monitor) {
+        while (!closed && !monitor.isCanceled()) {
+            synchronized (this) {
+                if (idleConnections.size() + openingCount >= poolSize) {
+                    break;
+                }
+                openingCount++;
+            }
+            Connection connection = null;
+            try {
+                connection = instance.getDataSource().openConnection(monitor, getStandbyContext(), STANDBY_PURPOSE);
+            } catch (DBCException e) {
+                // Do not retry until the next request or validation
+                log.debug("Can't open standby connection to '" + instance.getName() + "': " + e.getMessage());
+                break;
+            } finally {
+                synchronized (this) {
+                    openingCount--;
+                    if (connection != null && !closed) {
+                        idleConnections.addFirst(new StandbyConnection(connection, System.currentTimeMillis()));
+                        connection = null;
+                    }
+                }
+                if (connection != null) {
+                    // Pool was closed while connection was opening
+                    instance.getDataSource().closeConnection(connection, STANDBY_PURPOSE, false);
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private synchronized JDBCExecutionContext getStandbyContext() {
+        if (standbyContext == null) {
+            // Connections are opened on behalf of this context, it is never connected itself
+            standbyContext = instance.getDataSource().createExecutionContext(instance, STANDBY_PURPOSE);
+        }
+        return standbyContext;
+    }
+
+    private boolean isExpired(@NotNull StandbyConnection standby, long currentTime) {
+        return idleTimeout > 0 && currentTime - standby.openTime() > idleTimeout;
+    }
+
+    private static boolean isClosed(@NotNull Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private void closeConnections(@NotNull List<StandbyConnection> connections) {
+        for (StandbyConnection standby : connections) {
+            instance.getDataSource().closeConnection(standby.connection(), STANDBY_PURPOSE, false);
+        }
+    }
+
+}
@@ -34,6 +34,8 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCFactory;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.AbstractDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataSnapshot;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataStampProvider;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCConnectionImpl;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCFactoryDefault;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
@@ -89,6 +91,8 @@ public abstract class JDBCDataSource extends AbstractDataSource
 
     private final transient List<Connection> closingConnections = new ArrayList<>();
     protected List<Path> tempFiles;
+    @Nullable
+    private volatile JDBCMetadataSnapshot metadataSnapshot;
 
 
     protected JDBCDataSource(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSourceContainer container, @NotNull SQLDialect dialect)
@@ -479,6 +483,11 @@ public abstract class JDBCDataSource extends AbstractDataSource
 
     @Override
     public void shutdown(@NotNull DBRProgressMonitor monitor) {
+        JDBCMetadataSnapshot snapshot = metadataSnapshot;
+        if (snapshot != null) {
+            metadataSnapshot = null;
+            snapshot.saveSnapshot();
+        }
         for (JDBCRemoteInstance instance : getAvailableInstances()) {
             Object exclusiveLock = instance.getExclusiveLock().acquireExclusiveLock();
             try {
@@ -540,6 +549,22 @@ public abstract class JDBCDataSource extends AbstractDataSource
                 dataSourceInfo = new JDBCDataSourceInfo(container);
             }
         }
+
+        if (metadataSnapshot == null && this instanceof JDBCMetadataStampProvider stampProvider &&
+            container.getPreferenceStore().getBoolean(ModelPreferences.META_PERSISTENT_CACHE))
+        {
+            JDBCMetadataSnapshot snapshot = new JDBCMetadataSnapshot(this, stampProvider);
+            snapshot.loadAndValidate();
+            metadataSnapshot = snapshot;
+        }
+    }
+
+    /**
+     * Returns persistent metadata snapshot or null if it is disabled for this data source
+     */
+    @Nullable
+    public JDBCMetadataSnapshot getMetadataSnapshot() {
+        return metadataSnapshot;
     }
 
     protected void readDatabaseServerVersion(DatabaseMetaData metaData) {
@@ -22,12 +22,14 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPAdaptable;
 import org.jkiss.dbeaver.model.DBPTransactionIsolation;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionContext;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCSavepointImpl;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCStatementCache;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
 import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
@@ -65,6 +67,11 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
     private volatile Integer transactionIsolationLevel;
     private transient volatile boolean txnIsolationLevelReadInProgress;
     private final ReentrantLock queryExecutionLock;
+    @Nullable
+    private final JDBCStatementCache statementCache;
+    // Already opened connection which is used on connect instead of opening a new one
+    @Nullable
+    private volatile Connection standbyConnection;
 
     public JDBCExecutionContext(@NotNull JDBCRemoteInstance instance, String purpose) {
         super(instance.getDataSource(), purpose);
@@ -74,12 +81,16 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         } else {
             queryExecutionLock = null;
         }
+        int statementCacheSize = instance.getDataSource().getContainer().getPreferenceStore().getInt(
+            ModelPreferences.CONNECTION_STATEMENT_CACHE_SIZE);
+        statementCache = statementCacheSize > 0 ? new JDBCStatementCache(statementCacheSize) : null;
     }
 
     public JDBCExecutionContext(@NotNull JDBCRemoteInstance instance, boolean test) {
         super(instance.getDataSource(), "Test for " + instance);
         this.instance = instance;
         queryExecutionLock = null;
+        statementCache = null;
     }
 
     @Override
@@ -91,6 +102,19 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         this.instance = instance;
     }
 
+    /**
+     * Returns cache of prepared statements used by metadata and utility sessions.
+     * Returns null if statement cache is disabled.
+     */
+    @Nullable
+    public JDBCStatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    void setStandbyConnection(@Nullable Connection standbyConnection) {
+        this.standbyConnection = standbyConnection;
+    }
+
     @NotNull
     private Connection getConnection() throws DBCException {
         Connection dbCon = this.connection;
@@ -116,7 +140,13 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
 
         Object exclusiveLock = currentInstance.getExclusiveLock().acquireExclusiveLock();
         try {
-            this.connection = dataSource.openConnection(monitor, this, purpose);
+            Connection standby = this.standbyConnection;
+            this.standbyConnection = null;
+            if (standby != null && !JDBCUtils.isConnectionAlive(dataSource, standby)) {
+                dataSource.closeConnection(standby, purpose, false);
+                standby = null;
+            }
+            this.connection = standby != null ? standby : dataSource.openConnection(monitor, this, purpose);
             if (this.connection == null) {
                 throw new DBCException("Null connection returned");
             }
@@ -200,6 +230,10 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         // [JDBC] Need sync here because real connection close could take some time
         // while UI may invoke callbacks to operate with connection
         synchronized (this) {
+            if (statementCache != null) {
+                // Cached statements are closed along with the connection
+                statementCache.invalidate();
+            }
             // If we cannot determine if connection is in autocommit mode, assume that it is not
             if (connection != null && !dataSource.closeConnection(connection, purpose, !isAutoCommit(false))) {
                 log.debug("Connection close timeout");
@@ -22,24 +22,28 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.ModelPreferences.SeparateConnectionBehavior;
+import org.jkiss.dbeaver.model.DBPAdaptable;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.DBPExclusiveResource;
+import org.jkiss.dbeaver.model.exec.DBCConnectionPool;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBExecUtils;
 import org.jkiss.dbeaver.model.impl.SimpleExclusiveLock;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSInstance;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 
 import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * JDBC data source
  */
-public class JDBCRemoteInstance implements DBSInstance {
+public class JDBCRemoteInstance implements DBSInstance, DBPAdaptable {
     private static final Log log = Log.getLog(JDBCRemoteInstance.class);
 
     @NotNull
@@ -52,6 +56,8 @@ public class JDBCRemoteInstance implements DBSInstance {
     protected JDBCExecutionContext metaContext;
     @NotNull
     private final List<JDBCExecutionContext> allContexts = new ArrayList<>();
+    @Nullable
+    private volatile JDBCConnectionPool connectionPool;
     private final DBPExclusiveResource exclusiveLock = new SimpleExclusiveLock();
 
     protected JDBCRemoteInstance(@NotNull DBRProgressMonitor monitor, @NotNull JDBCDataSource dataSource, boolean initContext)
@@ -101,6 +107,43 @@ public class JDBCRemoteInstance implements DBSInstance {
             this.executionContext = dataSource.createExecutionContext(this, getMainContextName());
             this.executionContext.connect(monitor, null, null, null, true);
         }
+        initializeConnectionPool();
+    }
+
+    /**
+     * Creates pool of standby connections for isolated contexts if it is enabled in connection preferences.
+     */
+    protected void initializeConnectionPool() {
+        if (sharedInstance != null || connectionPool != null) {
+            return;
+        }
+        DBPDataSourceContainer container = dataSource.getContainer();
+        if (container.getDriver().isEmbedded() || container.isForceUseSingleConnection()) {
+            return;
+        }
+        DBPPreferenceStore preferenceStore = container.getPreferenceStore();
+        int minIdle = preferenceStore.getInt(ModelPreferences.CONNECTION_POOL_MIN_IDLE);
+        if (minIdle <= 0) {
+            return;
+        }
+        JDBCConnectionPool pool = new JDBCConnectionPool(
+            this,
+            minIdle,
+            preferenceStore.getInt(ModelPreferences.CONNECTION_POOL_MAX_IDLE),
+            preferenceStore.getInt(ModelPreferences.CONNECTION_POOL_IDLE_TIMEOUT) * 1000L);
+        this.connectionPool = pool;
+        pool.scheduleFill();
+    }
+
+    /**
+     * Returns pool of standby connections or null if pool is disabled
+     */
+    @Nullable
+    public JDBCConnectionPool getConnectionPool() {
+        if (sharedInstance != null) {
+            return sharedInstance.getConnectionPool();
+        }
+        return connectionPool;
     }
 
     public JDBCExecutionContext initializeMetaContext(@NotNull DBRProgressMonitor monitor)
@@ -159,6 +202,14 @@ public class JDBCRemoteInstance implements DBSInstance {
             return sharedInstance.openIsolatedContext(monitor, purpose, initFrom);
         }
         JDBCExecutionContext context = dataSource.createExecutionContext(this, purpose);
+        JDBCConnectionPool pool = this.connectionPool;
+        if (pool != null) {
+            // Used by the first connect attempt only
+            Connection standbyConnection = pool.takeConnection();
+            if (standbyConnection != null) {
+                context.setStandbyConnection(standbyConnection);
+            }
+        }
         DBExecUtils.tryExecuteRecover(monitor, getDataSource(), monitor1 -> {
             try {
                 context.connect(monitor1, null, null, (JDBCExecutionContext) initFrom, true);
@@ -225,6 +276,11 @@ public class JDBCRemoteInstance implements DBSInstance {
      * @param keepMeta do not close meta context
      */
     public void shutdown(DBRProgressMonitor monitor, boolean keepMeta) {
+        JDBCConnectionPool pool = this.connectionPool;
+        if (pool != null) {
+            this.connectionPool = null;
+            pool.close();
+        }
         // [JDBC] Need sync here because real connection close could take some time
         // while UI may invoke callbacks to operate with connection
         List<JDBCExecutionContext> ctxCopy;
@@ -241,6 +297,15 @@ public class JDBCRemoteInstance implements DBSInstance {
         }
     }
 
+    @Override
+    public <T> T getAdapter(Class<T> adapter) {
+        if (adapter == DBCConnectionPool.class) {
+            // Shared instance uses the pool of the owner instance
+            return adapter.cast(getConnectionPool());
+        }
+        return null;
+    }
+
     void addContext(JDBCExecutionContext context) {
         synchronized (allContexts) {
             if (allContexts.contains(context)) {
@@ -47,6 +47,10 @@ import java.util.*;
  * Each row object name is unique within main object.
  *
  * Examples: table index, constraint.
+ * <p>
+ * Objects by parent map is a copy-on-write snapshot: lookups read it without locking,
+ * modifications are serialized with a separate monitor and publish a new map.
+ * Map is copied only when a new parent appears, appends to known parents replace its list snapshot in place.
  */
 public abstract class JDBCCompositeCache<
     OWNER extends DBSObject,
@@ -64,7 +68,9 @@ public abstract class JDBCCompositeCache<
     private final Object parentColumnName;
     private final Object objectColumnName;
 
-    private final Map<PARENT, List<OBJECT>> objectCache = new IdentityHashMap<>();
+    // Map structure is not modified after publication, lists are replaced with new snapshots
+    private volatile Map<PARENT, List<OBJECT>> objectCache = new IdentityHashMap<>();
+    private final Object objectCacheSync = new Object();
 
     protected JDBCCompositeCache(
         JDBCStructCache<OWNER,?,?> parentCache,
@@ -143,22 +149,19 @@ public abstract class JDBCCompositeCache<
     @Override
     public List<OBJECT> getCachedObjects(@Nullable PARENT forParent)
     {
+        Map<PARENT, List<OBJECT>> cache = this.objectCache;
         if (forParent == null) {
-            synchronized (objectCache) {
-                if (!objectCache.isEmpty()) {
-                    // Collect objects from object cache
-                    List<OBJECT> allChildren = new ArrayList<>();
-                    for (List<OBJECT> children : objectCache.values()) {
-                        allChildren.addAll(children);
-                    }
-                    return allChildren;
+            if (!cache.isEmpty()) {
+                // Collect objects from object cache
+                List<OBJECT> allChildren = new ArrayList<>();
+                for (List<OBJECT> children : cache.values()) {
+                    allChildren.addAll(children);
                 }
+                return allChildren;
             }
             return getCachedObjects();
         } else {
-            synchronized (objectCache) {
-                return objectCache.get(forParent);
-            }
+            return cache.get(forParent);
         }
     }
 
@@ -178,9 +181,7 @@ public abstract class JDBCCompositeCache<
         if (forParent == null) {
             return getCachedObject(objectName);
         } else {
-            synchronized (objectCache) {
-                return DBUtils.findObject(objectCache.get(forParent), objectName);
-            }
+            return DBUtils.findObject(objectCache.get(forParent), objectName);
         }
     }
 
@@ -188,14 +189,47 @@ public abstract class JDBCCompositeCache<
     public void cacheObject(@NotNull OBJECT object)
     {
         super.cacheObject(object);
-        synchronized (objectCache) {
-            PARENT parent = getParent(object);
-            List<OBJECT> objects = objectCache.get(parent);
-            if (objects == null) {
-                objects = new ArrayList<>();
-                objectCache.put(parent, objects);
+        synchronized (objectCacheSync) {
+            appendParentObjects(getParent(object), Collections.singletonList(object));
+        }
+    }
+
+    @Override
+    public void cacheObjects(@NotNull Collection<OBJECT> objects)
+    {
+        super.cacheObjects(objects);
+        Map<PARENT, List<OBJECT>> objectsByParent = new IdentityHashMap<>();
+        for (OBJECT object : objects) {
+            objectsByParent.computeIfAbsent(getParent(object), p -> new ArrayList<>()).add(object);
+        }
+        synchronized (objectCacheSync) {
+            Map<PARENT, List<OBJECT>> cache = objectCache;
+            if (!cache.keySet().containsAll(objectsByParent.keySet())) {
+                // Publish new parents at once
+                cache = new IdentityHashMap<>(cache);
+                for (PARENT parent : objectsByParent.keySet()) {
+                    cache.putIfAbsent(parent, Collections.emptyList());
+                }
+                objectCache = cache;
+            }
+            for (Map.Entry<PARENT, List<OBJECT>> entry : objectsByParent.entrySet()) {
+                appendParentObjects(entry.getKey(), entry.getValue());
             }
-            objects.add(object);
+        }
+    }
+
+    private void appendParentObjects(PARENT parent, List<OBJECT> objects) {
+        Map<PARENT, List<OBJECT>> cache = objectCache;
+        List<OBJECT> parentObjects = appendToSnapshot(cache.get(parent), objects);
+        if (cache.containsKey(parent)) {
+            // Replacing value of the existing key doesn't change map structure, so readers are safe.
+            // Volatile write publishes the new list.
+            cache.put(parent, parentObjects);
+            objectCache = cache;
+        } else {
+            Map<PARENT, List<OBJECT>> newCache = new IdentityHashMap<>(cache);
+            newCache.put(parent, parentObjects);
+            objectCache = newCache;
         }
     }
 
@@ -203,16 +237,21 @@ public abstract class JDBCCompositeCache<
     public void removeObject(@NotNull OBJECT object, boolean resetFullCache)
     {
         super.removeObject(object, resetFullCache);
-        synchronized (objectCache) {
+        synchronized (objectCacheSync) {
             PARENT parent = getParent(object);
+            List<OBJECT> subCache = objectCache.get(parent);
+            if (subCache == null) {
+                return;
+            }
+            Map<PARENT, List<OBJECT>> newCache = new IdentityHashMap<>(objectCache);
             if (resetFullCache) {
-                objectCache.remove(parent);
+                newCache.remove(parent);
             } else {
-                List<OBJECT> subCache = objectCache.get(parent);
-                if (subCache != null) {
-                    subCache.remove(object);
-                }
+                subCache = new ArrayList<>(subCache);
+                subCache.remove(object);
+                newCache.put(parent, subCache);
             }
+            objectCache = newCache;
         }
     }
 
@@ -221,9 +260,16 @@ public abstract class JDBCCompositeCache<
     {
         if (forParent == null) {
             super.clearCache();
-            objectCache.clear();
+            synchronized (objectCacheSync) {
+                objectCache = new IdentityHashMap<>();
+            }
         } else {
-            List<OBJECT> removedObjects = objectCache.remove(forParent);
+            List<OBJECT> removedObjects;
+            synchronized (objectCacheSync) {
+                Map<PARENT, List<OBJECT>> newCache = new IdentityHashMap<>(objectCache);
+                removedObjects = newCache.remove(forParent);
+                objectCache = newCache;
+            }
             if (removedObjects != null) {
                 for (OBJECT obj : removedObjects) {
                     super.removeObject(obj, false);
@@ -239,8 +285,8 @@ public abstract class JDBCCompositeCache<
     @Override
     public void clearCache()
     {
-        synchronized (objectCache) {
-            this.objectCache.clear();
+        synchronized (objectCacheSync) {
+            this.objectCache = new IdentityHashMap<>();
         }
         super.clearCache();
     }
@@ -248,17 +294,12 @@ public abstract class JDBCCompositeCache<
     @Override
     public void setCache(@NotNull List<OBJECT> objects) {
         super.setCache(objects);
-        synchronized (objectCache) {
-            objectCache.clear();
-            for (OBJECT object : objects) {
-                PARENT parent = getParent(object);
-                List<OBJECT> parentObjects = objectCache.get(parent);
-                if (parentObjects == null) {
-                    parentObjects = new ArrayList<>();
-                    objectCache.put(parent, parentObjects);
-                }
-                parentObjects.add(object);
-            }
+        Map<PARENT, List<OBJECT>> newCache = new IdentityHashMap<>();
+        for (OBJECT object : objects) {
+            newCache.computeIfAbsent(getParent(object), p -> new ArrayList<>()).add(object);
+        }
+        synchronized (objectCacheSync) {
+            objectCache = newCache;
         }
     }
 
@@ -277,13 +318,11 @@ public abstract class JDBCCompositeCache<
     protected void loadObjects(DBRProgressMonitor monitor, OWNER owner, PARENT forParent)
         throws DBException
     {
-        synchronized (objectCache) {
-            if (monitor.isForceCacheUsage() ||
-                (forParent == null && isFullyCached()) ||
-                (forParent != null && (!forParent.isPersisted() || objectCache.containsKey(forParent))))
-            {
-                return;
-            }
+        if (monitor.isForceCacheUsage() ||
+            (forParent == null && isFullyCached()) ||
+            (forParent != null && (!forParent.isPersisted() || objectCache.containsKey(forParent))))
+        {
+            return;
         }
 
         // Load tables and columns first
@@ -303,8 +342,7 @@ public abstract class JDBCCompositeCache<
             JDBCStatement dbStat = prepareObjectsStatement(session, owner, forParent);
             dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
             try {
-                dbStat.executeStatement();
-                JDBCResultSet dbResult = dbStat.getResultSet();
+                JDBCResultSet dbResult = JDBCMetadataSnapshot.executeQuery(session, dbStat, owner, forParent);
                 if (dbResult != null) try {
                     while (dbResult.next()) {
                         if (monitor.isCanceled()) {
@@ -338,11 +376,9 @@ public abstract class JDBCCompositeCache<
                                 continue;
                             }
                         }
-                        synchronized (objectCache) {
-                            if (objectCache.containsKey(parent)) {
-                                // Already cached
-                                continue;
-                            }
+                        if (objectCache.containsKey(parent)) {
+                            // Already cached
+                            continue;
                         }
                         // Add to map
                         Map<String, ObjectInfo> objectMap = parentObjectMap.get(parent);
@@ -404,7 +440,7 @@ public abstract class JDBCCompositeCache<
 
         // Fill global cache
         synchronized (this) {
-            synchronized (objectCache) {
+            synchronized (objectCacheSync) {
                 if (forParent != null || !parentObjectMap.isEmpty()) {
                     if (forParent == null) {
                         // Cache global object list
@@ -427,13 +463,15 @@ public abstract class JDBCCompositeCache<
                         this.invalidateObjects(monitor, owner, new CacheIterator());
                     }
                 }
+                // Invalidation may remove objects, so take a copy after it
+                Map<PARENT, List<OBJECT>> newCache = new IdentityHashMap<>(objectCache);
 
                 // Cache data in individual objects only if we have read something or have certain parent object
                 // Otherwise we assume that this function is not supported for mass data reading
 
                 // All objects are read. Now assign them to parents
                 for (Map.Entry<PARENT, Map<String, ObjectInfo>> colEntry : parentObjectMap.entrySet()) {
-                    if (colEntry.getValue() == null || objectCache.containsKey(colEntry.getKey())) {
+                    if (colEntry.getValue() == null || newCache.containsKey(colEntry.getKey())) {
                         // Do not overwrite this object's cache
                         continue;
                     }
@@ -443,18 +481,19 @@ public abstract class JDBCCompositeCache<
                         objectInfo.needsCaching = true;
                         objects.add(objectInfo.object);
                     }
-                    objectCache.put(colEntry.getKey(), objects);
+                    newCache.put(colEntry.getKey(), objects);
                 }
                 // Now set empty object list for other parents
                 if (forParent == null) {
                     for (PARENT tmpParent : parentCache.getTypedObjects(monitor, owner, parentType)) {
-                        if (!parentObjectMap.containsKey(tmpParent) && !objectCache.containsKey(tmpParent)) {
-                            objectCache.put(tmpParent, new ArrayList<>());
+                        if (!parentObjectMap.containsKey(tmpParent) && !newCache.containsKey(tmpParent)) {
+                            newCache.put(tmpParent, new ArrayList<>());
                         }
                     }
-                } else if (!parentObjectMap.containsKey(forParent) && !objectCache.containsKey(forParent)) {
-                    objectCache.put(forParent, new ArrayList<>());
+                } else if (!parentObjectMap.containsKey(forParent) && !newCache.containsKey(forParent)) {
+                    newCache.put(forParent, new ArrayList<>());
                 }
+                objectCache = newCache;
             }
             // Cache children lists (we do it in the end because children caching may operate with other model objects)
             for (Map.Entry<PARENT, Map<String, ObjectInfo>> colEntry : parentObjectMap.entrySet()) {
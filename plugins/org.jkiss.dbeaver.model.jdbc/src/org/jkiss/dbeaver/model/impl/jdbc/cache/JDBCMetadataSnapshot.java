@@ -0,0 +1,405 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBPRefreshableObject;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCPreparedStatementImpl;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCResultSetImpl;
+import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
+import org.jkiss.dbeaver.model.navigator.DBNUtils;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persistent snapshot of metadata read queries results.
+ * <p>
+ * Metadata caches execute their read queries with {@link #executeQuery}. Results which were read till the end
+ * are recorded into the snapshot. Snapshot is saved in the workspace when data source disconnects.
+ * After the next connect saved entries are replayed right away, while the snapshot is revalidated in background
+ * with metadata change stamps (see {@link JDBCMetadataStampProvider}): entries of containers whose stamps have
+ * changed are dropped, and objects which were already read from such entries are refreshed.
+ * Each entry is replayed at most once instead of executing the query, so cache refresh always reads
+ * actual metadata from the database.
+ */
+public class JDBCMetadataSnapshot {
+
+    private static final Log log = Log.getLog(JDBCMetadataSnapshot.class);
+
+    private static final int FILE_MAGIC = 0x44424D53;
+    private static final int FILE_VERSION = 1;
+    private static final String SNAPSHOT_FOLDER = "metadata-snapshots";
+    private static final String SNAPSHOT_FILE_EXT = ".dbmeta";
+    // State of entries which can't be replayed
+    private static final Object ENTRY_CONSUMED = new Object();
+
+    private final JDBCDataSource dataSource;
+    private final JDBCMetadataStampProvider stampProvider;
+    private final String connectionId;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Incremented before each executed query
+    private final AtomicLong querySequence = new AtomicLong();
+    @Nullable
+    private volatile Validation validation;
+
+    /**
+     * Result of snapshot validation.
+     * Entries of queries which were started before the stamps were read may be older than the stamps,
+     * so only entries recorded with greater sequence number are saved.
+     */
+    private record Validation(@NotNull Map<String, String> stamps, long sequence) {
+    }
+
+    private static class Entry {
+        private final String container;
+        private final byte[] data;
+        // Sequence number of the query which recorded the entry, zero for entries loaded from the file
+        private final long sequence;
+        // Null while entry can be replayed, then owner of the replayed objects or ENTRY_CONSUMED
+        private final AtomicReference<Object> state;
+
+        Entry(@NotNull String container, @NotNull byte[] data, long sequence) {
+            this.container = container;
+            this.data = data;
+            this.sequence = sequence;
+            // Recorded entries are replayed in the next session only
+            this.state = new AtomicReference<>(sequence == 0 ? null : ENTRY_CONSUMED);
+        }
+
+        boolean isLoaded() {
+            return sequence == 0;
+        }
+    }
+
+    public JDBCMetadataSnapshot(@NotNull JDBCDataSource dataSource, @NotNull JDBCMetadataStampProvider stampProvider) {
+        this.dataSource = dataSource;
+        this.stampProvider = stampProvider;
+        DBPConnectionConfiguration configuration = dataSource.getContainer().getConnectionConfiguration();
+        this.connectionId = CommonUtils.notEmpty(configuration.getUrl()) + "|" +
+            CommonUtils.notEmpty(configuration.getHostName()) + "|" +
+            CommonUtils.notEmpty(configuration.getHostPort()) + "|" +
+            CommonUtils.notEmpty(configuration.getServerName()) + "|" +
+            CommonUtils.notEmpty(configuration.getDatabaseName()) + "|" +
+            CommonUtils.notEmpty(configuration.getUserName());
+    }
+
+    /**
+     * Returns metadata snapshot of the data source or null if snapshot is disabled
+     */
+    @Nullable
+    public static JDBCMetadataSnapshot getSnapshot(@Nullable DBPDataSource dataSource) {
+        return dataSource instanceof JDBCDataSource jdbcDataSource ? jdbcDataSource.getMetadataSnapshot() : null;
+    }
+
+    /**
+     * Executes metadata read statement and returns its result set.
+     * If the snapshot has saved result of the same query then it is returned instead and the statement is not executed.
+     * Otherwise returned result set records rows into the snapshot.
+     *
+     * @param owner     owner of the read objects
+     * @param forObject parent object if only its children are read
+     */
+    @Nullable
+    public static JDBCResultSet executeQuery(
+        @NotNull JDBCSession session,
+        @NotNull JDBCStatement dbStat,
+        @NotNull DBSObject owner,
+        @Nullable DBSObject forObject
+    ) throws SQLException, DBCException {
+        JDBCMetadataSnapshot snapshot = getSnapshot(session.getDataSource());
+        if (snapshot == null) {
+            dbStat.executeStatement();
+            return dbStat.getResultSet();
+        }
+        return snapshot.execute(session, dbStat, owner, forObject);
+    }
+
+    @Nullable
+    private JDBCResultSet execute(
+        @NotNull JDBCSession session,
+        @NotNull JDBCStatement dbStat,
+        @NotNull DBSObject owner,
+        @Nullable DBSObject forObject
+    ) throws SQLException, DBCException {
+        // Query text with parameter values identifies the result
+        String query = dbStat instanceof JDBCPreparedStatementImpl preparedStatement ?
+            preparedStatement.getFormattedQuery() : dbStat.getQueryString();
+        String key = DBUtils.getObjectFullId(owner) + "|" +
+            (forObject == null ? "" : DBUtils.getObjectFullId(forObject)) + "|" +
+            makeDigest(CommonUtils.notEmpty(query));
+
+        Entry entry = entries.get(key);
+        // Entry may be replayed before validation. If it turns out to be stale, owner will be refreshed.
+        if (entry != null && entry.state.compareAndSet(null, owner)) {
+            try {
+                return JDBCResultSetImpl.makeResultSet(
+                    session, null, JDBCSnapshotResultSet.replay(entry.data), "Metadata snapshot", true);
+            } catch (SQLException e) {
+                log.debug("Error reading metadata snapshot entry", e);
+                entries.remove(key, entry);
+            }
+        }
+
+        long sequence = querySequence.incrementAndGet();
+        dbStat.executeStatement();
+        JDBCResultSet dbResult = dbStat.getResultSet();
+        if (dbResult == null) {
+            return null;
+        }
+        String container = stampProvider.getMetadataContainer(owner);
+        return JDBCResultSetImpl.makeResultSet(
+            session,
+            dbStat,
+            JDBCSnapshotResultSet.record(dbResult, data -> entries.put(key, new Entry(container, data, sequence))),
+            null,
+            true);
+    }
+
+    /**
+     * Loads saved snapshot and validates it in background.
+     * Loaded entries can be replayed before validation ends.
+     */
+    public void loadAndValidate() {
+        Map<String, String> savedStamps = new HashMap<>();
+        Path snapshotFile = getSnapshotFile(false);
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            loadSnapshot(snapshotFile, savedStamps);
+        }
+        new AbstractJob("Validate metadata snapshot of " + dataSource.getContainer().getName()) {
+            {
+                setUser(false);
+                setSystem(true);
+            }
+
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                try {
+                    validate(monitor, savedStamps);
+                } catch (Throwable e) {
+                    log.debug("Error validating metadata snapshot of '" + dataSource.getContainer().getName() + "'", e);
+                }
+                return Status.OK_STATUS;
+            }
+        }.schedule();
+    }
+
+    private void validate(@NotNull DBRProgressMonitor monitor, @NotNull Map<String, String> savedStamps) throws Exception {
+        Map<String, String> currentStamps;
+        try (JDBCSession session = DBUtils.openMetaSession(monitor, dataSource, "Read metadata change stamps")) {
+            currentStamps = stampProvider.readMetadataStamps(session);
+        }
+        // Queries started after this point read metadata which is not older than the stamps
+        long stampSequence = querySequence.get();
+
+        int validCount = 0;
+        Set<DBSObject> staleOwners = new LinkedHashSet<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            Entry snapshotEntry = entry.getValue();
+            if (!snapshotEntry.isLoaded()) {
+                continue;
+            }
+            String savedStamp = savedStamps.get(snapshotEntry.container);
+            if (savedStamp != null && savedStamp.equals(currentStamps.get(snapshotEntry.container))) {
+                validCount++;
+            } else {
+                entries.remove(entry.getKey(), snapshotEntry);
+                if (snapshotEntry.state.getAndSet(ENTRY_CONSUMED) instanceof DBSObject owner) {
+                    staleOwners.add(owner);
+                }
+            }
+        }
+        this.validation = new Validation(currentStamps, stampSequence);
+        log.debug("Metadata snapshot of '" + dataSource.getContainer().getName() + "' validated: " + validCount +
+            " valid entries, " + staleOwners.size() + " objects to refresh");
+
+        for (DBSObject owner : staleOwners) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            refreshStaleObject(monitor, owner);
+        }
+    }
+
+    /**
+     * Refreshes object which was read from stale snapshot entry.
+     * Navigator node is refreshed if it exists, so the navigator shows actual children.
+     */
+    private void refreshStaleObject(@NotNull DBRProgressMonitor monitor, @NotNull DBSObject object) {
+        try {
+            DBNDatabaseNode node = DBNUtils.getNodeByObject(object);
+            if (node != null) {
+                node.refreshNode(monitor, this);
+            } else if (object instanceof DBPRefreshableObject refreshableObject) {
+                refreshableObject.refreshObject(monitor);
+            }
+        } catch (DBException e) {
+            log.debug("Error refreshing '" + DBUtils.getObjectFullName(object, DBPEvaluationContext.UI) + "'", e);
+        }
+    }
+
+    private void loadSnapshot(@NotNull Path snapshotFile, @NotNull Map<String, String> savedStamps) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_VERSION || !connectionId.equals(input.readUTF())) {
+                // Old format or connection settings were changed
+                return;
+            }
+            Map<String, String> fileStamps = new HashMap<>();
+            int stampCount = input.readInt();
+            for (int i = 0; i < stampCount; i++) {
+                fileStamps.put(input.readUTF(), input.readUTF());
+            }
+            Map<String, Entry> fileEntries = new HashMap<>();
+            int entryCount = input.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String key = input.readUTF();
+                String container = input.readUTF();
+                byte[] data = new byte[input.readInt()];
+                input.readFully(data);
+                if (fileStamps.containsKey(container)) {
+                    fileEntries.put(key, new Entry(container, data, 0));
+                }
+            }
+            savedStamps.putAll(fileStamps);
+            for (Map.Entry<String, Entry> entry : fileEntries.entrySet()) {
+                // Entries recorded in this session are newer
+                entries.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            log.debug("Error reading metadata snapshot '" + snapshotFile + "'", e);
+        }
+    }
+
+    /**
+     * Saves snapshot in the workspace. Nothing is saved if snapshot wasn't validated.
+     */
+    public void saveSnapshot() {
+        Validation validation = this.validation;
+        if (validation == null) {
+            return;
+        }
+        Map<String, String> validStamps = validation.stamps();
+        Path snapshotFile = getSnapshotFile(true);
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                output.writeInt(FILE_MAGIC);
+                output.writeInt(FILE_VERSION);
+                output.writeUTF(connectionId);
+                output.writeInt(validStamps.size());
+                for (Map.Entry<String, String> stamp : validStamps.entrySet()) {
+                    output.writeUTF(stamp.getKey());
+                    output.writeUTF(stamp.getValue());
+                }
+                Map<String, Entry> savedEntries = new HashMap<>();
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    // Loaded entries which weren't dropped by validation are valid for the stamps
+                    Entry snapshotEntry = entry.getValue();
+                    if (snapshotEntry.isLoaded() || snapshotEntry.sequence > validation.sequence()) {
+                        savedEntries.put(entry.getKey(), snapshotEntry);
+                    }
+                }
+                output.writeInt(savedEntries.size());
+                for (Map.Entry<String, Entry> entry : savedEntries.entrySet()) {
+                    output.writeUTF(entry.getKey());
+                    output.writeUTF(entry.getValue().container);
+                    output.writeInt(entry.getValue().data.length);
+                    output.write(entry.getValue().data);
+                }
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.debug("Error saving metadata snapshot '" + snapshotFile + "'", e);
+        }
+    }
+
+    /**
+     * Deletes saved snapshot of the data source
+     */
+    public void deleteSnapshot() {
+        entries.clear();
+        Path snapshotFile = getSnapshotFile(false);
+        if (snapshotFile != null) {
+            try {
+                Files.deleteIfExists(snapshotFile);
+            } catch (IOException e) {
+                log.debug("Error deleting metadata snapshot '" + snapshotFile + "'", e);
+            }
+        }
+    }
+
+    @Nullable
+    private Path getSnapshotFile(boolean create) {
+        Path metadataFolder = dataSource.getContainer().getProject().getMetadataFolder(create);
+        if (metadataFolder == null) {
+            return null;
+        }
+        Path snapshotFolder = metadataFolder.resolve(SNAPSHOT_FOLDER);
+        if (create && !Files.exists(snapshotFolder)) {
+            try {
+                Files.createDirectories(snapshotFolder);
+            } catch (IOException e) {
+                log.debug("Error creating metadata snapshot folder '" + snapshotFolder + "'", e);
+                return null;
+            }
+        }
+        return snapshotFolder.resolve(CommonUtils.escapeFileName(dataSource.getContainer().getId()) + SNAPSHOT_FILE_EXT);
+    }
+
+    @NotNull
+    private static String makeDigest(@NotNull String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Never happens, SHA-256 is always available
+            return String.valueOf(text.hashCode());
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.rdb.DBSCatalog;
+import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Data source which can detect changes of its metadata.
+ * Metadata snapshot is used only by data sources which implement this interface.
+ */
+public interface JDBCMetadataStampProvider {
+
+    /**
+     * Reads change stamps of metadata containers (catalogs or schemas).
+     * Stamp is an opaque string which must change whenever any object in the container is created, altered or dropped.
+     * Empty container name stands for objects which belong to the data source itself.
+     *
+     * @return map of container name to its stamp
+     */
+    @NotNull
+    Map<String, String> readMetadataStamps(@NotNull JDBCSession session) throws SQLException;
+
+    /**
+     * Returns name of the container which change stamp covers the specified object.
+     * Must match names returned by {@link #readMetadataStamps(JDBCSession)}.
+     */
+    @NotNull
+    default String getMetadataContainer(@NotNull DBSObject object) {
+        for (DBSObject parent = object; parent != null; parent = parent.getParentObject()) {
+            if (parent instanceof DBSSchema || parent instanceof DBSCatalog) {
+                return parent.getName();
+            }
+        }
+        return "";
+    }
+
+}
@@ -0,0 +1,763 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+
+import java.io.*;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Result set over rows stored in metadata snapshot.
+ * <p>
+ * In recording mode it reads rows from the live result set, normalizes their values to a small set of
+ * Java types and encodes them. Cache reads values from the normalized row, so replayed result set
+ * returns exactly the same values as the recorded one did.
+ * Rows are encoded as a deflated stream with deduplicated strings.
+ */
+public abstract class JDBCSnapshotResultSet implements InvocationHandler {
+
+    private static final Log log = Log.getLog(JDBCSnapshotResultSet.class);
+
+    private static final byte ROW_END = 0;
+    private static final byte ROW_NEXT = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_STRING_REF = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_DOUBLE = 5;
+    private static final byte TAG_DECIMAL = 6;
+    private static final byte TAG_TRUE = 7;
+    private static final byte TAG_FALSE = 8;
+    private static final byte TAG_BYTES = 9;
+    private static final byte TAG_DATE = 10;
+    private static final byte TAG_TIME = 11;
+    private static final byte TAG_TIMESTAMP = 12;
+    private static final byte TAG_ARRAY = 13;
+
+    // Maximum number of strings in the dictionary. Further strings are written inline
+    private static final int MAX_DICTIONARY_SIZE = 65536;
+    // Maximum size of recorded data. Larger results are read but not stored
+    private static final int MAX_RECORDED_SIZE = 64 * 1024 * 1024;
+
+    protected String[] labels;
+    protected int[] types;
+    protected String[] typeNames;
+    private Map<String, Integer> labelIndexes;
+    private Object[] row;
+    private int rowNumber;
+    private boolean wasNull;
+    private boolean closed;
+
+    /**
+     * Creates result set which replays encoded rows
+     */
+    @NotNull
+    public static ResultSet replay(@NotNull byte[] data) throws SQLException {
+        return new Replay(data).createProxy();
+    }
+
+    /**
+     * Creates result set which reads rows from the live result set and encodes them.
+     * Encoded data is passed to the consumer when result set is closed after it was read till the end.
+     */
+    @NotNull
+    public static ResultSet record(@NotNull JDBCResultSet liveResult, @NotNull Consumer<byte[]> dataConsumer) throws SQLException {
+        return new Record(liveResult, dataConsumer).createProxy();
+    }
+
+    @NotNull
+    final ResultSet createProxy() {
+        labelIndexes = new HashMap<>();
+        for (int i = labels.length - 1; i >= 0; i--) {
+            labelIndexes.put(labels[i].toUpperCase(Locale.ENGLISH), i);
+        }
+        return (ResultSet) Proxy.newProxyInstance(
+            JDBCSnapshotResultSet.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class},
+            this);
+    }
+
+    @Nullable
+    protected abstract Object[] fetchRow() throws SQLException;
+
+    protected abstract void closeRows();
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "next":
+                if (closed) {
+                    throw new SQLException("Result set is closed");
+                }
+                row = fetchRow();
+                if (row == null) {
+                    return false;
+                }
+                rowNumber++;
+                return true;
+            case "close":
+                if (!closed) {
+                    closed = true;
+                    row = null;
+                    closeRows();
+                }
+                return null;
+            case "isClosed":
+                return closed;
+            case "wasNull":
+                return wasNull;
+            case "findColumn":
+                return getColumnIndex(args[0]) + 1;
+            case "getRow":
+                return row == null ? 0 : rowNumber;
+            case "getMetaData":
+                return Proxy.newProxyInstance(JDBCSnapshotResultSet.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, this::invokeMetaData);
+            case "getStatement":
+            case "getWarnings":
+            case "clearWarnings":
+            case "setFetchSize":
+            case "setFetchDirection":
+                return null;
+            case "getFetchSize":
+                return 0;
+            case "getFetchDirection":
+                return ResultSet.FETCH_FORWARD;
+            case "getType":
+                return ResultSet.TYPE_FORWARD_ONLY;
+            case "getConcurrency":
+                return ResultSet.CONCUR_READ_ONLY;
+            case "getHoldability":
+                return ResultSet.CLOSE_CURSORS_AT_COMMIT;
+            case "isWrapperFor":
+                return false;
+            case "unwrap":
+                throw new SQLException("Metadata snapshot result set doesn't wrap " + args[0]);
+            case "toString":
+                return "Metadata snapshot result set";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+        }
+        if (name.startsWith("get") && args != null && args.length > 0) {
+            if (row == null) {
+                throw new SQLException("Result set is not positioned on a row");
+            }
+            Object value = row[getColumnIndex(args[0])];
+            wasNull = value == null;
+            Class<?> targetType = name.equals("getObject") && args.length > 1 && args[1] instanceof Class<?> type ?
+                type : method.getReturnType();
+            Object result = convertValue(value, targetType);
+            if (result instanceof BigDecimal decimal && args.length > 1 && args[1] instanceof Integer scale) {
+                // Deprecated getBigDecimal with scale
+                result = decimal.setScale(scale, java.math.RoundingMode.HALF_UP);
+            }
+            return result;
+        }
+        throw new SQLFeatureNotSupportedException("Method " + name + " is not supported by metadata snapshot");
+    }
+
+    private Object invokeMetaData(Object proxy, Method method, Object[] args) throws SQLException {
+        String name = method.getName();
+        if (args != null && args.length == 1 && args[0] instanceof Integer column) {
+            int index = column - 1;
+            if (index < 0 || index >= labels.length) {
+                throw new SQLException("Column index out of range: " + column);
+            }
+            switch (name) {
+                case "getColumnLabel":
+                case "getColumnName":
+                    return labels[index];
+                case "getColumnType":
+                    return types[index];
+                case "getColumnTypeName":
+                    return typeNames[index];
+                case "isNullable":
+                    return ResultSetMetaData.columnNullableUnknown;
+                case "isReadOnly":
+                    return true;
+            }
+        }
+        switch (name) {
+            case "getColumnCount":
+                return labels.length;
+            case "isWrapperFor":
+                return false;
+            case "unwrap":
+                throw new SQLException("Metadata snapshot doesn't wrap " + args[0]);
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+        }
+        // Everything else is unknown
+        Class<?> returnType = method.getReturnType();
+        if (returnType == boolean.class) {
+            return false;
+        } else if (returnType == int.class) {
+            return 0;
+        } else if (returnType == String.class) {
+            return "";
+        }
+        return null;
+    }
+
+    private int getColumnIndex(Object column) throws SQLException {
+        if (column instanceof Integer index) {
+            if (index < 1 || index > labels.length) {
+                throw new SQLException("Column index out of range: " + index);
+            }
+            return index - 1;
+        }
+        Integer index = labelIndexes.get(String.valueOf(column).toUpperCase(Locale.ENGLISH));
+        if (index == null) {
+            throw new SQLException("Column '" + column + "' not found");
+        }
+        return index;
+    }
+
+    ////////////////////////////////////////////////
+    // Values
+
+    @Nullable
+    private static Object convertValue(@Nullable Object value, @NotNull Class<?> type) throws SQLException {
+        if (value == null) {
+            if (type == boolean.class) {
+                return false;
+            } else if (type.isPrimitive()) {
+                return convertNumber(0, type);
+            }
+            return null;
+        }
+        if (type == Object.class) {
+            return value instanceof Object[] array ? createArray(array) : value;
+        } else if (type == String.class) {
+            return toString(value);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return toBoolean(value);
+        } else if (type.isPrimitive() || Number.class.isAssignableFrom(type)) {
+            return convertNumber(toNumber(value), type);
+        } else if (type == byte[].class) {
+            return value instanceof byte[] ? value : toString(value).getBytes(StandardCharsets.UTF_8);
+        } else if (type == Timestamp.class || type == java.util.Date.class) {
+            return toTimestamp(value);
+        } else if (type == java.sql.Date.class) {
+            return value instanceof java.sql.Date ? value : new java.sql.Date(toTimestamp(value).getTime());
+        } else if (type == Time.class) {
+            return value instanceof Time ? value : new Time(toTimestamp(value).getTime());
+        } else if (type == LocalDateTime.class) {
+            return toTimestamp(value).toLocalDateTime();
+        } else if (type == LocalDate.class) {
+            return toTimestamp(value).toLocalDateTime().toLocalDate();
+        } else if (type == Array.class) {
+            if (value instanceof Object[] array) {
+                return createArray(array);
+            }
+        } else if (type == Reader.class) {
+            return new StringReader(toString(value));
+        } else if (type == InputStream.class) {
+            return new ByteArrayInputStream(value instanceof byte[] bytes ? bytes : toString(value).getBytes(StandardCharsets.UTF_8));
+        } else if (type.isInstance(value)) {
+            return value;
+        }
+        throw new SQLException("Can't convert " + value.getClass().getSimpleName() + " to " + type.getSimpleName());
+    }
+
+    @NotNull
+    private static String toString(@NotNull Object value) {
+        if (value instanceof Object[] array) {
+            StringBuilder str = new StringBuilder("{");
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) {
+                    str.append(',');
+                }
+                str.append(array[i] == null ? "NULL" : toString(array[i]));
+            }
+            return str.append('}').toString();
+        } else if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        } else if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value.toString();
+    }
+
+    private static boolean toBoolean(@NotNull Object value) throws SQLException {
+        if (value instanceof Boolean bool) {
+            return bool;
+        } else if (value instanceof Number number) {
+            return number.doubleValue() != 0;
+        }
+        String str = toString(value).trim();
+        if (str.equalsIgnoreCase("true") || str.equalsIgnoreCase("t") || str.equalsIgnoreCase("y") ||
+            str.equalsIgnoreCase("yes") || str.equals("1")) {
+            return true;
+        } else if (str.isEmpty() || str.equalsIgnoreCase("false") || str.equalsIgnoreCase("f") ||
+            str.equalsIgnoreCase("n") || str.equalsIgnoreCase("no") || str.equals("0")) {
+            return false;
+        }
+        throw new SQLException("Can't convert '" + str + "' to boolean");
+    }
+
+    @NotNull
+    private static Number toNumber(@NotNull Object value) throws SQLException {
+        if (value instanceof Number number) {
+            return number;
+        } else if (value instanceof Boolean bool) {
+            return bool ? 1 : 0;
+        }
+        try {
+            return new BigDecimal(toString(value).trim());
+        } catch (NumberFormatException e) {
+            throw new SQLException("Can't convert '" + value + "' to number", e);
+        }
+    }
+
+    @NotNull
+    private static Object convertNumber(@NotNull Number number, @NotNull Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return number.intValue();
+        } else if (type == long.class || type == Long.class) {
+            return number.longValue();
+        } else if (type == short.class || type == Short.class) {
+            return number.shortValue();
+        } else if (type == byte.class || type == Byte.class) {
+            return number.byteValue();
+        } else if (type == double.class || type == Double.class) {
+            return number.doubleValue();
+        } else if (type == float.class || type == Float.class) {
+            return number.floatValue();
+        } else if (type == BigDecimal.class) {
+            return number instanceof BigDecimal ? number : new BigDecimal(number.toString());
+        } else if (type == BigInteger.class) {
+            return new BigDecimal(number.toString()).toBigInteger();
+        }
+        return number;
+    }
+
+    @NotNull
+    private static Timestamp toTimestamp(@NotNull Object value) throws SQLException {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp;
+        } else if (value instanceof java.util.Date date) {
+            return new Timestamp(date.getTime());
+        }
+        try {
+            return Timestamp.valueOf(toString(value).trim());
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Can't convert '" + value + "' to timestamp", e);
+        }
+    }
+
+    @NotNull
+    private static Array createArray(@NotNull Object[] elements) {
+        return (Array) Proxy.newProxyInstance(
+            JDBCSnapshotResultSet.class.getClassLoader(),
+            new Class<?>[]{Array.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getArray" -> elements.clone();
+                case "getBaseType" -> Types.OTHER;
+                case "getBaseTypeName" -> "";
+                case "free" -> null;
+                case "toString" -> toString(elements);
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new SQLFeatureNotSupportedException("Method " + method.getName() + " is not supported by metadata snapshot");
+            });
+    }
+
+    /**
+     * Converts value read from the driver to one of types supported by snapshot
+     */
+    @Nullable
+    private static Object normalizeValue(@NotNull JDBCResultSet resultSet, int index, int valueType) throws SQLException {
+        Object value = resultSet.getObject(index);
+        if (value == null) {
+            return null;
+        }
+        Object normalized = normalizeValue(value);
+        if (normalized == null) {
+            // Driver specific type
+            switch (valueType) {
+                case Types.DATE:
+                case Types.TIME:
+                case Types.TIMESTAMP:
+                case Types.TIME_WITH_TIMEZONE:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    normalized = resultSet.getTimestamp(index);
+                    break;
+                default:
+                    normalized = value.toString();
+                    break;
+            }
+        }
+        return normalized;
+    }
+
+    @Nullable
+    private static Object normalizeValue(@NotNull Object value) throws SQLException {
+        if (value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long ||
+            value instanceof Double || value instanceof BigDecimal || value instanceof byte[] ||
+            value instanceof Timestamp || value instanceof java.sql.Date || value instanceof Time)
+        {
+            return value;
+        } else if (value instanceof Short || value instanceof Byte) {
+            return ((Number) value).intValue();
+        } else if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        } else if (value instanceof BigInteger bigInteger) {
+            return new BigDecimal(bigInteger);
+        } else if (value instanceof Character) {
+            return value.toString();
+        } else if (value instanceof java.util.Date date) {
+            return new Timestamp(date.getTime());
+        } else if (value instanceof LocalDateTime dateTime) {
+            return Timestamp.valueOf(dateTime);
+        } else if (value instanceof LocalDate date) {
+            return java.sql.Date.valueOf(date);
+        } else if (value instanceof LocalTime time) {
+            return Time.valueOf(time);
+        } else if (value instanceof OffsetDateTime dateTime) {
+            return Timestamp.from(dateTime.toInstant());
+        } else if (value instanceof Clob clob) {
+            try {
+                return clob.getSubString(1, (int) clob.length());
+            } finally {
+                clob.free();
+            }
+        } else if (value instanceof Blob blob) {
+            try {
+                return blob.getBytes(1, (int) blob.length());
+            } finally {
+                blob.free();
+            }
+        } else if (value instanceof SQLXML xml) {
+            return xml.getString();
+        } else if (value instanceof Array array) {
+            Object elements = array.getArray();
+            if (elements instanceof Object[] objects) {
+                Object[] result = new Object[objects.length];
+                for (int i = 0; i < objects.length; i++) {
+                    if (objects[i] != null) {
+                        Object element = normalizeValue(objects[i]);
+                        result[i] = element == null ? objects[i].toString() : element;
+                    }
+                }
+                return result;
+            } else if (elements != null && elements.getClass().isArray()) {
+                // Primitive array
+                int length = java.lang.reflect.Array.getLength(elements);
+                Object[] result = new Object[length];
+                for (int i = 0; i < length; i++) {
+                    result[i] = normalizeValue(java.lang.reflect.Array.get(elements, i));
+                }
+                return result;
+            }
+            return value.toString();
+        }
+        return null;
+    }
+
+    ////////////////////////////////////////////////
+    // Encoding
+
+    private static void writeString(@NotNull DataOutputStream output, @NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    @NotNull
+    private static String readString(@NotNull DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Replay extends JDBCSnapshotResultSet {
+        private final Inflater inflater = new Inflater();
+        private final DataInputStream input;
+        private final List<String> strings = new ArrayList<>();
+
+        Replay(@NotNull byte[] data) throws SQLException {
+            this.input = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(data), inflater)));
+            try {
+                int columnCount = input.readInt();
+                labels = new String[columnCount];
+                types = new int[columnCount];
+                typeNames = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    labels[i] = readString(input);
+                    types[i] = input.readInt();
+                    typeNames[i] = readString(input);
+                }
+            } catch (IOException e) {
+                inflater.end();
+                throw new SQLException("Corrupted metadata snapshot", e);
+            }
+        }
+
+        @Nullable
+        @Override
+        protected Object[] fetchRow() throws SQLException {
+            try {
+                if (input.readByte() == ROW_END) {
+                    return null;
+                }
+                Object[] values = new Object[labels.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readValue();
+                }
+                return values;
+            } catch (IOException e) {
+                throw new SQLException("Corrupted metadata snapshot", e);
+            }
+        }
+
+        @Nullable
+        private Object readValue() throws IOException {
+            byte tag = input.readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_STRING: {
+                    String value = readString(input);
+                    if (strings.size() < MAX_DICTIONARY_SIZE) {
+                        strings.add(value);
+                    }
+                    return value;
+                }
+                case TAG_STRING_REF:
+                    return strings.get(input.readInt());
+                case TAG_INT:
+                    return input.readInt();
+                case TAG_LONG:
+                    return input.readLong();
+                case TAG_DOUBLE:
+                    return input.readDouble();
+                case TAG_DECIMAL:
+                    return new BigDecimal(readString(input));
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_BYTES: {
+                    byte[] bytes = new byte[input.readInt()];
+                    input.readFully(bytes);
+                    return bytes;
+                }
+                case TAG_DATE:
+                    return new java.sql.Date(input.readLong());
+                case TAG_TIME:
+                    return new Time(input.readLong());
+                case TAG_TIMESTAMP: {
+                    Timestamp timestamp = new Timestamp(input.readLong());
+                    timestamp.setNanos(input.readInt());
+                    return timestamp;
+                }
+                case TAG_ARRAY: {
+                    Object[] elements = new Object[input.readInt()];
+                    for (int i = 0; i < elements.length; i++) {
+                        elements[i] = readValue();
+                    }
+                    return elements;
+                }
+                default:
+                    throw new IOException("Bad value tag " + tag);
+            }
+        }
+
+        @Override
+        protected void closeRows() {
+            inflater.end();
+        }
+    }
+
+    private static class Record extends JDBCSnapshotResultSet {
+        private final JDBCResultSet liveResult;
+        private final Consumer<byte[]> dataConsumer;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final DataOutputStream output;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private boolean completed;
+        private boolean discarded;
+
+        Record(@NotNull JDBCResultSet liveResult, @NotNull Consumer<byte[]> dataConsumer) throws SQLException {
+            this.liveResult = liveResult;
+            this.dataConsumer = dataConsumer;
+            this.output = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(buffer, deflater)));
+
+            ResultSetMetaData metaData = liveResult.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            labels = new String[columnCount];
+            types = new int[columnCount];
+            typeNames = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+                types[i] = metaData.getColumnType(i + 1);
+                typeNames[i] = Objects.requireNonNullElse(metaData.getColumnTypeName(i + 1), "");
+            }
+            try {
+                output.writeInt(columnCount);
+                for (int i = 0; i < columnCount; i++) {
+                    writeString(output, labels[i]);
+                    output.writeInt(types[i]);
+                    writeString(output, typeNames[i]);
+                }
+            } catch (IOException e) {
+                discard(e);
+            }
+        }
+
+        @Nullable
+        @Override
+        protected Object[] fetchRow() throws SQLException {
+            if (!liveResult.next()) {
+                completed = true;
+                writeEnd();
+                return null;
+            }
+            Object[] values = new Object[labels.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = normalizeValue(liveResult, i + 1, types[i]);
+            }
+            if (!discarded) {
+                try {
+                    output.writeByte(ROW_NEXT);
+                    for (Object value : values) {
+                        writeValue(value);
+                    }
+                    if (buffer.size() > MAX_RECORDED_SIZE) {
+                        discard(null);
+                    }
+                } catch (IOException e) {
+                    discard(e);
+                }
+            }
+            return values;
+        }
+
+        private void writeValue(@Nullable Object value) throws IOException {
+            if (value == null) {
+                output.writeByte(TAG_NULL);
+            } else if (value instanceof String str) {
+                Integer index = strings.get(str);
+                if (index != null) {
+                    output.writeByte(TAG_STRING_REF);
+                    output.writeInt(index);
+                } else {
+                    output.writeByte(TAG_STRING);
+                    writeString(output, str);
+                    if (strings.size() < MAX_DICTIONARY_SIZE) {
+                        strings.put(str, strings.size());
+                    }
+                }
+            } else if (value instanceof Integer intValue) {
+                output.writeByte(TAG_INT);
+                output.writeInt(intValue);
+            } else if (value instanceof Long longValue) {
+                output.writeByte(TAG_LONG);
+                output.writeLong(longValue);
+            } else if (value instanceof Double doubleValue) {
+                output.writeByte(TAG_DOUBLE);
+                output.writeDouble(doubleValue);
+            } else if (value instanceof BigDecimal decimal) {
+                output.writeByte(TAG_DECIMAL);
+                writeString(output, decimal.toString());
+            } else if (value instanceof Boolean bool) {
+                output.writeByte(bool ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof byte[] bytes) {
+                output.writeByte(TAG_BYTES);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            } else if (value instanceof Timestamp timestamp) {
+                output.writeByte(TAG_TIMESTAMP);
+                output.writeLong(timestamp.getTime());
+                output.writeInt(timestamp.getNanos());
+            } else if (value instanceof java.sql.Date date) {
+                output.writeByte(TAG_DATE);
+                output.writeLong(date.getTime());
+            } else if (value instanceof Time time) {
+                output.writeByte(TAG_TIME);
+                output.writeLong(time.getTime());
+            } else if (value instanceof Object[] elements) {
+                output.writeByte(TAG_ARRAY);
+                output.writeInt(elements.length);
+                for (Object element : elements) {
+                    writeValue(element);
+                }
+            } else {
+                throw new IOException("Unsupported value type " + value.getClass().getName());
+            }
+        }
+
+        private void writeEnd() {
+            if (discarded) {
+                return;
+            }
+            try {
+                output.writeByte(ROW_END);
+                output.close();
+            } catch (IOException e) {
+                discard(e);
+            }
+        }
+
+        private void discard(@Nullable Throwable error) {
+            if (error != null) {
+                log.debug("Metadata snapshot recording discarded", error);
+            }
+            discarded = true;
+            buffer.reset();
+        }
+
+        @Override
+        protected void closeRows() {
+            try {
+                liveResult.close();
+            } finally {
+                deflater.end();
+            }
+            if (completed && !discarded) {
+                dataConsumer.accept(buffer.toByteArray());
+            }
+        }
+    }
+
+}
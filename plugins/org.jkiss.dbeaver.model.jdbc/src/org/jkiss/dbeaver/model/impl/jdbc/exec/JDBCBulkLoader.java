@@ -0,0 +1,231 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.exec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValue;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base JDBC bulk loader.
+ * Resolves loaded attributes and their value handlers, translates driver errors and commits loaded data.
+ * Implementations usually work with driver-specific API via reflection because drivers are loaded
+ * by their own class loaders.
+ */
+public abstract class JDBCBulkLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(JDBCBulkLoader.class);
+
+    protected DBSDataContainer table;
+    protected DBSAttributeBase[] attributes;
+    protected DBDValueHandler[] valueHandlers;
+    // Positions of loaded attributes in row values. Pseudo attributes are skipped.
+    protected int[] valueIndexes;
+    protected int batchSize;
+    protected long rowsLoaded;
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        this.table = dataContainer;
+        this.batchSize = batchSize;
+
+        List<DBSAttributeBase> loadAttributes = new ArrayList<>(attributes.length);
+        List<Integer> loadIndexes = new ArrayList<>(attributes.length);
+        for (int i = 0; i < attributes.length; i++) {
+            if (!DBUtils.isPseudoAttribute(attributes[i])) {
+                loadAttributes.add(attributes[i]);
+                loadIndexes.add(i);
+            }
+        }
+        this.attributes = loadAttributes.toArray(new DBSAttributeBase[0]);
+        this.valueIndexes = loadIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.valueHandlers = new DBDValueHandler[this.attributes.length];
+        for (int i = 0; i < this.attributes.length; i++) {
+            valueHandlers[i] = DBUtils.findValueHandler(session, this.attributes[i]);
+        }
+
+        try {
+            startLoad((JDBCSession) session);
+        } catch (Throwable e) {
+            close();
+            throw makeException(session, "Can't start bulk load into " + getTableName(), e);
+        }
+        return this;
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        try {
+            loadRow((JDBCSession) session, attributeValues);
+        } catch (Throwable e) {
+            throw makeException(session, "Error loading row into " + getTableName(), e);
+        }
+        rowsLoaded++;
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        try {
+            flushLoad((JDBCSession) session);
+        } catch (Throwable e) {
+            throw makeException(session, "Error flushing rows into " + getTableName(), e);
+        }
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        try {
+            finishLoad((JDBCSession) session);
+        } catch (Throwable e) {
+            throw makeException(session, "Error finishing bulk load into " + getTableName(), e);
+        }
+        commitChanges(session);
+        log.debug(rowsLoaded + " row(s) loaded into " + getTableName());
+    }
+
+    @Override
+    public void close() {
+        try {
+            closeLoad();
+        } catch (Throwable e) {
+            log.debug("Error closing bulk loader", e);
+        }
+    }
+
+    /**
+     * Prepares bulk load. Called once, before the first row.
+     */
+    protected abstract void startLoad(@NotNull JDBCSession session) throws Exception;
+
+    /**
+     * Adds row to the bulk load. Implementation may buffer rows until {@link #flushLoad(JDBCSession)}.
+     */
+    protected abstract void loadRow(@NotNull JDBCSession session, @NotNull Object[] values) throws Exception;
+
+    /**
+     * Sends buffered rows to the server. Called each time the consumer commits.
+     */
+    protected abstract void flushLoad(@NotNull JDBCSession session) throws Exception;
+
+    /**
+     * Sends remaining rows and completes bulk load. Changes are committed after this method.
+     */
+    protected abstract void finishLoad(@NotNull JDBCSession session) throws Exception;
+
+    /**
+     * Releases driver resources. Called always, even if load wasn't started or failed.
+     */
+    protected abstract void closeLoad() throws Exception;
+
+    protected void commitChanges(@NotNull DBCSession session) throws DBCException {
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+            txnManager.commit(session);
+        }
+    }
+
+    @NotNull
+    protected String getTableName() {
+        return table == null ? "?" : DBUtils.getObjectFullName(table, DBPEvaluationContext.DML);
+    }
+
+    /**
+     * Returns comma separated list of quoted names of loaded attributes
+     */
+    @NotNull
+    protected String getColumnList() {
+        StringBuilder columns = new StringBuilder();
+        for (DBSAttributeBase attribute : attributes) {
+            if (columns.length() > 0) {
+                columns.append(",");
+            }
+            columns.append(DBUtils.getQuotedIdentifier(table.getDataSource(), attribute.getName()));
+        }
+        return columns.toString();
+    }
+
+    /**
+     * Returns value of the loaded attribute. Value wrappers (content, complex values) are unwrapped.
+     */
+    @Nullable
+    protected Object getRawValue(@NotNull Object[] values, int attrIndex) {
+        Object value = values[valueIndexes[attrIndex]];
+        if (value instanceof DBDValue) {
+            value = ((DBDValue) value).isNull() ? null : ((DBDValue) value).getRawValue();
+        }
+        return DBUtils.isNullValue(value) ? null : value;
+    }
+
+    /**
+     * Returns value of the loaded attribute in the database native text format or null
+     */
+    @Nullable
+    protected String getTextValue(@NotNull Object[] values, int attrIndex) {
+        Object value = values[valueIndexes[attrIndex]];
+        if (DBUtils.isNullValue(value)) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        } else if (value instanceof Number) {
+            return value.toString();
+        }
+        return valueHandlers[attrIndex].getValueDisplayString(attributes[attrIndex], value, DBDDisplayFormat.NATIVE);
+    }
+
+    @NotNull
+    private static DBCException makeException(@NotNull DBCSession session, @NotNull String message, @NotNull Throwable error) {
+        if (error instanceof InvocationTargetException) {
+            error = ((InvocationTargetException) error).getTargetException();
+        }
+        if (error instanceof DBCException) {
+            return (DBCException) error;
+        } else if (error instanceof SQLException) {
+            return new DBCException(message, error, session.getExecutionContext());
+        }
+        return new DBCException(message, error);
+    }
+
+}
@@ -261,6 +261,10 @@ public class JDBCConnectionImpl extends AbstractSession implements JDBCSession,
     public JDBCPreparedStatement prepareStatement(String sql)
         throws SQLException
     {
+        JDBCStatementCache statementCache = getStatementCache();
+        if (statementCache != null && sql != null) {
+            return prepareCachedStatement(statementCache, new JDBCStatementCache.Key(sql, -1, -1));
+        }
         return createPreparedStatementImpl(getOriginal().prepareStatement(sql), sql);
     }
 
@@ -422,6 +426,10 @@ public class JDBCConnectionImpl extends AbstractSession implements JDBCSession,
     public JDBCPreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
         throws SQLException
     {
+        JDBCStatementCache statementCache = getStatementCache();
+        if (statementCache != null && sql != null) {
+            return prepareCachedStatement(statementCache, new JDBCStatementCache.Key(sql, resultSetType, resultSetConcurrency));
+        }
         return createPreparedStatementImpl(
             getOriginal().prepareStatement(sql, resultSetType, resultSetConcurrency),
             sql);
@@ -741,6 +749,38 @@ public class JDBCConnectionImpl extends AbstractSession implements JDBCSession,
         return context.getDataSource().getJdbcFactory().createPreparedStatement(this, original, sql, !isLoggingEnabled());
     }
 
+    /**
+     * Statements are cached only for metadata queries.
+     * User and utility queries may change the schema, which invalidates server-side prepared plans
+     * (e.g. PostgreSQL fails with "cached plan must not change result type").
+     */
+    @Nullable
+    private JDBCStatementCache getStatementCache() {
+        if (getPurpose() == DBCExecutionPurpose.META) {
+            return context.getStatementCache();
+        }
+        return null;
+    }
+
+    @NotNull
+    private JDBCPreparedStatement prepareCachedStatement(@NotNull JDBCStatementCache statementCache, @NotNull JDBCStatementCache.Key key)
+        throws SQLException
+    {
+        PreparedStatement original = statementCache.prepareStatement(getOriginal(), key);
+        try {
+            JDBCFactory jdbcFactory = context.getDataSource().getJdbcFactory();
+            if (jdbcFactory instanceof JDBCFactoryDefault factoryDefault) {
+                return factoryDefault.createCachedPreparedStatement(this, original, statementCache, key, !isLoggingEnabled());
+            }
+            // Custom factory doesn't know about the cache: statement is closed along with the created statement
+            statementCache.detachStatement(original);
+            return jdbcFactory.createPreparedStatement(this, original, key.getSql(), !isLoggingEnabled());
+        } catch (Throwable e) {
+            statementCache.dropStatement(original);
+            throw e;
+        }
+    }
+
     protected JDBCCallableStatement createCallableStatementImpl(CallableStatement original, @Nullable String sql)
         throws SQLException,IllegalArgumentException
     {
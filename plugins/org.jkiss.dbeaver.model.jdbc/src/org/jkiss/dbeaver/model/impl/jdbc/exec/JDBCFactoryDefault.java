@@ -43,6 +43,14 @@ public class JDBCFactoryDefault implements JDBCFactory {
         return new JDBCPreparedStatementImpl(session, original, sql, disableLogging);
     }
 
+    /**
+     * Creates prepared statement which original statement is owned by the statement cache.
+     * Subclasses which override {@link #createPreparedStatement} must override this method too.
+     */
+    public JDBCPreparedStatement createCachedPreparedStatement(@NotNull JDBCSession session, @NotNull PreparedStatement original, @NotNull JDBCStatementCache cache, @NotNull JDBCStatementCache.Key key, boolean disableLogging) throws SQLException {
+        return new JDBCPreparedStatementCachedImpl(session, original, key.getSql(), disableLogging, cache, key);
+    }
+
     @Override
     public JDBCCallableStatement createCallableStatement(@NotNull JDBCSession session, @NotNull CallableStatement original, @Nullable String sql, boolean disableLogging) throws SQLException {
         return new JDBCCallableStatementImpl(session, original, sql, disableLogging);
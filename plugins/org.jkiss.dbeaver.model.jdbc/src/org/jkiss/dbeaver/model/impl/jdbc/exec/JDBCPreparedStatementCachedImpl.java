@@ -16,20 +16,52 @@
  */
 package org.jkiss.dbeaver.model.impl.jdbc.exec;
 
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 
+import java.sql.PreparedStatement;
+
+/**
+ * Prepared statement which original statement is owned by {@link JDBCStatementCache}.
+ * On close the original statement is returned to the cache instead of being closed.
+ */
 public class JDBCPreparedStatementCachedImpl extends JDBCPreparedStatementImpl {
 
-	public JDBCPreparedStatementCachedImpl(JDBCPreparedStatementImpl statment){
-		super(statment.getSession(), statment.original, statment.query, statment.disableLogging);
-	}
-
-	@Override
-	public void close() {
-		// For cached statement close() do nothing
-	}
-	
-	public void drop(){
-		super.close();
-	}
-	
+    @NotNull
+    private final JDBCStatementCache cache;
+    @NotNull
+    private final JDBCStatementCache.Key key;
+    private boolean dropped;
+
+    public JDBCPreparedStatementCachedImpl(
+        @NotNull JDBCSession session,
+        @NotNull PreparedStatement original,
+        @Nullable String query,
+        boolean disableLogging,
+        @NotNull JDBCStatementCache cache,
+        @NotNull JDBCStatementCache.Key key)
+    {
+        super(session, original, query, disableLogging);
+        this.cache = cache;
+        this.key = key;
+    }
+
+    @Override
+    protected void closeOriginal() {
+        if (dropped) {
+            cache.dropStatement(getOriginal());
+        } else {
+            cache.releaseStatement(key, getOriginal());
+        }
+    }
+
+    /**
+     * Closes statement and its original statement. Original statement won't be reused.
+     */
+    public void drop() {
+        dropped = true;
+        close();
+    }
+
 }
@@ -29,6 +29,7 @@ import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataSnapshot;
 import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.sql.DBSQLException;
 import org.jkiss.dbeaver.model.sql.SQLUtils;
@@ -175,7 +176,9 @@ public class JDBCPreparedStatementImpl extends JDBCStatementImpl<PreparedStateme
 
     protected void handleStatementBind(Object parameter, @Nullable Object o)
     {
-        if (isQMLoggingEnabled()) {
+        boolean qmLogging = isQMLoggingEnabled();
+        // Metadata snapshot identifies results by query text with parameter values
+        if (qmLogging || JDBCMetadataSnapshot.getSnapshot(getSession().getDataSource()) != null) {
             // Save parameters
             if (o == null) {
                 o = NULL_VALUE;
@@ -187,7 +190,7 @@ public class JDBCPreparedStatementImpl extends JDBCStatementImpl<PreparedStateme
                 paramMap = new LinkedHashMap<>();
             }
             paramMap.put(parameter, o);
-            if (getSession().isLoggingEnabled()) {
+            if (qmLogging && getSession().isLoggingEnabled()) {
                 QMUtils.getDefaultHandler().handleStatementBind(this, parameter, o);
             }
         }
@@ -0,0 +1,285 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.exec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU cache of prepared statements of a single connection.
+ * <p>
+ * Cache keeps idle driver statements. Statement is taken from the cache while it is in use
+ * and returned back when its wrapper ({@link JDBCPreparedStatementCachedImpl}) is closed.
+ * Thus the same statement is never used by two sessions at once.
+ */
+public class JDBCStatementCache {
+
+    private static final Log log = Log.getLog(JDBCStatementCache.class);
+
+    /**
+     * Statement key. Result set type and concurrency are -1 for statements prepared with default options.
+     */
+    public static final class Key {
+        private final String sql;
+        private final int resultSetType;
+        private final int resultSetConcurrency;
+
+        public Key(@NotNull String sql, int resultSetType, int resultSetConcurrency) {
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+        }
+
+        @NotNull
+        public String getSql() {
+            return sql;
+        }
+
+        public int getResultSetType() {
+            return resultSetType;
+        }
+
+        public int getResultSetConcurrency() {
+            return resultSetConcurrency;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key key)) {
+                return false;
+            }
+            return resultSetType == key.resultSetType && resultSetConcurrency == key.resultSetConcurrency && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, resultSetType, resultSetConcurrency);
+        }
+    }
+
+    private static final class Entry {
+        private final PreparedStatement statement;
+        // Initial statement settings. Restored when statement is returned to the cache.
+        private final int fetchSize;
+        private final int maxRows;
+        private final int queryTimeout;
+
+        Entry(@NotNull PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+    }
+
+    private final int maxSize;
+    // Connection of cached statements
+    @Nullable
+    private Connection connection;
+    private final LinkedHashMap<Key, Entry> statements = new LinkedHashMap<>(16, 0.75f, true);
+    // Statements which were created or taken from cache and not returned yet
+    private final Map<PreparedStatement, Entry> activeStatements = new IdentityHashMap<>();
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public JDBCStatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int getSize() {
+        return statements.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns idle statement from the cache or prepares a new one.
+     * Returned statement must be released with {@link #releaseStatement(Key, PreparedStatement)}.
+     */
+    @NotNull
+    public PreparedStatement prepareStatement(@NotNull Connection connection, @NotNull Key key) throws SQLException {
+        synchronized (this) {
+            if (this.connection != connection) {
+                // Connection was reopened. Old statements are closed along with old connection.
+                invalidate();
+                this.connection = connection;
+            }
+            Entry entry = statements.remove(key);
+            if (entry != null) {
+                hitCount++;
+                activeStatements.put(entry.statement, entry);
+                return entry.statement;
+            }
+            missCount++;
+        }
+        PreparedStatement statement = key.resultSetType == -1 ?
+            connection.prepareStatement(key.sql) :
+            connection.prepareStatement(key.sql, key.resultSetType, key.resultSetConcurrency);
+        Entry entry;
+        try {
+            entry = new Entry(statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        synchronized (this) {
+            activeStatements.put(statement, entry);
+        }
+        return statement;
+    }
+
+    /**
+     * Returns statement to the cache. Statement is closed if it can't be reused.
+     */
+    public void releaseStatement(@NotNull Key key, @NotNull PreparedStatement statement) {
+        Entry entry;
+        synchronized (this) {
+            entry = activeStatements.remove(statement);
+        }
+        if (entry == null) {
+            // Cache was invalidated
+            closeStatement(statement);
+            return;
+        }
+        try {
+            try {
+                statement.clearBatch();
+            } catch (SQLFeatureNotSupportedException e) {
+                // Driver doesn't support batches, nothing to clear
+            }
+            statement.clearParameters();
+            statement.clearWarnings();
+            if (statement.getFetchSize() != entry.fetchSize) {
+                statement.setFetchSize(entry.fetchSize);
+            }
+            if (statement.getMaxRows() != entry.maxRows) {
+                statement.setMaxRows(entry.maxRows);
+            }
+            if (statement.getQueryTimeout() != entry.queryTimeout) {
+                statement.setQueryTimeout(entry.queryTimeout);
+            }
+        } catch (Throwable e) {
+            log.debug("Can't reset cached statement", e);
+            closeStatement(statement);
+            return;
+        }
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (statements.containsKey(key)) {
+                // Concurrent copy of the same statement
+                evicted.add(entry);
+            } else {
+                statements.put(key, entry);
+                for (Iterator<Entry> iter = statements.values().iterator(); statements.size() > maxSize && iter.hasNext(); ) {
+                    evicted.add(iter.next());
+                    iter.remove();
+                    evictionCount++;
+                }
+            }
+        }
+        for (Entry evictedEntry : evicted) {
+            closeStatement(evictedEntry.statement);
+        }
+    }
+
+    /**
+     * Removes statement from the cache without closing it. Statement is then owned by the caller.
+     */
+    public void detachStatement(@NotNull PreparedStatement statement) {
+        synchronized (this) {
+            activeStatements.remove(statement);
+        }
+    }
+
+    /**
+     * Closes statement without returning it to the cache
+     */
+    public void dropStatement(@NotNull PreparedStatement statement) {
+        synchronized (this) {
+            activeStatements.remove(statement);
+        }
+        closeStatement(statement);
+    }
+
+    /**
+     * Forgets all statements. Must be called when connection is closed or reopened.
+     * Statements are not closed explicitly because they are closed along with their connection.
+     */
+    public synchronized void invalidate() {
+        statements.clear();
+        activeStatements.clear();
+        connection = null;
+    }
+
+    /**
+     * Closes all idle statements
+     */
+    public void clear() {
+        List<Entry> idle;
+        synchronized (this) {
+            idle = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        for (Entry entry : idle) {
+            closeStatement(entry.statement);
+        }
+    }
+
+    private static void closeStatement(@NotNull PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (Throwable e) {
+            log.debug("Can't close cached statement", e);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Statement cache: size=" + statements.size() + ", hits=" + hitCount + ", misses=" + missCount +
+            ", evictions=" + evictionCount;
+    }
+
+}
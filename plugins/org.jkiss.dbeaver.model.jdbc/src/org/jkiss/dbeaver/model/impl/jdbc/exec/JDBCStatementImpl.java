@@ -505,7 +505,13 @@ public class JDBCStatementImpl<STATEMENT extends Statement> extends AbstractStat
             QMUtils.getDefaultHandler().handleStatementClose(this, updateCount);
         }
 
-        // Close statement
+        closeOriginal();
+    }
+
+    /**
+     * Closes original statement
+     */
+    protected void closeOriginal() {
         try {
             getOriginal().close();
         }
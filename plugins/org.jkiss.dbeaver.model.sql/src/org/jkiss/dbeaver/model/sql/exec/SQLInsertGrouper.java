@@ -0,0 +1,157 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.exec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Detects single-row INSERT statements and joins runs of them into multi-row INSERT statements.
+ * <p>
+ * Only plain statements are grouped: {@code INSERT INTO table [(columns)] VALUES (row)} without parameters,
+ * comments or trailing clauses. Statements are grouped only if they have the same text before the VALUES row.
+ */
+public class SQLInsertGrouper {
+
+    // Many databases limit number of rows in VALUES clause (e.g. 1000 in SQL Server)
+    public static final int MAX_GROUP_ROWS = 1000;
+    // Keep statements well below default packet size limits
+    public static final int MAX_GROUP_LENGTH = 1024 * 1024;
+
+    private static final Pattern INSERT_PATTERN = Pattern.compile(
+        "\\s*(INSERT\\s+INTO\\s+[^\\s(]+(?:\\s*\\([^()'\"]*\\))?\\s*VALUES)\\s*\\(",
+        Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Single-row INSERT statement split into the statement prefix (up to the VALUES keyword) and the row.
+     */
+    public record InsertRow(@NotNull SQLQuery query, @NotNull String prefix, @NotNull String row) {
+    }
+
+    private final char escapeChar;
+    private final int maxRows;
+
+    public SQLInsertGrouper(@NotNull SQLDialect dialect, int maxRows) {
+        this.escapeChar = dialect.getStringEscapeCharacter();
+        this.maxRows = Math.min(maxRows, MAX_GROUP_ROWS);
+    }
+
+    public static boolean isSupported(@NotNull SQLDialect dialect) {
+        return dialect.getDefaultMultiValueInsertMode() == SQLDialect.MultiValueInsertMode.GROUP_ROWS;
+    }
+
+    /**
+     * Returns parsed row or null if element is not a single-row INSERT statement which can be grouped
+     */
+    @Nullable
+    public InsertRow parseInsert(@NotNull SQLScriptElement element) {
+        if (!(element instanceof SQLQuery query) || !CommonUtils.isEmpty(query.getParameters())) {
+            return null;
+        }
+        String text = query.getText();
+        if (text.length() > MAX_GROUP_LENGTH) {
+            return null;
+        }
+        Matcher matcher = INSERT_PATTERN.matcher(text);
+        if (!matcher.lookingAt()) {
+            return null;
+        }
+        int rowStart = matcher.end() - 1;
+        int rowEnd = findRowEnd(text, rowStart);
+        if (rowEnd < 0) {
+            return null;
+        }
+        // Nothing but whitespace may follow the row
+        for (int i = rowEnd; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return null;
+            }
+        }
+        String prefix = matcher.group(1).replaceAll("\\s+", " ");
+        return new InsertRow(query, prefix, text.substring(rowStart, rowEnd));
+    }
+
+    /**
+     * Checks whether the row may be added to the group
+     */
+    public boolean canAppend(@NotNull List<InsertRow> group, int groupLength, @NotNull InsertRow row) {
+        return group.size() < maxRows &&
+            groupLength + row.row().length() + 2 <= MAX_GROUP_LENGTH &&
+            group.get(0).prefix().equals(row.prefix());
+    }
+
+    @NotNull
+    public String makeGroupQuery(@NotNull List<InsertRow> group) {
+        StringBuilder query = new StringBuilder(group.get(0).prefix());
+        for (int i = 0; i < group.size(); i++) {
+            query.append(i == 0 ? "\n" : ",\n").append(group.get(i).row());
+        }
+        return query.toString();
+    }
+
+    /**
+     * Returns position after the parenthesis which closes the row or -1 if row can't be parsed safely
+     */
+    private int findRowEnd(@NotNull String text, int rowStart) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = rowStart; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == escapeChar && escapeChar != 0) {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            switch (c) {
+                case '\'', '"', '`' -> quote = c;
+                case '(' -> depth++;
+                case ')' -> {
+                    depth--;
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                }
+                case '-', '/' -> {
+                    char next = i < text.length() - 1 ? text.charAt(i + 1) : 0;
+                    if ((c == '-' && next == '-') || (c == '/' && next == '*')) {
+                        // Comments are not parsed here
+                        return -1;
+                    }
+                }
+                case '#', '$', ';' -> {
+                    // MySQL comments and dollar quotes are not parsed here
+                    return -1;
+                }
+                default -> {
+                }
+            }
+        }
+        return -1;
+    }
+
+}
@@ -16,7 +16,9 @@
  */
 package org.jkiss.dbeaver.model.sql.exec;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBFetchProgress;
@@ -30,7 +32,10 @@ import org.jkiss.dbeaver.model.sql.*;
 import org.jkiss.dbeaver.model.sql.data.SQLQueryDataContainer;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -40,12 +45,16 @@ public class SQLScriptProcessor {
     private static final String STAT_LOG_PREFIX = "-----------------> ";
 
     private final DBCExecutionContext executionContext;
-    private final List<SQLScriptElement> queries;
+    private final Iterator<SQLScriptElement> queries;
+    // Total number of queries or -1 if queries are parsed during execution
+    private final int queryCount;
     private final SQLScriptContext scriptContext;
     private final DBDDataReceiver dataReceiver;
     private final Log log;
 
     private Throwable lastError = null;
+    // Script stream read error is not ignored by the error handling mode
+    private boolean scriptReadFailed;
 
     private DBCStatistics statistics;
     private final DBCStatistics totalStatistics = new DBCStatistics();
@@ -54,6 +63,7 @@ public class SQLScriptProcessor {
     private long fetchFlags;
     private SQLScriptCommitType commitType = SQLScriptCommitType.AUTOCOMMIT;
     private SQLScriptErrorHandling errorHandling = SQLScriptErrorHandling.STOP_ROLLBACK;
+    private int insertBatchSize;
 
     public SQLScriptProcessor(
         @NotNull DBCExecutionContext executionContext,
@@ -61,8 +71,23 @@ public class SQLScriptProcessor {
         @NotNull SQLScriptContext scriptContext,
         @NotNull DBDDataReceiver dataReceiver,
         @NotNull Log log) {
+        this(executionContext, queries.iterator(), queries.size(), scriptContext, dataReceiver, log);
+    }
+
+    /**
+     * Creates processor of queries which are parsed during execution, e.g. by {@link org.jkiss.dbeaver.model.sql.parser.SQLScriptStreamParser}.
+     * Queries are not kept in memory after execution.
+     */
+    public SQLScriptProcessor(
+        @NotNull DBCExecutionContext executionContext,
+        @NotNull Iterator<SQLScriptElement> queries,
+        int queryCount,
+        @NotNull SQLScriptContext scriptContext,
+        @NotNull DBDDataReceiver dataReceiver,
+        @NotNull Log log) {
         this.executionContext = executionContext;
         this.queries = queries;
+        this.queryCount = queryCount;
         this.scriptContext = scriptContext;
         this.dataReceiver = dataReceiver;
         this.log = log;
@@ -92,9 +117,22 @@ public class SQLScriptProcessor {
         this.errorHandling = errorHandling;
     }
 
+    public int getInsertBatchSize() {
+        return insertBatchSize;
+    }
+
+    /**
+     * Sets max number of single-row INSERT statements which are executed as one multi-row INSERT.
+     * Grouping is disabled if batch size is less than 2 or if dialect doesn't support multi-row inserts.
+     */
+    public void setInsertBatchSize(int insertBatchSize) {
+        this.insertBatchSize = insertBatchSize;
+    }
+
     public void runScript(DBRProgressMonitor monitor) throws DBCException {
         RuntimeUtils.setThreadName("SQL script execution");
         statistics = new DBCStatistics();
+        scriptReadFailed = false;
         try {
             DBCTransactionManager txnManager = DBUtils.getTransactionManager(executionContext);
             try (DBCSession session = executionContext.openSession(monitor, DBCExecutionPurpose.USER_SCRIPT, "SQL Query")) {
@@ -109,28 +147,72 @@ public class SQLScriptProcessor {
                     txnManager.setAutoCommit(monitor, newAutoCommit);
                 }
 
-                monitor.beginTask("Execute queries (" + queries.size() + ")", queries.size());
+                if (queryCount >= 0) {
+                    monitor.beginTask("Execute queries (" + queryCount + ")", queryCount);
+                } else {
+                    monitor.beginTask("Execute queries", IProgressMonitor.UNKNOWN);
+                }
+
+                SQLInsertGrouper insertGrouper = null;
+                SQLDialect dialect = session.getDataSource().getSQLDialect();
+                if (insertBatchSize > 1 && SQLInsertGrouper.isSupported(dialect) &&
+                    (txnManager == null || txnManager.isAutoCommit() || txnManager.supportsSavepoints()))
+                {
+                    // Failed group is rolled back to savepoint and then executed statement by statement
+                    insertGrouper = new SQLInsertGrouper(dialect, insertBatchSize);
+                }
 
-                for (SQLScriptElement query : queries) {
-                    if (monitor.isCanceled()) {
-                        break;
-                    }
-                    // Execute query
-                    boolean runNext = executeSingleQuery(session, query);
-                    if (!runNext) {
-                        if (lastError == null) {
-                            // Execution cancel
+                try {
+                    SQLScriptElement nextQuery = null;
+                    while (nextQuery != null || queries.hasNext()) {
+                        if (monitor.isCanceled()) {
                             break;
                         }
-                        if (errorHandling != SQLScriptErrorHandling.IGNORE) {
-                            log.error(lastError);
-                            break;
+                        SQLScriptElement query = nextQuery != null ? nextQuery : queries.next();
+                        nextQuery = null;
+                        int executedCount = 1;
+                        boolean runNext;
+                        SQLInsertGrouper.InsertRow insertRow = insertGrouper == null ? null : insertGrouper.parseInsert(query);
+                        if (insertRow != null) {
+                            List<SQLInsertGrouper.InsertRow> group = new ArrayList<>();
+                            group.add(insertRow);
+                            int groupLength = insertRow.prefix().length() + insertRow.row().length();
+                            while (queries.hasNext()) {
+                                SQLScriptElement element = queries.next();
+                                SQLInsertGrouper.InsertRow row = insertGrouper.parseInsert(element);
+                                if (row == null || !insertGrouper.canAppend(group, groupLength, row)) {
+                                    nextQuery = element;
+                                    break;
+                                }
+                                group.add(row);
+                                groupLength += row.row().length() + 2;
+                            }
+                            runNext = executeInsertGroup(session, txnManager, insertGrouper, group);
+                            executedCount = group.size();
                         } else {
-                            log.warn("Query failed: " + lastError.getMessage());
+                            // Execute query
+                            runNext = executeSingleQuery(session, query);
+                        }
+                        if (!runNext) {
+                            if (lastError == null) {
+                                // Execution cancel
+                                break;
+                            }
+                            if (errorHandling != SQLScriptErrorHandling.IGNORE) {
+                                log.error(lastError);
+                                break;
+                            } else {
+                                log.warn("Query failed: " + lastError.getMessage());
+                            }
                         }
-                    }
 
-                    monitor.worked(1);
+                        monitor.worked(executedCount);
+                    }
+                } catch (UncheckedIOException e) {
+                    // Script stream can't be read. Finish the transaction the same way as after a failed query.
+                    lastError = new DBException("Error reading SQL script", e.getCause());
+                    scriptReadFailed = true;
+                    log.error(lastError);
                 }
                 monitor.done();
 
@@ -164,7 +246,7 @@ public class SQLScriptProcessor {
             throw new DBCException("Error during SQL script execution", ex);
         }
 
-        if (lastError != null && errorHandling != SQLScriptErrorHandling.IGNORE) {
+        if (lastError != null && (errorHandling != SQLScriptErrorHandling.IGNORE || scriptReadFailed)) {
             throw new DBCException("Script execute failed", lastError);
         }
     }
@@ -210,6 +292,63 @@ public class SQLScriptProcessor {
         return lastError == null || errorHandling == SQLScriptErrorHandling.IGNORE;
     }
 
+    private boolean executeInsertGroup(
+        @NotNull DBCSession session,
+        @Nullable DBCTransactionManager txnManager,
+        @NotNull SQLInsertGrouper insertGrouper,
+        @NotNull List<SQLInsertGrouper.InsertRow> group
+    ) {
+        if (group.size() == 1) {
+            return executeSingleQuery(session, group.get(0).query());
+        }
+        SQLQuery groupQuery = new SQLQuery(session.getDataSource(), insertGrouper.makeGroupQuery(group));
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        DBCSavepoint savepoint = null;
+        lastError = null;
+        try {
+            if (txnManager != null && !txnManager.isAutoCommit()) {
+                savepoint = txnManager.setSavepoint(monitor, null);
+            }
+            statistics.reset();
+            statistics.setQueryText(groupQuery.getText());
+            DBExecUtils.tryExecuteRecover(session, session.getDataSource(), param -> {
+                try {
+                    executeStatement(session, groupQuery, System.currentTimeMillis());
+                } catch (Throwable e) {
+                    throw new InvocationTargetException(e);
+                }
+            });
+            if (savepoint != null) {
+                try {
+                    txnManager.releaseSavepoint(monitor, savepoint);
+                } catch (Throwable e) {
+                    log.debug("Error releasing savepoint: " + e.getMessage());
+                }
+            }
+            return true;
+        } catch (Throwable e) {
+            log.debug(STAT_LOG_PREFIX + "Grouped insert of " + group.size() + " row(s) failed, execute statements one by one: " + e.getMessage());
+            if (savepoint != null) {
+                try {
+                    txnManager.rollback(session, savepoint);
+                } catch (Throwable ex) {
+                    lastError = ex;
+                    return false;
+                }
+            }
+        } finally {
+            scriptContext.clearStatementContext();
+        }
+
+        // Execute statements separately to report the failed one
+        for (SQLInsertGrouper.InsertRow row : group) {
+            if (!executeSingleQuery(session, row.query())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void executeStatement(@NotNull DBCSession session, SQLQuery sqlQuery, long startTime) throws DBCException {
         SQLQueryDataContainer dataContainer = new SQLQueryDataContainer(() -> executionContext, sqlQuery, scriptContext, log);
         DBCExecutionSource source = new AbstractExecutionSource(dataContainer, session.getExecutionContext(), this, sqlQuery);
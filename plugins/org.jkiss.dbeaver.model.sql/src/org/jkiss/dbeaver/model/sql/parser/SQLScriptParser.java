@@ -951,14 +951,7 @@ public class SQLScriptParser {
 
         parserContext.startScriptEvaluation();
         try {
-            for (int queryOffset = startOffset; ; ) {
-                SQLScriptElement query = parseQueryImpl(parserContext, queryOffset, startOffset + length, queryOffset, scriptMode, keepDelimiters);
-                if (query == null) {
-                    break;
-                }
-                queryList.add(query);
-                queryOffset = query.getOffset() + query.getLength();
-            }
+            parseScriptQueries(parserContext, queryList, startOffset, length, scriptMode, keepDelimiters);
         } finally {
             parserContext.endScriptEvaluation();
         }
@@ -978,7 +971,28 @@ public class SQLScriptParser {
         return queryList;
     }
 
-    private static void expandQueries(@NotNull SQLParserContext parserContext, @NotNull List<SQLScriptElement> queryList) {
+    /**
+     * Parses queries in the specified range. Script evaluation must be started by the caller.
+     */
+    static void parseScriptQueries(
+        @NotNull SQLParserContext parserContext,
+        @NotNull List<SQLScriptElement> queryList,
+        int startOffset,
+        int length,
+        boolean scriptMode,
+        boolean keepDelimiters
+    ) {
+        for (int queryOffset = startOffset; ; ) {
+            SQLScriptElement query = parseQueryImpl(parserContext, queryOffset, startOffset + length, queryOffset, scriptMode, keepDelimiters);
+            if (query == null) {
+                break;
+            }
+            queryList.add(query);
+            queryOffset = query.getOffset() + query.getLength();
+        }
+    }
+
+    static void expandQueries(@NotNull SQLParserContext parserContext, @NotNull List<SQLScriptElement> queryList) {
         var continuationDetector = new ScriptElementContinuationDetector(parserContext);
         var it = queryList.listIterator();
         while (it.hasNext()) {
@@ -0,0 +1,300 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.eclipse.jface.text.Document;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.dbeaver.model.sql.SQLSyntaxManager;
+import org.jkiss.utils.Pair;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses SQL script read from a stream.
+ * <p>
+ * Script is read by chunks and each chunk is parsed as soon as it is read, so the first query is available
+ * before the whole script is read and memory usage doesn't depend on the script size.
+ * Last queries of the chunk may continue in the next chunk, they are parsed again together with it.
+ * Queries which follow a string, quoted identifier or comment not terminated at the chunk end are parsed again too,
+ * because the parser splits unterminated blocks by delimiters inside them.
+ * If no query is complete then the next read is as long as the pending text, so the pending text is parsed
+ * a logarithmic number of times. Pending text is limited by {@link #MAX_PENDING_CHUNKS} chunks.
+ * Delimiter changes made by control commands are kept between chunks.
+ * <p>
+ * Query offsets are relative to the chunk they were parsed in.
+ * IO errors (including too long statements) are rethrown as {@link UncheckedIOException}.
+ */
+public class SQLScriptStreamParser implements Iterator<SQLScriptElement>, AutoCloseable {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    // Max size of text kept to resolve unterminated quotes and comments
+    private static final int MAX_LOOKAHEAD_CHUNKS = 16;
+    // Max size of a single statement
+    static final int MAX_PENDING_CHUNKS = 64;
+    private static final Pattern DOLLAR_QUOTE_PATTERN = Pattern.compile("\\$[\\p{L}_]*\\$");
+
+    @NotNull
+    private final Reader reader;
+    @NotNull
+    private final SQLParserContext parserContext;
+    @NotNull
+    private final Document document;
+    private final int chunkSize;
+    private final int maxPendingLength;
+    private final char[] readBuffer;
+    // Quotes and comments which may contain delimiters
+    @NotNull
+    private final String[][] blockQuotes;
+    // Number of string quotes in the beginning of blockQuotes
+    private final int stringQuoteCount;
+    @NotNull
+    private final String[] lineComments;
+    private final char escapeChar;
+    private final Deque<SQLScriptElement> parsedElements = new ArrayDeque<>();
+
+    // Text which was read but not parsed yet
+    @NotNull
+    private String pendingText = "";
+    private long charsRead;
+    private boolean endOfStream;
+
+    public SQLScriptStreamParser(@NotNull DBPDataSource dataSource, @NotNull Reader reader) {
+        this(dataSource, reader, DEFAULT_CHUNK_SIZE);
+    }
+
+    public SQLScriptStreamParser(@NotNull DBPDataSource dataSource, @NotNull Reader reader, int chunkSize) {
+        this.reader = reader;
+        this.chunkSize = chunkSize;
+        this.maxPendingLength = (int) Math.min(Integer.MAX_VALUE / 2, (long) chunkSize * MAX_PENDING_CHUNKS);
+        this.readBuffer = new char[Math.min(chunkSize, 64 * 1024)];
+
+        SQLDialect dialect = dataSource.getSQLDialect();
+        List<String[]> quotes = new ArrayList<>(Arrays.asList(dialect.getStringQuoteStrings()));
+        this.stringQuoteCount = quotes.size();
+        String[][] identifierQuotes = dialect.getIdentifierQuoteStrings();
+        if (identifierQuotes != null) {
+            quotes.addAll(Arrays.asList(identifierQuotes));
+        }
+        Pair<String, String> multiLineComments = dialect.getMultiLineComments();
+        if (multiLineComments != null) {
+            quotes.add(new String[]{multiLineComments.getFirst(), multiLineComments.getSecond()});
+        }
+        this.blockQuotes = quotes.toArray(new String[0][]);
+        String[] singleLineComments = dialect.getSingleLineComments();
+        this.lineComments = singleLineComments == null ? new String[0] : singleLineComments;
+        this.escapeChar = dialect.getStringEscapeCharacter();
+
+        SQLSyntaxManager syntaxManager = new SQLSyntaxManager();
+        syntaxManager.init(dataSource.getSQLDialect(), dataSource.getContainer().getPreferenceStore());
+        SQLRuleManager ruleManager = new SQLRuleManager(syntaxManager);
+        ruleManager.loadRules(dataSource, false);
+        this.document = new Document();
+        this.parserContext = new SQLParserContext(dataSource, syntaxManager, ruleManager, document);
+        this.parserContext.startScriptEvaluation();
+    }
+
+    /**
+     * Number of characters read from the stream so far
+     */
+    public long getCharsRead() {
+        return charsRead;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (parsedElements.isEmpty() && !(endOfStream && pendingText.isEmpty())) {
+                parseNextChunk();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return !parsedElements.isEmpty();
+    }
+
+    @Override
+    public SQLScriptElement next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return parsedElements.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parserContext.endScriptEvaluation();
+        parsedElements.clear();
+        pendingText = "";
+        document.set("");
+        reader.close();
+    }
+
+    private void parseNextChunk() throws IOException {
+        if (pendingText.length() >= maxPendingLength) {
+            throw new IOException("SQL statement at position " + (charsRead - pendingText.length()) +
+                " is longer than " + maxPendingLength + " characters");
+        }
+        // Pending text is parsed again with the new text. Read at least the same amount to keep parsing linear.
+        int textLimit = pendingText.length() + Math.max(chunkSize, pendingText.length());
+        StringBuilder text = new StringBuilder(textLimit);
+        text.append(pendingText);
+        while (!endOfStream && text.length() < textLimit) {
+            int count = reader.read(readBuffer, 0, Math.min(readBuffer.length, textLimit - text.length()));
+            if (count < 0) {
+                endOfStream = true;
+            } else {
+                text.append(readBuffer, 0, count);
+                charsRead += count;
+            }
+        }
+        pendingText = text.toString();
+        document.set(pendingText);
+
+        List<SQLScriptElement> elements = new LinkedList<>();
+        SQLScriptParser.parseScriptQueries(parserContext, elements, 0, pendingText.length(), true, false);
+        if (parserContext.getSyntaxManager().getStatementDelimiterMode().useSmart) {
+            SQLScriptParser.expandQueries(parserContext, elements);
+        }
+        elements = new ArrayList<>(elements);
+
+        int parsedLength = pendingText.length();
+        if (!endOfStream) {
+            // The last query may be incomplete
+            int completeCount = elements.size() - 1;
+            if (pendingText.length() < chunkSize * MAX_LOOKAHEAD_CHUNKS) {
+                // Unterminated block isn't recognized by the parser. Queries might be split by delimiters inside it.
+                int blockStart = findUnterminatedBlock(pendingText);
+                if (blockStart >= 0) {
+                    while (completeCount > 0 && getEndOffset(elements.get(completeCount - 1)) > blockStart) {
+                        completeCount--;
+                    }
+                }
+            }
+            // Preceding queries without delimiter may continue in the incomplete one
+            while (completeCount > 0 && elements.get(completeCount - 1) instanceof SQLQuery query
+                && !Boolean.TRUE.equals(query.isEndsWithDelimiter())) {
+                completeCount--;
+            }
+            if (completeCount <= 0) {
+                // Read more text
+                return;
+            }
+            parsedLength = elements.get(completeCount).getOffset();
+            elements = elements.subList(0, completeCount);
+        }
+        for (SQLScriptElement element : elements) {
+            if (element instanceof SQLQuery query) {
+                query.setParameters(SQLScriptParser.parseParametersAndVariables(parserContext, query.getOffset(), query.getLength()));
+            }
+            parsedElements.add(element);
+        }
+        pendingText = pendingText.substring(parsedLength);
+    }
+
+    private static int getEndOffset(@NotNull SQLScriptElement element) {
+        return element.getOffset() + element.getLength();
+    }
+
+    /**
+     * Returns start offset of the string, quoted identifier, comment or dollar quote which isn't terminated
+     * in the text, or -1 if all blocks are terminated.
+     */
+    private int findUnterminatedBlock(@NotNull String text) {
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            String lineComment = findPrefix(text, i, lineComments);
+            if (lineComment != null) {
+                // Line comment ends with the text, delimiters inside it are recognized
+                int end = text.indexOf('\n', i + lineComment.length());
+                if (end < 0) {
+                    return -1;
+                }
+                i = end + 1;
+                continue;
+            }
+            int quoteIndex = findBlockQuote(text, i);
+            if (quoteIndex >= 0) {
+                String[] quote = blockQuotes[quoteIndex];
+                int end = findBlockEnd(text, i + quote[0].length(), quote[1], quoteIndex < stringQuoteCount ? escapeChar : 0);
+                if (end < 0) {
+                    return i;
+                }
+                i = end;
+                continue;
+            }
+            char c = text.charAt(i);
+            if (c == '$' && (i == 0 || !Character.isJavaIdentifierPart(text.charAt(i - 1)))) {
+                Matcher matcher = DOLLAR_QUOTE_PATTERN.matcher(text).region(i, length);
+                if (matcher.lookingAt()) {
+                    String tag = matcher.group();
+                    int end = text.indexOf(tag, matcher.end());
+                    if (end < 0) {
+                        return i;
+                    }
+                    i = end + tag.length();
+                    continue;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private int findBlockQuote(@NotNull String text, int offset) {
+        for (int i = 0; i < blockQuotes.length; i++) {
+            if (text.startsWith(blockQuotes[i][0], offset)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns offset after the block end quote or -1
+     */
+    private static int findBlockEnd(@NotNull String text, int offset, @NotNull String endQuote, char escapeChar) {
+        for (int i = offset; i < text.length(); i++) {
+            if (escapeChar != 0 && text.charAt(i) == escapeChar) {
+                i++;
+            } else if (text.startsWith(endQuote, i)) {
+                return i + endQuote.length();
+            }
+        }
+        return -1;
+    }
+
+    @Nullable
+    private static String findPrefix(@NotNull String text, int offset, @NotNull String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (text.startsWith(prefix, offset)) {
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+}
@@ -62,6 +62,7 @@ import org.jkiss.utils.Pair;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.function.IntFunction;
 
 /**
  * DBUtils
@@ -701,32 +702,65 @@ public final class DBUtils {
         @NotNull Object[] row,
         @Nullable int[] nestedIndexes,
         boolean retrieveDeepestCollectionElement
+    ) {
+        return getAttributeValue(attribute, allAttributes, index -> row[index], row.length, nestedIndexes, retrieveDeepestCollectionElement);
+    }
+
+    /**
+     * Reads attribute value from a row which top-level values are read by index.
+     * Used by row storages which do not keep rows as arrays.
+     */
+    @Nullable
+    public static Object getAttributeValue(
+        @NotNull DBDAttributeBinding attribute,
+        @NotNull DBDAttributeBinding[] allAttributes,
+        @NotNull IntFunction<Object> valueReader,
+        int valueCount,
+        @Nullable int[] nestedIndexes,
+        boolean retrieveDeepestCollectionElement
     ) {
         if (attribute.isCustom()) {
             try {
-                return DBVUtils.executeExpression(((DBDAttributeBindingCustom) attribute).getEntityAttribute(), allAttributes, row);
+                return DBVUtils.executeExpression(
+                    ((DBDAttributeBindingCustom) attribute).getEntityAttribute(),
+                    allAttributes,
+                    attr -> getAttributeValue(attr, allAttributes, valueReader, valueCount, null, false));
             } catch (Exception e) {
                 return new DBDValueError(e);
             }
         }
 
-        final int depth = attribute.getLevel();
         final int index = attribute.getTopParent().getOrdinalPosition();
 
-        if (depth == 0 && attribute != attribute.getTopParent()) {
+        if (attribute.getLevel() == 0 && attribute != attribute.getTopParent()) {
             log.debug("Top-level attribute '" + attribute.getName()
                 + "' has bad top-level parent: '" + attribute.getTopParent().getName() + "'");
             return null;
         }
 
-        if (index >= row.length) {
-            log.debug("Bad attribute '" + attribute.getName() + "' index: " + index + " is out of row values' bounds (" + row.length + ")");
+        if (index >= valueCount) {
+            log.debug("Bad attribute '" + attribute.getName() + "' index: " + index + " is out of row values' bounds (" + valueCount + ")");
             return null;
         }
 
+        return getNestedAttributeValue(attribute, valueReader.apply(index), nestedIndexes, retrieveDeepestCollectionElement);
+    }
+
+    /**
+     * Extracts value of the attribute from the value of its top-level parent.
+     * Custom attributes are not supported, they are evaluated over the whole row.
+     */
+    @Nullable
+    public static Object getNestedAttributeValue(
+        @NotNull DBDAttributeBinding attribute,
+        @Nullable Object topValue,
+        @Nullable int[] nestedIndexes,
+        boolean retrieveDeepestCollectionElement
+    ) {
+        final int depth = attribute.getLevel();
         int remainingIndices = nestedIndexes != null ? nestedIndexes.length : 0;
         int remainingAttributes = depth;
-        Object curValue = row[index];
+        Object curValue = topValue;
 
         while (remainingAttributes > 0 || remainingIndices > 0 || retrieveDeepestCollectionElement) {
             if (curValue == null) {
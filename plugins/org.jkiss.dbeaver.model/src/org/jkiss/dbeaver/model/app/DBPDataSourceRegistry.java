@@ -144,6 +144,13 @@ public interface DBPDataSourceRegistry extends DBPObject, DBPSecretHolder {
     void setAuthProfiles(@NotNull Collection<DBAAuthProfile> profiles);
 
     void flushConfig();
+
+    /**
+     * Saves configuration changes scheduled by {@link #flushConfig()} and waits for the save to finish.
+     * Save errors are reported by {@link #getLastError()}.
+     */
+    void flushConfigAndWait();
+
     void refreshConfig();
 
     /**
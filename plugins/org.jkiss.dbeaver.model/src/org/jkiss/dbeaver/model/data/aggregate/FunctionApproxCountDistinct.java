@@ -0,0 +1,107 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.jkiss.code.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.Temporal;
+import java.util.Date;
+
+/**
+ * Approximate count of distinct values (HyperLogLog).
+ * Uses fixed amount of memory regardless of value count.
+ */
+public class FunctionApproxCountDistinct implements IAggregateFunction {
+
+    private static final long NULL_HASH = 0x9E3779B97F4A7C15L;
+    // Distinguishes hashes of fractional numbers from hashes of integers
+    private static final long DOUBLE_SALT = 0x5DEECE66DL;
+
+    private final HyperLogLogSketch sketch = new HyperLogLogSketch();
+
+    @Override
+    public boolean accumulate(Object value, boolean aggregateAsStrings) {
+        long hash;
+        if (value == null) {
+            hash = NULL_HASH;
+        } else if (value instanceof Number number) {
+            hash = hashNumber(number);
+        } else if (value instanceof CharSequence str) {
+            hash = hashString(str.toString());
+        } else if (value instanceof byte[] bytes) {
+            hash = HyperLogLogSketch.hash(bytes);
+        } else if (value instanceof Date date) {
+            hash = HyperLogLogSketch.hash(date.getTime());
+        } else if (value instanceof Temporal) {
+            hash = hashString(value.toString());
+        } else {
+            hash = HyperLogLogSketch.hash(value.hashCode());
+        }
+        sketch.add(hash);
+        return true;
+    }
+
+    @Override
+    public Object getResult(int valueCount) {
+        // Estimate can't exceed value count
+        return Math.min(sketch.estimate(), valueCount);
+    }
+
+    /**
+     * Equal numbers of different types (e.g. 5, 5L, 5.0 and BigDecimal 5.00) have the same hash
+     */
+    private static long hashNumber(@NotNull Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return HyperLogLogSketch.hash(number.longValue());
+        } else if (number instanceof BigInteger bigInteger) {
+            if (bigInteger.bitLength() < Long.SIZE) {
+                return HyperLogLogSketch.hash(bigInteger.longValue());
+            }
+            return hashString(bigInteger.toString());
+        } else if (number instanceof BigDecimal bigDecimal) {
+            if (bigDecimal.signum() == 0) {
+                return HyperLogLogSketch.hash(0);
+            }
+            bigDecimal = bigDecimal.stripTrailingZeros();
+            if (bigDecimal.scale() <= 0 && bigDecimal.precision() - bigDecimal.scale() < 19) {
+                return HyperLogLogSketch.hash(bigDecimal.longValue());
+            }
+            double doubleValue = bigDecimal.doubleValue();
+            if (!Double.isInfinite(doubleValue) && BigDecimal.valueOf(doubleValue).compareTo(bigDecimal) == 0) {
+                return hashDouble(doubleValue);
+            }
+            return hashString(bigDecimal.toPlainString());
+        }
+        return hashDouble(number.doubleValue());
+    }
+
+    private static long hashDouble(double value) {
+        long longValue = (long) value;
+        if (longValue == value && longValue != Long.MAX_VALUE && longValue != Long.MIN_VALUE) {
+            // Integral value (also makes 0.0 and -0.0 equal)
+            return HyperLogLogSketch.hash(longValue);
+        }
+        return HyperLogLogSketch.hash(Double.doubleToLongBits(value)) ^ DOUBLE_SALT;
+    }
+
+    private static long hashString(@NotNull String value) {
+        return HyperLogLogSketch.hash(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -19,6 +19,7 @@ package org.jkiss.dbeaver.model.data.aggregate;
 import org.jkiss.dbeaver.Log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -28,20 +29,51 @@ public class FunctionMedian implements IAggregateFunction {
 
     private static final Log log = Log.getLog(FunctionMedian.class);
 
-    private final List<Comparable<?>> cache = new ArrayList<>();
+    // Max long value which can be represented as double without precision loss
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    // Numbers are kept as primitive values until the first non-numeric value
+    private double[] numbers = new double[64];
+    private int numberCount;
+    private List<Comparable<?>> cache;
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
         value = FunctionNumeric.getComparable(value, aggregateAsStrings);
-        if (value != null) {
-            cache.add((Comparable<?>) value);
+        if (value == null) {
+            return false;
+        }
+        if (cache == null && isExactDouble(value)) {
+            if (numberCount == numbers.length) {
+                numbers = Arrays.copyOf(numbers, numberCount * 2);
+            }
+            numbers[numberCount++] = ((Number) value).doubleValue();
             return true;
         }
-        return false;
+        if (cache == null) {
+            cache = new ArrayList<>(numberCount + 1);
+            for (int i = 0; i < numberCount; i++) {
+                cache.add(numbers[i]);
+            }
+            numbers = null;
+        }
+        cache.add((Comparable<?>) value);
+        return true;
     }
 
     @Override
     public Object getResult(int valueCount) {
+        if (cache == null) {
+            if (numberCount == 0) {
+                return null;
+            }
+            Arrays.sort(numbers, 0, numberCount);
+            int middle = numberCount / 2;
+            if (numberCount % 2 == 1) {
+                return numbers[middle];
+            }
+            return (numbers[middle - 1] + numbers[middle]) / 2.0;
+        }
         try {
             cache.sort(AggregateUtils::compareValues);
         } catch (Exception e) {
@@ -64,4 +96,17 @@ public class FunctionMedian implements IAggregateFunction {
             return val1;
         }
     }
+
+    private static boolean isExactDouble(Object value) {
+        if (value instanceof Double || value instanceof Float || value instanceof Integer ||
+            value instanceof Short || value instanceof Byte)
+        {
+            return true;
+        }
+        if (value instanceof Long) {
+            long longValue = (Long) value;
+            return longValue <= MAX_EXACT_LONG && longValue >= -MAX_EXACT_LONG;
+        }
+        return false;
+    }
 }
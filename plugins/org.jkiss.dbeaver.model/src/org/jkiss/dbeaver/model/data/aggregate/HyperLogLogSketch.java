@@ -0,0 +1,142 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.jkiss.code.NotNull;
+
+/**
+ * HyperLogLog sketch. Estimates number of distinct values using fixed amount of memory.
+ * Standard error is about 0.8% (16K registers).
+ */
+public final class HyperLogLogSketch {
+
+    private static final int PRECISION = 14;
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+    private static final long MURMUR_C1 = 0x87c37b91114253d5L;
+    private static final long MURMUR_C2 = 0x4cf5ad432745937fL;
+
+    private final byte[] registers = new byte[REGISTER_COUNT];
+
+    /**
+     * Adds value hash. Hash must be uniformly distributed over all 64 bits, see {@link #hash(long)}.
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Position of the first set bit in the remaining bits
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Adds values of another sketch. Result is the same as if all values were added to this sketch.
+     */
+    public void merge(@NotNull HyperLogLogSketch other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeroCount = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeroCount++;
+            }
+        }
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeroCount > 0) {
+            // Small cardinality, use linear counting
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeroCount);
+        }
+        return Math.round(estimate);
+    }
+
+    public static long hash(long value) {
+        // MurmurHash3 finalizer
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Returns the first 64 bits of MurmurHash3 (x64, 128 bit variant, zero seed) of the data
+     */
+    public static long hash(@NotNull byte[] data) {
+        int length = data.length;
+        int blockCount = length / 16;
+        long h1 = 0;
+        long h2 = 0;
+        for (int i = 0; i < blockCount; i++) {
+            h1 ^= mixK1(getLong(data, i * 16));
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(getLong(data, i * 16 + 8));
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        int offset = blockCount * 16;
+        int tailLength = length - offset;
+        if (tailLength > 8) {
+            long k2 = 0;
+            for (int i = tailLength - 1; i >= 8; i--) {
+                k2 ^= (data[offset + i] & 0xffL) << ((i - 8) * 8);
+            }
+            h2 ^= mixK2(k2);
+        }
+        if (tailLength > 0) {
+            long k1 = 0;
+            for (int i = Math.min(tailLength, 8) - 1; i >= 0; i--) {
+                k1 ^= (data[offset + i] & 0xffL) << (i * 8);
+            }
+            h1 ^= mixK1(k1);
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = hash(h1);
+        h2 = hash(h2);
+        return h1 + h2;
+    }
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * MURMUR_C1, 31) * MURMUR_C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * MURMUR_C2, 33) * MURMUR_C1;
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        long result = 0;
+        for (int i = 7; i >= 0; i--) {
+            result = (result << 8) | (data[offset + i] & 0xffL);
+        }
+        return result;
+    }
+
+}
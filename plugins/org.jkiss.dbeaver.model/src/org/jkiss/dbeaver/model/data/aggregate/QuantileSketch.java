@@ -0,0 +1,179 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL quantile sketch of double values.
+ * Keeps O(k log(n/k)) values, rank error is about 1.7% for the default k.
+ */
+public final class QuantileSketch {
+
+    private static final int DEFAULT_K = 200;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    // Compactor of level h keeps values of weight 2^h
+    private double[][] levels = new double[1][];
+    private int[] levelSizes = new int[1];
+    private int retainedCount;
+    private int maxRetainedCount;
+    private long count;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    QuantileSketch(int k) {
+        this.k = k;
+        this.levels[0] = new double[getCapacity(0)];
+        this.maxRetainedCount = getCapacity(0);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        appendValue(0, value);
+        retainedCount++;
+        count++;
+        if (retainedCount >= maxRetainedCount) {
+            compress();
+        }
+    }
+
+    /**
+     * Returns approximate value of the quantile or NaN if sketch is empty
+     */
+    public double getQuantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double[] values = new double[retainedCount];
+        long[] weights = new long[retainedCount];
+        int pos = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < levelSizes[h]; i++) {
+                values[pos] = levels[h][i];
+                weights[pos] = 1L << h;
+                pos++;
+            }
+        }
+        Integer[] order = new Integer[retainedCount];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Double.compare(values[i1], values[i2]));
+
+        long totalWeight = 0;
+        for (long weight : weights) {
+            totalWeight += weight;
+        }
+        double targetWeight = quantile * totalWeight;
+        long cumulativeWeight = 0;
+        for (Integer index : order) {
+            cumulativeWeight += weights[index];
+            if (cumulativeWeight >= targetWeight) {
+                return values[index];
+            }
+        }
+        return values[order[order.length - 1]];
+    }
+
+    /**
+     * Adds values of another sketch. Other sketch is not changed.
+     */
+    public void merge(@NotNull QuantileSketch other) {
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.levelSizes[h]; i++) {
+                appendValue(h, other.levels[h][i]);
+            }
+        }
+        retainedCount += other.retainedCount;
+        count += other.count;
+        while (retainedCount >= maxRetainedCount) {
+            compress();
+        }
+    }
+
+    private int getCapacity(int level) {
+        int height = levels.length - level - 1;
+        return (int) Math.ceil(Math.pow(CAPACITY_DECAY, height) * k) + 1;
+    }
+
+    private void appendValue(int level, double value) {
+        double[] levelValues = levels[level];
+        int size = levelSizes[level];
+        if (size == levelValues.length) {
+            levelValues = levels[level] = Arrays.copyOf(levelValues, Math.max(size * 2, 4));
+        }
+        levelValues[size] = value;
+        levelSizes[level] = size + 1;
+    }
+
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (levelSizes[h] < getCapacity(h)) {
+                continue;
+            }
+            if (h + 1 >= levels.length) {
+                addLevel();
+            }
+            // Sort level and promote every second value to the next level
+            double[] levelValues = levels[h];
+            int size = levelSizes[h];
+            Arrays.sort(levelValues, 0, size);
+            int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+            int pairCount = size / 2;
+            for (int i = 0; i < pairCount; i++) {
+                appendValue(h + 1, levelValues[i * 2 + offset]);
+            }
+            if (size % 2 == 1) {
+                // Odd value stays on the current level
+                levelValues[0] = levelValues[size - 1];
+                levelSizes[h] = 1;
+            } else {
+                levelSizes[h] = 0;
+            }
+            retainedCount -= pairCount;
+            break;
+        }
+    }
+
+    private void addLevel() {
+        int levelCount = levels.length + 1;
+        levels = Arrays.copyOf(levels, levelCount);
+        levels[levelCount - 1] = new double[4];
+        levelSizes = Arrays.copyOf(levelSizes, levelCount);
+        maxRetainedCount = 0;
+        for (int h = 0; h < levelCount; h++) {
+            maxRetainedCount += getCapacity(h);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.exec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+/**
+ * Pool of standby connections.
+ * Keeps opened connections ready so new execution contexts do not wait for connect and authentication.
+ */
+public interface DBCConnectionPool {
+
+    /**
+     * Returns number of standby connections in the pool
+     */
+    int getIdleCount();
+
+    /**
+     * Closes dead and expired standby connections and opens new ones up to the pool size.
+     */
+    void validateConnections(@NotNull DBRProgressMonitor monitor);
+
+}
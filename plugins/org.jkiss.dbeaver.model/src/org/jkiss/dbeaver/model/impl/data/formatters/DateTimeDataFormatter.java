@@ -23,9 +23,11 @@ import org.jkiss.dbeaver.model.struct.DBSTypedObject;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.time.ExtendedDateFormat;
 
+import java.sql.Timestamp;
 import java.text.DateFormat;
 import java.text.FieldPosition;
 import java.text.ParseException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
@@ -36,18 +38,34 @@ import java.time.temporal.TemporalAccessor;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TimeZone;
 
 public class DateTimeDataFormatter implements DBDDataFormatter {
 
     public static final String PROP_PATTERN = "pattern";
     public static final String PROP_TIMEZONE = "timezone";
 
+    // Dates before Gregorian calendar cutover and after year 9999 are formatted differently by java.time
+    private static final long MIN_JAVA_TIME_DATE = -12219292800000L + 24 * 60 * 60 * 1000L;
+    private static final long MAX_JAVA_TIME_DATE = 253402300800000L - 24 * 60 * 60 * 1000L;
+
+    private static final LocalDateTime[] SAMPLE_DATES = {
+        LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6_007_008),
+        LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999_999_999),
+        LocalDateTime.of(2021, 7, 15, 12, 30, 45, 120_000_000),
+        LocalDateTime.of(1970, 1, 1, 0, 0, 0, 0),
+        LocalDateTime.of(2000, 2, 29, 18, 7, 9, 123),
+    };
+
     private String pattern;
     private ZoneId zone;
     private DateFormat dateFormat;
     private StringBuffer buffer;
     private FieldPosition position;
     private DateTimeFormatter dateTimeFormatter;
+    // Formatter of java.util.Date values. Used instead of dateFormat if it gives the same results.
+    private DateTimeFormatter dateFormatter;
+    private TimeZone dateTimeZone;
 
     @Override
     public void init(DBSTypedObject type, Locale locale, Map<String, Object> properties)
@@ -66,6 +84,7 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
         // DateTimeFormatter pattern for nanoseconds is "n" but old "f" (ExtendedDateFormat)
         String java8DatePattern = pattern.replaceAll("f+", "n");
         dateTimeFormatter = DateTimeFormatter.ofPattern(java8DatePattern);
+        dateFormatter = makeDateFormatter(sdfPattern, locale);
     }
 
     @Nullable
@@ -104,6 +123,16 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
             }
             return dateTimeFormatter.format((TemporalAccessor) value);
         }
+        if (value instanceof Date && dateFormatter != null) {
+            long time = ((Date) value).getTime();
+            if (time >= MIN_JAVA_TIME_DATE && time <= MAX_JAVA_TIME_DATE) {
+                Instant instant = value instanceof Timestamp ? ((Timestamp) value).toInstant() : Instant.ofEpochMilli(time);
+                // Old time zone rules may differ from tzdb ones (e.g. local mean time in the 19th century)
+                if (dateFormatter.getZone().getRules().getOffset(instant).getTotalSeconds() * 1000L == dateTimeZone.getOffset(time)) {
+                    return dateFormatter.format(instant);
+                }
+            }
+        }
         synchronized (dateFormat) {
             buffer.setLength(0);
             return value == null ? null : dateFormat.format(value, buffer, position).toString();
@@ -129,7 +158,37 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
                 }
             }
         }
-        return dateFormat.parse(value);
+        synchronized (dateFormat) {
+            return dateFormat.parse(value);
+        }
+    }
+
+    /**
+     * Makes immutable formatter which can be used for java.util.Date values without synchronization.
+     * Pattern letters of SimpleDateFormat and DateTimeFormatter differ a bit, so formatter is used
+     * only if it gives the same results as dateFormat for sample dates.
+     */
+    @Nullable
+    private DateTimeFormatter makeDateFormatter(@NotNull String sdfPattern, Locale locale) {
+        try {
+            dateTimeZone = (TimeZone) dateFormat.getTimeZone().clone();
+            ZoneId dateZone = dateTimeZone.toZoneId();
+            // Fraction of second is "f" in ExtendedDateFormat and "S" in DateTimeFormatter
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(sdfPattern.replace('f', 'S'), locale).withZone(dateZone);
+            for (LocalDateTime sampleDate : SAMPLE_DATES) {
+                Instant instant = sampleDate.atZone(dateZone).toInstant();
+                Timestamp timestamp = Timestamp.from(instant);
+                if (!formatter.format(instant).equals(dateFormat.format(timestamp)) ||
+                    !formatter.format(Instant.ofEpochMilli(instant.toEpochMilli())).equals(dateFormat.format(new Date(instant.toEpochMilli()))))
+                {
+                    return null;
+                }
+            }
+            return formatter;
+        } catch (Exception e) {
+            // Pattern is not supported by DateTimeFormatter
+            return null;
+        }
     }
 
 }
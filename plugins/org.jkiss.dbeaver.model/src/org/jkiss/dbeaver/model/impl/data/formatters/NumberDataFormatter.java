@@ -26,6 +26,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.FieldPosition;
 import java.text.NumberFormat;
 import java.text.ParseException;
@@ -38,11 +39,35 @@ public class NumberDataFormatter implements DBDDataFormatter {
 
     private static final Log log = Log.getLog(NumberDataFormatter.class);
 
+    private static final int MAX_BUFFER_CAPACITY = 1024;
+    private static final ThreadLocal<StringBuilder> FORMAT_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
     private DecimalFormat numberFormat;
     private StringBuffer buffer;
     private FieldPosition position;
     private boolean nativeSpecialValues;
 
+    // Format settings used to format numbers without DecimalFormat (which requires synchronization).
+    // Null if format has features which are not supported by the fast path.
+    private FastFormat fastFormat;
+    private volatile RoundingMode fastRoundingMode;
+
+    private record FastFormat(
+        String positivePrefix,
+        String positiveSuffix,
+        String negativePrefix,
+        String negativeSuffix,
+        char zeroDigit,
+        char groupingSeparator,
+        char decimalSeparator,
+        int groupingSize,
+        int minIntegerDigits,
+        int maxIntegerDigits,
+        int minFractionDigits,
+        int maxFractionDigits
+    ) {
+    }
+
     public NumberDataFormatter() {
     }
 
@@ -116,6 +141,8 @@ public class NumberDataFormatter implements DBDDataFormatter {
         buffer = new StringBuffer();
         position = new FieldPosition(0);
         nativeSpecialValues = CommonUtils.toBoolean(properties.get(NumberFormatSample.PROP_NATIVE_SPECIAL_VALUES));
+        fastFormat = makeFastFormat(numberFormat);
+        fastRoundingMode = numberFormat.getRoundingMode();
     }
 
     @Nullable
@@ -142,6 +169,12 @@ public class NumberDataFormatter implements DBDDataFormatter {
         } else if (!(value instanceof Number)) {
             return value.toString();
         }
+        if (fastFormat != null) {
+            String result = formatFast((Number) value);
+            if (result != null) {
+                return result;
+            }
+        }
         try {
             synchronized (this) {
                 buffer.setLength(0);
@@ -152,6 +185,7 @@ public class NumberDataFormatter implements DBDDataFormatter {
                         // This type can't use UNNECESSARY rounding. Let's set default one
                         log.debug("Disabling UNNECESSARY rounding for numbers (" + e.getMessage() + ")");
                         numberFormat.setRoundingMode(RoundingMode.HALF_EVEN);
+                        fastRoundingMode = RoundingMode.HALF_EVEN;
                     }
                     return numberFormat.format(value, buffer, position).toString();
                 }
@@ -199,4 +233,115 @@ public class NumberDataFormatter implements DBDDataFormatter {
         }
     }
 
+    /**
+     * Formats integers and decimals the same way as DecimalFormat but without synchronization.
+     *
+     * @return formatted value or null if value must be formatted by DecimalFormat
+     */
+    @Nullable
+    private String formatFast(Number value) {
+        final FastFormat format = fastFormat;
+        boolean negative;
+        String digits;
+        int scale;
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            long longValue = value.longValue();
+            if (longValue == Long.MIN_VALUE) {
+                return null;
+            }
+            negative = longValue < 0;
+            digits = Long.toString(Math.abs(longValue));
+            scale = 0;
+        } else {
+            BigDecimal decimal;
+            if (value instanceof BigDecimal) {
+                decimal = (BigDecimal) value;
+            } else if (value instanceof BigInteger) {
+                decimal = new BigDecimal((BigInteger) value);
+            } else {
+                return null;
+            }
+            if (decimal.signum() != 0 && decimal.precision() - decimal.scale() <= -format.maxFractionDigits()) {
+                // All digits are beyond max fraction digits. DecimalFormat doesn't apply rounding mode to such values.
+                return null;
+            }
+            BigDecimal rounded;
+            try {
+                rounded = decimal.setScale(format.maxFractionDigits(), fastRoundingMode);
+            } catch (ArithmeticException e) {
+                return null;
+            }
+            if (rounded.signum() == 0 && decimal.signum() < 0) {
+                // DecimalFormat keeps sign of negative values rounded to zero
+                return null;
+            }
+            rounded = rounded.stripTrailingZeros();
+            if (rounded.scale() < 0) {
+                rounded = rounded.setScale(0);
+            }
+            negative = rounded.signum() < 0;
+            digits = rounded.unscaledValue().abs().toString();
+            scale = rounded.scale();
+        }
+        int intLength = digits.length() - scale;
+        if (intLength > format.maxIntegerDigits()) {
+            // DecimalFormat truncates high order digits
+            return null;
+        }
+
+        StringBuilder out = FORMAT_BUFFER.get();
+        if (out.capacity() > MAX_BUFFER_CAPACITY) {
+            out = new StringBuilder(64);
+            FORMAT_BUFFER.set(out);
+        }
+        out.setLength(0);
+        out.append(negative ? format.negativePrefix() : format.positivePrefix());
+        int intDigits = Math.max(intLength, format.minIntegerDigits());
+        for (int i = 0; i < intDigits; i++) {
+            int digitIndex = i - (intDigits - intLength);
+            appendDigit(out, format, digitIndex < 0 ? '0' : digits.charAt(digitIndex));
+            int remaining = intDigits - i - 1;
+            if (format.groupingSize() > 0 && remaining > 0 && remaining % format.groupingSize() == 0) {
+                out.append(format.groupingSeparator());
+            }
+        }
+        int fractionDigits = Math.max(scale, format.minFractionDigits());
+        if (fractionDigits > 0) {
+            out.append(format.decimalSeparator());
+            for (int i = 0; i < fractionDigits; i++) {
+                int digitIndex = intLength + i;
+                appendDigit(out, format, digitIndex >= 0 && digitIndex < digits.length() ? digits.charAt(digitIndex) : '0');
+            }
+        }
+        out.append(negative ? format.negativeSuffix() : format.positiveSuffix());
+        return out.toString();
+    }
+
+    private static void appendDigit(StringBuilder out, FastFormat format, char digit) {
+        out.append((char) (digit - '0' + format.zeroDigit()));
+    }
+
+    @Nullable
+    private static FastFormat makeFastFormat(DecimalFormat format) {
+        if (format.getMultiplier() != 1 || format.isDecimalSeparatorAlwaysShown() ||
+            format.getMinimumIntegerDigits() < 1 || format.toPattern().indexOf('E') >= 0)
+        {
+            return null;
+        }
+        DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+        return new FastFormat(
+            format.getPositivePrefix(),
+            format.getPositiveSuffix(),
+            format.getNegativePrefix(),
+            format.getNegativeSuffix(),
+            symbols.getZeroDigit(),
+            symbols.getGroupingSeparator(),
+            symbols.getDecimalSeparator(),
+            format.isGroupingUsed() ? format.getGroupingSize() : 0,
+            format.getMinimumIntegerDigits(),
+            format.getMaximumIntegerDigits(),
+            format.getMinimumFractionDigits(),
+            format.getMaximumFractionDigits());
+    }
+
 }
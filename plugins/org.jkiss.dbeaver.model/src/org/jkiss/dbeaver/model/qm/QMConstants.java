@@ -32,8 +32,11 @@ public class QMConstants {
     public static final String PROP_QUERY_TYPES = PROP_PREFIX + "queryTypes";
     public static final String PROP_ENTRIES_PER_PAGE = PROP_PREFIX + "maxEntries";
     public static final String PROP_HISTORY_DAYS = PROP_PREFIX + "historyDays";
+    public static final String PROP_STORE_HISTORY = PROP_PREFIX + "storeHistory";
     public static final String PROP_STORE_LOG_FILE = PROP_PREFIX + "storeLogs";
     public static final String PROP_LOG_DIRECTORY = PROP_PREFIX + "logDirectory";
+    // Max size of the log file (in megabytes). Bigger files are rolled over and compressed.
+    public static final String PROP_LOG_MAX_FILE_SIZE = PROP_PREFIX + "logMaxFileSize";
 
     public static final int EVENT_TYPE_SESSION = 1;
     public static final int EVENT_TYPE_TXN = 2;
@@ -0,0 +1,64 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.struct;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+
+import java.util.List;
+
+/**
+ * Data partitioner.
+ * Splits entity rows into disjoint ranges which can be read concurrently by different connections.
+ * If database supports shared snapshots, all partitions read data of the same snapshot,
+ * otherwise a row updated concurrently may move to another partition.
+ */
+public interface DBSDataPartitioner {
+
+    /**
+     * Splits entity data.
+     * Each returned element is a condition (WHERE clause expression). Conditions do not intersect
+     * and together they cover all entity rows.
+     *
+     * @return list of conditions or empty list if entity can't be partitioned
+     */
+    @NotNull
+    List<String> splitData(@NotNull DBCSession session, @NotNull DBSEntity entity, int partitionCount)
+        throws DBException;
+
+    /**
+     * Exports snapshot of the coordinator session transaction. The transaction must stay open until
+     * all partitions have imported the snapshot.
+     *
+     * @return snapshot id or null if partitions don't need a shared snapshot
+     * @throws DBException if snapshot is required but can't be exported. Data shouldn't be read by partitions then.
+     */
+    @Nullable
+    default String exportSnapshot(@NotNull DBCSession session) throws DBException {
+        return null;
+    }
+
+    /**
+     * Starts partition session transaction with the snapshot exported by {@link #exportSnapshot(DBCSession)}.
+     * Called before any other statement is executed in the transaction.
+     */
+    default void importSnapshot(@NotNull DBCSession session, @NotNull String snapshotId) throws DBException {
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.struct;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+
+import java.util.List;
+
+/**
+ * Full-text searcher.
+ * Makes search conditions which are served by text search indexes (full-text, trigram, etc).
+ */
+public interface DBSFullTextSearcher {
+
+    /**
+     * Makes condition (WHERE clause expression) which finds rows containing the search string.
+     * Only attributes covered by text search indexes are used. These attributes are removed from
+     * the {@code attributes} list, the remaining attributes must be searched by the caller.
+     *
+     * @param attributes string attributes to search in
+     * @return condition or null if none of the attributes is covered by a text search index
+     */
+    @Nullable
+    String makeSearchCondition(
+        @NotNull DBCSession session,
+        @NotNull DBSEntity entity,
+        @NotNull List<DBSEntityAttribute> attributes,
+        @NotNull String searchString,
+        boolean caseSensitive) throws DBException;
+
+}
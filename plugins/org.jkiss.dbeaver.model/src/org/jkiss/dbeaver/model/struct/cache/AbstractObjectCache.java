@@ -25,22 +25,28 @@ import org.jkiss.dbeaver.model.meta.PropertyGroup;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.utils.BeanUtils;
-import org.jkiss.utils.CommonUtils;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Various objects cache
+ * Various objects cache.
+ * <p>
+ * Readers do not lock. Object list is a copy-on-write snapshot which is never modified after publication,
+ * name lookup map is a concurrent map. Modifications are serialized with the cache monitor.
+ * Appends share the backing array of the previous snapshot, so caching objects one by one is not quadratic.
  */
 public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extends DBSObject>
     implements DBSObjectCache<OWNER, OBJECT> {
     private static final Log log = Log.getLog(AbstractObjectCache.class);
 
-    private List<OBJECT> objectList;
-    private Map<String, OBJECT> objectMap;
+    // Published list snapshot. Never modified after assignment - modifications create a new list
+    private volatile List<OBJECT> objectList;
+    // Name lookup map. Built lazily from the current snapshot, modified in place under cacheSync
+    private volatile Map<String, OBJECT> objectMap;
     protected volatile boolean fullCache = false;
     protected volatile boolean caseSensitive = true;
 
@@ -70,9 +76,8 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @NotNull
     @Override
     public List<OBJECT> getCachedObjects() {
-        synchronized (cacheSync) {
-            return objectList == null ? Collections.emptyList() : objectList;
-        }
+        List<OBJECT> list = objectList;
+        return list == null ? Collections.emptyList() : list;
     }
 
     public <SUB_TYPE> List<SUB_TYPE> getTypedObjects(@NotNull DBRProgressMonitor monitor, OWNER owner, Class<SUB_TYPE> type)
@@ -89,30 +94,48 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Nullable
     @Override
     public OBJECT getCachedObject(@Nullable String name) {
-        synchronized (cacheSync) {
-            return objectList == null || name == null ? null : getObjectMap().get(caseSensitive ? name : name.toUpperCase());
+        if (name == null || objectList == null) {
+            return null;
         }
+        return getObjectMap().get(caseSensitive ? name : name.toUpperCase());
     }
 
     public int getCacheSize() {
-        synchronized (cacheSync) {
-            return objectList == null ? 0 : objectList.size();
-        }
+        List<OBJECT> list = objectList;
+        return list == null ? 0 : list.size();
     }
 
     @Override
     public void cacheObject(@NotNull OBJECT object) {
         synchronized (cacheSync) {
-            if (this.objectList == null) {
-                this.objectList = new ArrayList<>();
-            }
             detectCaseSensitivity(object);
-            this.objectList.add(object);
-            if (this.objectMap != null) {
-                String name = getObjectName(object);
-                if (checkDuplicateName(name, object)) {
-                    this.objectMap.put(name, object);
-                }
+            indexCachedObject(object);
+            this.objectList = appendToSnapshot(this.objectList, object);
+        }
+    }
+
+    /**
+     * Adds objects to cache. Objects are published at once, use it instead of {@link #cacheObject} in loaders.
+     */
+    public void cacheObjects(@NotNull Collection<OBJECT> objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
+        synchronized (cacheSync) {
+            detectCaseSensitivity(objects.iterator().next());
+            for (OBJECT object : objects) {
+                indexCachedObject(object);
+            }
+            this.objectList = appendToSnapshot(this.objectList, objects);
+        }
+    }
+
+    private void indexCachedObject(@NotNull OBJECT object) {
+        Map<String, OBJECT> map = this.objectMap;
+        if (map != null) {
+            String name = getObjectName(object);
+            if (name != null && checkDuplicateName(map, name, object)) {
+                map.put(name, object);
             }
         }
     }
@@ -122,10 +145,7 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         synchronized (cacheSync) {
             if (this.objectList != null) {
                 detectCaseSensitivity(object);
-                this.objectList.remove(object);
-                if (this.objectMap != null) {
-                    this.objectMap.remove(getObjectName(object));
-                }
+                removeCachedObject(object);
             }
             if (resetFullCache) {
                 fullCache = false;
@@ -133,16 +153,34 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         }
     }
 
+    private void removeCachedObject(@NotNull OBJECT object) {
+        List<OBJECT> list = this.objectList;
+        int index = list == null ? -1 : list.indexOf(object);
+        if (index >= 0) {
+            List<OBJECT> newList = new ArrayList<>(list);
+            newList.remove(index);
+            this.objectList = newList;
+        }
+        Map<String, OBJECT> map = this.objectMap;
+        if (map != null) {
+            String name = getObjectName(object);
+            if (name != null) {
+                map.remove(name);
+            }
+        }
+    }
+
     @Override
     public void renameObject(@NotNull OBJECT object, @NotNull String oldName, @NotNull String newName) {
         synchronized (cacheSync) {
-            if (this.objectMap != null) {
+            Map<String, OBJECT> map = this.objectMap;
+            if (map != null) {
                 if (!caseSensitive) {
                     oldName = oldName.toUpperCase(Locale.ENGLISH);
                     newName = newName.toUpperCase(Locale.ENGLISH);
                 }
-                if (this.objectMap.remove(oldName) == object) {
-                    this.objectMap.put(newName, object);
+                if (map.remove(oldName) == object) {
+                    map.put(newName, object);
                 }
             }
         }
@@ -156,7 +194,8 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     }
 
     public boolean isEmpty() {
-        return CommonUtils.isEmpty(objectList);
+        List<OBJECT> list = objectList;
+        return list == null || list.isEmpty();
     }
 
     public boolean isFullyCached() {
@@ -176,6 +215,9 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         }
     }
 
+    /**
+     * Replaces cached objects. Cache takes ownership of the list, caller must not modify it after this call.
+     */
     public void setCache(@NotNull List<OBJECT> objects) {
         synchronized (cacheSync) {
             this.objectList = objects;
@@ -206,19 +248,18 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
      */
     protected void mergeCache(List<OBJECT> objects) {
         synchronized (cacheSync) {
-            if (this.objectList != null) {
-                // Merge lists
+            List<OBJECT> oldList = this.objectList;
+            if (oldList != null) {
+                // Merge lists. Index old objects by name to keep merge linear on large schemas
+                Map<String, OBJECT> oldObjects = new HashMap<>(oldList.size());
+                for (OBJECT oldObject : oldList) {
+                    oldObjects.putIfAbsent(oldObject.getName(), oldObject);
+                }
                 objects = new ArrayList<>(objects);
                 for (int i = 0; i < objects.size(); i++) {
-                    OBJECT newObject = objects.get(i);
-                    String newObjectName = newObject.getName();
-                    for (int k = 0; k < objectList.size(); k++) {
-                        OBJECT oldObject = objectList.get(k);
-                        String oldObjectName = oldObject.getName();
-                        if (newObjectName.equals(oldObjectName)) {
-                            objects.set(i, oldObject);
-                            break;
-                        }
+                    OBJECT oldObject = oldObjects.get(objects.get(i).getName());
+                    if (oldObject != null) {
+                        objects.set(i, oldObject);
                     }
                 }
             }
@@ -226,27 +267,38 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         setCache(objects);
     }
 
+    @NotNull
     private Map<String, OBJECT> getObjectMap() {
+        Map<String, OBJECT> map = this.objectMap;
+        if (map != null) {
+            return map;
+        }
         synchronized (cacheSync) {
-            if (this.objectMap == null) {
-                this.objectMap = new HashMap<>();
-                if (objectList.size() > 0) {
-                    detectCaseSensitivity(objectList.get(0));
+            map = this.objectMap;
+            if (map == null) {
+                List<OBJECT> list = this.objectList;
+                if (list == null) {
+                    return Collections.emptyMap();
+                }
+                map = new ConcurrentHashMap<>(Math.max(16, list.size() * 4 / 3 + 1));
+                if (!list.isEmpty()) {
+                    detectCaseSensitivity(list.get(0));
                 }
 
-                for (OBJECT object : objectList) {
+                for (OBJECT object : list) {
                     String name = getObjectName(object);
-                    if (checkDuplicateName(name, object)) {
-                        this.objectMap.put(name, object);
+                    if (name != null && checkDuplicateName(map, name, object)) {
+                        map.put(name, object);
                     }
                 }
+                this.objectMap = map;
             }
-            return this.objectMap;
+            return map;
         }
     }
 
-    private boolean checkDuplicateName(String name, OBJECT object) {
-        if (this.objectMap.containsKey(name)) {
+    private boolean checkDuplicateName(Map<String, OBJECT> map, String name, OBJECT object) {
+        if (map.containsKey(name)) {
             log.debug("Duplicate object name '" + name + "' in cache " + this.getClass().getSimpleName() + ". Last value: " + DBUtils.getObjectFullName(object, DBPEvaluationContext.DDL));
             return isValidDuplicateObject(object);
         }
@@ -277,21 +329,28 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
 
     public void clearChildrenOf(DBSObject parent) {
         synchronized (cacheSync) {
-            if (objectList == null) {
+            List<OBJECT> list = this.objectList;
+            if (list == null) {
                 return;
             }
-            for (int i = 0; i < objectList.size(); ) {
-                OBJECT object = objectList.get(i);
+            List<OBJECT> newList = new ArrayList<>(list.size());
+            Map<String, OBJECT> map = this.objectMap;
+            for (OBJECT object : list) {
                 if (object.getParentObject() == parent) {
-                    this.objectList.remove(object);
-                    if (this.objectMap != null) {
-                        this.objectMap.remove(getObjectName(object));
+                    if (map != null) {
+                        String name = getObjectName(object);
+                        if (name != null) {
+                            map.remove(name);
+                        }
                     }
                     fullCache = false;
                 } else {
-                    i++;
+                    newList.add(object);
                 }
             }
+            if (newList.size() != list.size()) {
+                this.objectList = newList;
+            }
         }
     }
 
@@ -362,8 +421,12 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         }
     }
 
+    /**
+     * Iterates over the current snapshot of cached objects.
+     * Removal removes the object from cache and doesn't affect the iteration.
+     */
     protected class CacheIterator implements Iterator<OBJECT> {
-        private final Iterator<OBJECT> listIterator = objectList.iterator();
+        private final Iterator<OBJECT> listIterator = getCachedObjects().iterator();
         private OBJECT curObject;
 
         public CacheIterator() {
@@ -381,10 +444,99 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
 
         @Override
         public void remove() {
-            listIterator.remove();
-            if (objectMap != null) {
-                objectMap.remove(getObjectName(curObject));
+            if (curObject == null) {
+                throw new IllegalStateException();
+            }
+            synchronized (cacheSync) {
+                removeCachedObject(curObject);
             }
+            curObject = null;
+        }
+    }
+
+    /**
+     * Returns new snapshot which contains all elements of the specified one and the new element.
+     * Specified snapshot is not changed. Must be called under the lock which guards the snapshot owner.
+     */
+    @NotNull
+    protected static <T> List<T> appendToSnapshot(@Nullable List<T> snapshot, @NotNull T element) {
+        return appendToSnapshot(snapshot, Collections.singletonList(element));
+    }
+
+    /**
+     * Returns new snapshot which contains all elements of the specified one and the new elements.
+     */
+    @NotNull
+    protected static <T> List<T> appendToSnapshot(@Nullable List<T> snapshot, @NotNull Collection<? extends T> elements) {
+        if (snapshot instanceof SnapshotList<T> list) {
+            return list.append(elements);
+        }
+        SnapshotList<T> list = new SnapshotList<>(snapshot == null ? Collections.emptyList() : snapshot, elements.size());
+        return list.append(elements);
+    }
+
+    /**
+     * Immutable list which shares its backing array with the previous and next snapshots.
+     * Elements below the snapshot size are never changed, so only the latest snapshot may append in place.
+     */
+    private static final class SnapshotList<T> extends AbstractList<T> implements RandomAccess {
+        private static final int MIN_CAPACITY = 16;
+
+        private final Storage storage;
+        private final int size;
+
+        private static final class Storage {
+            private final Object[] elements;
+            // Number of elements written in the array
+            private int count;
+
+            Storage(int capacity) {
+                this.elements = new Object[capacity];
+            }
+        }
+
+        SnapshotList(@NotNull List<T> source, int extraCapacity) {
+            this.storage = new Storage(Math.max(MIN_CAPACITY, (source.size() + extraCapacity) * 3 / 2));
+            int index = 0;
+            for (T element : source) {
+                storage.elements[index++] = element;
+            }
+            this.storage.count = index;
+            this.size = index;
+        }
+
+        private SnapshotList(@NotNull Storage storage, int size) {
+            this.storage = storage;
+            this.size = size;
+        }
+
+        @NotNull
+        SnapshotList<T> append(@NotNull Collection<? extends T> newElements) {
+            int newSize = size + newElements.size();
+            Storage target = storage;
+            if (target.count != size || newSize > target.elements.length) {
+                // Array is used by another snapshot or it is full
+                target = new Storage(Math.max(MIN_CAPACITY, newSize * 2));
+                System.arraycopy(storage.elements, 0, target.elements, 0, size);
+            }
+            int index = size;
+            for (T element : newElements) {
+                target.elements[index++] = element;
+            }
+            target.count = newSize;
+            return new SnapshotList<>(target, newSize);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            return (T) storage.elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
         }
     }
 
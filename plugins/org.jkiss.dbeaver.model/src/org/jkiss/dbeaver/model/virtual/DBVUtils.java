@@ -46,6 +46,7 @@ import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Virtual model serialize
@@ -407,6 +408,17 @@ public abstract class DBVUtils {
     }
 
     public static Object executeExpression(DBVEntityAttribute attribute, DBDAttributeBinding[] allAttributes, Object[] row) {
+        return executeExpression(attribute, allAttributes, attr -> DBUtils.getAttributeValue(attr, allAttributes, row));
+    }
+
+    /**
+     * Evaluates virtual attribute expression. Values of other attributes are read by valueReader.
+     */
+    public static Object executeExpression(
+        DBVEntityAttribute attribute,
+        DBDAttributeBinding[] allAttributes,
+        Function<DBDAttributeBinding, Object> valueReader
+    ) {
         String exprString = attribute.getExpression();
         if (CommonUtils.isEmpty(exprString)) {
             return null;
@@ -416,10 +428,19 @@ public abstract class DBVUtils {
             return null;
         }
 
-        return evaluateDataExpression(allAttributes, row, expression, attribute.getName());
+        return evaluateDataExpression(allAttributes, valueReader, expression, attribute.getName());
     }
 
     public static Object evaluateDataExpression(DBDAttributeBinding[] allAttributes, Object[] row, JexlExpression expression, String attributeName) {
+        return evaluateDataExpression(allAttributes, attr -> DBUtils.getAttributeValue(attr, allAttributes, row), expression, attributeName);
+    }
+
+    public static Object evaluateDataExpression(
+        DBDAttributeBinding[] allAttributes,
+        Function<DBDAttributeBinding, Object> valueReader,
+        JexlExpression expression,
+        String attributeName
+    ) {
         Map<String, Object> nsList = getExpressionNamespaces();
 
         JexlContext context = new JexlContext() {
@@ -434,7 +455,7 @@ public abstract class DBVUtils {
                 }
                 for (DBDAttributeBinding attr : allAttributes) {
                     if (s.equals(attr.getLabel())) {
-                        return DBUtils.getAttributeValue(attr, allAttributes, row);
+                        return valueReader.apply(attr);
                     }
                 }
                 return null;
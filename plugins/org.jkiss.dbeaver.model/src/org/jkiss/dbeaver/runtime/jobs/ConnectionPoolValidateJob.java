@@ -0,0 +1,66 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.jobs;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCConnectionPool;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Closes dead and unused standby connections of data source instances and opens missing ones
+ */
+class ConnectionPoolValidateJob extends AbstractJob {
+    private static final Log log = Log.getLog(ConnectionPoolValidateJob.class);
+
+    private final DBPDataSource dataSource;
+
+    ConnectionPoolValidateJob(DBPDataSource dataSource) {
+        super("Validate standby connections (" + dataSource.getContainer().getName() + ")");
+        setUser(false);
+        setSystem(true);
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected IStatus run(DBRProgressMonitor monitor) {
+        // Instances may share the same pool
+        Set<DBCConnectionPool> validatedPools = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DBSInstance instance : dataSource.getAvailableInstances()) {
+            DBCConnectionPool connectionPool = DBUtils.getAdapter(DBCConnectionPool.class, instance);
+            if (connectionPool == null || !validatedPools.add(connectionPool)) {
+                continue;
+            }
+            try {
+                connectionPool.validateConnections(monitor);
+            } catch (Exception e) {
+                log.debug("Standby connections [" + dataSource.getName() + "::" + instance.getName() + "] validation failed: " + e.getMessage());
+            }
+        }
+        return Status.OK_STATUS;
+    }
+
+}
@@ -33,6 +33,7 @@ import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.app.DBPWorkspace;
 import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
 import org.jkiss.dbeaver.model.connection.DBPConnectionType;
+import org.jkiss.dbeaver.model.exec.DBCConnectionPool;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
@@ -54,6 +55,7 @@ import java.util.*;
  *
  * Performs connection keep-alive ping.
  * Ends idle transactions.
+ * Validates standby connection pools.
  */
 public class DataSourceMonitorJob extends AbstractJob {
     private static final int MONITOR_INTERVAL = 3000; // once per 3 seconds
@@ -66,10 +68,13 @@ public class DataSourceMonitorJob extends AbstractJob {
     // Disabled because we use different approach - close connections on sleep
     private static final boolean INVALIDATE_AFTER_SLEEP = true;
     private static final long SYSTEM_SUSPEND_INTERVAL = 20000; // 20 seconds of inactivity - most likely a system suspend
+    private static final long POOL_VALIDATE_INTERVAL = 30000; // Standby connections are validated regardless of keep-alive
 
     private final DBPPlatform platform;
     private final Map<String, Long> checkCache = new HashMap<>();
     private final Set<String> pingCache = new HashSet<>();
+    private final Map<String, Long> poolCheckCache = new HashMap<>();
+    private final Set<String> poolValidateCache = new HashSet<>();
     private long lastPingTime = -1;
     private boolean isSleeping = false;
 
@@ -186,6 +191,7 @@ public class DataSourceMonitorJob extends AbstractJob {
         }
 
         final String dsId = dataSourceDescriptor.getId();
+        validateConnectionPools(dataSourceDescriptor);
         synchronized (this) {
             if (pingCache.contains(dsId)) {
                 // Ping is still in progress. Hanged?
@@ -252,6 +258,46 @@ public class DataSourceMonitorJob extends AbstractJob {
         }
     }
 
+    private void validateConnectionPools(@NotNull DBPDataSourceContainer dataSourceDescriptor) {
+        final DBPDataSource dataSource = dataSourceDescriptor.getDataSource();
+        if (dataSource == null) {
+            return;
+        }
+        final String dsId = dataSourceDescriptor.getId();
+        long curTime = System.currentTimeMillis();
+        synchronized (this) {
+            Long lastCheckTime = poolCheckCache.get(dsId);
+            if (poolValidateCache.contains(dsId) || (lastCheckTime != null && curTime - lastCheckTime < POOL_VALIDATE_INTERVAL)) {
+                return;
+            }
+            poolCheckCache.put(dsId, curTime);
+        }
+        boolean hasPools = false;
+        for (DBSInstance instance : dataSource.getAvailableInstances()) {
+            if (DBUtils.getAdapter(DBCConnectionPool.class, instance) != null) {
+                hasPools = true;
+                break;
+            }
+        }
+        if (!hasPools) {
+            return;
+        }
+        final ConnectionPoolValidateJob validateJob = new ConnectionPoolValidateJob(dataSource);
+        validateJob.addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void done(IJobChangeEvent event) {
+                synchronized (DataSourceMonitorJob.this) {
+                    poolCheckCache.put(dsId, System.currentTimeMillis());
+                    poolValidateCache.remove(dsId);
+                }
+            }
+        });
+        synchronized (this) {
+            poolValidateCache.add(dsId);
+        }
+        validateJob.schedule();
+    }
+
     private boolean endIdleTransactionOrConnection(DBPDataSourceContainer dsDescriptor, long lastUserActivityTime) {
         if (!dsDescriptor.isConnected()) {
             return false;
@@ -0,0 +1,129 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer/single-consumer queue of QM events.
+ * <p>
+ * Each slot has a sequence number which says whether the slot is free for producer at the given position
+ * or contains an event published for consumer. Producers claim positions with CAS, the only consumer
+ * (events dispatcher) drains published events in order.
+ * Producers never wait for the consumer: if buffer is full then event is dropped and counted,
+ * so query execution is not blocked even if dispatcher is stuck.
+ */
+final class QMEventRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<QMMetaEvent> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    // Accessed by consumer only
+    private volatile long head;
+
+    QMEventRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds event in the buffer. Returns false if buffer is full.
+     */
+    boolean offer(@NotNull QMMetaEvent event) {
+        long position = tail.get();
+        for (;;) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, event);
+                    // Publish event for consumer
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                // Slot still holds event from the previous lap
+                return false;
+            } else {
+                // Another producer took this position
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Adds event in the buffer. If buffer is full then event is dropped and counted.
+     */
+    void add(@NotNull QMMetaEvent event) {
+        if (!offer(event)) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns number of events dropped since the previous call and resets the counter.
+     */
+    long takeDroppedCount() {
+        return droppedCount.getAndSet(0);
+    }
+
+    /**
+     * Moves all published events to the target collection. Must be called by a single consumer.
+     *
+     * @return number of moved events
+     */
+    int drainTo(@NotNull Collection<QMMetaEvent> target) {
+        long position = head;
+        int count = 0;
+        for (;;) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                // Empty or not published yet
+                break;
+            }
+            target.add(slots.get(index));
+            slots.lazySet(index, null);
+            // Free slot for producers of the next lap
+            sequences.lazySet(index, position + mask + 1);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+}
@@ -0,0 +1,812 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.qm.filters.QMDateRange;
+import org.jkiss.dbeaver.model.qm.filters.QMEventCriteria;
+import org.jkiss.dbeaver.model.qm.filters.QMEventStatus;
+import org.jkiss.dbeaver.model.qm.meta.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Persistent query history.
+ * <p>
+ * Completed statement executions are appended to the data file. Each record has a fixed size entry in the index file
+ * which keeps everything needed for filtering: start and end time, duration, status, purpose, hashes of data source,
+ * driver and project ids and trigram signature of the query text. Index file is memory mapped, so search reads only
+ * records which may match. Entries are ordered by end time, time ranges are resolved with binary search.
+ * Index is mapped by segments of fixed number of entries, so its size is not limited by the size of a single mapping.
+ * <p>
+ * Entry ids are stable: index header keeps id of the first entry, it grows when old entries are purged.
+ */
+public final class QMHistoryStore {
+
+    private static final Log log = Log.getLog(QMHistoryStore.class);
+
+    private static final String DATA_FILE = "queries.dat";
+    private static final String INDEX_FILE = "queries.idx";
+
+    private static final int DATA_MAGIC = 0x514D4844;
+    private static final int INDEX_MAGIC = 0x514D4849;
+    private static final int FORMAT_VERSION = 1;
+    // magic(4) + format version(4) + base offset of data / id of the first entry (8)
+    private static final int HEADER_SIZE = 16;
+
+    // Text signature has 2^10 bits
+    private static final int SIGNATURE_BITS_LOG = 10;
+    private static final int SIGNATURE_LONGS = (1 << SIGNATURE_BITS_LOG) / Long.SIZE;
+
+    private static final int ENTRY_OFFSET = 0;
+    private static final int ENTRY_LENGTH = 8;
+    private static final int ENTRY_FLAGS = 12;
+    // Max end time of this and all previous entries, so it never decreases
+    private static final int ENTRY_TIME = 16;
+    private static final int ENTRY_START = 24;
+    private static final int ENTRY_DURATION = 32;
+    private static final int ENTRY_CONTAINER = 36;
+    private static final int ENTRY_DRIVER = 40;
+    private static final int ENTRY_PROJECT = 44;
+    private static final int ENTRY_SIGNATURE = 48;
+    private static final int ENTRY_SIZE = ENTRY_SIGNATURE + SIGNATURE_LONGS * Long.BYTES;
+
+    // 64K entries (11 MB) in each mapped index segment
+    private static final int SEGMENT_ENTRIES = 1 << 16;
+
+    private static final int FLAG_PURPOSE_MASK = 0xFF;
+    private static final int FLAG_ERROR = 0x100;
+
+    @NotNull
+    private final FileChannel dataChannel;
+    @NotNull
+    private final FileChannel indexChannel;
+    // Logical offset of the first byte of the data file
+    private final long dataBase;
+    private final long firstId;
+    private final int segmentEntries;
+    private long dataEnd;
+    private long entryCount;
+    private long lastTime;
+    // Max difference between entry time and start time. Bounds the search by start time.
+    private long maxStartLag;
+    // Mapped index segments. All segments but the last one are full.
+    private final List<ByteBuffer> indexSegments = new ArrayList<>();
+    private boolean closed;
+
+    private QMHistoryStore(
+        @NotNull FileChannel dataChannel,
+        @NotNull FileChannel indexChannel,
+        long dataBase,
+        long firstId,
+        long entryCount,
+        int segmentEntries
+    ) throws IOException {
+        this.dataChannel = dataChannel;
+        this.indexChannel = indexChannel;
+        this.dataBase = dataBase;
+        this.firstId = firstId;
+        this.entryCount = entryCount;
+        this.segmentEntries = segmentEntries;
+        this.dataEnd = dataBase;
+        if (entryCount > 0) {
+            IndexView index = mapIndex();
+            for (long position = 0; position < entryCount; position++) {
+                maxStartLag = Math.max(maxStartLag, index.getLong(position, ENTRY_TIME) - index.getLong(position, ENTRY_START));
+            }
+            long lastEntry = entryCount - 1;
+            this.dataEnd = index.getLong(lastEntry, ENTRY_OFFSET) + index.getInt(lastEntry, ENTRY_LENGTH);
+            this.lastTime = index.getLong(lastEntry, ENTRY_TIME);
+        }
+    }
+
+    /**
+     * Opens history in the specified folder. Entries older than {@code retainFrom} are purged.
+     */
+    @NotNull
+    public static QMHistoryStore open(@NotNull Path folder, long retainFrom) throws IOException {
+        return open(folder, retainFrom, SEGMENT_ENTRIES);
+    }
+
+    // Constructor for tests
+    @NotNull
+    static QMHistoryStore open(@NotNull Path folder, long retainFrom, int segmentEntries) throws IOException {
+        Files.createDirectories(folder);
+        Path dataFile = folder.resolve(DATA_FILE);
+        Path indexFile = folder.resolve(INDEX_FILE);
+
+        long dataBase = readHeader(dataFile, DATA_MAGIC);
+        long firstId = readHeader(indexFile, INDEX_MAGIC);
+        if (dataBase < 0 || firstId < 0) {
+            dataBase = 0;
+            firstId = 1;
+            writeFile(dataFile, DATA_MAGIC, 0, null, 0, 0);
+            writeFile(indexFile, INDEX_MAGIC, firstId, null, 0, 0);
+        }
+
+        // Validate index against data. Both files might be partially written or purged.
+        long dataSize = dataBase + Files.size(dataFile) - HEADER_SIZE;
+        long entryCount = (Files.size(indexFile) - HEADER_SIZE) / ENTRY_SIZE;
+        long firstValid = 0, purgeTo = 0;
+        try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+            while (entryCount > 0) {
+                readFully(index, entry.clear(), HEADER_SIZE + (entryCount - 1) * ENTRY_SIZE);
+                if (entry.getLong(ENTRY_OFFSET) + entry.getInt(ENTRY_LENGTH) <= dataSize) {
+                    break;
+                }
+                entryCount--;
+            }
+            for (; firstValid < entryCount; firstValid++) {
+                readFully(index, entry.clear(), HEADER_SIZE + firstValid * ENTRY_SIZE);
+                if (entry.getLong(ENTRY_OFFSET) >= dataBase) {
+                    break;
+                }
+            }
+            for (purgeTo = firstValid; purgeTo < entryCount; purgeTo++) {
+                readFully(index, entry.clear(), HEADER_SIZE + purgeTo * ENTRY_SIZE);
+                if (entry.getLong(ENTRY_TIME) >= retainFrom) {
+                    break;
+                }
+            }
+            if (purgeTo > firstValid) {
+                // Purge data first. Index entries which point before the data base are skipped on the next open.
+                long newBase = dataSize;
+                if (purgeTo < entryCount) {
+                    readFully(index, entry.clear(), HEADER_SIZE + purgeTo * ENTRY_SIZE);
+                    newBase = entry.getLong(ENTRY_OFFSET);
+                }
+                try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+                    writeFile(dataFile, DATA_MAGIC, newBase, data, HEADER_SIZE + newBase - dataBase, dataSize - newBase);
+                }
+                dataBase = newBase;
+                firstValid = purgeTo;
+            }
+            if (firstValid > 0) {
+                writeFile(indexFile, INDEX_MAGIC, firstId + firstValid, index,
+                    HEADER_SIZE + firstValid * ENTRY_SIZE, (entryCount - firstValid) * ENTRY_SIZE);
+                firstId += firstValid;
+                entryCount -= firstValid;
+            }
+        }
+
+        FileChannel dataChannel = FileChannel.open(dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel indexChannel = null;
+        try {
+            indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            indexChannel.truncate(HEADER_SIZE + entryCount * ENTRY_SIZE);
+            QMHistoryStore store = new QMHistoryStore(dataChannel, indexChannel, dataBase, firstId, entryCount, segmentEntries);
+            dataChannel.truncate(HEADER_SIZE + store.dataEnd - dataBase);
+            return store;
+        } catch (IOException e) {
+            dataChannel.close();
+            if (indexChannel != null) {
+                indexChannel.close();
+            }
+            throw e;
+        }
+    }
+
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        indexSegments.clear();
+        try {
+            dataChannel.close();
+            indexChannel.close();
+        } catch (IOException e) {
+            log.debug("Error closing query history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends completed statement executions. Other events are ignored.
+     */
+    public synchronized void append(@NotNull List<QMMetaEvent> events) throws IOException {
+        if (closed) {
+            return;
+        }
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(records);
+        ByteBuffer entries = null;
+        long offset = dataEnd;
+        int count = 0;
+        for (QMMetaEvent event : events) {
+            if (event.getAction() != QMEventAction.END || !(event.getObject() instanceof QMMStatementExecuteInfo exec)) {
+                continue;
+            }
+            int recordStart = out.size();
+            writeRecord(out, exec, event.getSessionId());
+            int recordLength = out.size() - recordStart;
+
+            if (entries == null) {
+                entries = ByteBuffer.allocate(events.size() * ENTRY_SIZE);
+            }
+            QMMConnectionInfo connection = exec.getConnection();
+            QMMProjectInfo project = connection.getProjectInfo();
+            DBCExecutionPurpose purpose = exec.getStatement().getPurpose();
+            lastTime = Math.max(lastTime, exec.getCloseTime());
+            maxStartLag = Math.max(maxStartLag, lastTime - exec.getOpenTime());
+            int base = count * ENTRY_SIZE;
+            entries.putLong(base + ENTRY_OFFSET, offset);
+            entries.putInt(base + ENTRY_LENGTH, recordLength);
+            entries.putInt(base + ENTRY_FLAGS,
+                (purpose == null ? FLAG_PURPOSE_MASK : purpose.ordinal()) | (exec.hasError() ? FLAG_ERROR : 0));
+            entries.putLong(base + ENTRY_TIME, lastTime);
+            entries.putLong(base + ENTRY_START, exec.getOpenTime());
+            entries.putInt(base + ENTRY_DURATION, (int) Math.min(Math.max(exec.getDuration(), 0), Integer.MAX_VALUE));
+            entries.putInt(base + ENTRY_CONTAINER, hash(connection.getContainerId()));
+            entries.putInt(base + ENTRY_DRIVER, hash(connection.getDriverId()));
+            entries.putInt(base + ENTRY_PROJECT, hash(project == null ? null : project.getId()));
+            long[] signature = getTextSignature(CommonUtils.notEmpty(exec.getQueryString()).toLowerCase(Locale.ROOT));
+            for (int i = 0; i < SIGNATURE_LONGS; i++) {
+                entries.putLong(base + ENTRY_SIGNATURE + i * Long.BYTES, signature[i]);
+            }
+            offset += recordLength;
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        // Write data first. Entries without data are dropped on open.
+        writeFully(dataChannel, ByteBuffer.wrap(records.toByteArray()), HEADER_SIZE + dataEnd - dataBase);
+        writeFully(indexChannel, entries.limit(count * ENTRY_SIZE), HEADER_SIZE + entryCount * ENTRY_SIZE);
+        dataEnd = offset;
+        entryCount += count;
+    }
+
+    /**
+     * Opens cursor over the history. The most recent entries come first unless criteria says otherwise.
+     * Only statement executions are stored, so cursor is empty if criteria excludes queries.
+     */
+    @NotNull
+    public QMEventCursor openCursor(@NotNull QMEventCriteria criteria, @Nullable QMEventFilter filter) throws DBException {
+        IndexView index;
+        long startLag;
+        synchronized (this) {
+            if (closed) {
+                return new QMUtils.EmptyCursorImpl();
+            }
+            try {
+                index = mapIndex();
+            } catch (IOException e) {
+                throw new DBException("Error reading query history index", e);
+            }
+            startLag = maxStartLag;
+        }
+        if (criteria.hasObjectTypes() && !criteria.hasObjectType(QMObjectType.query)) {
+            return new QMUtils.EmptyCursorImpl();
+        }
+        return new HistoryCursor(index, startLag, criteria, filter);
+    }
+
+    /**
+     * Maps index entries appended after the previous call. Only the last (partial) segment is remapped.
+     */
+    @NotNull
+    private IndexView mapIndex() throws IOException {
+        int segmentCount = (int) ((entryCount + segmentEntries - 1) / segmentEntries);
+        for (int i = Math.max(indexSegments.size() - 1, 0); i < segmentCount; i++) {
+            long firstEntry = (long) i * segmentEntries;
+            int entries = (int) Math.min(segmentEntries, entryCount - firstEntry);
+            if (i < indexSegments.size() && indexSegments.get(i).capacity() == entries * ENTRY_SIZE) {
+                continue;
+            }
+            ByteBuffer segment = indexChannel.map(
+                FileChannel.MapMode.READ_ONLY, HEADER_SIZE + firstEntry * ENTRY_SIZE, (long) entries * ENTRY_SIZE);
+            if (i < indexSegments.size()) {
+                indexSegments.set(i, segment);
+            } else {
+                indexSegments.add(segment);
+            }
+        }
+        ByteBuffer[] segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = indexSegments.get(i).duplicate();
+        }
+        return new IndexView(segments, segmentEntries, entryCount);
+    }
+
+    private void writeRecord(@NotNull DataOutputStream out, @NotNull QMMStatementExecuteInfo exec, @Nullable String sessionId) throws IOException {
+        QMMConnectionInfo connection = exec.getConnection();
+        QMMProjectInfo project = connection.getProjectInfo();
+        DBCExecutionPurpose purpose = exec.getStatement().getPurpose();
+        out.writeLong(exec.getOpenTime());
+        out.writeLong(exec.getCloseTime());
+        writeString(out, purpose == null ? null : purpose.name());
+        writeString(out, exec.getQueryString());
+        out.writeLong(exec.getFetchRowCount() > 0 ? exec.getFetchRowCount() : exec.getUpdateRowCount());
+        out.writeInt(exec.getErrorCode());
+        writeString(out, exec.getErrorMessage());
+        out.writeLong(exec.getFetchBeginTime());
+        out.writeLong(exec.getFetchEndTime());
+        out.writeBoolean(exec.isTransactional());
+        writeString(out, exec.getSchema());
+        writeString(out, exec.getCatalog());
+        writeString(out, connection.getContainerId());
+        writeString(out, connection.getContainerName());
+        writeString(out, connection.getDriverId());
+        writeString(out, connection.getContextName());
+        writeString(out, connection.getInstanceId());
+        writeString(out, connection.getConnectionUserName());
+        writeString(out, connection.getConnectionUrl());
+        writeString(out, project == null ? null : project.getId());
+        writeString(out, project == null ? null : project.getName());
+        writeString(out, project == null ? null : project.getPath());
+        writeString(out, sessionId);
+    }
+
+    @NotNull
+    private QMMetaEvent readRecord(@NotNull ByteBuffer entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.getInt(ENTRY_LENGTH));
+        readFully(dataChannel, buffer, HEADER_SIZE + entry.getLong(ENTRY_OFFSET) - dataBase);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array()));
+        long openTime = in.readLong();
+        long closeTime = in.readLong();
+        String purposeName = readString(in);
+        String queryString = readString(in);
+        long rowCount = in.readLong();
+        int errorCode = in.readInt();
+        String errorMessage = readString(in);
+        long fetchBeginTime = in.readLong();
+        long fetchEndTime = in.readLong();
+        boolean transactional = in.readBoolean();
+        String schema = readString(in);
+        String catalog = readString(in);
+        QMMConnectionInfo.Builder connection = QMMConnectionInfo.builder()
+            .setOpenTime(openTime)
+            .setCloseTime(closeTime)
+            .setContainerId(readString(in))
+            .setContainerName(readString(in))
+            .setDriverId(readString(in))
+            .setContextName(readString(in))
+            .setInstanceId(readString(in))
+            .setConnectionUserName(readString(in))
+            .setConnectionUrl(readString(in));
+        String projectId = readString(in);
+        String projectName = readString(in);
+        String projectPath = readString(in);
+        if (projectId != null) {
+            connection.setProjectInfo(QMMProjectInfo.builder().setId(projectId).setName(projectName).setPath(projectPath).build());
+        }
+        String sessionId = readString(in);
+
+        DBCExecutionPurpose purpose = CommonUtils.valueOf(DBCExecutionPurpose.class, purposeName, DBCExecutionPurpose.USER);
+        QMMStatementInfo statement = new QMMStatementInfo(openTime, closeTime, connection.build(), purpose);
+        QMMStatementExecuteInfo exec = new QMMStatementExecuteInfo(
+            openTime, closeTime, statement, queryString, rowCount, errorCode, errorMessage,
+            fetchBeginTime, fetchEndTime, transactional, schema, catalog);
+        return new QMMetaEvent(exec, QMEventAction.END, sessionId);
+    }
+
+    private static int hash(@Nullable String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+    @NotNull
+    private static Set<Integer> toHashes(@NotNull Set<String> values) {
+        Set<Integer> hashes = new HashSet<>(values.size());
+        for (String value : values) {
+            hashes.add(hash(value));
+        }
+        return hashes;
+    }
+
+    /**
+     * Each trigram of the text sets one bit of the signature (a Bloom filter with a single hash function).
+     * Text can contain a substring only if its signature contains all bits of the substring signature.
+     * Signature is large enough to stay selective for queries up to a few hundred characters,
+     * for longer queries it just lets more records to be read.
+     */
+    @NotNull
+    static long[] getTextSignature(@NotNull String text) {
+        long[] signature = new long[SIGNATURE_LONGS];
+        for (int i = 2; i < text.length(); i++) {
+            int trigram = (text.charAt(i - 2) * 31 + text.charAt(i - 1)) * 31 + text.charAt(i);
+            int bit = (trigram * 0x9E3779B9) >>> (Integer.SIZE - SIGNATURE_BITS_LOG);
+            signature[bit / Long.SIZE] |= 1L << bit;
+        }
+        return signature;
+    }
+
+    private static long readHeader(@NotNull Path file, int magic) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_SIZE) {
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != magic) {
+                log.warn("Bad query history file '" + file + "'. History will be reset.");
+                return -1;
+            }
+            if (in.readInt() != FORMAT_VERSION) {
+                log.info("Query history format has changed. History will be reset.");
+                return -1;
+            }
+            return in.readLong();
+        }
+    }
+
+    /**
+     * Atomically replaces file with header and the part of the source file
+     */
+    private static void writeFile(
+        @NotNull Path file,
+        int magic,
+        long headerValue,
+        @Nullable FileChannel source,
+        long sourcePosition,
+        long sourceLength
+    ) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel target = FileChannel.open(tempFile,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(magic).putInt(FORMAT_VERSION).putLong(headerValue).flip();
+            writeFully(target, header, 0);
+            target.position(HEADER_SIZE);
+            if (source != null) {
+                for (long copied = 0; copied < sourceLength; ) {
+                    long transferred = source.transferTo(sourcePosition + copied, sourceLength - copied, target);
+                    if (transferred <= 0) {
+                        throw new EOFException("Unexpected end of file " + file);
+                    }
+                    copied += transferred;
+                }
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeString(@NotNull DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    @Nullable
+    private static String readString(@NotNull DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of query history");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Date range bound. Either epoch millis or ISO local date/date-time.
+     */
+    private static long parseDateBound(@Nullable String value, long defaultValue, boolean endOfDay) {
+        if (CommonUtils.isEmptyTrimmed(value)) {
+            return defaultValue;
+        }
+        value = value.trim();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // Not a timestamp
+        }
+        try {
+            if (value.length() <= 10) {
+                LocalDate date = LocalDate.parse(value);
+                return (endOfDay ? date.plusDays(1) : date).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            log.debug("Bad query history date '" + value + "'");
+            return defaultValue;
+        }
+    }
+
+    private final class HistoryCursor implements QMEventCursor {
+
+        @NotNull
+        private final IndexView index;
+        @Nullable
+        private final QMEventFilter filter;
+        private final boolean desc;
+        // Range of entry positions (inclusive)
+        private final long firstPosition;
+        private final long lastPosition;
+        // Range of start time (upper bound is exclusive)
+        private final long fromTime;
+        private final long toTime;
+
+        // Entries are filtered by hashes, records are filtered by actual ids
+        @Nullable
+        private final String containerId;
+        private final int containerHash;
+        @Nullable
+        private final Set<String> driverIds;
+        @Nullable
+        private final Set<Integer> driverHashes;
+        @Nullable
+        private final Set<String> projectIds;
+        @Nullable
+        private final Set<Integer> projectHashes;
+        private final long purposeMask;
+        // Null if any status matches
+        @Nullable
+        private final Boolean failed;
+        @Nullable
+        private final String searchString;
+        @Nullable
+        private final long[] searchSignature;
+        private final boolean skipEmptyQueries;
+
+        private long position;
+        @Nullable
+        private QMMetaEventEntity nextEvent;
+        private long totalSize = -1;
+
+        HistoryCursor(@NotNull IndexView index, long startLag, @NotNull QMEventCriteria criteria, @Nullable QMEventFilter filter) {
+            this.index = index;
+            this.filter = filter;
+            this.desc = criteria.isDesc();
+
+            long fromTime = Long.MIN_VALUE, toTime = Long.MAX_VALUE;
+            QMDateRange dateRange = criteria.getStartDateRange();
+            if (dateRange != null) {
+                fromTime = parseDateBound(dateRange.getFrom(), fromTime, false);
+                toTime = parseDateBound(dateRange.getTo(), toTime, true);
+            }
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+            // Entry time is not less than its start time and exceeds it by at most startLag
+            long first = findFirstEntry(fromTime);
+            long last = findFirstEntry(toTime > Long.MAX_VALUE - startLag ? Long.MAX_VALUE : toTime + startLag) - 1;
+            if (criteria.hasLastEventId()) {
+                // Continue after the last fetched event
+                long lastPosition = criteria.getLastEventId() - firstId;
+                if (desc) {
+                    last = Math.min(last, lastPosition - 1);
+                } else {
+                    first = Math.max(first, lastPosition + 1);
+                }
+            }
+            this.firstPosition = first;
+            this.lastPosition = last;
+
+            this.containerId = criteria.getContainerId();
+            this.containerHash = hash(containerId);
+            this.driverIds = criteria.hasDriverIds() ? criteria.getDriverIds() : null;
+            this.driverHashes = driverIds == null ? null : toHashes(driverIds);
+            this.projectIds = criteria.hasProjectIds() ? criteria.getProjectIds() : null;
+            this.projectHashes = projectIds == null ? null : toHashes(projectIds);
+            long purposes = -1;
+            if (criteria.hasQueryTypes()) {
+                purposes = 0;
+                for (DBCExecutionPurpose purpose : criteria.getQueryTypes()) {
+                    purposes |= 1L << purpose.ordinal();
+                }
+            }
+            this.purposeMask = purposes;
+            Set<QMEventStatus> statuses = criteria.getEventStatuses();
+            boolean showFailed = statuses.contains(QMEventStatus.FAILED);
+            this.failed = showFailed == statuses.contains(QMEventStatus.SUCCESS) ? null : showFailed;
+            this.searchString = CommonUtils.isEmpty(criteria.getSearchString()) ? null : criteria.getSearchString().toLowerCase(Locale.ROOT);
+            this.searchSignature = searchString == null ? null : getTextSignature(searchString);
+            this.skipEmptyQueries = criteria.isSkipEmptyQueries();
+            this.position = desc ? lastPosition : firstPosition;
+        }
+
+        @Override
+        public long getTotalSize() {
+            if (totalSize < 0) {
+                // Estimation by index only. Ids are compared by hashes, text search and event filter are not applied.
+                long count = 0;
+                for (long i = firstPosition; i <= lastPosition; i++) {
+                    if (matchesEntry(i)) {
+                        count++;
+                    }
+                }
+                totalSize = count;
+            }
+            return totalSize;
+        }
+
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            this.position = desc ? lastPosition : firstPosition;
+            this.nextEvent = null;
+            for (int i = 0; i < position; i++) {
+                if (!hasNextEvent(monitor)) {
+                    throw new DBException("Position is out of range (" + i + ")");
+                }
+                nextEvent = null;
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            while (nextEvent == null && position >= firstPosition && position <= lastPosition) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                long entryPos = position;
+                position += desc ? -1 : 1;
+                if (!matchesEntry(entryPos)) {
+                    continue;
+                }
+                QMMetaEvent event;
+                try {
+                    event = readRecord(index.getEntry(entryPos));
+                } catch (IOException e) {
+                    throw new DBException("Error reading query history", e);
+                }
+                QMMStatementExecuteInfo exec = (QMMStatementExecuteInfo) event.getObject();
+                if (!matchesConnection(exec.getConnection())) {
+                    continue;
+                }
+                String queryText = CommonUtils.notEmpty(exec.getQueryString());
+                if (skipEmptyQueries && CommonUtils.isEmptyTrimmed(queryText)) {
+                    continue;
+                }
+                if (searchString != null && !queryText.toLowerCase(Locale.ROOT).contains(searchString)) {
+                    continue;
+                }
+                if (filter != null && !filter.accept(event)) {
+                    continue;
+                }
+                nextEvent = new QMMetaEventEntity(event.getObject(), event.getAction(), firstId + entryPos, event.getSessionId(), null);
+            }
+            return nextEvent != null;
+        }
+
+        @Override
+        public QMMetaEventEntity nextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more events in query history");
+            }
+            QMMetaEventEntity event = nextEvent;
+            nextEvent = null;
+            return event;
+        }
+
+        @Override
+        public void close() {
+            nextEvent = null;
+        }
+
+        private boolean matchesEntry(long position) {
+            int flags = index.getInt(position, ENTRY_FLAGS);
+            if ((purposeMask & (1L << (flags & FLAG_PURPOSE_MASK))) == 0) {
+                return false;
+            }
+            if (failed != null && ((flags & FLAG_ERROR) != 0) != failed) {
+                return false;
+            }
+            long startTime = index.getLong(position, ENTRY_START);
+            if (startTime < fromTime || startTime >= toTime) {
+                return false;
+            }
+            if (containerId != null && index.getInt(position, ENTRY_CONTAINER) != containerHash) {
+                return false;
+            }
+            if (driverHashes != null && !driverHashes.contains(index.getInt(position, ENTRY_DRIVER))) {
+                return false;
+            }
+            if (projectHashes != null && !projectHashes.contains(index.getInt(position, ENTRY_PROJECT))) {
+                return false;
+            }
+            if (searchSignature != null) {
+                for (int i = 0; i < SIGNATURE_LONGS; i++) {
+                    long bits = searchSignature[i];
+                    if ((index.getLong(position, ENTRY_SIGNATURE + i * Long.BYTES) & bits) != bits) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean matchesConnection(@NotNull QMMConnectionInfo connection) {
+            if (containerId != null && !containerId.equals(connection.getContainerId())) {
+                return false;
+            }
+            if (driverIds != null && (connection.getDriverId() == null || !driverIds.contains(connection.getDriverId()))) {
+                return false;
+            }
+            QMMProjectInfo project = connection.getProjectInfo();
+            return projectIds == null || (project != null && project.getId() != null && projectIds.contains(project.getId()));
+        }
+
+        /**
+         * Binary search of the first entry with time greater or equal to the specified one
+         */
+        private long findFirstEntry(long time) {
+            long low = 0, high = index.entryCount();
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                if (index.getLong(mid, ENTRY_TIME) < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Index entries snapshot over the mapped segments
+     */
+    private record IndexView(@NotNull ByteBuffer[] segments, int segmentEntries, long entryCount) {
+
+        int getInt(long position, int field) {
+            return segments[(int) (position / segmentEntries)].getInt(getBase(position) + field);
+        }
+
+        long getLong(long position, int field) {
+            return segments[(int) (position / segmentEntries)].getLong(getBase(position) + field);
+        }
+
+        @NotNull
+        ByteBuffer getEntry(long position) {
+            return segments[(int) (position / segmentEntries)].slice(getBase(position), ENTRY_SIZE);
+        }
+
+        private int getBase(long position) {
+            return (int) (position % segmentEntries) * ENTRY_SIZE;
+        }
+    }
+
+}
@@ -30,35 +30,50 @@ import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.Writer;
+import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Query manager log writer
+ * Query manager log writer.
+ * Events are formatted in the QM dispatcher thread and written to the log file by the background writer thread.
+ * If the writer falls behind, only every OVERLOAD_SAMPLE_RATE-th successful statement is logged, and whole batches
+ * are dropped if the queue is full. Number of skipped events is written to the log.
+ * Log file is rolled over daily and when it reaches the max size. Closed segments are compressed.
  */
 public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
 
     private static final Log log = Log.getLog(QMLogFileWriter.class);
     private static final DateTimeFormatter LOG_FILENAME_FORMATTER = DateTimeFormatter
         .ofPattern("'dbeaver_sql_'" + GeneralUtils.DEFAULT_DATE_PATTERN + "'.log'", Locale.ENGLISH);
+    // Rolled segments: dbeaver_sql_<date>.<segment>.log.gz (or .log if compression failed)
+    private static final Pattern SEGMENT_FILENAME_PATTERN = Pattern.compile("(.+)\\.\\d+(\\.log)(?:\\.gz)?");
 
-    private File logFile;
-    private boolean enabled;
+    private static final int MAX_PENDING_BATCHES = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long WRITER_STOP_TIMEOUT = 5000;
+    private static final int OVERLOAD_SAMPLE_RATE = 10;
 
-    private Writer logWriter;
-    private QMEventFilter eventFilter;
+    private volatile LogWriter logWriter;
+    private volatile QMEventFilter eventFilter;
     private final String lineSeparator;
+    // Accessed by the QM dispatcher thread only
+    private long overloadEventCount;
 
     public QMLogFileWriter()
     {
@@ -70,13 +85,15 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
     public void dispose()
     {
         DBWorkbench.getPlatform().getPreferenceStore().removePropertyChangeListener(this);
+        stopLogWriter();
     }
 
     private synchronized void initLogFile()
     {
+        stopLogWriter();
         final DBPPreferenceStore preferences = DBWorkbench.getPlatform().getPreferenceStore();
-        enabled = preferences.getBoolean(QMConstants.PROP_STORE_LOG_FILE);
-        if (enabled) {
+        eventFilter = new DefaultEventFilter();
+        if (preferences.getBoolean(QMConstants.PROP_STORE_LOG_FILE)) {
             final int daysToKeepLogs = preferences.getInt(QMConstants.PROP_HISTORY_DAYS);
             String logFolderPath = preferences.getString(QMConstants.PROP_LOG_DIRECTORY);
             if (CommonUtils.isEmpty(logFolderPath)) {
@@ -94,19 +111,25 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
                     log.error("Can't create log folder '" + logFolderPath + "'");
                 }
             }
-            logFile = new File(logFolder, LOG_FILENAME_FORMATTER.format(LocalDate.now()));
+            long maxFileSize = Math.max(preferences.getInt(QMConstants.PROP_LOG_MAX_FILE_SIZE), 0) * 1024L * 1024L;
+            LogWriter writer = new LogWriter(logFolder, maxFileSize);
             try {
-                logWriter = new FileWriter(logFile, true);
+                writer.openLogFile();
             } catch (IOException e) {
                 log.error("Can't open log writer", e);
+                return;
             }
-        } else {
-            if (logWriter != null) {
-                ContentUtils.close(logWriter);
-                logWriter = null;
-            }
+            writer.start();
+            logWriter = writer;
+        }
+    }
+
+    private synchronized void stopLogWriter() {
+        LogWriter writer = logWriter;
+        if (writer != null) {
+            logWriter = null;
+            writer.shutdown();
         }
-        eventFilter = new DefaultEventFilter();
     }
 
     private static void purgeOldLogs(@NotNull Path logDirectory, int daysToKeep) throws IOException {
@@ -116,8 +139,13 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
         try (Stream<Path> list = Files.list(logDirectory)) {
             list
                 .filter(file -> {
+                    String fileName = file.getFileName().toString();
+                    Matcher matcher = SEGMENT_FILENAME_PATTERN.matcher(fileName);
+                    if (matcher.matches()) {
+                        fileName = matcher.group(1) + matcher.group(2);
+                    }
                     try {
-                        final LocalDate date = LOG_FILENAME_FORMATTER.parse(file.getFileName().toString(), LocalDate::from);
+                        final LocalDate date = LOG_FILENAME_FORMATTER.parse(fileName, LocalDate::from);
                         return judgementDay.isAfter(date);
                     } catch (DateTimeParseException e) {
                         return false;
@@ -134,26 +162,33 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
     }
 
     @Override
-    public synchronized void metaInfoChanged(@NotNull DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
+    public void metaInfoChanged(@NotNull DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
     {
-        if (!enabled || logWriter == null) {
+        LogWriter writer = logWriter;
+        if (writer == null) {
             return;
         }
 
+        // Writer can't keep up. Keep errors, transactions, sessions and a sample of successful statements.
+        boolean overloaded = writer.isOverloaded();
         StringBuilder logBuffer = new StringBuilder(4000);
+        int entryCount = 0;
         for (QMMetaEvent event : events) {
             if (eventFilter.accept(event)) {
-                writeEvent(logBuffer, event);
+                if (overloaded && event.getObject() instanceof QMMStatementExecuteInfo executeInfo &&
+                    event.getAction() == QMEventAction.END && !executeInfo.hasError() &&
+                    overloadEventCount++ % OVERLOAD_SAMPLE_RATE != 0)
+                {
+                    writer.skippedEvents.incrementAndGet();
+                    continue;
+                }
+                if (writeEvent(logBuffer, event)) {
+                    entryCount++;
+                }
             }
         }
-
-        try {
-            logWriter.write(logBuffer.toString());
-            logWriter.flush();
-        } catch (IOException e) {
-            log.warn("IO error writing QM log. Disable log file writer", e);
-            ContentUtils.close(logWriter);
-            logWriter = null;
+        if (entryCount > 0 && !writer.queue.offer(new LogBatch(logBuffer.toString(), entryCount))) {
+            writer.skippedEvents.addAndGet(entryCount);
         }
     }
 
@@ -165,14 +200,14 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
         }
     }
 
-    private void writeEvent(StringBuilder buffer, QMMetaEvent event)
+    private boolean writeEvent(StringBuilder buffer, QMMetaEvent event)
     {
         QMMObject object = event.getObject();
         QMEventAction action = event.getAction();
         // Filter
         if (object instanceof QMMStatementInfo || object instanceof QMMTransactionSavepointInfo ||
             (object instanceof QMMStatementExecuteInfo && action != QMEventAction.END)) {
-            return;
+            return false;
         }
 
         // Entry
@@ -210,6 +245,7 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
         buffer.append(lineSeparator);
 
         buffer.append(lineSeparator);
+        return true;
     }
 
     private void appendEntryInfo(StringBuilder buffer, int severity, long code, long time)
@@ -246,4 +282,170 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
         return buffer;
     }
 
+    private record LogBatch(@NotNull String text, int entryCount) {
+    }
+
+    private class LogWriter extends Thread {
+        private final File logFolder;
+        private final long maxFileSize;
+        private final BlockingQueue<LogBatch> queue = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+        private final AtomicLong skippedEvents = new AtomicLong();
+        private volatile boolean running = true;
+
+        private LocalDate logDate;
+        private File logFile;
+        private Writer fileWriter;
+        private CountingOutputStream fileStream;
+        // Rolled segment couldn't be compressed or renamed. Don't roll by size until the next day.
+        private boolean segmentFailed;
+
+        LogWriter(@NotNull File logFolder, long maxFileSize) {
+            super("QM log writer");
+            setDaemon(true);
+            this.logFolder = logFolder;
+            this.maxFileSize = maxFileSize;
+        }
+
+        boolean isOverloaded() {
+            return queue.remainingCapacity() < MAX_PENDING_BATCHES / 2;
+        }
+
+        void shutdown() {
+            running = false;
+            try {
+                join(WRITER_STOP_TIMEOUT);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        }
+
+        @Override
+        public void run() {
+            List<LogBatch> batches = new ArrayList<>();
+            try {
+                while (running || !queue.isEmpty()) {
+                    LogBatch batch = queue.poll(500, TimeUnit.MILLISECONDS);
+                    if (batch == null) {
+                        continue;
+                    }
+                    batches.add(batch);
+                    queue.drainTo(batches);
+                    writeBatches(batches);
+                    batches.clear();
+                }
+            } catch (InterruptedException e) {
+                // Stop writer
+            } catch (IOException e) {
+                log.warn("IO error writing QM log. Disable log file writer", e);
+                running = false;
+            } finally {
+                if (fileWriter != null) {
+                    ContentUtils.close(fileWriter);
+                    fileWriter = null;
+                }
+                if (logWriter == this) {
+                    logWriter = null;
+                }
+            }
+        }
+
+        private void openLogFile() throws IOException {
+            LocalDate today = LocalDate.now();
+            if (!today.equals(logDate)) {
+                logDate = today;
+                segmentFailed = false;
+            }
+            logFile = new File(logFolder, LOG_FILENAME_FORMATTER.format(logDate));
+            fileStream = new CountingOutputStream(new FileOutputStream(logFile, true), logFile.length());
+            fileWriter = new BufferedWriter(new OutputStreamWriter(fileStream), WRITE_BUFFER_SIZE);
+        }
+
+        private void writeBatches(@NotNull List<LogBatch> batches) throws IOException {
+            if (!LocalDate.now().equals(logDate) || (maxFileSize > 0 && !segmentFailed && fileStream.count >= maxFileSize)) {
+                rollLogFile();
+            }
+            long skipped = skippedEvents.getAndSet(0);
+            if (skipped > 0) {
+                StringBuilder buffer = new StringBuilder();
+                buffer.append("!ENTRY ");
+                appendEntryInfo(buffer, IStatus.WARNING, 0, System.currentTimeMillis());
+                buffer.append("!MESSAGE ").append(skipped).append(" event(s) skipped: log writer overloaded");
+                buffer.append(lineSeparator).append(lineSeparator);
+                write(buffer.toString());
+            }
+            for (LogBatch batch : batches) {
+                write(batch.text());
+            }
+            fileWriter.flush();
+        }
+
+        private void write(@NotNull String text) throws IOException {
+            fileWriter.write(text);
+        }
+
+        private void rollLogFile() throws IOException {
+            ContentUtils.close(fileWriter);
+            fileWriter = null;
+            compressLogFile(logFile);
+            openLogFile();
+        }
+
+        private void compressLogFile(@NotNull File file) {
+            String fileName = file.getName();
+            String baseName = fileName.substring(0, fileName.length() - ".log".length());
+            File segmentFile;
+            File rawSegmentFile;
+            for (int segment = 1; ; segment++) {
+                segmentFile = new File(file.getParentFile(), baseName + "." + segment + ".log.gz");
+                rawSegmentFile = new File(file.getParentFile(), baseName + "." + segment + ".log");
+                if (!segmentFile.exists() && !rawSegmentFile.exists()) {
+                    break;
+                }
+            }
+            try {
+                try (InputStream in = new FileInputStream(file);
+                     OutputStream out = new GZIPOutputStream(new FileOutputStream(segmentFile), WRITE_BUFFER_SIZE)) {
+                    in.transferTo(out);
+                }
+                Files.delete(file.toPath());
+            } catch (IOException e) {
+                log.debug("Error compressing QM log file '" + file + "': " + e.getMessage());
+                if (segmentFile.exists() && !segmentFile.delete()) {
+                    log.debug("Can't delete '" + segmentFile + "'");
+                }
+                // Keep segment uncompressed. Otherwise we'd try to compress it again on each batch.
+                try {
+                    Files.move(file.toPath(), rawSegmentFile.toPath());
+                } catch (IOException e1) {
+                    log.debug("Error renaming QM log file '" + file + "': " + e1.getMessage());
+                    segmentFailed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts bytes actually written to the log file
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(@NotNull OutputStream out, long count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(@NotNull byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
 }
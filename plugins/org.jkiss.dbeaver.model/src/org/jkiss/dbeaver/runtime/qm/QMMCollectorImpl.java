@@ -22,43 +22,58 @@ import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.app.DBPApplication;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCResultSet;
 import org.jkiss.dbeaver.model.exec.DBCSavepoint;
 import org.jkiss.dbeaver.model.exec.DBCStatement;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.qm.*;
 import org.jkiss.dbeaver.model.qm.meta.*;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
-import org.jkiss.utils.LongKeyMap;
+import org.jkiss.dbeaver.utils.GeneralUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Query manager execution handler implementation
+ * Query manager execution handler implementation.
+ * <p>
+ * Handlers are called from all execution threads, so there is no global lock here.
+ * Connection infos are looked up in a concurrent map, state of each connection info is guarded by
+ * the connection info itself. Events are passed to the dispatcher through a lock-free ring buffer.
+ * Dispatcher also saves completed queries in the persistent history.
  */
 public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMCollector {
 
     private static final Log log = Log.getLog(QMMCollectorImpl.class);
 
     private static final int MAX_HISTORY_EVENTS = 10000;
+    private static final int EVENT_BUFFER_SIZE = 1 << 16;
+    private static final String HISTORY_FOLDER = "qm-history";
 
     // Session map
-    private LongKeyMap<QMMConnectionInfo> connectionMap = new LongKeyMap<>();
-    private List<Long> closedConnections = new ArrayList<>();
+    private final Map<Long, QMMConnectionInfo> connectionMap = new ConcurrentHashMap<>();
+    private final Set<Long> closedConnections = ConcurrentHashMap.newKeySet();
 
     // External listeners
     private final List<QMMetaListener> listeners = new ArrayList<>();
 
-    // Temporary event pool
+    // Events fired by execution threads
+    private final QMEventRingBuffer eventBuffer = new QMEventRingBuffer(EVENT_BUFFER_SIZE);
+    // Events obtained from buffer but not dispatched yet. Accessed by dispatcher only
     private List<QMMetaEvent> eventPool = new ArrayList<>();
     // Sync object
     private final Object historySync = new Object();
     // History (may be purged when limit reached)
     private List<QMMetaEvent> pastEvents = new ArrayList<>();
+    // Persistent query history. Opened by dispatcher.
+    private volatile QMHistoryStore historyStore;
+    private boolean historyStoreOpened;
     private boolean running = true;
     private long eventDispatchPeriod = 250;
 
@@ -71,7 +86,7 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         new EventDispatcher().schedule(eventDispatchPeriod);
     }
 
-    public synchronized void dispose() {
+    public void dispose() {
         if (!connectionMap.isEmpty()) {
             List<QMMConnectionInfo> openSessions = new ArrayList<>();
             for (QMMConnectionInfo connection : connectionMap.values()) {
@@ -90,12 +105,55 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
             }
         }
         running = false;
+        QMHistoryStore store = historyStore;
+        if (store != null) {
+            historyStore = null;
+            store.close();
+        }
     }
 
     boolean isRunning() {
         return running;
     }
 
+    /**
+     * Persistent query history or null if it is disabled
+     */
+    QMHistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    private void openHistoryStore() {
+        DBPApplication application = DBWorkbench.getPlatform().getApplication();
+        DBPPreferenceStore preferences = DBWorkbench.getPlatform().getPreferenceStore();
+        if (application.isMultiuser() || application instanceof QMSessionProvider ||
+            !preferences.getBoolean(QMConstants.PROP_STORE_HISTORY)) {
+            // Server applications keep history in their own QM database
+            return;
+        }
+        long retainFrom = System.currentTimeMillis() -
+            TimeUnit.DAYS.toMillis(Math.max(preferences.getInt(QMConstants.PROP_HISTORY_DAYS), 1));
+        try {
+            historyStore = QMHistoryStore.open(GeneralUtils.getMetadataFolder().resolve(HISTORY_FOLDER), retainFrom);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error opening query history. History is disabled.", e);
+        }
+    }
+
+    private void saveHistory(List<QMMetaEvent> events) {
+        QMHistoryStore store = historyStore;
+        if (store == null) {
+            return;
+        }
+        try {
+            store.append(events);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error saving query history. History is disabled.", e);
+            historyStore = null;
+            store.close();
+        }
+    }
+
     @NotNull
     @Override
     public String getHandlerName() {
@@ -128,16 +186,21 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         }
     }
 
-    private synchronized void tryFireMetaEvent(final QMMObject object, final QMEventAction action, DBCExecutionContext context) {
+    private void tryFireMetaEvent(final QMMObject object, final QMEventAction action, DBCExecutionContext context) {
         try {
             String sessionId = QMUtils.getQmSessionId(context);
-            eventPool.add(new QMMetaEvent(object, action, sessionId));
+            eventBuffer.add(new QMMetaEvent(object, action, sessionId));
         } catch (DBException e) {
             log.error("Failed to fire qm meta event", e);
         }
     }
 
-    private synchronized List<QMMetaEvent> obtainEvents() {
+    private List<QMMetaEvent> obtainEvents() {
+        eventBuffer.drainTo(eventPool);
+        long droppedCount = eventBuffer.takeDroppedCount();
+        if (droppedCount > 0) {
+            log.warn(droppedCount + " QM event(s) dropped because events buffer is full");
+        }
         if (eventPool.isEmpty()) {
             return Collections.emptyList();
         }
@@ -163,7 +226,7 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         return events;
     }
 
-    public synchronized QMMConnectionInfo getConnectionInfo(DBCExecutionContext context) {
+    public QMMConnectionInfo getConnectionInfo(DBCExecutionContext context) {
         QMMConnectionInfo connectionInfo = connectionMap.get(context.getContextId());
         if (connectionInfo == null) {
             log.debug("Can't find connectionInfo meta information: " + context.getContextId() + " (" + context.getContextName() + ")");
@@ -178,19 +241,19 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional) {
+    public void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional) {
         final long contextId = context.getContextId();
-        QMMConnectionInfo connection = connectionMap.get(contextId);
-        if (connection == null) {
-            connection = new QMMConnectionInfo(
-                context,
-                transactional);
-            connectionMap.put(contextId, connection);
-        } else {
+        final QMMConnectionInfo connection = connectionMap.compute(contextId, (id, info) -> {
+            if (info == null) {
+                return new QMMConnectionInfo(context, transactional);
+            }
             // This session may already be in cache in case of reconnect/invalidate
             // (when context closed and reopened without new context object creation)
-            connection.reopen(context);
-        }
+            synchronized (info) {
+                info.reopen(context);
+            }
+            return info;
+        });
 
         // Remove from closed sessions (in case of re-opened connection)
         closedConnections.remove(contextId);
@@ -199,20 +262,25 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleContextClose(@NotNull DBCExecutionContext context) {
+    public void handleContextClose(@NotNull DBCExecutionContext context) {
         QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            session.close();
+            synchronized (session) {
+                session.close();
+            }
             tryFireMetaEvent(session, QMEventAction.END, context);
         }
         closedConnections.add(context.getContextId());
     }
 
     @Override
-    public synchronized void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit) {
+    public void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.changeTransactional(!autoCommit);
+            QMMTransactionInfo oldTxn;
+            synchronized (sessionInfo) {
+                oldTxn = sessionInfo.changeTransactional(!autoCommit);
+            }
             if (oldTxn != null) {
                 tryFireMetaEvent(oldTxn, QMEventAction.END, context);
             }
@@ -221,10 +289,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleTransactionCommit(@NotNull DBCExecutionContext context) {
+    public void handleTransactionCommit(@NotNull DBCExecutionContext context) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.commit();
+            QMMTransactionInfo oldTxn;
+            synchronized (sessionInfo) {
+                oldTxn = sessionInfo.commit();
+            }
             if (oldTxn != null) {
                 tryFireMetaEvent(oldTxn, QMEventAction.END, context);
             }
@@ -232,10 +303,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint) {
+    public void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMObject oldTxn = sessionInfo.rollback(savepoint);
+            QMMObject oldTxn;
+            synchronized (sessionInfo) {
+                oldTxn = sessionInfo.rollback(savepoint);
+            }
             if (oldTxn != null) {
                 tryFireMetaEvent(oldTxn, QMEventAction.END, context);
             }
@@ -243,19 +317,25 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleStatementOpen(@NotNull DBCStatement statement) {
+    public void handleStatementOpen(@NotNull DBCStatement statement) {
         QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementInfo stat = session.openStatement(statement);
+            QMMStatementInfo stat;
+            synchronized (session) {
+                stat = session.openStatement(statement);
+            }
             tryFireMetaEvent(stat, QMEventAction.BEGIN, statement.getSession().getExecutionContext());
         }
     }
 
     @Override
-    public synchronized void handleStatementClose(@NotNull DBCStatement statement, long rows) {
+    public void handleStatementClose(@NotNull DBCStatement statement, long rows) {
         QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementInfo stat = session.closeStatement(statement, rows);
+            QMMStatementInfo stat;
+            synchronized (session) {
+                stat = session.closeStatement(statement, rows);
+            }
             if (stat == null) {
                 log.warn("Can't properly handle statement close");
             } else {
@@ -265,10 +345,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleStatementExecuteBegin(@NotNull DBCStatement statement) {
+    public void handleStatementExecuteBegin(@NotNull DBCStatement statement) {
         QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginExecution(statement);
+            QMMStatementExecuteInfo exec;
+            synchronized (session) {
+                exec = session.beginExecution(statement);
+            }
             if (exec != null) {
                 tryFireMetaEvent(exec, QMEventAction.BEGIN, statement.getSession().getExecutionContext());
             }
@@ -276,10 +359,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error) {
+    public void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error) {
         QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endExecution(statement, rows, error);
+            QMMStatementExecuteInfo exec;
+            synchronized (session) {
+                exec = session.endExecution(statement, rows, error);
+            }
             if (exec != null) {
                 tryFireMetaEvent(exec, QMEventAction.END, statement.getSession().getExecutionContext());
             }
@@ -287,10 +373,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleResultSetOpen(@NotNull DBCResultSet resultSet) {
+    public void handleResultSetOpen(@NotNull DBCResultSet resultSet) {
         QMMConnectionInfo session = getConnectionInfo(resultSet.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginFetch(resultSet);
+            QMMStatementExecuteInfo exec;
+            synchronized (session) {
+                exec = session.beginFetch(resultSet);
+            }
             if (exec != null) {
                 tryFireMetaEvent(exec, QMEventAction.UPDATE, resultSet.getSession().getExecutionContext());
             }
@@ -298,10 +387,13 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount) {
+    public void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount) {
         QMMConnectionInfo session = getConnectionInfo(resultSet.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endFetch(resultSet, rowCount);
+            QMMStatementExecuteInfo exec;
+            synchronized (session) {
+                exec = session.endFetch(resultSet, rowCount);
+            }
             if (exec != null) {
                 tryFireMetaEvent(exec, QMEventAction.UPDATE, resultSet.getSession().getExecutionContext());
             }
@@ -318,48 +410,53 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
 
         @Override
         protected IStatus run(DBRProgressMonitor monitor) {
-            final List<QMMetaEvent> events;
-            List<Long> sessionsToClose;
-            synchronized (QMMCollectorImpl.this) {
-                events = obtainEvents();
-                sessionsToClose = closedConnections;
-                closedConnections.clear();
-            }
-            if (!events.isEmpty()) {
-                final List<QMMetaListener> listeners = getListeners();
-                if (!listeners.isEmpty() && !events.isEmpty()) {
-                    // Dispatch all events
-                    for (QMMetaListener listener : listeners) {
-                        try {
-                            listener.metaInfoChanged(monitor, events);
-                        } catch (Throwable e) {
-                            log.error("Error notifying event listener", e);
+            try {
+                if (!historyStoreOpened && isRunning()) {
+                    historyStoreOpened = true;
+                    openHistoryStore();
+                }
+                final List<QMMetaEvent> events = obtainEvents();
+                final List<Long> sessionsToClose = new ArrayList<>(closedConnections);
+                closedConnections.removeAll(sessionsToClose);
+                if (!events.isEmpty()) {
+                    final List<QMMetaListener> listeners = getListeners();
+                    if (!listeners.isEmpty() && !events.isEmpty()) {
+                        // Dispatch all events
+                        for (QMMetaListener listener : listeners) {
+                            try {
+                                listener.metaInfoChanged(monitor, events);
+                            } catch (Throwable e) {
+                                log.error("Error notifying event listener", e);
+                            }
                         }
                     }
-                }
-                synchronized (historySync) {
-                    pastEvents.addAll(events);
-                    int size = pastEvents.size();
-                    if (size > MAX_HISTORY_EVENTS) {
-                        pastEvents = new ArrayList<>(pastEvents.subList(
-                            size - MAX_HISTORY_EVENTS,
-                            size));
+                    saveHistory(events);
+                    synchronized (historySync) {
+                        pastEvents.addAll(events);
+                        int size = pastEvents.size();
+                        if (size > MAX_HISTORY_EVENTS) {
+                            pastEvents = new ArrayList<>(pastEvents.subList(
+                                size - MAX_HISTORY_EVENTS,
+                                size));
+                        }
                     }
                 }
-            }
-            // Cleanup closed sessions
-            synchronized (QMMCollectorImpl.this) {
+                // Cleanup closed sessions
                 for (Long sessionId : sessionsToClose) {
-                    final QMMConnectionInfo session = connectionMap.get(sessionId);
-                    if (session != null && !session.isClosed()) {
-                        // It is possible (rarely) that session was reopened before event dispatcher run
-                        // In that case just ignore it
-                        connectionMap.remove(sessionId);
-                    }
+                    // It is possible (rarely) that session was reopened before event dispatcher run
+                    // In that case just ignore it
+                    connectionMap.computeIfPresent(sessionId, (id, session) -> {
+                        synchronized (session) {
+                            return session.isClosed() ? null : session;
+                        }
+                    });
+                }
+            } catch (Throwable e) {
+                log.error("Error dispatching QM events", e);
+            } finally {
+                if (isRunning()) {
+                    this.schedule(eventDispatchPeriod);
                 }
-            }
-            if (isRunning()) {
-                this.schedule(eventDispatchPeriod);
             }
             return Status.OK_STATUS;
         }
@@ -21,7 +21,9 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.qm.*;
 import org.jkiss.dbeaver.model.qm.filters.QMCursorFilter;
+import org.jkiss.dbeaver.model.qm.filters.QMEventCriteria;
 import org.jkiss.dbeaver.model.qm.meta.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
@@ -94,8 +96,8 @@ public class QMRegistryImpl implements QMRegistry {
         if (eventBrowser == null) {
             eventBrowser = GeneralUtils.adapt(this, QMEventBrowser.class);
             if (eventBrowser == null) {
-                // Default browser
-                this.eventBrowser = defaultEventBrowser;
+                // Persistent history, falls back to the default browser if history is disabled
+                this.eventBrowser = new HistoryEventBrowser();
             }
         }
 
@@ -178,6 +180,10 @@ public class QMRegistryImpl implements QMRegistry {
             @NotNull QMCursorFilter cursorFilter)
             throws DBException
         {
+            return new QMUtils.ListCursorImpl(getPastEvents(cursorFilter));
+        }
+
+        List<QMMetaEvent> getPastEvents(@NotNull QMCursorFilter cursorFilter) {
             List<QMMetaEvent> pastEvents = metaHandler.getPastEvents();
             Collections.reverse(pastEvents);
             var criteria = cursorFilter.getCriteria();
@@ -212,7 +218,7 @@ public class QMRegistryImpl implements QMRegistry {
                 }
             }
             if (CommonUtils.isEmpty(criteria.getSearchString())) {
-                return new QMUtils.ListCursorImpl(pastEvents);
+                return pastEvents;
             } else {
                 String searchString = criteria.getSearchString().toLowerCase();
                 List<QMMetaEvent> filtered = new ArrayList<>();
@@ -223,7 +229,7 @@ public class QMRegistryImpl implements QMRegistry {
                         filtered.add(event);
                     }
                 }
-                return new QMUtils.ListCursorImpl(filtered);
+                return filtered;
             }
         }
 
@@ -236,4 +242,100 @@ public class QMRegistryImpl implements QMRegistry {
                 return ArrayUtils.contains(objectTypes, QMObjectType.query);
         }
     }
+
+    /**
+     * Reads queries from the persistent history. Sessions and transactions are not persisted,
+     * they are taken from the current session history.
+     */
+    private class HistoryEventBrowser implements QMEventBrowser {
+        @NotNull
+        @Override
+        public QMEventCursor getQueryHistoryCursor(@NotNull QMCursorFilter cursorFilter) throws DBException {
+            QMMCollectorImpl collector = metaHandler;
+            QMHistoryStore historyStore = collector == null ? null : collector.getHistoryStore();
+            if (historyStore == null) {
+                return defaultEventBrowser.getQueryHistoryCursor(cursorFilter);
+            }
+            QMEventCriteria criteria = cursorFilter.getCriteria();
+            QMEventCursor queryCursor = historyStore.openCursor(criteria, cursorFilter.getFilter());
+            if (criteria.hasLastEventId() ||
+                (criteria.hasObjectTypes() && !criteria.hasObjectType(QMObjectType.session) && !criteria.hasObjectType(QMObjectType.txn)))
+            {
+                return queryCursor;
+            }
+            List<QMMetaEvent> sessionEvents = defaultEventBrowser.getPastEvents(cursorFilter);
+            sessionEvents.removeIf(event ->
+                event.getObject() instanceof QMMStatementInfo || event.getObject() instanceof QMMStatementExecuteInfo);
+            if (!criteria.isDesc()) {
+                Collections.reverse(sessionEvents);
+            }
+            return new HistoryCursor(queryCursor, sessionEvents, criteria.isDesc());
+        }
+    }
+
+    /**
+     * Merges queries cursor with the list of other events by event time
+     */
+    private static class HistoryCursor implements QMEventCursor {
+        private final QMEventCursor queryCursor;
+        private final List<QMMetaEvent> sessionEvents;
+        private final boolean desc;
+        private int sessionPosition;
+        private QMMetaEventEntity nextQuery;
+
+        HistoryCursor(QMEventCursor queryCursor, List<QMMetaEvent> sessionEvents, boolean desc) {
+            this.queryCursor = queryCursor;
+            this.sessionEvents = sessionEvents;
+            this.desc = desc;
+        }
+
+        @Override
+        public long getTotalSize() {
+            return queryCursor.getTotalSize() + sessionEvents.size();
+        }
+
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            queryCursor.scroll(0, monitor);
+            sessionPosition = 0;
+            nextQuery = null;
+            for (int i = 0; i < position; i++) {
+                nextEvent(monitor);
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (nextQuery == null && queryCursor.hasNextEvent(monitor)) {
+                nextQuery = queryCursor.nextEvent(monitor);
+            }
+            return nextQuery != null || sessionPosition < sessionEvents.size();
+        }
+
+        @Override
+        public QMMetaEventEntity nextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more events");
+            }
+            if (sessionPosition < sessionEvents.size()) {
+                QMMetaEvent event = sessionEvents.get(sessionPosition);
+                if (nextQuery == null || (getEventTime(event.getObject()) > getEventTime(nextQuery.getObject())) == desc) {
+                    sessionPosition++;
+                    return new QMMetaEventEntity(event.getObject(), event.getAction(), -sessionPosition, event.getSessionId(), null);
+                }
+            }
+            QMMetaEventEntity query = nextQuery;
+            nextQuery = null;
+            return query;
+        }
+
+        @Override
+        public void close() {
+            queryCursor.close();
+        }
+
+        private static long getEventTime(QMMObject object) {
+            return object.isClosed() ? object.getCloseTime() : object.getOpenTime();
+        }
+    }
 }
@@ -17,12 +17,12 @@
 package org.jkiss.dbeaver.model.net.ssh;
 
 import net.schmizz.sshj.SSHClient;
-import net.schmizz.sshj.connection.channel.direct.LocalPortForwarder;
-import net.schmizz.sshj.connection.channel.direct.Parameters;
+import net.schmizz.sshj.connection.channel.direct.DirectConnection;
 import net.schmizz.sshj.sftp.SFTPClient;
 import net.schmizz.sshj.xfer.InMemoryDestFile;
 import net.schmizz.sshj.xfer.InMemorySourceFile;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
@@ -33,17 +33,13 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.InetAddress;
-import java.net.ServerSocket;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
 
 public class SSHJSession extends AbstractSession {
     private static final Log log = Log.getLog(SSHJSession.class);
 
-    private final Map<SSHPortForwardConfiguration, LocalPortListener> listeners = new ConcurrentHashMap<>();
+    private final Map<SSHPortForwardConfiguration, SSHPortForwarder.Tunnel> tunnels = new ConcurrentHashMap<>();
     private final SSHJSessionController controller;
 
     private SSHClient client;
@@ -67,8 +63,10 @@ public class SSHJSession extends AbstractSession {
         @NotNull DBWHandlerConfiguration configuration,
         long timeout
     ) throws DBException {
-        // Listeners will be closed by the client itself
-        listeners.clear();
+        for (SSHPortForwarder.Tunnel tunnel : tunnels.values()) {
+            tunnel.close();
+        }
+        tunnels.clear();
 
         try {
             // FIXME: timeout is not used
@@ -82,10 +80,10 @@ public class SSHJSession extends AbstractSession {
     @Override
     public SSHPortForwardConfiguration setupPortForward(@NotNull SSHPortForwardConfiguration config) throws DBException {
         try {
-            final LocalPortListener listener = LocalPortListener.setup(client, config);
-            final SSHPortForwardConfiguration resolved = Objects.requireNonNull(listener.resolved);
+            final SSHPortForwarder.Tunnel tunnel = SSHPortForwarder.getInstance().openTunnel(config, DirectChannel::new);
+            final SSHPortForwardConfiguration resolved = tunnel.getResolved();
 
-            listeners.put(resolved, listener);
+            tunnels.put(resolved, tunnel);
 
             return resolved;
         } catch (Exception e) {
@@ -95,11 +93,18 @@ public class SSHJSession extends AbstractSession {
 
     @Override
     public void removePortForward(@NotNull SSHPortForwardConfiguration configuration) throws DBException {
-        final LocalPortListener listener = listeners.remove(configuration);
-        if (listener == null) {
+        final SSHPortForwarder.Tunnel tunnel = tunnels.remove(configuration);
+        if (tunnel == null) {
             throw new DBException("No such port forward configuration: " + configuration);
         }
-        listener.disconnect();
+        tunnel.close();
+    }
+
+    @Nullable
+    @Override
+    public SSHPortForwarder.Statistics getPortForwardStatistics(@NotNull SSHPortForwardConfiguration configuration) {
+        final SSHPortForwarder.Tunnel tunnel = tunnels.get(configuration);
+        return tunnel == null ? null : tunnel.getStatistics();
     }
 
     @Override
@@ -173,66 +178,33 @@ public class SSHJSession extends AbstractSession {
         return sftpClient;
     }
 
-    private static class LocalPortListener extends Thread {
-        private final SSHClient client;
-        private final SSHPortForwardConfiguration config;
-        private final CountDownLatch started = new CountDownLatch(1);
+    private class DirectChannel implements SSHPortForwarder.RemoteChannel {
+        private final DirectConnection connection;
 
-        private volatile LocalPortForwarder forwarder;
-        private volatile SSHPortForwardConfiguration resolved;
-
-        public LocalPortListener(@NotNull SSHClient client, @NotNull SSHPortForwardConfiguration config) {
-            this.client = client;
-            this.config = config;
+        DirectChannel(@NotNull String remoteHost, int remotePort) throws IOException {
+            this.connection = client.newDirectConnection(remoteHost, remotePort);
         }
 
         @NotNull
-        public static LocalPortListener setup(
-            @NotNull SSHClient client,
-            @NotNull SSHPortForwardConfiguration config
-        ) throws InterruptedException {
-            final LocalPortListener listener = new LocalPortListener(client, config);
-
-            listener.start();
-            listener.await();
-
-            return listener;
+        @Override
+        public InputStream getInputStream() {
+            return connection.getInputStream();
         }
 
+        @NotNull
         @Override
-        public void run() {
-            try {
-                final ServerSocket socket = new ServerSocket(config.localPort(), 0, InetAddress.getByName(config.localHost()));
-                final Parameters parameters = new Parameters(config.localHost(), socket.getLocalPort(), config.remoteHost(), config.remotePort());
-
-                forwarder = client.newLocalPortForwarder(parameters, socket);
-                resolved = new SSHPortForwardConfiguration(config.localHost(), socket.getLocalPort(), config.remoteHost(), config.remotePort());
-
-                setName("Port forwarder listener (" + resolved + ")");
-
-                started.countDown();
-                forwarder.listen();
-            } catch (IOException e) {
-                log.error("Error while listening on the port forwarder", e);
-            }
+        public OutputStream getOutputStream() {
+            return connection.getOutputStream();
         }
 
-        public void disconnect() {
-            try {
-                forwarder.close();
-                forwarder = null;
-            } catch (Exception e) {
-                log.error("Error while stopping port forwarding", e);
-            }
+        @Override
+        public long getWritableBytes() {
+            return connection.getRemoteWinSize();
         }
 
-        private void await() throws InterruptedException {
-            started.await();
-
-            while (!forwarder.isRunning()) {
-                // Wait for the forwarder to actually start
-                Thread.yield();
-            }
+        @Override
+        public void close() throws IOException {
+            connection.close();
         }
     }
 }
@@ -29,6 +29,7 @@ import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHHostConfiguration;
 import org.jkiss.dbeaver.model.net.ssh.config.SSHPortForwardConfiguration;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.utils.ByteNumberFormat;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -381,10 +382,15 @@ public abstract class AbstractSessionController<T extends AbstractSession> imple
     }
 
     protected static class ShareableSession<T extends AbstractSession> extends DelegateSession {
-        protected record PortForwardInfo(@NotNull SSHPortForwardConfiguration resolved, @NotNull AtomicInteger usages) {
+        protected record PortForwardInfo(
+            @NotNull SSHPortForwardConfiguration requested,
+            @NotNull SSHPortForwardConfiguration resolved,
+            @NotNull AtomicInteger usages
+        ) {
         }
 
         protected final Map<DBPDataSourceContainer, AtomicInteger> dataSources = new HashMap<>();
+        // Port forwards by requested configuration. Requests with auto-assigned (0) local port share the same listener.
         protected final Map<SSHPortForwardConfiguration, PortForwardInfo> portForwards = new HashMap<>();
         protected final AbstractSessionController<T> controller;
         protected final T session;
@@ -408,12 +414,35 @@ public abstract class AbstractSessionController<T extends AbstractSession> imple
         }
 
         @Property(viewable = true, order = 3, name = "Port Forwards")
-        public String getPortForwardingInfo() {
+        public synchronized String getPortForwardingInfo() {
             return portForwards.values().stream()
                 .map(info -> "%s (%d)".formatted(info.resolved.toDisplayString(), info.usages.get()))
                 .collect(Collectors.joining(", "));
         }
 
+        @Property(viewable = true, order = 4, name = "Traffic")
+        public synchronized String getTrafficInfo() {
+            final ByteNumberFormat format = new ByteNumberFormat();
+            final StringBuilder info = new StringBuilder();
+            for (PortForwardInfo portForward : portForwards.values()) {
+                final SSHPortForwarder.Statistics statistics = session.getPortForwardStatistics(portForward.resolved);
+                if (statistics == null) {
+                    continue;
+                }
+                if (!info.isEmpty()) {
+                    info.append(", ");
+                }
+                info.append("%d: %d conn, sent %s (%s/s), received %s (%s/s)".formatted(
+                    portForward.resolved.localPort(),
+                    statistics.activeConnections(),
+                    format.format(statistics.bytesSent()),
+                    format.format(statistics.sendRate()),
+                    format.format(statistics.bytesReceived()),
+                    format.format(statistics.receiveRate())));
+            }
+            return info.toString();
+        }
+
         @Override
         public synchronized void connect(
             @NotNull DBRProgressMonitor monitor,
@@ -455,30 +484,44 @@ public abstract class AbstractSessionController<T extends AbstractSession> imple
         @NotNull
         @Override
         public synchronized SSHPortForwardConfiguration setupPortForward(@NotNull SSHPortForwardConfiguration configuration) throws DBException {
-            final PortForwardInfo info = portForwards.get(configuration);
+            PortForwardInfo info = portForwards.get(configuration);
+            if (info == null) {
+                // Resolved configuration of an existing port forward
+                info = findPortForward(configuration);
+            }
             if (info != null) {
                 log.debug("SSHSessionController: Reusing port forward " + configuration);
                 info.usages.incrementAndGet();
                 return info.resolved;
             } else {
                 final SSHPortForwardConfiguration resolved = super.setupPortForward(configuration);
-                portForwards.put(resolved, new PortForwardInfo(resolved, new AtomicInteger(1)));
+                portForwards.put(configuration, new PortForwardInfo(configuration, resolved, new AtomicInteger(1)));
                 return resolved;
             }
         }
 
         @Override
-        public void removePortForward(@NotNull SSHPortForwardConfiguration configuration) throws DBException {
-            final PortForwardInfo info = portForwards.get(configuration);
+        public synchronized void removePortForward(@NotNull SSHPortForwardConfiguration configuration) throws DBException {
+            final PortForwardInfo info = findPortForward(configuration);
             if (info == null) {
                 throw new DBException("Port forward is not set up: " + configuration);
             }
             if (info.usages.decrementAndGet() == 0) {
                 super.removePortForward(info.resolved);
-                portForwards.remove(configuration);
+                portForwards.remove(info.requested);
             }
         }
 
+        @Nullable
+        private PortForwardInfo findPortForward(@NotNull SSHPortForwardConfiguration resolved) {
+            for (PortForwardInfo info : portForwards.values()) {
+                if (info.resolved.equals(resolved)) {
+                    return info;
+                }
+            }
+            return null;
+        }
+
         @NotNull
         @Override
         protected T getSession() {
@@ -550,6 +593,12 @@ public abstract class AbstractSessionController<T extends AbstractSession> imple
             getSession().putFile(src, dst, monitor);
         }
 
+        @Nullable
+        @Override
+        public SSHPortForwarder.Statistics getPortForwardStatistics(@NotNull SSHPortForwardConfiguration configuration) {
+            return getSession().getPortForwardStatistics(configuration);
+        }
+
         @NotNull
         @Override
         public String getClientVersion() {
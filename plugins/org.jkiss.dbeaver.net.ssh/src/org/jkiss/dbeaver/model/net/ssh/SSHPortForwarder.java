@@ -0,0 +1,430 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.net.ssh;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.net.ssh.config.SSHPortForwardConfiguration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local port forwarder.
+ * <p>
+ * Listeners of all tunnels and reads from local sockets are served by a single selector thread.
+ * Data received from SSH channels is written to local sockets by one pump thread per forwarded connection.
+ * Local socket is not read while SSH channel window is exhausted, so a slow channel never blocks other tunnels.
+ */
+public final class SSHPortForwarder {
+
+    private static final Log log = Log.getLog(SSHPortForwarder.class);
+
+    private static final int LOCAL_BUFFER_SIZE = 256 * 1024;
+    private static final int REMOTE_BUFFER_SIZE = 64 * 1024;
+    // Delay before reading local sockets of connections which SSH channel windows were exhausted
+    private static final long STALLED_CONNECTIONS_CHECK_PERIOD = 5;
+    private static final long THROUGHPUT_SAMPLE_PERIOD = 1000;
+
+    private static SSHPortForwarder instance;
+
+    /**
+     * Opens SSH channel to the remote host
+     */
+    public interface ChannelOpener {
+        @NotNull
+        RemoteChannel openChannel(@NotNull String remoteHost, int remotePort) throws IOException;
+    }
+
+    /**
+     * SSH channel of the forwarded connection
+     */
+    public interface RemoteChannel extends Closeable {
+        @NotNull
+        InputStream getInputStream() throws IOException;
+
+        @NotNull
+        OutputStream getOutputStream() throws IOException;
+
+        /**
+         * Returns number of bytes which can be written to the channel without blocking (remote window size)
+         */
+        long getWritableBytes();
+    }
+
+    public record Statistics(
+        int activeConnections,
+        long totalConnections,
+        long bytesSent,
+        long bytesReceived,
+        long sendRate,
+        long receiveRate
+    ) {
+    }
+
+    private final Selector selector;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+    // Following fields are accessed by the selector thread only
+    private final List<Connection> stalledConnections = new ArrayList<>();
+    private final ByteBuffer localBuffer = ByteBuffer.allocateDirect(LOCAL_BUFFER_SIZE);
+    private final byte[] transferBuffer = new byte[LOCAL_BUFFER_SIZE];
+
+    private SSHPortForwarder() throws IOException {
+        this.selector = Selector.open();
+        Thread selectorThread = new Thread(this::processEvents, "SSH port forwarder");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    @NotNull
+    public static synchronized SSHPortForwarder getInstance() throws IOException {
+        if (instance == null) {
+            instance = new SSHPortForwarder();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts listening on the local port. Each accepted connection is forwarded through a new SSH channel.
+     * If local port is 0 then a free port is chosen.
+     */
+    @NotNull
+    public Tunnel openTunnel(@NotNull SSHPortForwardConfiguration configuration, @NotNull ChannelOpener opener) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(InetAddress.getByName(configuration.localHost()), configuration.localPort()));
+            server.configureBlocking(false);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        SSHPortForwardConfiguration resolved = new SSHPortForwardConfiguration(
+            configuration.localHost(),
+            ((InetSocketAddress) server.getLocalAddress()).getPort(),
+            configuration.remoteHost(),
+            configuration.remotePort());
+        Tunnel tunnel = new Tunnel(server, resolved, opener);
+        execute(() -> {
+            try {
+                server.register(selector, SelectionKey.OP_ACCEPT, tunnel);
+            } catch (ClosedChannelException e) {
+                // Tunnel was closed before it was registered
+            }
+        });
+        return tunnel;
+    }
+
+    private void execute(@NotNull Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void processEvents() {
+        while (true) {
+            try {
+                selector.select(stalledConnections.isEmpty() ? 0 : STALLED_CONNECTIONS_CHECK_PERIOD);
+                for (Runnable task = pendingTasks.poll(); task != null; task = pendingTasks.poll()) {
+                    task.run();
+                }
+                resumeStalledConnections();
+                for (Iterator<SelectionKey> iter = selector.selectedKeys().iterator(); iter.hasNext(); ) {
+                    SelectionKey key = iter.next();
+                    iter.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable() && key.attachment() instanceof Tunnel tunnel) {
+                            tunnel.acceptConnections();
+                        } else if (key.isReadable() && key.attachment() instanceof Connection connection) {
+                            connection.readLocalData(key);
+                        }
+                    } catch (CancelledKeyException e) {
+                        // Connection was closed concurrently
+                    }
+                }
+            } catch (Throwable e) {
+                log.error("Error in SSH port forwarder", e);
+            }
+        }
+    }
+
+    private void resumeStalledConnections() {
+        for (Iterator<Connection> iter = stalledConnections.iterator(); iter.hasNext(); ) {
+            Connection connection = iter.next();
+            if (connection.closed.get()) {
+                iter.remove();
+            } else if (connection.remoteChannel.getWritableBytes() > 0) {
+                iter.remove();
+                try {
+                    connection.selectionKey.interestOps(SelectionKey.OP_READ);
+                } catch (CancelledKeyException e) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Forwarded local port
+     */
+    public final class Tunnel implements Closeable {
+        private final ServerSocketChannel server;
+        private final SSHPortForwardConfiguration resolved;
+        private final ChannelOpener opener;
+        private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicLong totalConnections = new AtomicLong();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        // Last throughput sample
+        private long sampleTime = System.currentTimeMillis();
+        private long sampleBytesSent;
+        private long sampleBytesReceived;
+        private long sendRate;
+        private long receiveRate;
+
+        private Tunnel(@NotNull ServerSocketChannel server, @NotNull SSHPortForwardConfiguration resolved, @NotNull ChannelOpener opener) {
+            this.server = server;
+            this.resolved = resolved;
+            this.opener = opener;
+        }
+
+        /**
+         * Forward configuration with the actual local port
+         */
+        @NotNull
+        public SSHPortForwardConfiguration getResolved() {
+            return resolved;
+        }
+
+        /**
+         * Returns traffic statistics. Throughput (bytes per second) is averaged since the previous sample.
+         */
+        @NotNull
+        public synchronized Statistics getStatistics() {
+            long currentTime = System.currentTimeMillis();
+            long sent = bytesSent.sum();
+            long received = bytesReceived.sum();
+            long elapsed = currentTime - sampleTime;
+            if (elapsed >= THROUGHPUT_SAMPLE_PERIOD) {
+                sendRate = (sent - sampleBytesSent) * 1000 / elapsed;
+                receiveRate = (received - sampleBytesReceived) * 1000 / elapsed;
+                sampleTime = currentTime;
+                sampleBytesSent = sent;
+                sampleBytesReceived = received;
+            }
+            return new Statistics(connections.size(), totalConnections.get(), sent, received, sendRate, receiveRate);
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                server.close();
+            } catch (IOException e) {
+                log.debug("Error closing local port listener " + resolved, e);
+            }
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            selector.wakeup();
+        }
+
+        private void acceptConnections() throws IOException {
+            for (SocketChannel socket = server.accept(); socket != null; socket = server.accept()) {
+                if (closed.get()) {
+                    socket.close();
+                    return;
+                }
+                socket.configureBlocking(false);
+                socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(this, socket);
+                connections.add(connection);
+                totalConnections.incrementAndGet();
+                connection.start();
+            }
+        }
+    }
+
+    private final class Connection extends Thread {
+        private final Tunnel tunnel;
+        private final SocketChannel socket;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile RemoteChannel remoteChannel;
+        private volatile SelectionKey selectionKey;
+        // Selector of local socket write readiness. Used by the pump thread only.
+        private volatile Selector writeSelector;
+        private OutputStream remoteOutput;
+
+        Connection(@NotNull Tunnel tunnel, @NotNull SocketChannel socket) {
+            super("SSH tunnel connection (" + tunnel.resolved + ")");
+            setDaemon(true);
+            this.tunnel = tunnel;
+            this.socket = socket;
+        }
+
+        /**
+         * Opens SSH channel and then copies data from it to the local socket
+         */
+        @Override
+        public void run() {
+            try {
+                remoteChannel = tunnel.opener.openChannel(tunnel.resolved.remoteHost(), tunnel.resolved.remotePort());
+                if (closed.get()) {
+                    // Tunnel was closed while channel was opening
+                    closeQuietly(remoteChannel);
+                    return;
+                }
+                remoteOutput = remoteChannel.getOutputStream();
+                InputStream remoteInput = remoteChannel.getInputStream();
+                execute(this::register);
+
+                byte[] buffer = new byte[REMOTE_BUFFER_SIZE];
+                ByteBuffer socketBuffer = ByteBuffer.wrap(buffer);
+                for (int count = remoteInput.read(buffer); count >= 0; count = remoteInput.read(buffer)) {
+                    socketBuffer.clear().limit(count);
+                    while (socketBuffer.hasRemaining()) {
+                        if (socket.write(socketBuffer) == 0) {
+                            // Local socket buffer is full. Local client reads slower than remote server sends.
+                            if (!awaitWritable()) {
+                                return;
+                            }
+                        }
+                    }
+                    tunnel.bytesReceived.add(count);
+                }
+            } catch (IOException e) {
+                if (!closed.get()) {
+                    log.debug("Forwarded connection " + tunnel.resolved + " failed: " + e.getMessage());
+                }
+            } finally {
+                close();
+                closeQuietly(writeSelector);
+            }
+        }
+
+        /**
+         * Waits until local socket can accept more data.
+         *
+         * @return false if connection was closed
+         */
+        private boolean awaitWritable() throws IOException {
+            Selector waitSelector = writeSelector;
+            if (waitSelector == null) {
+                waitSelector = Selector.open();
+                writeSelector = waitSelector;
+                socket.register(waitSelector, SelectionKey.OP_WRITE);
+            }
+            if (closed.get()) {
+                return false;
+            }
+            // Returns when socket is writable or connection is closed (see close())
+            waitSelector.select();
+            waitSelector.selectedKeys().clear();
+            return !closed.get();
+        }
+
+        private void register() {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                selectionKey = socket.register(selector, SelectionKey.OP_READ, this);
+            } catch (ClosedChannelException e) {
+                close();
+            }
+        }
+
+        /**
+         * Copies data from the local socket to SSH channel. Called by the selector thread.
+         */
+        private void readLocalData(@NotNull SelectionKey key) {
+            long writableBytes = remoteChannel.getWritableBytes();
+            if (writableBytes <= 0) {
+                // Do not block selector thread. Wait until remote side consumes data.
+                key.interestOps(0);
+                stalledConnections.add(this);
+                return;
+            }
+            try {
+                localBuffer.clear().limit((int) Math.min(localBuffer.capacity(), writableBytes));
+                int count = socket.read(localBuffer);
+                if (count < 0) {
+                    // Local side has finished sending. Send EOF and keep receiving data until remote side closes.
+                    key.cancel();
+                    remoteOutput.close();
+                    return;
+                }
+                if (count > 0) {
+                    localBuffer.flip();
+                    localBuffer.get(transferBuffer, 0, count);
+                    remoteOutput.write(transferBuffer, 0, count);
+                    remoteOutput.flush();
+                    tunnel.bytesSent.add(count);
+                }
+            } catch (IOException e) {
+                log.debug("Forwarded connection " + tunnel.resolved + " failed: " + e.getMessage());
+                close();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            tunnel.connections.remove(this);
+            SelectionKey key = selectionKey;
+            if (key != null) {
+                key.cancel();
+            }
+            Selector waitSelector = writeSelector;
+            if (waitSelector != null) {
+                waitSelector.wakeup();
+            }
+            closeQuietly(socket);
+            closeQuietly(remoteChannel);
+        }
+
+        private void closeQuietly(@Nullable Closeable closeable) {
+            if (closeable != null) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    log.debug("Error closing forwarded connection " + tunnel.resolved, e);
+                }
+            }
+        }
+    }
+
+}
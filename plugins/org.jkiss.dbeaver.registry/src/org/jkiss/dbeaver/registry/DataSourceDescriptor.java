@@ -864,6 +864,8 @@ public class DataSourceDescriptor
             DBWorkbench.getPlatformUI().showError("Datasource update error", "Error updating datasource", e);
             return false;
         }
+        // Configuration is saved asynchronously, wait for the save to get its result
+        registry.flushConfigAndWait();
 
         Throwable lastError = registry.getLastError();
         if (lastError != null) {
@@ -50,7 +50,10 @@ import org.jkiss.utils.CommonUtils;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -73,6 +76,10 @@ public class DataSourceRegistry implements DBPDataSourceRegistry, DataSourcePers
     private final List<DBWNetworkProfile> networkProfiles = new ArrayList<>();
     private final Map<String, DBAAuthProfile> authProfiles = new LinkedHashMap<>();
     private volatile boolean saveInProgress = false;
+    // Changes were made but configuration save is not finished yet
+    private volatile boolean saveScheduled = false;
+    // Digests of configuration files saved by this registry. Unchanged files are not rewritten.
+    private final Map<String, String> savedConfigDigests = new ConcurrentHashMap<>();
 
     private final DBVModel.ModelChangeListener modelChangeListener = new DBVModel.ModelChangeListener();
     private volatile ConfigSaver configSaver;
@@ -121,6 +128,8 @@ public class DataSourceRegistry implements DBPDataSourceRegistry, DataSourcePers
         }
         // Disconnect in 5 seconds or die
         closeConnections(DISCONNECT_ALL_TIMEOUT);
+        // Changes made right before shutdown may still wait for the async saver
+        flushConfigAndWait();
         // Do not save config on shutdown.
         // Some data source might be broken due to misconfiguration
         // and we don't want to lose their config just after restart
@@ -620,15 +629,15 @@ public class DataSourceRegistry implements DBPDataSourceRegistry, DataSourcePers
     }
 
     protected void persistDataSourceUpdate(@NotNull DBPDataSourceContainer container) {
-        saveDataSources();
+        flushConfig();
     }
 
     protected void persistDataFolderDelete(@NotNull String folderPath, boolean dropContents) {
-        saveDataSources();
+        flushConfig();
     }
 
     protected void persistDataSourceDelete(@NotNull DBPDataSourceContainer container) {
-        saveDataSources();
+        flushConfig();
     }
 
     @Override
@@ -640,18 +649,36 @@ public class DataSourceRegistry implements DBPDataSourceRegistry, DataSourcePers
         if (configSaver == null) {
             configSaver = new ConfigSaver();
         }
+        saveScheduled = true;
         configSaver.schedule(100);
     }
 
+    @Override
+    public void flushConfigAndWait() {
+        final ConfigSaver saver = configSaver;
+        if (!saveScheduled || saver == null) {
+            return;
+        }
+        saver.cancel();
+        synchronized (this) {
+            // Saver might have started before it was cancelled. Then it already saved everything.
+            if (saveScheduled) {
+                saveScheduled = false;
+                saveDataSources(new VoidProgressMonitor());
+            }
+        }
+    }
+
     @Override
     public void refreshConfig() {
-        if (!saveInProgress) {
+        // Do not overwrite changes which are not saved yet
+        if (!saveInProgress && !saveScheduled) {
             this.loadDataSources(true);
         }
     }
 
     public void refreshConfig(@Nullable Collection<String> dataSourceIds) {
-        if (saveInProgress) {
+        if (saveInProgress || saveScheduled) {
             return;
         }
         loadDataSources(
@@ -782,6 +809,8 @@ public class DataSourceRegistry implements DBPDataSourceRegistry, DataSourcePers
         }
         // Clear filters before reload
         savedFilters.clear();
+        // Files may be changed externally. Next save must rewrite them.
+        savedConfigDigests.clear();
 
         // Parse datasources
         ParseResults parseResults = new ParseResults();
@@ -919,6 +948,44 @@ public class DataSourceRegistry implements DBPDataSourceRegistry, DataSourcePers
         }
     }
 
+    /**
+     * Checks whether configuration file contents differ from the contents saved last time
+     */
+    boolean isConfigurationModified(
+        @NotNull DataSourceConfigurationManager manager,
+        @NotNull String name,
+        @Nullable byte[] contents
+    ) {
+        if (manager != configurationManager) {
+            return true;
+        }
+        String digest = savedConfigDigests.get(name);
+        return digest == null || !digest.equals(makeConfigDigest(contents));
+    }
+
+    void setConfigurationSaved(
+        @NotNull DataSourceConfigurationManager manager,
+        @NotNull String name,
+        @Nullable byte[] contents
+    ) {
+        if (manager == configurationManager) {
+            savedConfigDigests.put(name, makeConfigDigest(contents));
+        }
+    }
+
+    @NotNull
+    private static String makeConfigDigest(@Nullable byte[] contents) {
+        if (contents == null) {
+            return "";
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contents));
+        } catch (NoSuchAlgorithmException e) {
+            // Never happens, SHA-256 is always supported. Unique digest forces configuration save.
+            return UUID.randomUUID().toString();
+        }
+    }
+
     private List<DataSourceDescriptor> getDataSources(DBPDataSourceConfigurationStorage storage) {
         List<DataSourceDescriptor> result = new ArrayList<>();
         synchronized (dataSources) {
@@ -1076,6 +1143,8 @@ public class DataSourceRegistry implements DBPDataSourceRegistry, DataSourcePers
         protected IStatus run(DBRProgressMonitor monitor) {
             synchronized (DataSourceRegistry.this) {
                 //log.debug("Save column config " + System.currentTimeMillis());
+                // Changes made during save will schedule the saver again
+                saveScheduled = false;
                 saveDataSources(monitor);
             }
             return Status.OK_STATUS;
@@ -249,11 +249,10 @@ class DataSourceSerializerModern implements DataSourceSerializer
             log.error("IO error while saving datasources configuration", e);
         }
 
-        String jsonString = dsConfigBuffer.toString(StandardCharsets.UTF_8);
         saveConfigFile(
             configurationManager,
             configurationStorage.getStorageName(),
-            jsonString,
+            dsConfigBuffer.toByteArray(),
             registry.getProject().isEncryptedProject());
 
         if (!configurationManager.isSecure()) {
@@ -333,22 +332,27 @@ class DataSourceSerializerModern implements DataSourceSerializer
     private void saveConfigFile(
         DataSourceConfigurationManager configurationManager,
         String name,
-        String contents,
+        byte[] contents,
         boolean encrypt
     ) throws DBException, IOException {
+        if (!registry.isConfigurationModified(configurationManager, name, contents)) {
+            // Nothing was changed since the last save
+            return;
+        }
         byte[] binaryContents = null;
         if (contents != null) {
             if (encrypt) {
                 // Serialize and encrypt
                 DBSValueEncryptor valueEncryptor = registry.getProject().getValueEncryptor();
-                binaryContents = valueEncryptor.encryptValue(contents.getBytes(StandardCharsets.UTF_8));
+                binaryContents = valueEncryptor.encryptValue(contents);
             } else {
-                binaryContents = contents.getBytes(StandardCharsets.UTF_8);
+                binaryContents = contents;
             }
         }
 
         // Save result to file
         configurationManager.writeConfiguration(name, binaryContents);
+        registry.setConfigurationSaved(configurationManager, name, contents);
     }
 
     private void saveSecureCredentialsFile(DataSourceConfigurationManager configurationManager, DBPDataSourceConfigurationStorage storage) {
@@ -359,7 +363,7 @@ class DataSourceSerializerModern implements DataSourceSerializer
             } else {
                 // Serialize and encrypt
                 String jsonString = CONFIG_GSON.toJson(secureProperties, Map.class);
-                saveConfigFile(configurationManager, credFile, jsonString, true);
+                saveConfigFile(configurationManager, credFile, jsonString.getBytes(StandardCharsets.UTF_8), true);
             }
         } catch (Exception e) {
             log.error("Error saving secure credentials", e);
@@ -884,7 +888,11 @@ class DataSourceSerializerModern implements DataSourceSerializer
             return null;
         }
         try (is) {
-            final String data = loadConfigFile(is, CommonUtils.toBoolean(registry.getProject().isEncryptedProject()));
+            if (!CommonUtils.toBoolean(registry.getProject().isEncryptedProject())) {
+                // Parse directly from the stream, without loading the whole configuration in a string
+                return JSONUtils.parseMap(CONFIG_GSON, new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8)));
+            }
+            final String data = loadConfigFile(is, true);
             return JSONUtils.parseMap(CONFIG_GSON, new StringReader(data));
         } catch (DBInterruptedException e) {
             // happens only if user cancelled entering password
@@ -22,28 +22,26 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableWithProgress;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
-import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.Map;
 
+/**
+ * Finds classes which implement the specified interface (or extend the specified class) in driver libraries.
+ * Uses class headers from library indexes, so libraries are scanned only once.
+ */
 public class DriverClassFindJob implements DBRRunnableWithProgress {
 
     private static final Log log = Log.getLog(DriverClassFindJob.class);
 
     public static final String OBJECT_CLASS_NAME = "java/lang/Object";
     public static final String CLASS_FILE_EXT = ".class";
+    // Protection from broken (cyclic) class hierarchies
+    private static final int MAX_HIERARCHY_DEPTH = 100;
     private List<String> driverClassNames = new ArrayList<>();
 
     private final DriverDescriptor driver;
@@ -66,104 +64,82 @@ public class DriverClassFindJob implements DBRRunnableWithProgress {
     }
 
     private void findDriverClasses(DBRProgressMonitor monitor) {
-        java.util.List<Path> libFiles = driver.getAllLibraryFiles(monitor);
-        java.util.List<URL> libURLs = new ArrayList<>();
-        for (Path libFile : libFiles) {
-            if (libFile != null && Files.exists(libFile) && !Files.isDirectory(libFile)) {
-                try {
-                    libURLs.add(libFile.toUri().toURL());
-                } catch (MalformedURLException e) {
-                    log.debug(e);
+        List<DriverLibraryIndex> indexes = new ArrayList<>();
+        for (Path libFile : driver.getAllLibraryFiles(monitor)) {
+            if (monitor.isCanceled()) {
+                return;
+            }
+            if (libFile != null && DriverLibraryIndex.isIndexable(libFile)) {
+                DriverLibraryIndex index = DriverLibraryIndex.getClassIndex(monitor, libFile);
+                if (index != null) {
+                    indexes.add(index);
                 }
             }
         }
-        ClassLoader findCL = new URLClassLoader(libURLs.toArray(new URL[0]));
-
-        for (Path libFile : libFiles) {
+        // Class hierarchy may span several libraries
+        Map<String, DriverLibraryIndex.ClassHeader> allClasses = new HashMap<>();
+        for (DriverLibraryIndex index : indexes) {
+            for (DriverLibraryIndex.ClassHeader header : index.getClasses()) {
+                allClasses.putIfAbsent(header.name(), header);
+            }
+        }
+        for (DriverLibraryIndex index : indexes) {
             if (monitor.isCanceled()) {
                 break;
             }
-            if (!Files.isDirectory(libFile)) {
-                findDriverClasses(monitor, findCL, libFile);
+            List<DriverLibraryIndex.ClassHeader> classes = index.getClasses();
+            monitor.beginTask(index.getLibraryFile().getFileName().toString(), classes.size());
+            for (DriverLibraryIndex.ClassHeader header : classes) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                if (!header.name().contains("$") && isDriverClass(allClasses, header)) {
+                    driverClassNames.add(header.name().replace('/', '.'));
+                }
+                monitor.worked(1);
             }
+            monitor.done();
         }
     }
 
-    private void findDriverClasses(DBRProgressMonitor monitor, ClassLoader findCL, Path libFile) {
-        String jarName = libFile.getFileName().toString();
-        if (!jarName.endsWith(".jar") && !jarName.endsWith(".zip")) {
-            // Dummy file type validation
-            return;
-        }
-        try (JarFile currentFile = new JarFile(libFile.toFile(), false)) {
-            monitor.beginTask(jarName, currentFile.size());
-
-            for (Enumeration<?> e = currentFile.entries(); e.hasMoreElements(); ) {
-                {
-                    if (monitor.isCanceled()) {
-                        break;
-                    }
-                    JarEntry current = (JarEntry) e.nextElement();
-                    String fileName = current.getName();
-                    if (fileName.endsWith(CLASS_FILE_EXT) && !fileName.contains("$")) { //$NON-NLS-1$ //$NON-NLS-2$
-                        String className = fileName.replaceAll("/", ".").replace(CLASS_FILE_EXT, ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-                        monitor.subTask(className);
-                        try {
-                            if (implementsInterface(currentFile, current, 0)) {
-                                driverClassNames.add(className);
-                            }
-                        } catch (Throwable e1) {
-                            // do nothing
-                        }
-                        monitor.worked(1);
-                    }
-                }
-            }
-            monitor.done();
-        } catch (IOException e) {
-            log.debug(e);
+    private boolean isDriverClass(Map<String, DriverLibraryIndex.ClassHeader> allClasses, DriverLibraryIndex.ClassHeader header) {
+        int access = header.access();
+        if ((access & Opcodes.ACC_PUBLIC) == 0 || (access & Opcodes.ACC_ABSTRACT) != 0) {
+            return false;
         }
+        return implementsInterface(allClasses, header, 0);
     }
 
-    private boolean implementsInterface(JarFile currentFile, JarEntry current, int depth) throws IOException {
-        try (InputStream classStream = currentFile.getInputStream(current)) {
-            ClassReader cr = new ClassReader(classStream);
-            int access = cr.getAccess();
-            if (depth == 0 && ((access & Opcodes.ACC_PUBLIC) == 0 || (access & Opcodes.ACC_ABSTRACT) != 0)) {
-                return false;
+    private boolean implementsInterface(Map<String, DriverLibraryIndex.ClassHeader> allClasses, DriverLibraryIndex.ClassHeader header, int depth) {
+        if (depth > MAX_HIERARCHY_DEPTH) {
+            return false;
+        }
+        final String superName = header.superName();
+        if (isInterface) {
+            String[] interfaces = header.interfaces();
+            if (ArrayUtils.contains(interfaces, interfaceName)) {
+                return true;
             }
-            final String superName = cr.getSuperName();
-            if (isInterface) {
-                String[] interfaces = cr.getInterfaces();
-                if (ArrayUtils.contains(interfaces, interfaceName)) {
+            if (!CommonUtils.isEmpty(superName) && !superName.equals(OBJECT_CLASS_NAME)) {
+                // Check recursively
+                DriverLibraryIndex.ClassHeader superHeader = allClasses.get(superName);
+                if (superHeader != null && implementsInterface(allClasses, superHeader, depth + 1)) {
                     return true;
-                } else if (!CommonUtils.isEmpty(superName) && !superName.equals(OBJECT_CLASS_NAME)) {
-                    // Check recursively
-                    JarEntry jarEntry = currentFile.getJarEntry(superName + CLASS_FILE_EXT);
-                    if (jarEntry != null) {
-                        return implementsInterface(currentFile, jarEntry, depth + 1);
-                    }
                 }
-                for (String intName : interfaces) {
-                    JarEntry jarEntry = currentFile.getJarEntry(intName + CLASS_FILE_EXT);
-                    if (jarEntry != null) {
-                        if (implementsInterface(currentFile, jarEntry, depth + 1)) {
-                            return true;
-                        }
-                    }
-                }
-            } else if (superName != null) {
-                // Superclass
-                if (interfaceName.equals(superName)) {
+            }
+            for (String intName : interfaces) {
+                DriverLibraryIndex.ClassHeader intHeader = allClasses.get(intName);
+                if (intHeader != null && implementsInterface(allClasses, intHeader, depth + 1)) {
                     return true;
                 }
-                JarEntry jarEntry = currentFile.getJarEntry(superName + CLASS_FILE_EXT);
-                if (jarEntry != null) {
-                    if (implementsInterface(currentFile, jarEntry, depth + 1)) {
-                        return true;
-                    }
-                }
             }
+        } else if (superName != null) {
+            // Superclass
+            if (interfaceName.equals(superName)) {
+                return true;
+            }
+            DriverLibraryIndex.ClassHeader superHeader = allClasses.get(superName);
+            return superHeader != null && implementsInterface(allClasses, superHeader, depth + 1);
         }
         return false;
     }
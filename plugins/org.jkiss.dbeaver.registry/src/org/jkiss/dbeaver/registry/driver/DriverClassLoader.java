@@ -17,26 +17,172 @@
 
 package org.jkiss.dbeaver.registry.driver;
 
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.connection.DBPDriverLibrary;
 import org.jkiss.utils.CommonUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.security.CodeSource;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipFile;
 
 /**
- * DriverClassLoader
+ * DriverClassLoader.
+ * Uses library indexes to find the jar which contains a class package, so classes are loaded without
+ * probing all driver jars one by one.
  */
 public class DriverClassLoader extends URLClassLoader
 {
+    private static final Log log = Log.getLog(DriverClassLoader.class);
+
     private final DriverDescriptor driver;
+    // Package name -> indexed libraries which contain this package
+    private final Map<String, List<IndexedLibrary>> packageIndex = new HashMap<>();
+    // Some libraries are not indexed (folders, broken jars). Lookups which miss the index are delegated to URLClassLoader.
+    private boolean hasUnindexedLibraries;
+
+    private static class IndexedLibrary {
+        private final Path file;
+        private final URL url;
+        private JarFile jarFile;
+        private Manifest manifest;
+
+        IndexedLibrary(Path file, URL url) {
+            this.file = file;
+            this.url = url;
+        }
+
+        synchronized JarFile getJarFile() throws IOException {
+            if (jarFile == null) {
+                jarFile = new JarFile(file.toFile(), true, ZipFile.OPEN_READ, JarFile.runtimeVersion());
+                manifest = jarFile.getManifest();
+            }
+            return jarFile;
+        }
+
+        synchronized void close() throws IOException {
+            if (jarFile != null) {
+                jarFile.close();
+                jarFile = null;
+            }
+        }
+    }
 
     public DriverClassLoader(DriverDescriptor driver, URL[] urls, ClassLoader parent)
     {
         super(urls, parent);
         this.driver = driver;
+        for (URL url : urls) {
+            DriverLibraryIndex index = null;
+            Path file = null;
+            try {
+                file = Path.of(url.toURI());
+                if (DriverLibraryIndex.isIndexable(file)) {
+                    index = DriverLibraryIndex.getPackageIndex(file);
+                }
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                log.debug("Bad driver library URL '" + url + "'", e);
+            }
+            if (index == null) {
+                hasUnindexedLibraries = true;
+                continue;
+            }
+            IndexedLibrary library = new IndexedLibrary(file, url);
+            for (String packageName : index.getPackages()) {
+                packageIndex.computeIfAbsent(packageName, k -> new ArrayList<>(1)).add(library);
+            }
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        int divPos = name.lastIndexOf('.');
+        String packageName = divPos < 0 ? "" : name.substring(0, divPos);
+        List<IndexedLibrary> libraries = packageIndex.get(packageName);
+        if (libraries != null) {
+            String entryName = name.replace('.', '/') + DriverClassFindJob.CLASS_FILE_EXT;
+            for (IndexedLibrary library : libraries) {
+                try {
+                    Class<?> theClass = defineIndexedClass(name, packageName, entryName, library);
+                    if (theClass != null) {
+                        return theClass;
+                    }
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        }
+        if (hasUnindexedLibraries) {
+            return super.findClass(name);
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    @Override
+    public URL findResource(String name) {
+        int divPos = name.lastIndexOf('/');
+        String packageName = divPos < 0 ? "" : name.substring(0, divPos).replace('/', '.');
+        if (!hasUnindexedLibraries && !packageIndex.containsKey(packageName)) {
+            return null;
+        }
+        return super.findResource(name);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Set<IndexedLibrary> libraries = Collections.newSetFromMap(new IdentityHashMap<>());
+        packageIndex.values().forEach(libraries::addAll);
+        for (IndexedLibrary library : libraries) {
+            try {
+                library.close();
+            } catch (IOException e) {
+                log.debug("Error closing driver library '" + library.file + "'", e);
+            }
+        }
+        super.close();
+    }
+
+    @Nullable
+    private Class<?> defineIndexedClass(
+        @NotNull String name,
+        @NotNull String packageName,
+        @NotNull String entryName,
+        @NotNull IndexedLibrary library
+    ) throws IOException {
+        JarFile jarFile = library.getJarFile();
+        JarEntry entry = jarFile.getJarEntry(entryName);
+        if (entry == null) {
+            return null;
+        }
+        byte[] classBytes;
+        try (InputStream is = jarFile.getInputStream(entry)) {
+            classBytes = is.readAllBytes();
+        }
+        if (!packageName.isEmpty() && getDefinedPackage(packageName) == null) {
+            try {
+                if (library.manifest != null) {
+                    definePackage(packageName, library.manifest, library.url);
+                } else {
+                    definePackage(packageName, null, null, null, null, null, null, null);
+                }
+            } catch (IllegalArgumentException e) {
+                // Package was defined concurrently
+            }
+        }
+        // Code signers are available only after entry was read
+        CodeSource codeSource = new CodeSource(library.url, entry.getCodeSigners());
+        return defineClass(name, classBytes, 0, classBytes.length, codeSource);
     }
 
     @Override
@@ -0,0 +1,332 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.registry.driver;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.utils.CommonUtils;
+import org.objectweb.asm.ClassReader;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of driver library (jar) contents.
+ * Contains list of packages (folders) of the library and, optionally, headers (super class and interfaces) of all its classes.
+ * Index is stored on disk and rebuilt only when the library checksum changes.
+ */
+final class DriverLibraryIndex {
+
+    private static final Log log = Log.getLog(DriverLibraryIndex.class);
+
+    private static final String INDEX_FOLDER = ".index";
+    private static final String INDEX_FILE_EXT = ".idx";
+    private static final int INDEX_VERSION = 1;
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+    // Package-only indexes of libraries used by driver class loaders
+    private static final Map<Path, DriverLibraryIndex> indexCache = new ConcurrentHashMap<>();
+
+    record ClassHeader(@NotNull String name, int access, @Nullable String superName, @NotNull String[] interfaces) {
+    }
+
+    @NotNull
+    private final Path libraryFile;
+    private final long fileSize;
+    private final long lastModified;
+    private final long checksum;
+    @NotNull
+    private final Set<String> packages;
+    @Nullable
+    private final List<ClassHeader> classes;
+
+    private DriverLibraryIndex(
+        @NotNull Path libraryFile,
+        long fileSize,
+        long lastModified,
+        long checksum,
+        @NotNull Set<String> packages,
+        @Nullable List<ClassHeader> classes
+    ) {
+        this.libraryFile = libraryFile;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.checksum = checksum;
+        this.packages = packages;
+        this.classes = classes;
+    }
+
+    @NotNull
+    Path getLibraryFile() {
+        return libraryFile;
+    }
+
+    /**
+     * Packages in the dotted form. Resource folders are included too.
+     */
+    @NotNull
+    Set<String> getPackages() {
+        return packages;
+    }
+
+    /**
+     * Class headers in the internal (slashed) form.
+     * Always present in indexes returned by {@link #getClassIndex(DBRProgressMonitor, Path)}.
+     */
+    @NotNull
+    List<ClassHeader> getClasses() {
+        return classes == null ? Collections.emptyList() : classes;
+    }
+
+    /**
+     * Returns packages index of the library. Index is cached in memory.
+     *
+     * @return index or null if library can't be read
+     */
+    @Nullable
+    static DriverLibraryIndex getPackageIndex(@NotNull Path libraryFile) {
+        DriverLibraryIndex index = indexCache.get(libraryFile);
+        if (index != null && index.isUpToDate()) {
+            return index;
+        }
+        index = loadIndex(null, libraryFile, false);
+        if (index != null) {
+            // Do not keep class headers in memory
+            index = new DriverLibraryIndex(index.libraryFile, index.fileSize, index.lastModified, index.checksum, index.packages, null);
+            indexCache.put(libraryFile, index);
+        } else {
+            indexCache.remove(libraryFile);
+        }
+        return index;
+    }
+
+    /**
+     * Returns full index of the library, including class headers. Index is read from disk or built if it is missing.
+     *
+     * @return index or null if library can't be read
+     */
+    @Nullable
+    static DriverLibraryIndex getClassIndex(@NotNull DBRProgressMonitor monitor, @NotNull Path libraryFile) {
+        return loadIndex(monitor, libraryFile, true);
+    }
+
+    static boolean isIndexable(@NotNull Path libraryFile) {
+        String fileName = libraryFile.getFileName().toString().toLowerCase(Locale.ENGLISH);
+        return (fileName.endsWith(".jar") || fileName.endsWith(".zip")) && Files.isRegularFile(libraryFile);
+    }
+
+    private boolean isUpToDate() {
+        try {
+            return Files.size(libraryFile) == fileSize && Files.getLastModifiedTime(libraryFile).toMillis() == lastModified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Nullable
+    private static synchronized DriverLibraryIndex loadIndex(
+        @Nullable DBRProgressMonitor monitor,
+        @NotNull Path libraryFile,
+        boolean withClasses
+    ) {
+        long fileSize, lastModified;
+        try {
+            fileSize = Files.size(libraryFile);
+            lastModified = Files.getLastModifiedTime(libraryFile).toMillis();
+        } catch (IOException e) {
+            log.debug("Can't read library '" + libraryFile + "' attributes: " + e.getMessage());
+            return null;
+        }
+        Path indexFile = getIndexFile(libraryFile);
+        DriverLibraryIndex index = indexFile == null ? null : readIndex(libraryFile, indexFile);
+        if (index != null && (index.fileSize != fileSize || index.lastModified != lastModified)) {
+            // File was changed or touched. Reuse index if content is the same.
+            long checksum = DriverDescriptor.calculateFileCRC(libraryFile);
+            if (checksum == 0 || checksum != index.checksum) {
+                index = null;
+            } else {
+                index = new DriverLibraryIndex(libraryFile, fileSize, lastModified, checksum, index.packages, index.classes);
+                writeIndex(index, indexFile);
+            }
+        }
+        if (index != null && (!withClasses || index.classes != null)) {
+            return index;
+        }
+
+        try {
+            index = buildIndex(monitor, libraryFile, fileSize, lastModified, withClasses);
+        } catch (IOException e) {
+            log.debug("Error indexing library '" + libraryFile + "': " + e.getMessage());
+            return null;
+        }
+        if (indexFile != null) {
+            writeIndex(index, indexFile);
+        }
+        return index;
+    }
+
+    @NotNull
+    private static DriverLibraryIndex buildIndex(
+        @Nullable DBRProgressMonitor monitor,
+        @NotNull Path libraryFile,
+        long fileSize,
+        long lastModified,
+        boolean withClasses
+    ) throws IOException {
+        long checksum = DriverDescriptor.calculateFileCRC(libraryFile);
+        Set<String> packages = new LinkedHashSet<>();
+        List<ClassHeader> classes = withClasses ? new ArrayList<>() : null;
+        try (JarFile jarFile = new JarFile(libraryFile.toFile(), false, ZipFile.OPEN_READ, JarFile.runtimeVersion())) {
+            if (monitor != null) {
+                monitor.beginTask("Index " + libraryFile.getFileName(), jarFile.size());
+            }
+            for (Enumeration<JarEntry> e = jarFile.entries(); e.hasMoreElements(); ) {
+                if (monitor != null && monitor.isCanceled()) {
+                    throw new InterruptedIOException("Library indexing canceled");
+                }
+                JarEntry entry = e.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String entryName = entry.getName();
+                if (entryName.startsWith(VERSIONS_PREFIX)) {
+                    // Multi-release jar. Versioned classes are placed in the same packages as the base ones.
+                    int versionEnd = entryName.indexOf('/', VERSIONS_PREFIX.length());
+                    if (versionEnd < 0) {
+                        continue;
+                    }
+                    entryName = entryName.substring(versionEnd + 1);
+                } else if (classes != null && entryName.endsWith(DriverClassFindJob.CLASS_FILE_EXT)
+                    && !entryName.equals("module-info.class")) {
+                    try (InputStream classStream = jarFile.getInputStream(entry)) {
+                        ClassReader cr = new ClassReader(classStream);
+                        classes.add(new ClassHeader(cr.getClassName(), cr.getAccess(), cr.getSuperName(), cr.getInterfaces()));
+                    } catch (Exception ex) {
+                        // Broken or unsupported class file
+                    }
+                }
+                int divPos = entryName.lastIndexOf('/');
+                packages.add(divPos < 0 ? "" : entryName.substring(0, divPos).replace('/', '.'));
+                if (monitor != null) {
+                    monitor.worked(1);
+                }
+            }
+            if (monitor != null) {
+                monitor.done();
+            }
+        }
+        return new DriverLibraryIndex(libraryFile, fileSize, lastModified, checksum, packages, classes);
+    }
+
+    @Nullable
+    private static Path getIndexFile(@NotNull Path libraryFile) {
+        try {
+            CRC32 pathHash = new CRC32();
+            pathHash.update(libraryFile.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8));
+            return DriverDescriptor.getCustomDriversHome()
+                .resolve(INDEX_FOLDER)
+                .resolve(libraryFile.getFileName() + "-" + Long.toHexString(pathHash.getValue()) + INDEX_FILE_EXT);
+        } catch (Exception e) {
+            log.debug("Can't resolve drivers index folder: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private static DriverLibraryIndex readIndex(@NotNull Path libraryFile, @NotNull Path indexFile) {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_VERSION) {
+                return null;
+            }
+            long fileSize = in.readLong();
+            long lastModified = in.readLong();
+            long checksum = in.readLong();
+            int packageCount = in.readInt();
+            Set<String> packages = new LinkedHashSet<>(packageCount);
+            for (int i = 0; i < packageCount; i++) {
+                packages.add(in.readUTF());
+            }
+            List<ClassHeader> classes = null;
+            if (in.readBoolean()) {
+                int classCount = in.readInt();
+                classes = new ArrayList<>(classCount);
+                for (int i = 0; i < classCount; i++) {
+                    String name = in.readUTF();
+                    int access = in.readInt();
+                    String superName = in.readUTF();
+                    String[] interfaces = new String[in.readUnsignedShort()];
+                    for (int k = 0; k < interfaces.length; k++) {
+                        interfaces[k] = in.readUTF();
+                    }
+                    classes.add(new ClassHeader(name, access, CommonUtils.nullIfEmpty(superName), interfaces));
+                }
+            }
+            return new DriverLibraryIndex(libraryFile, fileSize, lastModified, checksum, packages, classes);
+        } catch (IOException e) {
+            log.debug("Error reading library index '" + indexFile + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeIndex(@NotNull DriverLibraryIndex index, @NotNull Path indexFile) {
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(INDEX_VERSION);
+                out.writeLong(index.fileSize);
+                out.writeLong(index.lastModified);
+                out.writeLong(index.checksum);
+                out.writeInt(index.packages.size());
+                for (String pkg : index.packages) {
+                    out.writeUTF(pkg);
+                }
+                out.writeBoolean(index.classes != null);
+                if (index.classes != null) {
+                    out.writeInt(index.classes.size());
+                    for (ClassHeader header : index.classes) {
+                        out.writeUTF(header.name());
+                        out.writeInt(header.access());
+                        out.writeUTF(CommonUtils.notEmpty(header.superName()));
+                        out.writeShort(header.interfaces().length);
+                        for (String intName : header.interfaces()) {
+                            out.writeUTF(intName);
+                        }
+                    }
+                }
+            }
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.debug("Error saving library index '" + indexFile + "': " + e.getMessage());
+        }
+    }
+
+}
@@ -36,6 +36,7 @@ import org.jkiss.dbeaver.model.dashboard.DBDashboardMapQuery;
 import org.jkiss.dbeaver.model.dashboard.DBDashboardQuery;
 import org.jkiss.dbeaver.model.dashboard.DashboardIcons;
 import org.jkiss.dbeaver.model.dashboard.data.DashboardDataset;
+import org.jkiss.dbeaver.model.dashboard.data.DashboardTimeSeries;
 import org.jkiss.dbeaver.model.dashboard.registry.DashboardItemConfiguration;
 import org.jkiss.dbeaver.ui.ActionUtils;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
@@ -52,6 +53,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.jkiss.dbeaver.ui.dashboard.DashboardUIConstants.PARAM_CATALOG_PANEL_TOGGLE;
 
@@ -69,6 +71,10 @@ public class DashboardViewItem extends Composite implements DashboardItemContain
     private final ToolBarManager titleToolbarManager;
     private final Composite chartComposite;
     private boolean autoUpdateEnabled;
+    private final DashboardTimeSeries timeSeries;
+    // Sequence of the last sample passed to the renderer. Accessed in UI thread only.
+    private long renderedSequence;
+    private final AtomicBoolean renderScheduled = new AtomicBoolean();
 
     public DashboardViewItem(@NotNull DashboardListControl parent, @NotNull DashboardItemConfiguration item) {
         super(parent, SWT.DOUBLE_BUFFERED);
@@ -78,6 +84,8 @@ public class DashboardViewItem extends Composite implements DashboardItemContain
         if (this.viewItemConfig == null) {
             throw new IllegalStateException("View item configuration not found for '" + item.getId() + "'");
         }
+        this.timeSeries = new DashboardTimeSeries(Math.max(1, getDashboardMaxItems()));
+        this.timeSeries.addListener(series -> scheduleRender());
 
         GridLayout layout = new GridLayout(1, true);
         layout.marginHeight = 3;
@@ -416,16 +424,31 @@ public class DashboardViewItem extends Composite implements DashboardItemContain
 
     @Override
     public void updateDashboardData(DashboardDataset dataset) {
+        // Renderer is subscribed to the time series
+        timeSeries.append(dataset);
+    }
+
+    private void scheduleRender() {
+        if (!renderScheduled.compareAndSet(false, true)) {
+            // Samples will be read by already scheduled render
+            return;
+        }
         UIUtils.asyncExec(() -> {
-            if (renderer != null) {
-                renderer.updateDashboardData(this, lastUpdateTime, dataset);
-                lastUpdateTime = new Date();
+            renderScheduled.set(false);
+            if (isDisposed() || renderer == null) {
+                return;
             }
+            long lastSequence = timeSeries.getSequence();
+            DashboardDataset dataset = timeSeries.getDataset(renderedSequence, lastSequence);
+            renderedSequence = lastSequence;
+            renderer.updateDashboardData(this, lastUpdateTime, dataset);
+            lastUpdateTime = new Date();
         });
     }
 
     @Override
     public void resetDashboardData() {
+        timeSeries.clear();
         UIUtils.asyncExec(() -> {
             if (renderer != null) {
                 renderer.resetDashboardData(this, lastUpdateTime);
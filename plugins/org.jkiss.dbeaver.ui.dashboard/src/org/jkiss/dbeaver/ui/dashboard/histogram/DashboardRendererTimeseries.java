@@ -252,9 +252,11 @@ public class DashboardRendererTimeseries extends DashboardRendererDatabaseChart
                         return;
                     }
                     //System.out.println("LAST=" + lastUpdateTime + "; CUR=" + new Date());
+                    // Dataset may contain several samples. Each one is compared with the previous sample.
+                    DashboardDatasetRow prevRow = lastRow;
                     for (DashboardDatasetRow row : rows) {
-                        if (lastRow != null) {
-                            Object prevValue = lastRow.getValues()[i];
+                        if (prevRow != null) {
+                            Object prevValue = prevRow.getValues()[i];
                             Object newValue = row.getValues()[i];
                             if (newValue instanceof Number && prevValue instanceof Number) {
                                 double deltaValue = ((Number) newValue).doubleValue() - ((Number) prevValue).doubleValue();
@@ -267,6 +269,7 @@ public class DashboardRendererTimeseries extends DashboardRendererDatabaseChart
                                     deltaValue);
                             }
                         }
+                        prevRow = row;
                     }
                     break;
                 }
@@ -19,6 +19,7 @@ package org.jkiss.dbeaver.ui.dashboard.view;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.dashboard.DashboardSampler;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
@@ -77,6 +78,7 @@ public class DashboardUpdateJob extends AbstractJob {
     
     public void pauseDashboardUpdate() {
         isSchedule.set(false);
+        DashboardSampler.getInstance().cancelAll();
     }
 
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import org.jkiss.dbeaver.model.dashboard.DBDashboardDataType;
 import org.jkiss.dbeaver.model.dashboard.DBDashboardMapQuery;
 import org.jkiss.dbeaver.model.dashboard.DBDashboardQuery;
 import org.jkiss.dbeaver.model.dashboard.DashboardConstants;
+import org.jkiss.dbeaver.model.dashboard.DashboardSampler;
 import org.jkiss.dbeaver.model.dashboard.data.DashboardDataset;
 import org.jkiss.dbeaver.model.dashboard.data.DashboardDatasetRow;
 import org.jkiss.dbeaver.model.exec.*;
@@ -43,11 +44,13 @@ import org.jkiss.utils.CommonUtils;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DashboardUpdater {
 
     private static final Log log = Log.getLog(DashboardUpdater.class);
-    private final Map<DBPDataSourceContainer, List<MapQueryInfo>> mapQueries = new HashMap<>();
+    // Updated concurrently by sampling jobs of different data sources
+    private final Map<DBPDataSourceContainer, List<MapQueryInfo>> mapQueries = new ConcurrentHashMap<>();
 
     private static class MapQueryInfo {
         private final DashboardItemContainer dashboard;
@@ -82,14 +85,44 @@ public class DashboardUpdater {
     }
 
     private void updateDashboards(@NotNull DBRProgressMonitor monitor, @NotNull List<DashboardItemContainer> dashboards) {
+        // Each data source is sampled independently, so one slow server doesn't delay the others
+        Map<DBPDataSourceContainer, List<DashboardItemContainer>> sourceDashboards = new LinkedHashMap<>();
+        for (DashboardItemContainer dashboard : dashboards) {
+            sourceDashboards.computeIfAbsent(dashboard.getDataSourceContainer(), k -> new ArrayList<>()).add(dashboard);
+        }
+        DashboardSampler sampler = DashboardSampler.getInstance();
+        for (Map.Entry<DBPDataSourceContainer, List<DashboardItemContainer>> entry : sourceDashboards.entrySet()) {
+            DBPDataSourceContainer dsContainer = entry.getKey();
+            List<DashboardItemContainer> containerDashboards = entry.getValue();
+            long sampleTimeout = DashboardSampler.DEFAULT_SAMPLE_TIMEOUT;
+            for (DashboardItemContainer dashboard : containerDashboards) {
+                // Slow dashboards get more time
+                sampleTimeout = Math.max(sampleTimeout, dashboard.getUpdatePeriod() * 3);
+            }
+            sampler.sample(
+                dsContainer,
+                "Update dashboards of '" + dsContainer.getName() + "'",
+                sampleTimeout,
+                sampleMonitor -> updateDataSourceDashboards(sampleMonitor, dsContainer, containerDashboards));
+        }
+    }
+
+    private void updateDataSourceDashboards(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBPDataSourceContainer dsContainer,
+        @NotNull List<DashboardItemContainer> dashboards
+    ) {
+        DBPDataSource dataSource = dsContainer.getDataSource();
+        if (dataSource == null) {
+            return;
+        }
         monitor.beginTask("Update dashboards", dashboards.size());
 
         // Get all map queries used by dashboards
+        List<MapQueryInfo> queryList = new ArrayList<>();
         for (DashboardItemContainer dashboard : dashboards) {
             DBDashboardMapQuery mapQuery = dashboard.getMapQuery();
             if (mapQuery != null) {
-                List<MapQueryInfo> queryList = mapQueries.computeIfAbsent(
-                    dashboard.getDataSourceContainer(), k -> new ArrayList<>());
                 boolean found = false;
                 for (MapQueryInfo mqi : queryList) {
                     if (mqi.mapQuery == mapQuery) {
@@ -103,17 +136,13 @@ public class DashboardUpdater {
             }
         }
 
-        for (Map.Entry<DBPDataSourceContainer, List<MapQueryInfo>> mqEntry : mapQueries.entrySet()) {
+        if (!queryList.isEmpty()) {
+            mapQueries.put(dsContainer, queryList);
             monitor.subTask("Read dashboard data");
-            DBPDataSourceContainer dsContainer = mqEntry.getKey();
-            DBPDataSource dataSource = dsContainer.getDataSource();
-            if (dataSource == null) {
-                continue;
-            }
             try {
                 DBExecUtils.tryExecuteRecover(dashboards, dataSource, param -> {
                     try {
-                        for (MapQueryInfo mqi : mqEntry.getValue()) {
+                        for (MapQueryInfo mqi : queryList) {
                             if (!mqi.dashboard.isAutoUpdateEnabled()) {
                                 continue;
                             }
@@ -136,11 +165,7 @@ public class DashboardUpdater {
         }
 
         for (DashboardItemContainer dashboard : dashboards) {
-            if (!dashboard.isAutoUpdateEnabled()) {
-                continue;
-            }
-            DBPDataSource dataSource = dashboard.getDataSourceContainer().getDataSource();
-            if (dataSource == null) {
+            if (!dashboard.isAutoUpdateEnabled() || monitor.isCanceled()) {
                 continue;
             }
             try {
@@ -277,9 +277,7 @@ class GridCellRenderer extends AbstractRenderer {
             Rectangle imageBounds;
             if (isToggle) {
                 String cellText = grid.getCellText(cellInfo.text);
-                GC sizingGC = new GC(grid);
-                Point textSize = sizingGC.textExtent(cellText);
-                sizingGC.dispose();
+                Point textSize = grid.getSizingGC().textExtent(cellText);
                 imageBounds = new Rectangle(0, 0, textSize.x, textSize.y);
             } else {
                 DBPImage cellImage = cellInfo.image;
@@ -220,13 +220,13 @@ public class GridColumn implements IGridColumn {
         {
             int textWidth;
             if (Boolean.TRUE.equals(labelProvider.getGridOption(IGridLabelProvider.OPTION_EXCLUDE_COLUMN_NAME_FOR_WIDTH_CALC))) {
-                textWidth = gc.stringExtent("X").x;
+                textWidth = grid.getTextMeter().getStringWidth(gc, "X");
             } else {
                 String text = labelProvider.getText(this);
                 String description = labelProvider.getDescription(this);
-                textWidth = gc.stringExtent(text).x;
+                textWidth = grid.getTextMeter().getStringWidth(gc, text);
                 if (!CommonUtils.isEmpty(description)) {
-                    int descWidth = gc.stringExtent(description).x;
+                    int descWidth = grid.getTextMeter().getStringWidth(gc, description);
                     if (descWidth > textWidth) {
                         textWidth = descWidth;
                     }
@@ -316,7 +316,7 @@ public class GridColumn implements IGridColumn {
             x += imageBounds.width + insideMargin;
         }
 
-        x += gc.textExtent(cellText).x + rightMargin;
+        x += grid.getTextMeter().getTextWidth(gc, cellText) + rightMargin;
         return x;
     }
 
@@ -122,7 +122,7 @@ class GridRowRenderer extends AbstractRenderer {
         }
         final String rowText = grid.getLabelProvider().getText(element);
         final String rowDesc = grid.getLabelProvider().getDescription(element);
-        width += gc.stringExtent(CommonUtils.isNotEmpty(rowDesc) ? rowText + " - " + rowDesc : rowText).x;
+        width += grid.getTextMeter().getStringWidth(gc, CommonUtils.isNotEmpty(rowDesc) ? rowText + " - " + rowDesc : rowText);
         width += level * GridRowRenderer.LEVEL_SPACING;
         return width;
     }
@@ -0,0 +1,117 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.lightgrid;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.jkiss.code.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Approximate text measurer used for grid layout (column and row header sizing).
+ * Glyph advance widths are cached per font, so width of a simple text is a sum of cached advances
+ * and doesn't require native text layout. Kerning and ligatures are ignored.
+ * Texts with control, combining or complex script characters are measured by GC.
+ */
+final class GridTextMeter {
+
+    private static final int PAGE_SIZE = 256;
+    private static final int MAX_CACHED_FONTS = 16;
+
+    // Advances of characters in pages of 256 chars. -1 means not measured yet.
+    private final Map<Font, int[][]> fontAdvances = new HashMap<>();
+
+    /**
+     * Approximate width of text. Same as GC#textExtent for simple texts.
+     */
+    int getTextWidth(@NotNull GC gc, @NotNull String text) {
+        int width = getCachedWidth(gc, text);
+        return width >= 0 ? width : gc.textExtent(text).x;
+    }
+
+    /**
+     * Approximate width of string. Same as GC#stringExtent for simple strings.
+     */
+    int getStringWidth(@NotNull GC gc, @NotNull String text) {
+        int width = getCachedWidth(gc, text);
+        return width >= 0 ? width : gc.stringExtent(text).x;
+    }
+
+    /**
+     * Clears cached advances. Must be called when fonts are disposed.
+     */
+    void clear() {
+        fontAdvances.clear();
+    }
+
+    private int getCachedWidth(@NotNull GC gc, @NotNull String text) {
+        Font font = gc.getFont();
+        int[][] pages = fontAdvances.get(font);
+        if (pages == null) {
+            if (fontAdvances.size() >= MAX_CACHED_FONTS) {
+                fontAdvances.clear();
+            }
+            pages = new int[Character.MAX_VALUE / PAGE_SIZE + 1][];
+            fontAdvances.put(font, pages);
+        }
+        int width = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (!isSimpleChar(c)) {
+                return -1;
+            }
+            int[] page = pages[c / PAGE_SIZE];
+            if (page == null) {
+                page = new int[PAGE_SIZE];
+                Arrays.fill(page, -1);
+                pages[c / PAGE_SIZE] = page;
+            }
+            int advance = page[c % PAGE_SIZE];
+            if (advance < 0) {
+                advance = gc.getAdvanceWidth(c);
+                page[c % PAGE_SIZE] = advance;
+            }
+            width += advance;
+        }
+        return width;
+    }
+
+    /**
+     * Characters which are rendered with their own advance regardless of neighbours.
+     */
+    private static boolean isSimpleChar(char c) {
+        if (c < 0x20 || (c >= 0x7F && c < 0xA0)) {
+            // Control characters (tabs, line feeds, etc)
+            return false;
+        } else if (c < 0x0300) {
+            // Latin
+            return true;
+        } else if (c < 0x0370) {
+            // Combining diacritical marks
+            return false;
+        } else if (c < 0x0590) {
+            // Greek, Cyrillic and Armenian, except Cyrillic combining marks
+            return c < 0x0483 || c > 0x0489;
+        }
+        // CJK, Hangul and full width forms
+        return (c >= 0x3000 && c < 0xA000) || (c >= 0xAC00 && c < 0xD7A4) || (c >= 0xFF01 && c < 0xFFEF);
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.lightgrid;
+
+/**
+ * Grid paint instrumentation.
+ * Receives paint time of each grid frame.
+ */
+public interface IGridPaintListener {
+
+    /**
+     * Called after grid frame is painted
+     *
+     * @param rowCount       number of painted rows
+     * @param columnCount    number of painted (not pinned) columns
+     * @param paintTimeNanos frame paint time in nanoseconds
+     */
+    void framePainted(int rowCount, int columnCount, long paintTimeNanos);
+
+}
@@ -323,6 +323,13 @@ public abstract class LightGrid extends Canvas {
     Font italicFont;
     Font commentFont;
 
+    // Shared GC and glyph advances cache for layout computations
+    private final GridTextMeter textMeter = new GridTextMeter();
+    @Nullable
+    private GC measureGC;
+    @Nullable
+    private IGridPaintListener gridPaintListener;
+
     @NotNull
     private Color lineColor;
     private Color lineSelectedColor;
@@ -433,9 +440,7 @@ public abstract class LightGrid extends Canvas {
     {
         super(parent, checkStyle(style));
 
-        GC sizingGC = new GC(this);
-        fontMetrics = sizingGC.getFontMetrics();
-        sizingGC.dispose();
+        fontMetrics = getSizingGC().getFontMetrics();
 
         normalFont = getFont();
         boldFont = UIUtils.makeBoldFont(normalFont);
@@ -590,7 +595,7 @@ public abstract class LightGrid extends Canvas {
         this.displayedToolTipText = null;
 
         if (refreshColumns) {
-            GC sizingGC = new GC(this);
+            GC sizingGC = getSizingGC();
             // Invalidate columns structure
             boolean hasChildColumns = false, hasPinnedColumns = false;
             for (Iterator<GridColumn> iter = columns.iterator(); iter.hasNext(); ) {
@@ -684,7 +689,6 @@ public abstract class LightGrid extends Canvas {
                     }
                 }
             }
-            sizingGC.dispose();
         }
         // Recalculate indexes, sizes and update scrollbars
         topIndex = -1;
@@ -2347,6 +2351,8 @@ public abstract class LightGrid extends Canvas {
      */
     private void onPaint(@NotNull PaintEvent e)
     {
+        final IGridPaintListener paintListener = gridPaintListener;
+        final long paintStartTime = paintListener == null ? 0 : System.nanoTime();
         final GC gc = e.gc;
         gc.setBackground(getBackground());
 
@@ -2384,25 +2390,40 @@ public abstract class LightGrid extends Canvas {
         final Rectangle cellBounds = new Rectangle(0, 0, 0, 0);
         int pinnedColumnsWidth = getPinnedColumnsWidth();
 
-        for (int i = 0; i < visibleRows; i++) {
+        // Find range of visible (not pinned) columns once, so rows do not iterate over all columns
+        int firstVisibleColumn = 0, lastVisibleColumn = -1;
+        int firstVisibleColumnX = 0, columnsEndX = pinnedColumnsWidth - hScrollSelectionInPixels;
+        if (rowHeaderVisible) {
+            columnsEndX += rowHeaderWidth - 1;
+        }
+        for (int k = 0, columnsSize = columns.size(); k < columnsSize && columnsEndX < clientArea.width; k++) {
+            GridColumn column = columns.get(k);
+            if (column.isPinned()) {
+                continue;
+            }
+            int width = column.getWidth();
+            if (columnsEndX + width >= 0) {
+                if (lastVisibleColumn < 0) {
+                    firstVisibleColumn = k;
+                    firstVisibleColumnX = columnsEndX;
+                }
+                lastVisibleColumn = k;
+            }
+            columnsEndX += width;
+        }
 
-            int x = 0;
+        for (int i = 0; i < visibleRows; i++) {
 
-            x -= hScrollSelectionInPixels;
+            int x;
 
             // get the item to draw
             if (row >= 0 && row < getItemCount()) {
 
                 boolean cellInRowSelected = selectedRows.containsKey(row);
 
-                if (rowHeaderVisible) {
-                    // row header is actually painted later
-                    x += rowHeaderWidth - 1;
-                }
-                x += pinnedColumnsWidth;
-
-                // draw regular cells for each column
-                for (int k = 0, columnsSize = columns.size(); k < columnsSize; k++) {
+                // draw regular cells for each visible column
+                x = firstVisibleColumnX;
+                for (int k = firstVisibleColumn; k <= lastVisibleColumn; k++) {
                     GridColumn column = columns.get(k);
                     if (column.isPinned()) {
                         continue;
@@ -2433,6 +2454,7 @@ public abstract class LightGrid extends Canvas {
                     x += width;
                 }
 
+                x = columnsEndX;
                 if (x < clientArea.width) {
                     drawEmptyCell(gc, x, y, clientArea.width - x + 1, itemHeight);
                 }
@@ -2500,6 +2522,7 @@ public abstract class LightGrid extends Canvas {
 
             } else {
 
+                x = -hScrollSelectionInPixels;
                 if (rowHeaderVisible) {
                     //row header is actually painted later
                     x += rowHeaderWidth;
@@ -2507,6 +2530,7 @@ public abstract class LightGrid extends Canvas {
                 x += pinnedColumnsWidth;
 
                 for (GridColumn column : columns) {
+                    if (x >= clientArea.width) break;
                     if (column.isPinned()) continue;
                     drawEmptyCell(gc, x, y, column.getWidth(), itemHeight);
                     x += column.getWidth();
@@ -2578,6 +2602,9 @@ public abstract class LightGrid extends Canvas {
                 if (x < leftSpan) {
                     continue;
                 }
+                if (x > clientArea.width) {
+                    break;
+                }
                 gc.drawLine(
                     x,
                     startY + 1,
@@ -2598,6 +2625,13 @@ public abstract class LightGrid extends Canvas {
             int lastRow = row >= gridRows.length ? gridRows.length - 1 : row;
             getContentProvider().validateDataPresence(columns.get(columns.size() - 1), gridRows[lastRow]);
         }
+
+        if (paintListener != null) {
+            paintListener.framePainted(
+                visibleRows,
+                lastVisibleColumn < 0 ? 0 : lastVisibleColumn - firstVisibleColumn + 1,
+                System.nanoTime() - paintStartTime);
+        }
     }
 
     /**
@@ -3139,6 +3173,11 @@ public abstract class LightGrid extends Canvas {
         UIUtils.dispose(boldFont);
         UIUtils.dispose(italicFont);
         UIUtils.dispose(commentFont);
+        if (measureGC != null) {
+            measureGC.dispose();
+            measureGC = null;
+        }
+        textMeter.clear();
     }
 
     /**
@@ -3492,9 +3531,7 @@ public abstract class LightGrid extends Canvas {
         if (e.button == 1) {
 
             if (hoveringOnColumnResizer) {
-                GC gc = new GC(this);
-                columnBeingResized.pack(gc, true);
-                gc.dispose();
+                columnBeingResized.pack(getSizingGC(), true);
                 resizingColumn = false;
                 scrollValuesObsolete = true;
                 handleHoverOnColumnHeader(e.x, e.y);
@@ -4289,9 +4326,7 @@ public abstract class LightGrid extends Canvas {
 
     public void recalculateSizes(boolean decreaseSize) {
         int oldHeaderHeight = headerHeight;
-        GC gc = new GC(this);
-        computeHeaderSizes(gc, decreaseSize);
-        gc.dispose();
+        computeHeaderSizes(getSizingGC(), decreaseSize);
         if (oldHeaderHeight != headerHeight) {
             scrollValuesObsolete = true;
         }
@@ -4724,10 +4759,8 @@ public abstract class LightGrid extends Canvas {
     {
         super.setFont(font);
 
-        GC sizingGC = new GC(this);
-        sizingGC.setFont(font);
-        fontMetrics = sizingGC.getFontMetrics();
-        sizingGC.dispose();
+        textMeter.clear();
+        fontMetrics = getSizingGC().getFontMetrics();
 
         normalFont = font;
         UIUtils.dispose(boldFont);
@@ -4750,6 +4783,30 @@ public abstract class LightGrid extends Canvas {
         };
     }
 
+    /**
+     * Returns GC for text measurements. GC is shared, its font is reset to the grid font.
+     */
+    @NotNull
+    GC getSizingGC() {
+        if (measureGC == null || measureGC.isDisposed()) {
+            measureGC = new GC(this);
+        }
+        measureGC.setFont(getFont());
+        return measureGC;
+    }
+
+    @NotNull
+    GridTextMeter getTextMeter() {
+        return textMeter;
+    }
+
+    /**
+     * Sets listener which receives paint times of grid frames. Null removes the listener.
+     */
+    public void setGridPaintListener(@Nullable IGridPaintListener gridPaintListener) {
+        this.gridPaintListener = gridPaintListener;
+    }
+
     public String getCellText(IGridColumn colElement, IGridRow rowElement) {
         Object text = getContentProvider().getCellValue(
             colElement, rowElement, true);
@@ -4782,9 +4839,7 @@ public abstract class LightGrid extends Canvas {
         }
         //fixme delete code bellow?
         // Show tooltip only if it's larger than column width
-        GC sizingGC = new GC(this);
-        Point ttSize = sizingGC.textExtent(toolTip);
-        sizingGC.dispose();
+        Point ttSize = getSizingGC().textExtent(toolTip);
 
         if (ttSize.x > col.getWidth() || ttSize.y > getItemHeight()) {
             int gridHeight = getBounds().height;
@@ -46,7 +46,14 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
     private ResultSetViewer resultSetViewer;
     private int columnsCount;
     private DBDAttributeBinding[] metaColumns;
+    // Rows of the first segment. They are kept until fetch end because attributes binding may change values.
     private List<Object[]> rows = new ArrayList<>();
+    // Next segments are fetched directly in the model data store
+    private ResultSetDataStore segmentStore;
+    private boolean segmentStoreOwned;
+    private int segmentFirstIndex;
+    private int segmentRowCount;
+    private Object[] segmentRow;
     private boolean hasMoreData;
     private boolean nextSegmentRead;
     private long offset;
@@ -97,6 +104,16 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         this.offset = offset;
         this.maxRows = maxRows;
 
+        if (nextSegmentRead) {
+            boolean resetOldRows = isResetOldRows();
+            disposeSegmentStore();
+            segmentStore = resultSetViewer.getModel().getSegmentStore(resetOldRows);
+            segmentStoreOwned = resetOldRows;
+            segmentFirstIndex = segmentStore.getRowCount();
+            segmentRowCount = 0;
+            segmentRow = new Object[columnsCount];
+        }
+
         if (!nextSegmentRead) {
             // Get columns metadata
             DBCResultSetMetaData metaData = resultSet.getMeta();
@@ -116,8 +133,14 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
     @Override
     public void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) {
-        Object[] row = new Object[columnsCount];
+        if (segmentStore != null && segmentStore.isDisposed()) {
+            // Viewer was closed or refreshed while the next segment was read. Skip the remaining rows.
+            return;
+        }
+        // Segment values are copied by the store so the same buffer is reused for all rows
+        Object[] row = segmentStore != null ? segmentRow : new Object[columnsCount];
         for (int i = 0; i < columnsCount; i++) {
+            row[i] = null;
             try {
                 DBSAttributeBase metaAttribute = metaColumns[i].getAttribute();
                 if (metaAttribute == null) {
@@ -149,7 +172,13 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
                 }
             }
         }
-        rows.add(row);
+        if (segmentStore != null) {
+            if (segmentStore.tryAddRow(row) >= 0) {
+                segmentRowCount++;
+            }
+        } else {
+            rows.add(row);
+        }
     }
 
     @Override
@@ -172,23 +201,34 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
             }
         }
 
-        final List<Object[]> tmpRows = rows;
-
         final boolean nextSegmentRead = this.nextSegmentRead;
 
         // Push data into viewer
         DBRProgressMonitor monitor = session.getProgressMonitor();
         monitor.beginTask("Populate data", 1);
-        if (!nextSegmentRead) {
+        int fetchedRows;
+        if (segmentStore == null) {
             monitor.subTask("Set data");
-            resultSetViewer.setData(tmpRows, focusRow);
+            fetchedRows = rows.size();
+            resultSetViewer.setData(rows, focusRow);
+        } else if (segmentStore.isDisposed()) {
+            // Model was reset while the segment was read, there is nothing to append to
+            segmentStore = null;
+            segmentRow = null;
+            hasMoreData = false;
+            monitor.done();
+            return;
         } else {
             monitor.subTask("Append data");
-            boolean resetOldRows = getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
-            resultSetViewer.appendData(tmpRows, resetOldRows);
+            fetchedRows = segmentRowCount;
+            ResultSetDataStore store = segmentStore;
+            // Store is owned by the model now
+            segmentStore = null;
+            segmentRow = null;
+            resultSetViewer.appendData(store, segmentFirstIndex, segmentRowCount, segmentStoreOwned);
         }
         // Check for more data
-        hasMoreData = maxRows > 0 && tmpRows.size() >= maxRows;
+        hasMoreData = maxRows > 0 && fetchedRows >= maxRows;
         monitor.done();
 
         UIUtils.syncExec(() -> {
@@ -207,6 +247,19 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         });
     }
 
+    private boolean isResetOldRows() {
+        return getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
+    }
+
+    private void disposeSegmentStore() {
+        // New store wasn't passed to the model (fetch failed)
+        if (segmentStore != null && segmentStoreOwned) {
+            segmentStore.dispose();
+        }
+        segmentStore = null;
+        segmentRow = null;
+    }
+
     private DBSDataContainer getDataContainer() {
         return targetDataContainer != null ? targetDataContainer : resultSetViewer.getDataContainer();
     }
@@ -217,6 +270,7 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
         attrErrors.clear();
         rows = new ArrayList<>();
+        disposeSegmentStore();
     }
 
     @Override
@@ -0,0 +1,1115 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+
+import java.io.*;
+import java.lang.ref.Cleaner;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Columnar storage of result set values.
+ * <p>
+ * Rows are split in pages of fixed size. Each page column keeps its values in a storage specialized
+ * by the type of the first non-null value. Integer, long, double and boolean values are kept in primitive arrays,
+ * low-cardinality strings are dictionary-encoded. If a column receives a value which doesn't fit its storage
+ * (or strings turn out to be mostly unique) then it is switched to plain object storage. Nulls are tracked with
+ * a separate presence bitmap.
+ * <p>
+ * If memory limit is set then only a limited number of pages is kept on heap. Cold pages are spilled to a
+ * temporary file in the workspace temp folder and loaded back on access (page replacement uses the CLOCK
+ * approximation of LRU). Pages which contain values which can't be serialized (LOBs, complex values, etc)
+ * always stay in memory.
+ * <p>
+ * Rows are addressed by storage index which never changes (sorting and visual reordering is done on row cursors).
+ */
+public final class ResultSetDataStore {
+
+    private static final Log log = Log.getLog(ResultSetDataStore.class);
+
+    private static final Cleaner cleaner = Cleaner.create();
+
+    public static final int PAGE_SIZE = 4096;
+    private static final int INITIAL_CAPACITY = 64;
+    // Dictionary encoding makes no sense for columns with a lot of unique strings: dictionary index costs
+    // more than plain references. Dictionary is kept while at most every MAX_DISTINCT_RATIO-th value is unique
+    // (checked after first DICTIONARY_SAMPLE_SIZE values).
+    private static final int MAX_DICTIONARY_SIZE = PAGE_SIZE / 2;
+    private static final int MAX_DISTINCT_RATIO = 4;
+    private static final int DICTIONARY_SAMPLE_SIZE = 256;
+
+    private static final byte KIND_NONE = 0;
+    private static final byte KIND_INT = 1;
+    private static final byte KIND_LONG = 2;
+    private static final byte KIND_DOUBLE = 3;
+    private static final byte KIND_BOOLEAN = 4;
+    private static final byte KIND_STRING = 5;
+    private static final byte KIND_OBJECT = 6;
+
+    private final List<PageRef> pages = new ArrayList<>();
+    private final int maxHotPages;
+    @Nullable
+    private final Path spillFolder;
+    private int hotPages;
+    private int clockHand;
+    private int rowCount;
+    private int columnCount;
+
+    @Nullable
+    private SpillFile spillFile;
+    @Nullable
+    private Cleaner.Cleanable spillCleanable;
+    private boolean spillFailed;
+    private boolean disposed;
+
+    public ResultSetDataStore() {
+        this(0);
+    }
+
+    /**
+     * @param maxMemoryRows maximum number of rows kept on heap. Zero or negative value disables spilling.
+     */
+    public ResultSetDataStore(int maxMemoryRows) {
+        this(maxMemoryRows, null);
+    }
+
+    // Constructor for tests
+    public ResultSetDataStore(int maxMemoryRows, @Nullable Path spillFolder) {
+        this.maxHotPages = maxMemoryRows <= 0 ? 0 : Math.max(2, maxMemoryRows / PAGE_SIZE);
+        this.spillFolder = spillFolder;
+    }
+
+    public synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    public synchronized int getColumnCount() {
+        return columnCount;
+    }
+
+    public synchronized boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Number of pages kept on heap
+     */
+    public synchronized int getHotPageCount() {
+        return hotPages;
+    }
+
+    /**
+     * Checks whether page of the specified row is kept on heap. Doesn't load the page.
+     */
+    public synchronized boolean isRowInMemory(int row) {
+        return !disposed && pages.get(row / PAGE_SIZE).page != null;
+    }
+
+    /**
+     * Checks whether strings of the specified cell's page column are dictionary-encoded. Loads the page.
+     */
+    public synchronized boolean isDictionaryEncoded(int row, int column) {
+        Column[] columns = getPage(row).columns;
+        return column < columns.length && columns[column] instanceof StringColumn;
+    }
+
+    /**
+     * Adds new row and returns its storage index
+     */
+    public synchronized int addRow(@NotNull Object[] values) {
+        if (disposed) {
+            throw new IllegalStateException("Data store is disposed");
+        }
+        return tryAddRow(values);
+    }
+
+    /**
+     * Adds new row and returns its storage index or -1 if store was disposed.
+     * Used by fetchers which may race with the viewer disposal.
+     */
+    public synchronized int tryAddRow(@NotNull Object[] values) {
+        if (disposed) {
+            return -1;
+        }
+        if (values.length > columnCount) {
+            columnCount = values.length;
+        }
+        int index = rowCount++;
+        Page page;
+        if (index / PAGE_SIZE == pages.size()) {
+            PageRef ref = new PageRef();
+            page = new Page();
+            ref.page = page;
+            ref.referenced = true;
+            pages.add(ref);
+            hotPages++;
+            evictColdPages(ref);
+        } else {
+            page = getPage(index);
+        }
+        page.dirty = true;
+        page.rowCount++;
+        page.ensureCapacity(page.rowCount);
+        int pageRow = index % PAGE_SIZE;
+        for (int i = 0; i < values.length; i++) {
+            page.setValue(pageRow, i, values[i]);
+        }
+        return index;
+    }
+
+    @Nullable
+    public synchronized Object getValue(int row, int column) {
+        if (disposed) {
+            return null;
+        }
+        return getPage(row).getValue(row % PAGE_SIZE, column);
+    }
+
+    public synchronized void setValue(int row, int column, @Nullable Object value) {
+        if (disposed) {
+            return;
+        }
+        if (column >= columnCount) {
+            columnCount = column + 1;
+        }
+        Page page = getPage(row);
+        page.setValue(row % PAGE_SIZE, column, value);
+        page.dirty = true;
+    }
+
+    @NotNull
+    public synchronized Object[] getValues(int row) {
+        if (disposed) {
+            return new Object[columnCount];
+        }
+        Page page = getPage(row);
+        int pageRow = row % PAGE_SIZE;
+        Object[] values = new Object[columnCount];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = page.getValue(pageRow, i);
+        }
+        return values;
+    }
+
+    public synchronized void setValues(int row, @NotNull Object[] values) {
+        if (disposed) {
+            return;
+        }
+        if (values.length > columnCount) {
+            columnCount = values.length;
+        }
+        Page page = getPage(row);
+        int pageRow = row % PAGE_SIZE;
+        for (int i = 0; i < columnCount; i++) {
+            page.setValue(pageRow, i, i < values.length ? values[i] : null);
+        }
+        page.dirty = true;
+    }
+
+    /**
+     * Releases values of the specified row.
+     * Spilled pages are not loaded back because they may contain only plain values which don't need to be released.
+     */
+    public synchronized void releaseValues(int row) {
+        if (disposed) {
+            return;
+        }
+        PageRef ref = pages.get(row / PAGE_SIZE);
+        Page page = ref.page;
+        if (page == null) {
+            return;
+        }
+        int pageRow = row % PAGE_SIZE;
+        for (int i = 0; i < columnCount; i++) {
+            DBUtils.releaseValue(page.getValue(pageRow, i));
+        }
+    }
+
+    /**
+     * Releases spill file. Store can't be used after this: values of old rows (which may be still painted
+     * until the viewer is refreshed) are read as nulls.
+     */
+    public synchronized void dispose() {
+        disposed = true;
+        if (spillCleanable != null) {
+            spillCleanable.clean();
+            spillCleanable = null;
+        }
+        spillFile = null;
+        pages.clear();
+        hotPages = 0;
+    }
+
+    @NotNull
+    private Page getPage(int row) {
+        PageRef ref = pages.get(row / PAGE_SIZE);
+        ref.referenced = true;
+        Page page = ref.page;
+        if (page == null) {
+            page = loadPage(ref);
+        }
+        return page;
+    }
+
+    @NotNull
+    private Page loadPage(@NotNull PageRef ref) {
+        assert spillFile != null;
+        Page page;
+        try {
+            page = Page.read(spillFile.read(ref.fileOffset, ref.fileLength));
+        } catch (IOException e) {
+            // Page content is lost. Should never happen unless temp file was damaged
+            log.error("Error reading result set page from " + spillFile.path, e);
+            page = new Page();
+            page.rowCount = ref.rowCount;
+            page.ensureCapacity(page.rowCount);
+        }
+        ref.page = page;
+        hotPages++;
+        evictColdPages(ref);
+        return page;
+    }
+
+    private void evictColdPages(@NotNull PageRef activePage) {
+        if (maxHotPages <= 0 || spillFailed) {
+            return;
+        }
+        // Do not check the same page forever. Each page gets a second chance and then may be evicted
+        int pagesToCheck = pages.size() * 2;
+        while (hotPages > maxHotPages && pagesToCheck-- > 0) {
+            if (clockHand >= pages.size()) {
+                clockHand = 0;
+            }
+            PageRef ref = pages.get(clockHand++);
+            Page page = ref.page;
+            if (page == null || page.pinned || ref == activePage) {
+                continue;
+            }
+            if (ref.referenced) {
+                ref.referenced = false;
+                continue;
+            }
+            if (!spillPage(ref, page)) {
+                return;
+            }
+        }
+    }
+
+    private boolean spillPage(@NotNull PageRef ref, @NotNull Page page) {
+        if (page.dirty || ref.fileOffset < 0) {
+            byte[] data = page.write();
+            if (data == null) {
+                // Page contains values which can't be serialized
+                page.pinned = true;
+                return true;
+            }
+            try {
+                SpillFile file = getSpillFile();
+                if (ref.fileOffset >= 0 && data.length <= ref.fileCapacity) {
+                    file.write(ref.fileOffset, data);
+                } else {
+                    ref.fileOffset = file.append(data);
+                    ref.fileCapacity = data.length;
+                }
+                ref.fileLength = data.length;
+            } catch (IOException e) {
+                log.error("Error spilling result set data to disk. Keep all rows in memory.", e);
+                spillFailed = true;
+                return false;
+            }
+        }
+        ref.rowCount = page.rowCount;
+        ref.page = null;
+        hotPages--;
+        return true;
+    }
+
+    @NotNull
+    private SpillFile getSpillFile() throws IOException {
+        if (spillFile == null) {
+            Path folder = spillFolder != null ?
+                spillFolder : DBWorkbench.getPlatform().getTempFolder(new VoidProgressMonitor(), "resultset-pages");
+            SpillFile file = new SpillFile(Files.createTempFile(folder, "rs", ".pages"));
+            spillCleanable = cleaner.register(this, file);
+            spillFile = file;
+        }
+        return spillFile;
+    }
+
+    private static int bitmapSize(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    /**
+     * Page location. Keeps either page itself or its location in the spill file.
+     */
+    private static class PageRef {
+        @Nullable
+        Page page;
+        boolean referenced;
+        long fileOffset = -1;
+        int fileLength;
+        int fileCapacity;
+        int rowCount;
+    }
+
+    /**
+     * Temporary file with spilled pages. Closing of the file deletes it.
+     */
+    private static class SpillFile implements Runnable {
+        private final Path path;
+        private final FileChannel channel;
+        private long size;
+
+        SpillFile(@NotNull Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(
+                path,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        long append(@NotNull byte[] data) throws IOException {
+            long offset = size;
+            write(offset, data);
+            size += data.length;
+            return offset;
+        }
+
+        void write(long offset, @NotNull byte[] data) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+        }
+
+        @NotNull
+        DataInput read(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                int count = channel.read(buffer, offset + buffer.position());
+                if (count < 0) {
+                    throw new EOFException("Unexpected end of page file");
+                }
+            }
+            return new DataInputStream(new ByteArrayInputStream(buffer.array()));
+        }
+
+        @Override
+        public void run() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Error closing result set page file " + path, e);
+            }
+        }
+    }
+
+    private static class Page {
+        @NotNull
+        private Column[] columns = new Column[0];
+        @NotNull
+        private long[][] presence = new long[0][];
+        private int rowCount;
+        private int capacity;
+        // Modified since last write to disk
+        private boolean dirty;
+        // Can't be spilled
+        private boolean pinned;
+
+        @Nullable
+        Object getValue(int row, int column) {
+            if (column >= columns.length || !isPresent(column, row)) {
+                return null;
+            }
+            return columns[column].get(row);
+        }
+
+        void setValue(int row, int column, @Nullable Object value) {
+            ensureColumnCount(column + 1);
+            Column storage = columns[column];
+            if (value == null) {
+                presence[column][row >>> 6] &= ~(1L << row);
+                if (storage != null) {
+                    storage.clear(row);
+                }
+                return;
+            }
+            if (storage == null) {
+                storage = createColumn(value);
+                columns[column] = storage;
+            } else if (!storage.accepts(value)) {
+                storage = toObjectColumn(column, storage);
+            }
+            storage.set(row, value);
+            presence[column][row >>> 6] |= 1L << row;
+            if (storage instanceof ObjectColumn) {
+                // Maybe it was pinned by value which isn't here anymore, check it again on eviction
+                pinned = false;
+            }
+        }
+
+        private boolean isPresent(int column, int row) {
+            return (presence[column][row >>> 6] & (1L << row)) != 0;
+        }
+
+        private void ensureColumnCount(int count) {
+            if (count <= columns.length) {
+                return;
+            }
+            int oldCount = columns.length;
+            columns = Arrays.copyOf(columns, count);
+            presence = Arrays.copyOf(presence, count);
+            for (int i = oldCount; i < count; i++) {
+                presence[i] = new long[bitmapSize(capacity)];
+            }
+        }
+
+        void ensureCapacity(int minCapacity) {
+            if (minCapacity <= capacity) {
+                return;
+            }
+            int newCapacity = Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+            newCapacity = Math.min(PAGE_SIZE, Math.max(newCapacity, minCapacity));
+            for (int i = 0; i < columns.length; i++) {
+                presence[i] = Arrays.copyOf(presence[i], bitmapSize(newCapacity));
+                if (columns[i] != null) {
+                    columns[i].grow(newCapacity);
+                }
+            }
+            capacity = newCapacity;
+        }
+
+        @NotNull
+        private Column createColumn(@NotNull Object value) {
+            final Column column;
+            if (value instanceof Integer) {
+                column = new IntColumn();
+            } else if (value instanceof Long) {
+                column = new LongColumn();
+            } else if (value instanceof Double) {
+                column = new DoubleColumn();
+            } else if (value instanceof Boolean) {
+                column = new BooleanColumn();
+            } else if (value instanceof String) {
+                column = new StringColumn();
+            } else {
+                column = new ObjectColumn();
+            }
+            column.grow(capacity);
+            return column;
+        }
+
+        @NotNull
+        private Column toObjectColumn(int index, @NotNull Column source) {
+            ObjectColumn target = new ObjectColumn();
+            target.grow(capacity);
+            for (int row = 0; row < rowCount; row++) {
+                if (isPresent(index, row)) {
+                    target.set(row, source.get(row));
+                }
+            }
+            columns[index] = target;
+            return target;
+        }
+
+        /**
+         * Serializes page. Returns null if page contains values which can't be serialized.
+         */
+        @Nullable
+        byte[] write() {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                out.writeInt(rowCount);
+                out.writeInt(columns.length);
+                for (int i = 0; i < columns.length; i++) {
+                    Column column = columns[i];
+                    if (column == null) {
+                        out.writeByte(KIND_NONE);
+                        continue;
+                    }
+                    out.writeByte(column.getKind());
+                    long[] bits = presence[i];
+                    for (int k = 0; k < bitmapSize(rowCount); k++) {
+                        out.writeLong(bits[k]);
+                    }
+                    if (!column.write(out, rowCount, bits)) {
+                        return null;
+                    }
+                }
+            } catch (IOException e) {
+                // Not possible for in-memory stream
+                return null;
+            }
+            return buffer.toByteArray();
+        }
+
+        @NotNull
+        static Page read(@NotNull DataInput in) throws IOException {
+            Page page = new Page();
+            page.rowCount = in.readInt();
+            int columnCount = in.readInt();
+            page.ensureCapacity(page.rowCount);
+            page.ensureColumnCount(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                byte kind = in.readByte();
+                if (kind == KIND_NONE) {
+                    continue;
+                }
+                long[] bits = page.presence[i];
+                for (int k = 0; k < bitmapSize(page.rowCount); k++) {
+                    bits[k] = in.readLong();
+                }
+                Column column = switch (kind) {
+                    case KIND_INT -> new IntColumn();
+                    case KIND_LONG -> new LongColumn();
+                    case KIND_DOUBLE -> new DoubleColumn();
+                    case KIND_BOOLEAN -> new BooleanColumn();
+                    case KIND_STRING -> new StringColumn();
+                    case KIND_OBJECT -> new ObjectColumn();
+                    default -> throw new IOException("Bad column kind: " + kind);
+                };
+                column.grow(page.capacity);
+                column.read(in, page.rowCount, bits);
+                page.columns[i] = column;
+            }
+            return page;
+        }
+    }
+
+    private abstract static class Column {
+        abstract byte getKind();
+
+        abstract boolean accepts(@NotNull Object value);
+
+        @NotNull
+        abstract Object get(int row);
+
+        abstract void set(int row, @NotNull Object value);
+
+        abstract void grow(int capacity);
+
+        void clear(int row) {
+            // Primitive storages don't hold references
+        }
+
+        abstract boolean write(@NotNull DataOutput out, int rowCount, @NotNull long[] presence) throws IOException;
+
+        abstract void read(@NotNull DataInput in, int rowCount, @NotNull long[] presence) throws IOException;
+
+        static boolean isPresent(@NotNull long[] presence, int row) {
+            return (presence[row >>> 6] & (1L << row)) != 0;
+        }
+    }
+
+    private static class IntColumn extends Column {
+        private int[] data = new int[0];
+
+        @Override
+        byte getKind() {
+            return KIND_INT;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value instanceof Integer;
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            return data[row];
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            data[row] = (Integer) value;
+        }
+
+        @Override
+        void grow(int capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+
+        @Override
+        boolean write(@NotNull DataOutput out, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < rowCount; i++) {
+                out.writeInt(data[i]);
+            }
+            return true;
+        }
+
+        @Override
+        void read(@NotNull DataInput in, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < rowCount; i++) {
+                data[i] = in.readInt();
+            }
+        }
+    }
+
+    private static class LongColumn extends Column {
+        private long[] data = new long[0];
+
+        @Override
+        byte getKind() {
+            return KIND_LONG;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value instanceof Long;
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            return data[row];
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            data[row] = (Long) value;
+        }
+
+        @Override
+        void grow(int capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+
+        @Override
+        boolean write(@NotNull DataOutput out, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < rowCount; i++) {
+                out.writeLong(data[i]);
+            }
+            return true;
+        }
+
+        @Override
+        void read(@NotNull DataInput in, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < rowCount; i++) {
+                data[i] = in.readLong();
+            }
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        private double[] data = new double[0];
+
+        @Override
+        byte getKind() {
+            return KIND_DOUBLE;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value instanceof Double;
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            return data[row];
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            data[row] = (Double) value;
+        }
+
+        @Override
+        void grow(int capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+
+        @Override
+        boolean write(@NotNull DataOutput out, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < rowCount; i++) {
+                out.writeDouble(data[i]);
+            }
+            return true;
+        }
+
+        @Override
+        void read(@NotNull DataInput in, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < rowCount; i++) {
+                data[i] = in.readDouble();
+            }
+        }
+    }
+
+    private static class BooleanColumn extends Column {
+        private long[] bits = new long[0];
+
+        @Override
+        byte getKind() {
+            return KIND_BOOLEAN;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value instanceof Boolean;
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            return (bits[row >>> 6] & (1L << row)) != 0;
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            if ((Boolean) value) {
+                bits[row >>> 6] |= 1L << row;
+            } else {
+                bits[row >>> 6] &= ~(1L << row);
+            }
+        }
+
+        @Override
+        void grow(int capacity) {
+            bits = Arrays.copyOf(bits, bitmapSize(capacity));
+        }
+
+        @Override
+        boolean write(@NotNull DataOutput out, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < bitmapSize(rowCount); i++) {
+                out.writeLong(bits[i]);
+            }
+            return true;
+        }
+
+        @Override
+        void read(@NotNull DataInput in, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < bitmapSize(rowCount); i++) {
+                bits[i] = in.readLong();
+            }
+        }
+    }
+
+    private static class StringColumn extends Column {
+        private int[] codes = new int[0];
+        private final List<String> dictionary = new ArrayList<>();
+        // Built on first write. Pages loaded from the spill file are mostly read-only.
+        @Nullable
+        private Map<String, Integer> dictionaryIndex;
+        private int valueCount;
+
+        @Override
+        byte getKind() {
+            return KIND_STRING;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            if (!(value instanceof String)) {
+                return false;
+            }
+            if (getDictionaryIndex().containsKey(value)) {
+                return true;
+            }
+            int distinctCount = dictionary.size() + 1;
+            return distinctCount <= MAX_DICTIONARY_SIZE &&
+                (valueCount < DICTIONARY_SAMPLE_SIZE || distinctCount * MAX_DISTINCT_RATIO <= valueCount + 1);
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            return dictionary.get(codes[row]);
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            codes[row] = getDictionaryIndex().computeIfAbsent((String) value, s -> {
+                dictionary.add(s);
+                return dictionary.size() - 1;
+            });
+            valueCount++;
+        }
+
+        @NotNull
+        private Map<String, Integer> getDictionaryIndex() {
+            if (dictionaryIndex == null) {
+                dictionaryIndex = new HashMap<>(dictionary.size() * 2);
+                for (int i = 0; i < dictionary.size(); i++) {
+                    dictionaryIndex.put(dictionary.get(i), i);
+                }
+            }
+            return dictionaryIndex;
+        }
+
+        @Override
+        void grow(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override
+        boolean write(@NotNull DataOutput out, int rowCount, @NotNull long[] presence) throws IOException {
+            out.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+            for (int i = 0; i < rowCount; i++) {
+                out.writeInt(codes[i]);
+            }
+            return true;
+        }
+
+        @Override
+        void read(@NotNull DataInput in, int rowCount, @NotNull long[] presence) throws IOException {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                dictionary.add(readString(in));
+            }
+            for (int i = 0; i < rowCount; i++) {
+                codes[i] = in.readInt();
+            }
+            valueCount = rowCount;
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private static final byte TYPE_STRING = 1;
+        private static final byte TYPE_INTEGER = 2;
+        private static final byte TYPE_LONG = 3;
+        private static final byte TYPE_DOUBLE = 4;
+        private static final byte TYPE_FLOAT = 5;
+        private static final byte TYPE_SHORT = 6;
+        private static final byte TYPE_BYTE = 7;
+        private static final byte TYPE_BOOLEAN = 8;
+        private static final byte TYPE_BIG_DECIMAL = 9;
+        private static final byte TYPE_BIG_INTEGER = 10;
+        private static final byte TYPE_TIMESTAMP = 11;
+        private static final byte TYPE_SQL_DATE = 12;
+        private static final byte TYPE_SQL_TIME = 13;
+        private static final byte TYPE_DATE = 14;
+        private static final byte TYPE_LOCAL_DATE = 15;
+        private static final byte TYPE_LOCAL_DATE_TIME = 16;
+        private static final byte TYPE_LOCAL_TIME = 17;
+        private static final byte TYPE_BYTES = 18;
+
+        private Object[] data = new Object[0];
+
+        @Override
+        byte getKind() {
+            return KIND_OBJECT;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return true;
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            return data[row];
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            data[row] = value;
+        }
+
+        @Override
+        void clear(int row) {
+            data[row] = null;
+        }
+
+        @Override
+        void grow(int capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+
+        @Override
+        boolean write(@NotNull DataOutput out, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < rowCount; i++) {
+                if (isPresent(presence, i) && !writeValue(out, data[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void read(@NotNull DataInput in, int rowCount, @NotNull long[] presence) throws IOException {
+            for (int i = 0; i < rowCount; i++) {
+                if (isPresent(presence, i)) {
+                    data[i] = readValue(in);
+                }
+            }
+        }
+
+        // Only immutable values of exact well known classes. Driver-specific subclasses may carry additional state.
+        private static boolean writeValue(@NotNull DataOutput out, @NotNull Object value) throws IOException {
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                out.writeByte(TYPE_STRING);
+                writeString(out, (String) value);
+            } else if (type == Integer.class) {
+                out.writeByte(TYPE_INTEGER);
+                out.writeInt((Integer) value);
+            } else if (type == Long.class) {
+                out.writeByte(TYPE_LONG);
+                out.writeLong((Long) value);
+            } else if (type == Double.class) {
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (type == Float.class) {
+                out.writeByte(TYPE_FLOAT);
+                out.writeFloat((Float) value);
+            } else if (type == Short.class) {
+                out.writeByte(TYPE_SHORT);
+                out.writeShort((Short) value);
+            } else if (type == Byte.class) {
+                out.writeByte(TYPE_BYTE);
+                out.writeByte((Byte) value);
+            } else if (type == Boolean.class) {
+                out.writeByte(TYPE_BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (type == BigDecimal.class) {
+                out.writeByte(TYPE_BIG_DECIMAL);
+                out.writeInt(((BigDecimal) value).scale());
+                writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+            } else if (type == BigInteger.class) {
+                out.writeByte(TYPE_BIG_INTEGER);
+                writeBytes(out, ((BigInteger) value).toByteArray());
+            } else if (type == java.sql.Timestamp.class) {
+                out.writeByte(TYPE_TIMESTAMP);
+                out.writeLong(((java.sql.Timestamp) value).getTime());
+                out.writeInt(((java.sql.Timestamp) value).getNanos());
+            } else if (type == java.sql.Date.class) {
+                out.writeByte(TYPE_SQL_DATE);
+                out.writeLong(((java.sql.Date) value).getTime());
+            } else if (type == java.sql.Time.class) {
+                out.writeByte(TYPE_SQL_TIME);
+                out.writeLong(((java.sql.Time) value).getTime());
+            } else if (type == Date.class) {
+                out.writeByte(TYPE_DATE);
+                out.writeLong(((Date) value).getTime());
+            } else if (type == LocalDate.class) {
+                out.writeByte(TYPE_LOCAL_DATE);
+                out.writeLong(((LocalDate) value).toEpochDay());
+            } else if (type == LocalDateTime.class) {
+                out.writeByte(TYPE_LOCAL_DATE_TIME);
+                out.writeLong(((LocalDateTime) value).toLocalDate().toEpochDay());
+                out.writeLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+            } else if (type == LocalTime.class) {
+                out.writeByte(TYPE_LOCAL_TIME);
+                out.writeLong(((LocalTime) value).toNanoOfDay());
+            } else if (type == byte[].class) {
+                out.writeByte(TYPE_BYTES);
+                writeBytes(out, (byte[]) value);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        @NotNull
+        private static Object readValue(@NotNull DataInput in) throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case TYPE_STRING:
+                    return readString(in);
+                case TYPE_INTEGER:
+                    return in.readInt();
+                case TYPE_LONG:
+                    return in.readLong();
+                case TYPE_DOUBLE:
+                    return in.readDouble();
+                case TYPE_FLOAT:
+                    return in.readFloat();
+                case TYPE_SHORT:
+                    return in.readShort();
+                case TYPE_BYTE:
+                    return in.readByte();
+                case TYPE_BOOLEAN:
+                    return in.readBoolean();
+                case TYPE_BIG_DECIMAL: {
+                    int scale = in.readInt();
+                    return new BigDecimal(new BigInteger(readBytes(in)), scale);
+                }
+                case TYPE_BIG_INTEGER:
+                    return new BigInteger(readBytes(in));
+                case TYPE_TIMESTAMP: {
+                    java.sql.Timestamp timestamp = new java.sql.Timestamp(in.readLong());
+                    timestamp.setNanos(in.readInt());
+                    return timestamp;
+                }
+                case TYPE_SQL_DATE:
+                    return new java.sql.Date(in.readLong());
+                case TYPE_SQL_TIME:
+                    return new java.sql.Time(in.readLong());
+                case TYPE_DATE:
+                    return new Date(in.readLong());
+                case TYPE_LOCAL_DATE:
+                    return LocalDate.ofEpochDay(in.readLong());
+                case TYPE_LOCAL_DATE_TIME: {
+                    LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                    return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readLong()));
+                }
+                case TYPE_LOCAL_TIME:
+                    return LocalTime.ofNanoOfDay(in.readLong());
+                case TYPE_BYTES:
+                    return readBytes(in);
+                default:
+                    throw new IOException("Bad value type: " + type);
+            }
+        }
+    }
+
+    private static void writeString(@NotNull DataOutput out, @NotNull String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @NotNull
+    private static String readString(@NotNull DataInput in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(@NotNull DataOutput out, @NotNull byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    @NotNull
+    private static byte[] readBytes(@NotNull DataInput in) throws IOException {
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        return value;
+    }
+
+}
@@ -29,11 +29,13 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.trace.DBCTrace;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.virtual.DBVColorOverride;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
 import org.jkiss.dbeaver.model.virtual.DBVUtils;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.runtime.jobs.DataSourceJob;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
@@ -59,6 +61,7 @@ public class ResultSetModel {
 
     // Data
     private List<ResultSetRow> curRows = new ArrayList<>();
+    private ResultSetDataStore dataStore = createDataStore();
     private Long totalRowCount = null;
     private int changesCount = 0;
     private volatile boolean hasData = false;
@@ -379,7 +382,7 @@ public class ResultSetModel {
 
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
     }
 
     @NotNull
@@ -412,13 +415,9 @@ public class ResultSetModel {
         @Nullable int[] rowIndexes,
         boolean retrieveDeepestCollectionElement
     ) {
+        // Read only the top-level value from the storage, do not copy the whole row
         return DBUtils.getAttributeValue(
-            attribute,
-            attributes,
-            row.values,
-            rowIndexes,
-            retrieveDeepestCollectionElement
-        );
+            attribute, attributes, row::getValue, row.getValueCount(), rowIndexes, retrieveDeepestCollectionElement);
     }
 
     /**
@@ -477,7 +476,7 @@ public class ResultSetModel {
         }
 
         Object oldHistoricValue = updateChanges ? row.changes.get(topAttribute) : null;
-        Object currentValue = row.values[rootIndex];
+        Object currentValue = row.getValue(rootIndex);
         Object valueToEdit = currentValue;
 
         if (currentValue instanceof DBDValue) {
@@ -518,7 +517,7 @@ public class ResultSetModel {
         } else {
             valueToEdit = value;
         }
-        row.values[rootIndex] = valueToEdit;
+        row.setValue(rootIndex, valueToEdit);
 
         if (updateChanges && row.getState() == ResultSetRow.STATE_NORMAL) {
             changesCount++;
@@ -694,7 +693,7 @@ public class ResultSetModel {
 
         // Add new data
         updateColorMapping(false);
-        appendData(rows, true);
+        addRows(rows);
         updateDataFilter();
 
         this.visibleAttributes.sort(POSITION_SORTER);
@@ -825,25 +824,62 @@ public class ResultSetModel {
         }
     }
 
-    void appendData(@NotNull List<Object[]> rows, boolean resetOldRows) {
+    private void addRows(@NotNull List<Object[]> rows) {
+        int rowCount = rows.size();
+        int firstRowNum = curRows.size();
+        List<ResultSetRow> newRows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            newRows.add(
+                new ResultSetRow(firstRowNum + i, dataStore, rows.get(i)));
+        }
+        curRows.addAll(newRows);
+
+        updateRowColors(true, newRows);
+    }
+
+    /**
+     * Returns store which next data segment must be fetched in.
+     * If old rows are reset then it is a new store which is adopted by the model in {@link #appendData}.
+     */
+    @NotNull
+    ResultSetDataStore getSegmentStore(boolean resetOldRows) {
+        return resetOldRows ? createDataStore() : dataStore;
+    }
+
+    /**
+     * Appends rows which were fetched directly in the segment store.
+     *
+     * @param store      store returned by {@link #getSegmentStore(boolean)}
+     * @param firstIndex store index of the first fetched row
+     * @param rowCount   number of fetched rows
+     * @return false if the model was cleared during fetch and segment rows were ignored
+     */
+    boolean appendData(@NotNull ResultSetDataStore store, int firstIndex, int rowCount, boolean resetOldRows) {
         if (resetOldRows) {
-            curRows.clear();
+            releaseAllData();
+            dataStore.dispose();
+            dataStore = store;
+        } else if (store != dataStore) {
+            log.debug("Result set data was reset during segment fetch");
+            return false;
         }
-        int rowCount = rows.size();
         int firstRowNum = curRows.size();
         List<ResultSetRow> newRows = new ArrayList<>(rowCount);
         for (int i = 0; i < rowCount; i++) {
             newRows.add(
-                new ResultSetRow(firstRowNum + i, rows.get(i)));
+                new ResultSetRow(firstRowNum + i, store, firstIndex + i));
         }
         curRows.addAll(newRows);
 
         updateRowColors(resetOldRows, newRows);
+        return true;
     }
 
     void clearData() {
         // Refresh all rows
         this.curRows = new ArrayList<>();
+        this.dataStore.dispose();
+        this.dataStore = createDataStore();
         this.totalRowCount = null;
         this.singleSourceEntity = null;
 
@@ -872,7 +908,7 @@ public class ResultSetModel {
 
     @NotNull
     ResultSetRow addNewRow(int rowNum, @NotNull Object[] data) {
-        ResultSetRow newRow = new ResultSetRow(curRows.size(), data);
+        ResultSetRow newRow = new ResultSetRow(curRows.size(), dataStore, data);
         newRow.setVisualNumber(rowNum);
         newRow.setState(ResultSetRow.STATE_ADDED);
         shiftRows(newRow, 1);
@@ -938,6 +974,10 @@ public class ResultSetModel {
 
     void releaseAllData() {
         final List<ResultSetRow> oldRows = curRows;
+        final ResultSetDataStore oldDataStore = dataStore;
+        // Old store is owned by the cleanup job now
+        this.curRows = new ArrayList<>();
+        this.dataStore = createDataStore();
         // Cleanup in separate job.
         // Sometimes model cleanup takes much time (e.g. freeing LOB values)
         // So let's do it in separate job to avoid UI locking
@@ -945,9 +985,19 @@ public class ResultSetModel {
             for (ResultSetRow row : oldRows) {
                 row.release();
             }
+            oldDataStore.dispose();
         }, "Release values", 5000);
     }
 
+    @NotNull
+    private static ResultSetDataStore createDataStore() {
+        DBPPreferenceStore preferenceStore = DBWorkbench.getPlatform().getPreferenceStore();
+        if (!preferenceStore.getBoolean(ResultSetPreferences.RESULT_SET_SPILL_TO_DISK)) {
+            return new ResultSetDataStore();
+        }
+        return new ResultSetDataStore(preferenceStore.getInt(ResultSetPreferences.RESULT_SET_SPILL_MAX_MEMORY_ROWS));
+    }
+
     public DBDDataFilter getDataFilter() {
         return dataFilter;
     }
@@ -1076,16 +1126,31 @@ public class ResultSetModel {
 
         if (hasOrdering) {
             // Sort locally
-            final List<DBDAttributeConstraint> orderConstraints = dataFilter.getOrderConstraints();
-            curRows.sort((row1, row2) -> {
+            final List<DBDAttributeConstraint> orderConstraints = new ArrayList<>();
+            final List<DBDAttributeBinding> orderBindings = new ArrayList<>();
+            for (DBDAttributeConstraint co : dataFilter.getOrderConstraints()) {
+                final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
+                if (binding != null) {
+                    orderConstraints.add(co);
+                    orderBindings.add(binding);
+                }
+            }
+            // Read sort keys once, in storage order. Comparator accesses rows randomly, and with spilled pages
+            // each access may load a page from disk.
+            final List<SortEntry> entries = new ArrayList<>(curRows.size());
+            for (ResultSetRow row : curRows) {
+                Object[] keys = new Object[orderBindings.size()];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = getCellValue(new ResultSetCellLocation(orderBindings.get(i), row));
+                }
+                entries.add(new SortEntry(row, keys));
+            }
+            entries.sort((entry1, entry2) -> {
                 int result = 0;
-                for (DBDAttributeConstraint co : orderConstraints) {
-                    final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
-                    if (binding == null) {
-                        continue;
-                    }
-                    Object cell1 = getCellValue(new ResultSetCellLocation(binding, row1));
-                    Object cell2 = getCellValue(new ResultSetCellLocation(binding, row2));
+                for (int i = 0; i < orderConstraints.size(); i++) {
+                    final DBDAttributeConstraint co = orderConstraints.get(i);
+                    Object cell1 = entry1.keys[i];
+                    Object cell2 = entry2.keys[i];
                     Comparator<Object> comparator = columnElement.getValueHandler().getComparator();
                     if (comparator != null) {
                         result = comparator.compare(cell1, cell2);
@@ -1104,12 +1169,18 @@ public class ResultSetModel {
                 }
                 return result;
             });
+            for (int i = 0; i < entries.size(); i++) {
+                curRows.set(i, entries.get(i).row);
+            }
         }
         for (int i = 0; i < curRows.size(); i++) {
             curRows.get(i).setVisualNumber(i);
         }
     }
 
+    private record SortEntry(@NotNull ResultSetRow row, @NotNull Object[] keys) {
+    }
+
     private void fillVisibleAttributes() {
         this.visibleAttributes.clear();
 
@@ -70,6 +70,8 @@ public final class ResultSetPreferences {
     public static final String RESULT_SET_INLINE_ENTER = "resultset.behavior.inlineEnter";
     public static final String RESULT_SET_ROW_BATCH_SIZE = "resultset.show.row.batch.size"; //$NON-NLS-1$
     public static final String RESULT_SET_MAX_COLUMN_DEF_WIDTH = "resultset.max.column.def.width"; //$NON-NLS-1$
+    public static final String RESULT_SET_SPILL_TO_DISK = "resultset.spill.enabled"; //$NON-NLS-1$
+    public static final String RESULT_SET_SPILL_MAX_MEMORY_ROWS = "resultset.spill.maxMemoryRows"; //$NON-NLS-1$
     
     public static final String RESULT_SET_FILTER_AUTO_COMPLETE_PROPOSIAL = "resultset.behavior.autoCompleteProposial"; //$NON-NLS-1$
 
@@ -26,7 +26,8 @@ import java.util.IdentityHashMap;
 import java.util.Map;
 
 /**
- * Row data
+ * Row data.
+ * Row is a lightweight cursor over the model data store, values are not kept in the row itself.
  */
 public class ResultSetRow {
 
@@ -49,9 +50,11 @@ public class ResultSetRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
+    // Column values storage
     @NotNull
-    public Object[] values;
+    private final ResultSetDataStore dataStore;
+    // Row index in storage
+    private final int storeIndex;
     @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
@@ -59,16 +62,44 @@ public class ResultSetRow {
     @Nullable
     public ColorInfo colorInfo;
 
-    ResultSetRow(int rowNumber, @NotNull Object[] values) {
+    ResultSetRow(int rowNumber, @NotNull ResultSetDataStore dataStore, @NotNull Object[] values) {
+        this(rowNumber, dataStore, dataStore.addRow(values));
+    }
+
+    /**
+     * Creates cursor for the row which values were already added to the store
+     */
+    ResultSetRow(int rowNumber, @NotNull ResultSetDataStore dataStore, int storeIndex) {
         this.rowNumber = rowNumber;
         this.visualNumber = rowNumber;
-        this.values = values;
+        this.dataStore = dataStore;
+        this.storeIndex = storeIndex;
         this.state = STATE_NORMAL;
     }
 
+    /**
+     * Returns copy of row values. Modifications of the returned array do not affect row data.
+     */
     @NotNull
     public Object[] getValues() {
-        return values;
+        return dataStore.getValues(storeIndex);
+    }
+
+    void setValues(@NotNull Object[] values) {
+        dataStore.setValues(storeIndex, values);
+    }
+
+    @Nullable
+    public Object getValue(int index) {
+        return dataStore.getValue(storeIndex, index);
+    }
+
+    void setValue(int index, @Nullable Object value) {
+        dataStore.setValue(storeIndex, index, value);
+    }
+
+    public int getValueCount() {
+        return dataStore.getColumnCount();
     }
 
     public boolean isChanged() {
@@ -119,9 +150,7 @@ public class ResultSetRow {
     }
 
     void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
-        }
+        dataStore.releaseValues(storeIndex);
         if (changes != null) {
             for (Object oldValue : changes.values()) {
                 DBUtils.releaseValue(oldValue);
@@ -2432,14 +2432,16 @@ public class ResultSetViewer extends Viewer
         }
     }
 
-    void appendData(List<Object[]> rows, boolean resetOldRows) {
-        model.appendData(rows, resetOldRows);
+    void appendData(@NotNull ResultSetDataStore store, int firstIndex, int rowCount, boolean resetOldRows) {
+        if (!model.appendData(store, firstIndex, rowCount, resetOldRows)) {
+            return;
+        }
 
         UIUtils.asyncExec(() -> {
             String message = NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(),
-                rows.size()) + getExecutionTimeMessage(false);
+                rowCount) + getExecutionTimeMessage(false);
             String tooltip = NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(),
-                rows.size()) + getExecutionTimeMessage(true);
+                rowCount) + getExecutionTimeMessage(true);
             setStatus(message, DBPMessageType.INFORMATION);
             setStatusTooltip(tooltip);
             updateEditControls();
@@ -3985,6 +3987,10 @@ public class ResultSetViewer extends Viewer
                         attr.lateBinding(session, rows);
                     }
                 }
+                // Row data is a copy of stored values, so put transformed values back
+                for (int i = 0; i < rowCount; i++) {
+                    model.getRow(i).setValues(rows.get(i));
+                }
             } catch (Exception e) {
                 log.error("Error binding custom attributes", e);
             }
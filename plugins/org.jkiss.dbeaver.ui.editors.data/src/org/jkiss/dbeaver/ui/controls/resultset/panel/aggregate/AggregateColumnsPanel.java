@@ -27,13 +27,11 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.*;
 import org.jkiss.code.NotNull;
-import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBIcon;
 import org.jkiss.dbeaver.model.DBPImage;
 import org.jkiss.dbeaver.model.DBValueFormatting;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
-import org.jkiss.dbeaver.model.data.aggregate.IAggregateFunction;
 import org.jkiss.dbeaver.registry.functions.AggregateFunctionDescriptor;
 import org.jkiss.dbeaver.registry.functions.FunctionsRegistry;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
@@ -76,6 +74,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     private final List<AggregateFunctionDescriptor> enabledFunctions = new ArrayList<>();
     private boolean featureTracked;
+    private volatile AggregateSelectionJob aggregateJob;
 
     public AggregateColumnsPanel() {
     }
@@ -111,7 +110,10 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
         menuMgr.setRemoveAllWhenShown(true);
         this.aggregateTable.setMenu(menuMgr.createContextMenu(this.aggregateTable));
-        this.aggregateTable.addDisposeListener(e -> menuMgr.dispose());
+        this.aggregateTable.addDisposeListener(e -> {
+            menuMgr.dispose();
+            cancelAggregation();
+        });
 
         aggregateTable.addSelectionListener(new SelectionAdapter() {
             @Override
@@ -189,7 +191,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void deactivatePanel() {
-
+        cancelAggregation();
     }
 
     @Override
@@ -199,18 +201,18 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void refresh(boolean force) {
-        aggregateTable.setRedraw(false);
-        try {
-            aggregateTable.removeAll();
-            if (this.presentation instanceof ISelectionProvider) {
-                ISelection selection = ((ISelectionProvider) presentation).getSelection();
-                if (selection instanceof IResultSetSelection) {
-                    aggregateSelection((IResultSetSelection)selection);
-                }
+        cancelAggregation();
+        IResultSetSelection rsSelection = null;
+        if (this.presentation instanceof ISelectionProvider) {
+            ISelection selection = ((ISelectionProvider) presentation).getSelection();
+            if (selection instanceof IResultSetSelection) {
+                rsSelection = (IResultSetSelection) selection;
             }
-            UIUtils.packColumns(aggregateTable, false, null);
-        } finally {
-            aggregateTable.setRedraw(true);
+        }
+        if (rsSelection == null) {
+            aggregateTable.removeAll();
+        } else {
+            aggregateSelection(rsSelection);
         }
         saveSettings();
     }
@@ -229,44 +231,62 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             ));
             featureTracked = true;
         }
-        ResultSetModel model = presentation.getController().getModel();
-        if (groupByColumns) {
-            Map<DBDAttributeBinding, List<Object>> attrValues = new LinkedHashMap<>();
-            for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                if (row != null) {
-                    Object cellValue = model.getCellValue(attr, row);
-                    List<Object> values = attrValues.computeIfAbsent(attr, k -> new ArrayList<>());
-                    values.add(cellValue);
+        AggregateSelectionJob job = new AggregateSelectionJob(
+            presentation.getController().getModel(),
+            selection,
+            enabledFunctions,
+            groupByColumns,
+            aggregateAsStrings,
+            (curJob, results, complete) -> UIUtils.asyncExec(() -> {
+                if (curJob == aggregateJob && !aggregateTable.isDisposed()) {
+                    showResults(results);
                 }
+            }));
+        if (job.isBackgroundRequired()) {
+            // Previous results remain visible until the first results of the new selection are ready
+            aggregateJob = job;
+            job.schedule();
+        } else {
+            List<AggregateSelectionJob.GroupResult> results = job.aggregate(null);
+            if (results != null) {
+                showResults(results);
             }
+        }
+    }
 
-            for (Map.Entry<DBDAttributeBinding, List<Object>> entry : attrValues.entrySet()) {
-                TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
-                attrItem.setText(entry.getKey().getName());
-                attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(entry.getKey())));
-                aggregateValues(attrItem, entry.getValue());
-                attrItem.setExpanded(true);
-            }
-        } else {
-            List<Object> allValues = new ArrayList<>(selection.size());
-            for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                if (row != null) {
-                    Object cellValue = model.getCellValue(attr, row);
-                    allValues.add(cellValue);
+    private void cancelAggregation() {
+        AggregateSelectionJob job = aggregateJob;
+        if (job != null) {
+            aggregateJob = null;
+            job.cancel();
+        }
+    }
+
+    private void showResults(@NotNull List<AggregateSelectionJob.GroupResult> results) {
+        aggregateTable.setRedraw(false);
+        try {
+            aggregateTable.removeAll();
+            for (AggregateSelectionJob.GroupResult group : results) {
+                DBDAttributeBinding attribute = group.attribute();
+                if (attribute == null) {
+                    showFunctionResults(null, group.functions());
+                } else {
+                    TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
+                    attrItem.setText(attribute.getName());
+                    attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(attribute)));
+                    showFunctionResults(attrItem, group.functions());
+                    attrItem.setExpanded(true);
                 }
             }
-            aggregateValues(null, allValues);
+            UIUtils.packColumns(aggregateTable, false, null);
+        } finally {
+            aggregateTable.setRedraw(true);
         }
     }
 
-    private void aggregateValues(TreeItem parentItem, Collection<Object> values) {
-        List<AggregateFunctionDescriptor> functions = enabledFunctions;
-        Map<IAggregateFunction, TreeItem> funcMap = new IdentityHashMap<>();
-        for (AggregateFunctionDescriptor funcDesc : functions) {
+    private void showFunctionResults(TreeItem parentItem, List<AggregateSelectionJob.FunctionResult> results) {
+        for (AggregateSelectionJob.FunctionResult funcResult : results) {
+            AggregateFunctionDescriptor funcDesc = funcResult.function();
             TreeItem funcItem = (parentItem == null) ?
                 new TreeItem(aggregateTable, SWT.NONE) :
                 new TreeItem(parentItem, SWT.NONE);
@@ -276,31 +296,8 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             if (icon != null) {
                 funcItem.setImage(0, DBeaverIcons.getImage(icon));
             }
-            try {
-                IAggregateFunction func = funcDesc.createFunction();
-                funcMap.put(func, funcItem);
-            } catch (DBException e) {
-                log.error(e);
-            }
-        }
-
-        IAggregateFunction[] funcs = funcMap.keySet().toArray(new IAggregateFunction[funcMap.size()]);
-        int[] funcCount = new int[funcs.length];
-        for (Object element : values) {
-            for (int i = 0; i < funcs.length; i++) {
-                if (funcs[i].accumulate(element, aggregateAsStrings)) {
-                    funcCount[i]++;
-                }
-            }
-        }
-        for (int i = 0; i < funcs.length; i++) {
-            if (funcCount[i] <= 0) {
-                continue;
-            }
-            IAggregateFunction func = funcs[i];
-            Object result = func.getResult(funcCount[i]);
+            Object result = funcResult.value();
             if (result != null) {
-                TreeItem treeItem = funcMap.get(func);
                 String strValue;
                 if (result instanceof Double || result instanceof Float || result instanceof BigDecimal) {
                     strValue = DOUBLE_FORMAT.format(result);
@@ -310,7 +307,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
                     strValue = result.toString();
                 }
                 if (strValue != null) {
-                    treeItem.setText(1, strValue);
+                    funcItem.setText(1, strValue);
                 }
             }
         }
@@ -318,6 +315,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     public void clearValue()
     {
+        cancelAggregation();
         aggregateTable.removeAll();
     }
 
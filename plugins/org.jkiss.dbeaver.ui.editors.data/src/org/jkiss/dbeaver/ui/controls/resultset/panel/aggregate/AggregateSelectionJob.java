@@ -0,0 +1,205 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.panel.aggregate;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.aggregate.IAggregateFunction;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.registry.functions.AggregateFunctionDescriptor;
+import org.jkiss.dbeaver.ui.controls.resultset.IResultSetSelection;
+import org.jkiss.dbeaver.ui.controls.resultset.ResultSetModel;
+import org.jkiss.dbeaver.ui.controls.resultset.ResultSetRow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates selected values.
+ * Small selections are aggregated directly, large ones in background. Background job reports intermediate
+ * results periodically, so the panel shows values while the rest of the selection is processed.
+ */
+class AggregateSelectionJob extends AbstractJob {
+
+    private static final Log log = Log.getLog(AggregateSelectionJob.class);
+
+    // Selections smaller than this are aggregated in the caller thread
+    static final int MAX_SYNC_ELEMENTS = 10_000;
+
+    private static final long PUBLISH_INTERVAL = 300;
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    record FunctionResult(@NotNull AggregateFunctionDescriptor function, @Nullable Object value) {
+    }
+
+    /**
+     * Results of all functions for one attribute (or for the whole selection if attribute is null)
+     */
+    record GroupResult(@Nullable DBDAttributeBinding attribute, @NotNull List<FunctionResult> functions) {
+    }
+
+    interface ResultsListener {
+        /**
+         * Called in the job thread with intermediate and final results
+         */
+        void resultsReady(@NotNull AggregateSelectionJob job, @NotNull List<GroupResult> results, boolean complete);
+    }
+
+    @NotNull
+    private final ResultSetModel model;
+    @NotNull
+    private final IResultSetSelection selection;
+    @NotNull
+    private final List<?> elements;
+    @NotNull
+    private final List<AggregateFunctionDescriptor> functions;
+    private final boolean groupByColumns;
+    private final boolean aggregateAsStrings;
+    @Nullable
+    private final ResultsListener listener;
+
+    AggregateSelectionJob(
+        @NotNull ResultSetModel model,
+        @NotNull IResultSetSelection selection,
+        @NotNull List<AggregateFunctionDescriptor> functions,
+        boolean groupByColumns,
+        boolean aggregateAsStrings,
+        @Nullable ResultsListener listener
+    ) {
+        super("Aggregate selected values");
+        this.model = model;
+        this.selection = selection;
+        this.elements = selection.toList();
+        this.functions = new ArrayList<>(functions);
+        this.groupByColumns = groupByColumns;
+        this.aggregateAsStrings = aggregateAsStrings;
+        this.listener = listener;
+        setSystem(true);
+        setUser(false);
+        setSkipErrorOnCanceling(true);
+    }
+
+    boolean isBackgroundRequired() {
+        return elements.size() >= MAX_SYNC_ELEMENTS;
+    }
+
+    @Override
+    protected IStatus run(DBRProgressMonitor monitor) {
+        try {
+            List<GroupResult> results = aggregate(monitor);
+            if (results != null && listener != null) {
+                listener.resultsReady(this, results, true);
+            }
+        } catch (RuntimeException e) {
+            // Result set model may be changed while job is running. New selection will restart aggregation.
+            log.debug("Error aggregating selected values: " + e.getMessage());
+        }
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Aggregates selected values.
+     * If monitor is specified then intermediate results are passed to the listener.
+     *
+     * @return final results or null if canceled
+     */
+    @Nullable
+    List<GroupResult> aggregate(@Nullable DBRProgressMonitor monitor) {
+        Map<DBDAttributeBinding, Aggregation> groups = new LinkedHashMap<>();
+        long lastPublishTime = System.currentTimeMillis();
+        int processedCount = 0;
+        for (Object element : elements) {
+            ResultSetRow row = selection.getElementRow(element);
+            if (row != null) {
+                DBDAttributeBinding attr = selection.getElementAttribute(element);
+                Object cellValue = model.getCellValue(attr, row);
+                groups.computeIfAbsent(groupByColumns ? attr : null, a -> new Aggregation()).accumulate(cellValue);
+            }
+            if (monitor != null && ++processedCount % CANCEL_CHECK_INTERVAL == 0) {
+                if (monitor.isCanceled()) {
+                    return null;
+                }
+                long currentTime = System.currentTimeMillis();
+                if (listener != null && currentTime - lastPublishTime >= PUBLISH_INTERVAL) {
+                    listener.resultsReady(this, makeResults(groups), false);
+                    lastPublishTime = currentTime;
+                }
+            }
+        }
+        if (groups.isEmpty() && !groupByColumns) {
+            groups.put(null, new Aggregation());
+        }
+        return makeResults(groups);
+    }
+
+    @NotNull
+    private List<GroupResult> makeResults(@NotNull Map<DBDAttributeBinding, Aggregation> groups) {
+        List<GroupResult> results = new ArrayList<>(groups.size());
+        for (Map.Entry<DBDAttributeBinding, Aggregation> entry : groups.entrySet()) {
+            results.add(new GroupResult(entry.getKey(), entry.getValue().getResults()));
+        }
+        return results;
+    }
+
+    /**
+     * Function instances of one group
+     */
+    private class Aggregation {
+        private final IAggregateFunction[] instances = new IAggregateFunction[functions.size()];
+        private final int[] valueCounts = new int[functions.size()];
+
+        Aggregation() {
+            for (int i = 0; i < instances.length; i++) {
+                try {
+                    instances[i] = functions.get(i).createFunction();
+                } catch (DBException e) {
+                    log.error(e);
+                }
+            }
+        }
+
+        void accumulate(@Nullable Object value) {
+            for (int i = 0; i < instances.length; i++) {
+                if (instances[i] != null && instances[i].accumulate(value, aggregateAsStrings)) {
+                    valueCounts[i]++;
+                }
+            }
+        }
+
+        @NotNull
+        List<FunctionResult> getResults() {
+            List<FunctionResult> results = new ArrayList<>(instances.length);
+            for (int i = 0; i < instances.length; i++) {
+                Object result = null;
+                if (instances[i] != null && valueCounts[i] > 0) {
+                    result = instances[i].getResult(valueCounts[i]);
+                }
+                results.add(new FunctionResult(functions.get(i), result));
+            }
+            return results;
+        }
+    }
+
+}
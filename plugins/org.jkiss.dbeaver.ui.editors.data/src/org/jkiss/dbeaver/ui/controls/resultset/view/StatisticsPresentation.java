@@ -97,7 +97,7 @@ public class StatisticsPresentation extends AbstractPresentation {
             java.util.List<DBDAttributeBinding> visibleAttributes = controller.getModel().getVisibleAttributes();
             for (int i = 0; i < visibleAttributes.size(); i++) {
                 DBDAttributeBinding attr = visibleAttributes.get(i);
-                Object value = row.getValues()[i];
+                Object value = row.getValue(i);
                 String valueString = DBValueFormatting.getDefaultValueDisplayString(value, DBDDisplayFormat.UI);
                 String[] lines = valueString.split("\n");
                 for (int k = 0; k < lines.length; k++) {
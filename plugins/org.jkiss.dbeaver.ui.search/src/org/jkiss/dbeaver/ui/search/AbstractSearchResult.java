@@ -24,12 +24,14 @@ import org.eclipse.search.ui.SearchResultEvent;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class AbstractSearchResult<OBJECT_TYPE> implements ISearchResult {
 
 
     private ISearchQuery searchQuery;
-    private List<OBJECT_TYPE> objects = new ArrayList<>();
+    // Objects may be added by several search jobs at once
+    private final List<OBJECT_TYPE> objects = new CopyOnWriteArrayList<>();
     private final List<ISearchResultListener> listeners = new ArrayList<>();
 
     public AbstractSearchResult(ISearchQuery searchQuery) {
@@ -38,12 +40,16 @@ public abstract class AbstractSearchResult<OBJECT_TYPE> implements ISearchResult
 
     @Override
     public void addListener(ISearchResultListener l) {
-        listeners.add(l);
+        synchronized (listeners) {
+            listeners.add(l);
+        }
     }
 
     @Override
     public void removeListener(ISearchResultListener l) {
-        listeners.remove(l);
+        synchronized (listeners) {
+            listeners.remove(l);
+        }
     }
 
     @Override
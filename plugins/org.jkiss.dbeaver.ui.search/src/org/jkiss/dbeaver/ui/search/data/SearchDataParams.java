@@ -35,6 +35,7 @@ public class SearchDataParams {
     boolean searchLOBs;
     boolean searchForeignObjects;
     int maxResults;
+    int maxThreads; // Tables searched in parallel
     List<DBNNode> selectedNodes = new ArrayList<>();
 
     public SearchDataParams()
@@ -105,6 +106,14 @@ public class SearchDataParams {
         this.maxResults = maxResults;
     }
 
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
     public List<DBNNode> getSelectedNodes() {
         return selectedNodes;
     }
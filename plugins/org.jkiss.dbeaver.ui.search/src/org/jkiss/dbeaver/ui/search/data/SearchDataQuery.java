@@ -20,6 +20,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.ISearchResult;
 import org.eclipse.ui.IEditorPart;
@@ -36,12 +37,16 @@ import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 import org.jkiss.dbeaver.model.navigator.DBNModel;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DefaultProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSFullTextSearcher;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
+import org.jkiss.dbeaver.model.struct.DBSTypedObject;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.ui.controls.resultset.IResultSetController;
@@ -54,14 +59,22 @@ import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.math.BigDecimal;
+import java.sql.Types;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SearchDataQuery implements ISearchQuery {
 
     private static final Log log = Log.getLog(SearchDataQuery.class);
 
+    static final int DEFAULT_MAX_THREADS = 4;
+    static final int MAX_THREADS_LIMIT = 16;
+
     private final SearchDataParams params;
     private SearchDataResult searchResult;
+    private Number numberValue;
+    private UUID uuidValue;
 
     private SearchDataQuery(SearchDataParams params)
     {
@@ -96,6 +109,8 @@ public class SearchDataQuery implements ISearchQuery {
     public IStatus run(IProgressMonitor m) throws OperationCanceledException {
         try {
             String searchString = params.getSearchString();
+            numberValue = parseNumber(searchString);
+            uuidValue = parseUUID(searchString);
 
             //monitor.subTask("Collect tables");
             Set<DBPDataSource> dataSources = new HashSet<>();
@@ -108,26 +123,37 @@ public class SearchDataQuery implements ISearchQuery {
 
             DBRProgressMonitor monitor = new DefaultProgressMonitor(m);
 
-            int totalObjects = 0;
+            Queue<DBSDataContainer> sourceQueue = new ConcurrentLinkedQueue<>(params.sources);
+            AtomicInteger totalObjects = new AtomicInteger();
+            int threadCount = Math.min(Math.max(params.maxThreads, 1), Math.min(params.sources.size(), MAX_THREADS_LIMIT));
 
             monitor.beginTask(
                 "Search \"" + searchString + "\" in " + params.sources.size() + " table(s) / " + dataSources.size() + " database(s)",
                 params.sources.size());
             try {
-                for (DBSDataContainer dataContainer : params.sources) {
-                    if (monitor.isCanceled()) {
-                        break;
+                if (threadCount <= 1) {
+                    // Search in default contexts
+                    new SearchWorker(monitor, dbnModel, sourceQueue, totalObjects, false).searchAll(monitor);
+                } else {
+                    JobGroup group = new JobGroup("Search data", threadCount, threadCount);
+                    for (int i = 0; i < threadCount; i++) {
+                        SearchJob job = new SearchJob(
+                            "Search data [" + (i + 1) + "/" + threadCount + "]",
+                            new SearchWorker(monitor, dbnModel, sourceQueue, totalObjects, true));
+                        job.setJobGroup(group);
+                        job.schedule();
                     }
-                    if (searchDataInContainer(monitor, dbnModel, dataContainer)) {
-                        totalObjects++;
+                    try {
+                        group.join(0, m);
+                    } catch (InterruptedException | OperationCanceledException e) {
+                        group.cancel();
                     }
-                    monitor.worked(1);
                 }
             } finally {
                 monitor.done();
             }
 
-            searchResult.fireChange(new AbstractSearchResult.DatabaseSearchFinishEvent(searchResult, totalObjects));
+            searchResult.fireChange(new AbstractSearchResult.DatabaseSearchFinishEvent(searchResult, totalObjects.get()));
 
             return Status.OK_STATUS;
         } catch (Exception e) {
@@ -135,7 +161,12 @@ public class SearchDataQuery implements ISearchQuery {
         }
     }
 
-    private boolean searchDataInContainer(DBRProgressMonitor monitor, DBNModel dbnModel, DBSDataContainer dataContainer) {
+    private boolean searchDataInContainer(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBNModel dbnModel,
+        @NotNull DBSDataContainer dataContainer,
+        @Nullable DBCExecutionContext context
+    ) {
         if (!params.searchForeignObjects && dataContainer instanceof DBPForeignObject && ((DBPForeignObject) dataContainer).isForeignObject()) {
             return false;
         }
@@ -149,7 +180,10 @@ public class SearchDataQuery implements ISearchQuery {
         monitor.subTask("Search in '" + objectName + "'");
         log.debug("Search in '" + objectName + "'");
         SearchTableMonitor searchMonitor = new SearchTableMonitor(monitor);
-        try (DBCSession session = DBUtils.openUtilSession(searchMonitor, dataContainer, "Search rows in " + objectName)) {
+        try (DBCSession session = context == null ?
+            DBUtils.openUtilSession(searchMonitor, dataContainer, "Search rows in " + objectName) :
+            context.openSession(searchMonitor, DBCExecutionPurpose.UTIL, "Search rows in " + objectName))
+        {
             TestDataReceiver dataReceiver = new TestDataReceiver(searchMonitor);
             try {
                 findRows(session, dataContainer, dataReceiver);
@@ -186,7 +220,17 @@ public class SearchDataQuery implements ISearchQuery {
 
             List<DBDAttributeConstraint> constraints = new ArrayList<>();
             DBDDataFilter dataFilter = searchDataFilterForContainer(dataContainer, session.getProgressMonitor());
-            for (DBSEntityAttribute attribute : CommonUtils.safeCollection(entity.getAttributes(session.getProgressMonitor()))) {
+            Collection<? extends DBSEntityAttribute> attributes = CommonUtils.safeCollection(entity.getAttributes(session.getProgressMonitor()));
+            Set<DBSEntityAttribute> textIndexedAttributes = new HashSet<>();
+            String textCondition = null;
+            if (params.fastSearch) {
+                textCondition = makeFullTextCondition(session, entity, attributes, textIndexedAttributes);
+            }
+            for (DBSEntityAttribute attribute : attributes) {
+                if (textIndexedAttributes.contains(attribute)) {
+                    // Searched by full-text condition
+                    continue;
+                }
                 if (params.fastSearch) {
                     if (DBUtils.findAttributeIndex(session.getProgressMonitor(), attribute) == null) {
                         continue;
@@ -208,25 +252,12 @@ public class SearchDataQuery implements ISearchQuery {
                         if (!ArrayUtils.contains(supportedOperators, DBCLogicalOperator.EQUALS)) {
                             continue;
                         }
-                        operator = DBCLogicalOperator.EQUALS;
-                        try {
-                            value = Integer.valueOf(params.searchString);
-                        } catch (NumberFormatException e) {
-                            try {
-                                value = Long.valueOf(params.searchString);
-                            } catch (NumberFormatException e1) {
-                                try {
-                                    value = Double.valueOf(params.searchString);
-                                } catch (NumberFormatException e2) {
-                                    try {
-                                        value = new BigDecimal(params.searchString);
-                                    } catch (Exception e3) {
-                                        // Not a number
-                                        continue;
-                                    }
-                                }
-                            }
+                        if (numberValue == null || !isNumberInTypeRange(attribute, numberValue)) {
+                            // Not a number or the column can't hold it
+                            continue;
                         }
+                        operator = DBCLogicalOperator.EQUALS;
+                        value = numberValue;
                         break;
                     case CONTENT:
                     case BINARY:
@@ -260,14 +291,12 @@ public class SearchDataQuery implements ISearchQuery {
                         }
                         String typeName = attribute.getTypeName();
                         if (typeName.equals(DBConstants.TYPE_NAME_UUID) || typeName.equals(DBConstants.TYPE_NAME_UUID2)) {
-                            try {
-                                UUID uuid = UUID.fromString(params.searchString);
-                                operator = DBCLogicalOperator.EQUALS;
-                                value = uuid.toString();
-                            } catch (Exception e) {
+                            if (uuidValue == null) {
                                 // No a UUID
                                 continue;
                             }
+                            operator = DBCLogicalOperator.EQUALS;
+                            value = uuidValue.toString();
                         } else {
                             continue;
                         }
@@ -285,7 +314,7 @@ public class SearchDataQuery implements ISearchQuery {
                 constraint.setValue(value);
                 constraints.add(constraint);
             }
-            if (constraints.isEmpty()) {
+            if (constraints.isEmpty() && textCondition == null) {
                 return null;
             }
             if (dataFilter != null) {
@@ -293,6 +322,12 @@ public class SearchDataQuery implements ISearchQuery {
             } else {
                 dataReceiver.filter = new DBDDataFilter(constraints);
             }
+            if (textCondition != null) {
+                // Do not change filter of the open editor
+                dataReceiver.filter = new DBDDataFilter(dataReceiver.filter);
+                String where = dataReceiver.filter.getWhere();
+                dataReceiver.filter.setWhere(CommonUtils.isEmpty(where) ? textCondition : "(" + where + ") OR " + textCondition);
+            }
             dataReceiver.filter.setAnyConstraint(true);
             DBCExecutionSource searchSource = new AbstractExecutionSource(dataContainer, session.getExecutionContext(), this);
             return dataContainer.readData(searchSource, session, dataReceiver, dataReceiver.filter, -1, -1, 0, 0);
@@ -301,6 +336,111 @@ public class SearchDataQuery implements ISearchQuery {
         }
     }
 
+    /**
+     * Makes condition which searches text attributes using full-text indexes.
+     * Attributes covered by the condition are added to {@code coveredAttributes}.
+     */
+    @Nullable
+    private String makeFullTextCondition(
+        @NotNull DBCSession session,
+        @NotNull DBSEntity entity,
+        @NotNull Collection<? extends DBSEntityAttribute> attributes,
+        @NotNull Set<DBSEntityAttribute> coveredAttributes
+    ) {
+        DBSFullTextSearcher searcher = DBUtils.getAdapter(DBSFullTextSearcher.class, session.getDataSource());
+        if (searcher == null) {
+            return null;
+        }
+        List<DBSEntityAttribute> textAttributes = new ArrayList<>();
+        for (DBSEntityAttribute attribute : attributes) {
+            if (attribute.getDataKind() == DBPDataKind.STRING && !DBUtils.isPseudoAttribute(attribute) && !DBUtils.isHiddenObject(attribute)) {
+                textAttributes.add(attribute);
+            }
+        }
+        if (textAttributes.isEmpty()) {
+            return null;
+        }
+        List<DBSEntityAttribute> notCoveredAttributes = new ArrayList<>(textAttributes);
+        try {
+            String condition = searcher.makeSearchCondition(session, entity, notCoveredAttributes, params.searchString, params.caseSensitive);
+            if (condition != null) {
+                textAttributes.removeAll(notCoveredAttributes);
+                coveredAttributes.addAll(textAttributes);
+                return "(" + condition + ")";
+            }
+        } catch (DBException e) {
+            log.debug("Can't make full-text search condition for '" + entity.getName() + "'", e);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Number parseNumber(@NotNull String string) {
+        try {
+            return Integer.valueOf(string);
+        } catch (NumberFormatException e) {
+            try {
+                return Long.valueOf(string);
+            } catch (NumberFormatException e1) {
+                try {
+                    return Double.valueOf(string);
+                } catch (NumberFormatException e2) {
+                    try {
+                        return new BigDecimal(string);
+                    } catch (Exception e3) {
+                        // Not a number
+                        return null;
+                    }
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static UUID parseUUID(@NotNull String string) {
+        try {
+            return UUID.fromString(string);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that integer column may contain the number.
+     * Fractional numbers and numbers out of the type range never match. Unsigned ranges are taken into account.
+     */
+    private static boolean isNumberInTypeRange(@NotNull DBSTypedObject attribute, @NotNull Number number) {
+        BigDecimal minValue, maxValue;
+        switch (attribute.getTypeID()) {
+            case Types.TINYINT:
+                minValue = BigDecimal.valueOf(Byte.MIN_VALUE);
+                maxValue = BigDecimal.valueOf(255);
+                break;
+            case Types.SMALLINT:
+                minValue = BigDecimal.valueOf(Short.MIN_VALUE);
+                maxValue = BigDecimal.valueOf(65535);
+                break;
+            case Types.INTEGER:
+                minValue = BigDecimal.valueOf(Integer.MIN_VALUE);
+                maxValue = BigDecimal.valueOf(4294967295L);
+                break;
+            case Types.BIGINT:
+                minValue = BigDecimal.valueOf(Long.MIN_VALUE);
+                maxValue = new BigDecimal("18446744073709551615");
+                break;
+            default:
+                return true;
+        }
+        if (number instanceof Double && (((Double) number).isNaN() || ((Double) number).isInfinite())) {
+            return false;
+        }
+        BigDecimal value = number instanceof BigDecimal ? (BigDecimal) number : new BigDecimal(number.toString());
+        if (value.signum() != 0 && value.stripTrailingZeros().scale() > 0) {
+            return false;
+        }
+        return value.compareTo(minValue) >= 0 && value.compareTo(maxValue) <= 0;
+    }
+
     static SearchDataQuery createQuery(SearchDataParams params) throws DBException {
         return new SearchDataQuery(params);
     }
@@ -331,6 +471,96 @@ public class SearchDataQuery implements ISearchQuery {
         return dataFilter;
     }
 
+    /**
+     * Takes tables from the shared queue until it is empty.
+     * Isolated contexts are opened once per database instance and closed when the queue is drained.
+     */
+    private class SearchWorker {
+
+        private final DBRProgressMonitor searchMonitor;
+        private final DBNModel dbnModel;
+        private final Queue<DBSDataContainer> sourceQueue;
+        private final AtomicInteger totalObjects;
+        private final boolean isolated;
+        private final Map<DBSInstance, DBCExecutionContext> contexts = new HashMap<>();
+
+        SearchWorker(
+            @NotNull DBRProgressMonitor searchMonitor,
+            @NotNull DBNModel dbnModel,
+            @NotNull Queue<DBSDataContainer> sourceQueue,
+            @NotNull AtomicInteger totalObjects,
+            boolean isolated
+        ) {
+            this.searchMonitor = searchMonitor;
+            this.dbnModel = dbnModel;
+            this.sourceQueue = sourceQueue;
+            this.totalObjects = totalObjects;
+            this.isolated = isolated;
+        }
+
+        void searchAll(@NotNull DBRProgressMonitor monitor) {
+            try {
+                for (DBSDataContainer dataContainer = sourceQueue.poll(); dataContainer != null; dataContainer = sourceQueue.poll()) {
+                    if (monitor.isCanceled() || searchMonitor.isCanceled()) {
+                        break;
+                    }
+                    DBCExecutionContext context = isolated ? getIsolatedContext(monitor, dataContainer) : null;
+                    if (searchDataInContainer(monitor, dbnModel, dataContainer, context)) {
+                        totalObjects.incrementAndGet();
+                    }
+                    synchronized (searchMonitor) {
+                        searchMonitor.worked(1);
+                    }
+                }
+            } finally {
+                for (DBCExecutionContext context : contexts.values()) {
+                    if (context != null) {
+                        context.close();
+                    }
+                }
+                contexts.clear();
+            }
+        }
+
+        @Nullable
+        private DBCExecutionContext getIsolatedContext(@NotNull DBRProgressMonitor monitor, @NotNull DBSDataContainer dataContainer) {
+            DBSInstance instance = DBUtils.getObjectOwnerInstance(dataContainer);
+            if (instance == null) {
+                return null;
+            }
+            if (contexts.containsKey(instance)) {
+                return contexts.get(instance);
+            }
+            DBCExecutionContext context = null;
+            try {
+                context = instance.openIsolatedContext(monitor, "Data search", DBUtils.getDefaultContext(dataContainer, false));
+            } catch (DBException e) {
+                log.debug("Can't open isolated context for data search in '" + instance.getName() + "'. Use default context.", e);
+            }
+            // Do not retry on failure
+            contexts.put(instance, context);
+            return context;
+        }
+    }
+
+    private static class SearchJob extends AbstractJob {
+
+        private final SearchWorker worker;
+
+        SearchJob(@NotNull String name, @NotNull SearchWorker worker) {
+            super(name);
+            this.worker = worker;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            worker.searchAll(monitor);
+            return Status.OK_STATUS;
+        }
+    }
+
     private class SearchTableMonitor extends VoidProgressMonitor {
 
         private DBRProgressMonitor baseMonitor;
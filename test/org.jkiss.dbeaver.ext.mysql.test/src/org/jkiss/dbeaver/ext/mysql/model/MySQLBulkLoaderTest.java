@@ -0,0 +1,142 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.data.DBDValueHandlerProvider;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class MySQLBulkLoaderTest {
+
+    private final List<String> queries = new ArrayList<>();
+    private final List<Object> boundValues = new ArrayList<>();
+    private JDBCSession session;
+    private JDBCPreparedStatement statement;
+    private MySQLTable table;
+    private DBSAttributeBase[] attributes;
+    private int paramIndex;
+
+    @Before
+    public void init() throws Exception {
+        MySQLDataSource dataSource = Mockito.mock(MySQLDataSource.class);
+        Mockito.when(dataSource.getSQLDialect()).thenReturn(new MySQLDialect());
+
+        DBDValueHandler valueHandler = Mockito.mock(DBDValueHandler.class);
+        Mockito.doAnswer(invocation -> {
+            // Parameters are bound in order
+            Assert.assertEquals(paramIndex++, (int) invocation.getArgument(3));
+            boundValues.add(invocation.getArgument(4));
+            return null;
+        }).when(valueHandler).bindValueObject(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        DBDValueHandlerProvider handlerProvider = Mockito.mock(DBDValueHandlerProvider.class);
+        Mockito.when(handlerProvider.getValueHandler(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(valueHandler);
+        Mockito.when(dataSource.getAdapter(DBDValueHandlerProvider.class)).thenReturn(handlerProvider);
+
+        statement = Mockito.mock(JDBCPreparedStatement.class);
+        session = Mockito.mock(JDBCSession.class);
+        Mockito.when(session.getDataSource()).thenReturn(dataSource);
+        Mockito.when(session.prepareStatement(Mockito.anyString())).thenAnswer(invocation -> {
+            queries.add(invocation.getArgument(0));
+            paramIndex = 0;
+            return statement;
+        });
+
+        table = Mockito.mock(MySQLTable.class);
+        Mockito.when(table.getDataSource()).thenReturn(dataSource);
+        Mockito.when(table.getFullyQualifiedName(DBPEvaluationContext.DML)).thenReturn("`test`.`bulk_test`");
+        attributes = new DBSAttributeBase[] {createAttribute("col1"), createAttribute("col2")};
+    }
+
+    @Test
+    public void bindValuesAsParameters() throws Exception {
+        Object[][] rows = {
+            {1, "back\\slash"},
+            {2, "\\?"},
+            {3, "it's"},
+            {4, "%_\\%\\_"},
+            {5, new byte[] {0, '\\', '\'', '?', (byte) 0xFF}},
+        };
+        try (DBSDataBulkLoader.BulkLoadManager loader = createLoader()) {
+            for (Object[] row : rows) {
+                loader.addRow(session, row);
+            }
+            loader.finishBulkLoad(session);
+        }
+
+        Assert.assertEquals(1, queries.size());
+        String query = queries.get(0);
+        Assert.assertTrue(query, query.startsWith("INSERT INTO `test`.`bulk_test` ("));
+        Assert.assertTrue(query, query.endsWith(" VALUES (?,?),(?,?),(?,?),(?,?),(?,?)"));
+        // Values are never rendered into the query text
+        Assert.assertFalse(query, query.contains("'") || query.contains("\\"));
+
+        Assert.assertEquals(rows.length * 2, boundValues.size());
+        for (int i = 0; i < rows.length; i++) {
+            Assert.assertSame(rows[i][0], boundValues.get(i * 2));
+            Assert.assertSame(rows[i][1], boundValues.get(i * 2 + 1));
+        }
+        Mockito.verify(statement).executeUpdate();
+        Mockito.verify(statement).close();
+    }
+
+    @Test
+    public void splitLargeInserts() throws Exception {
+        String value = "x".repeat(100 * 1024);
+        int rowCount = 20;
+        try (DBSDataBulkLoader.BulkLoadManager loader = createLoader()) {
+            for (int i = 0; i < rowCount; i++) {
+                loader.addRow(session, new Object[] {i, value});
+            }
+            loader.finishBulkLoad(session);
+        }
+
+        Assert.assertTrue(queries.size() > 1);
+        int insertedRows = 0;
+        for (String query : queries) {
+            int queryRows = query.split("\\(\\?,\\?\\)", -1).length - 1;
+            Assert.assertTrue(query, queryRows * value.length() <= MySQLBulkLoader.MAX_STATEMENT_LENGTH + value.length());
+            insertedRows += queryRows;
+        }
+        Assert.assertEquals(rowCount, insertedRows);
+        Assert.assertEquals(rowCount * 2, boundValues.size());
+        Mockito.verify(statement, Mockito.times(queries.size())).executeUpdate();
+    }
+
+    private DBSDataBulkLoader.BulkLoadManager createLoader() throws Exception {
+        return new MySQLBulkLoader().createBulkLoad(
+            session, table, attributes, Mockito.mock(DBCExecutionSource.class), 1000, Collections.emptyMap());
+    }
+
+    private static DBSAttributeBase createAttribute(String name) {
+        DBSAttributeBase attribute = Mockito.mock(DBSAttributeBase.class);
+        Mockito.when(attribute.getName()).thenReturn(name);
+        return attribute;
+    }
+}
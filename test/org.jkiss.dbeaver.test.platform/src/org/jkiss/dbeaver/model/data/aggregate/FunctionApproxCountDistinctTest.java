@@ -0,0 +1,52 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public class FunctionApproxCountDistinctTest {
+
+    @Test
+    public void equalNumbersOfDifferentTypes() {
+        FunctionApproxCountDistinct function = new FunctionApproxCountDistinct();
+        Object[] values = {
+            5, 5L, (short) 5, (byte) 5, 5.0, 5.0f, new BigDecimal("5.00"), BigInteger.valueOf(5),
+            0.1, new BigDecimal("0.10"),
+            0.0, -0.0, BigDecimal.ZERO
+        };
+        for (Object value : values) {
+            function.accumulate(value, false);
+        }
+        Assert.assertEquals(3L, function.getResult(values.length));
+    }
+
+    @Test
+    public void distinctStrings() {
+        FunctionApproxCountDistinct function = new FunctionApproxCountDistinct();
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            function.accumulate("row " + i, false);
+            function.accumulate("row " + i, false);
+        }
+        long estimate = (Long) function.getResult(count * 2);
+        Assert.assertEquals(count, estimate, count * 0.025);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class HyperLogLogSketchTest {
+
+    // Standard error is 1.04 / sqrt(16384) = 0.8%, allow 3 sigma
+    private static final double MAX_RELATIVE_ERROR = 0.025;
+
+    @Test
+    public void estimateSmallCardinality() {
+        assertEstimate(1000);
+    }
+
+    @Test
+    public void estimateMediumCardinality() {
+        assertEstimate(100_000);
+    }
+
+    @Test
+    public void estimateLargeCardinality() {
+        assertEstimate(1_000_000);
+    }
+
+    @Test
+    public void estimateStrings() {
+        HyperLogLogSketch sketch = new HyperLogLogSketch();
+        int count = 100_000;
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < count; i++) {
+                sketch.add(HyperLogLogSketch.hash(("value" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        assertRelativeError(count, sketch.estimate());
+    }
+
+    @Test
+    public void mergeSketches() {
+        HyperLogLogSketch sketch1 = new HyperLogLogSketch();
+        HyperLogLogSketch sketch2 = new HyperLogLogSketch();
+        for (int i = 0; i < 60_000; i++) {
+            sketch1.add(HyperLogLogSketch.hash(i));
+        }
+        for (int i = 40_000; i < 100_000; i++) {
+            sketch2.add(HyperLogLogSketch.hash(i));
+        }
+        sketch1.merge(sketch2);
+        assertRelativeError(100_000, sketch1.estimate());
+    }
+
+    @Test
+    public void murmurHash() {
+        // Reference values of MurmurHash3_x64_128
+        Assert.assertEquals(0L, HyperLogLogSketch.hash(new byte[0]));
+        Assert.assertEquals(0xe34bbc7bbc071b6cL, HyperLogLogSketch.hash(
+            "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertEstimate(int count) {
+        HyperLogLogSketch sketch = new HyperLogLogSketch();
+        for (int i = 0; i < count; i++) {
+            sketch.add(HyperLogLogSketch.hash(i));
+        }
+        assertRelativeError(count, sketch.estimate());
+    }
+
+    private static void assertRelativeError(long expected, long estimate) {
+        double error = Math.abs(estimate - expected) / (double) expected;
+        Assert.assertTrue("Estimate " + estimate + " of " + expected, error <= MAX_RELATIVE_ERROR);
+    }
+}
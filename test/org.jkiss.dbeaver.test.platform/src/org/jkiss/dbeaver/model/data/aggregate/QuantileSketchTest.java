@@ -0,0 +1,92 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class QuantileSketchTest {
+
+    private static final int VALUE_COUNT = 1_000_000;
+    // Normalized rank error is about 1.7% for the default k (99% confidence)
+    private static final double MAX_RANK_ERROR = 0.03;
+    private static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+
+    @Test
+    public void emptySketch() {
+        Assert.assertTrue(Double.isNaN(new QuantileSketch().getQuantile(0.5)));
+    }
+
+    @Test
+    public void quantilesOfUniformDistribution() {
+        QuantileSketch sketch = new QuantileSketch();
+        // Values 0..n-1 in random order: rank of a value is value / n
+        for (int value : shuffledValues(0, VALUE_COUNT)) {
+            sketch.add(value);
+        }
+        Assert.assertEquals(VALUE_COUNT, sketch.getCount());
+        assertRanks(sketch);
+    }
+
+    @Test
+    public void quantilesOfSortedValues() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            sketch.add(i);
+        }
+        assertRanks(sketch);
+    }
+
+    @Test
+    public void mergeSketches() {
+        QuantileSketch sketch1 = new QuantileSketch();
+        QuantileSketch sketch2 = new QuantileSketch();
+        for (int value : shuffledValues(0, VALUE_COUNT / 4)) {
+            sketch1.add(value);
+        }
+        for (int value : shuffledValues(VALUE_COUNT / 4, VALUE_COUNT)) {
+            sketch2.add(value);
+        }
+        sketch1.merge(sketch2);
+        Assert.assertEquals(VALUE_COUNT, sketch1.getCount());
+        assertRanks(sketch1);
+    }
+
+    private static void assertRanks(QuantileSketch sketch) {
+        for (double quantile : QUANTILES) {
+            double rank = sketch.getQuantile(quantile) / VALUE_COUNT;
+            Assert.assertEquals("Quantile " + quantile, quantile, rank, MAX_RANK_ERROR);
+        }
+    }
+
+    private static int[] shuffledValues(int from, int to) {
+        int[] values = new int[to - from];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = from + i;
+        }
+        Random random = new Random(1);
+        for (int i = values.length - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[k];
+            values[k] = tmp;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data.formatters;
+
+import org.jkiss.dbeaver.model.struct.DBSTypedObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NumberDataFormatterTest {
+
+    private static final Locale[] LOCALES = {
+        Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("de", "CH"), new Locale("hi", "IN"), new Locale("ar", "SA")
+    };
+
+    @Test
+    public void testIntegerValues() {
+        for (Locale locale : LOCALES) {
+            assertSameAsDecimalFormat(locale, Map.of(), null, integerValues());
+            assertSameAsDecimalFormat(locale, Map.of(NumberFormatSample.PROP_USE_GROUPING, false), null, integerValues());
+            assertSameAsDecimalFormat(locale, Map.of(
+                NumberFormatSample.PROP_GROUPING_SIZE, 4,
+                NumberFormatSample.PROP_MIN_INT_DIGITS, 6,
+                NumberFormatSample.PROP_MAX_INT_DIGITS, 12), null, integerValues());
+        }
+    }
+
+    @Test
+    public void testDecimalValues() {
+        DBSTypedObject type = mock(DBSTypedObject.class);
+        when(type.getScale()).thenReturn(6);
+        for (Locale locale : LOCALES) {
+            for (RoundingMode roundingMode : RoundingMode.values()) {
+                if (roundingMode == RoundingMode.UNNECESSARY) {
+                    continue;
+                }
+                assertSameAsDecimalFormat(locale, Map.of(
+                    NumberFormatSample.PROP_MAX_FRACT_DIGITS, 4,
+                    NumberFormatSample.PROP_MIN_FRACT_DIGITS, 1,
+                    NumberFormatSample.PROP_ROUNDING_MODE, roundingMode.name()), type, decimalValues());
+            }
+            assertSameAsDecimalFormat(locale, Map.of(NumberFormatSample.PROP_USE_TYPE_SCALE, true), type, decimalValues());
+        }
+    }
+
+    @Test
+    public void testConcurrentFormatting() throws Exception {
+        NumberDataFormatter formatter = new NumberDataFormatter();
+        formatter.init(null, Locale.GERMANY, Map.of());
+        List<Object> values = new ArrayList<>(integerValues());
+        values.addAll(decimalValues());
+        List<String> expected = new ArrayList<>();
+        for (Object value : values) {
+            expected.add(formatter.formatValue(value));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    List<String> result = new ArrayList<>();
+                    for (int k = 0; k < 1000; k++) {
+                        result.clear();
+                        for (Object value : values) {
+                            result.add(formatter.formatValue(value));
+                        }
+                    }
+                    return result;
+                }));
+            }
+            for (Future<List<String>> result : results) {
+                Assert.assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertSameAsDecimalFormat(
+        Locale locale,
+        Map<String, Object> properties,
+        DBSTypedObject type,
+        List<Object> values
+    ) {
+        NumberDataFormatter formatter = new NumberDataFormatter();
+        formatter.init(type, locale, properties);
+        DecimalFormat decimalFormat = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+        if (properties.containsKey(NumberFormatSample.PROP_USE_GROUPING)) {
+            decimalFormat.setGroupingUsed((Boolean) properties.get(NumberFormatSample.PROP_USE_GROUPING));
+        }
+        if (properties.containsKey(NumberFormatSample.PROP_GROUPING_SIZE)) {
+            decimalFormat.setGroupingSize((Integer) properties.get(NumberFormatSample.PROP_GROUPING_SIZE));
+        }
+        if (properties.containsKey(NumberFormatSample.PROP_MAX_INT_DIGITS)) {
+            decimalFormat.setMaximumIntegerDigits((Integer) properties.get(NumberFormatSample.PROP_MAX_INT_DIGITS));
+        }
+        if (properties.containsKey(NumberFormatSample.PROP_MIN_INT_DIGITS)) {
+            decimalFormat.setMinimumIntegerDigits((Integer) properties.get(NumberFormatSample.PROP_MIN_INT_DIGITS));
+        }
+        if (type != null) {
+            if (properties.containsKey(NumberFormatSample.PROP_MAX_FRACT_DIGITS)) {
+                decimalFormat.setMaximumFractionDigits((Integer) properties.get(NumberFormatSample.PROP_MAX_FRACT_DIGITS));
+            }
+            decimalFormat.setMinimumFractionDigits((Integer) properties.getOrDefault(NumberFormatSample.PROP_MIN_FRACT_DIGITS, 0));
+            if (Boolean.TRUE.equals(properties.get(NumberFormatSample.PROP_USE_TYPE_SCALE))) {
+                decimalFormat.setMinimumFractionDigits(type.getScale());
+            }
+        }
+        if (properties.containsKey(NumberFormatSample.PROP_ROUNDING_MODE)) {
+            decimalFormat.setRoundingMode(RoundingMode.valueOf((String) properties.get(NumberFormatSample.PROP_ROUNDING_MODE)));
+        }
+        for (Object value : values) {
+            Object formatValue = value instanceof Double ? new BigDecimal(value.toString()) : value;
+            Assert.assertEquals(
+                locale + " " + properties + ": " + value,
+                decimalFormat.format(formatValue),
+                formatter.formatValue(value));
+        }
+    }
+
+    private static List<Object> integerValues() {
+        return List.of(
+            0, 1, -1, 7, 999, -1000, 123456, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            (short) -12345, (byte) 100, 0L, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE,
+            BigInteger.ZERO, new BigInteger("-98765432109876543210"), BigInteger.TEN.pow(40));
+    }
+
+    private static List<Object> decimalValues() {
+        return List.of(
+            BigDecimal.ZERO, new BigDecimal("0.00"), new BigDecimal("-0.00004"), new BigDecimal("0.00005"),
+            new BigDecimal("1.5"), new BigDecimal("-2.5"), new BigDecimal("12345.67895"), new BigDecimal("-0.99999"),
+            new BigDecimal("1E+3"), new BigDecimal("1E-10"), new BigDecimal("123456789012345678901234567890.123456789"),
+            1.25, -3.75, 1234567.125, 1e-7, 42L, -7);
+    }
+
+}
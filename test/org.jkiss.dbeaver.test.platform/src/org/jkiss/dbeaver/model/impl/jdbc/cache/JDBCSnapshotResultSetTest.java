@@ -0,0 +1,219 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.*;
+import java.time.LocalDateTime;
+
+public class JDBCSnapshotResultSetTest {
+
+    private static final Timestamp TIMESTAMP = Timestamp.valueOf("2024-02-29 13:45:30.123456789");
+
+    @Test
+    public void testMetaData() throws SQLException {
+        try (ResultSet resultSet = JDBCSnapshotResultSet.replay(recordRows())) {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            Assert.assertEquals(6, metaData.getColumnCount());
+            Assert.assertEquals("OID", metaData.getColumnLabel(1));
+            Assert.assertEquals("name", metaData.getColumnName(2));
+            Assert.assertEquals(Types.BIGINT, metaData.getColumnType(1));
+            Assert.assertEquals(Types.TIMESTAMP, metaData.getColumnType(3));
+            Assert.assertEquals("timestamp", metaData.getColumnTypeName(3));
+            // Type name which wasn't reported by the driver
+            Assert.assertEquals("", metaData.getColumnTypeName(5));
+            Assert.assertEquals(ResultSetMetaData.columnNullableUnknown, metaData.isNullable(1));
+            Assert.assertTrue(metaData.isReadOnly(1));
+            // Properties which are not recorded have default values
+            Assert.assertFalse(metaData.isAutoIncrement(1));
+            Assert.assertEquals(0, metaData.getPrecision(1));
+            Assert.assertEquals("", metaData.getSchemaName(1));
+
+            assertFails(() -> metaData.getColumnLabel(0));
+            assertFails(() -> metaData.getColumnType(7));
+        }
+    }
+
+    @Test
+    public void testColumnAccessors() throws SQLException {
+        try (ResultSet resultSet = JDBCSnapshotResultSet.replay(recordRows())) {
+            assertRows(resultSet);
+        }
+    }
+
+    @Test
+    public void testRecordedValuesAreNormalized() throws SQLException {
+        // Recording result set returns the same values as the replayed one
+        JDBCResultSet liveResult = mockLiveResult();
+        byte[][] recorded = new byte[1][];
+        try (ResultSet resultSet = JDBCSnapshotResultSet.record(liveResult, data -> recorded[0] = data)) {
+            assertRows(resultSet);
+        }
+        Assert.assertNotNull(recorded[0]);
+        Mockito.verify(liveResult).close();
+    }
+
+    @Test
+    public void testIncompleteResultIsNotRecorded() throws SQLException {
+        JDBCResultSet liveResult = mockLiveResult();
+        byte[][] recorded = new byte[1][];
+        try (ResultSet resultSet = JDBCSnapshotResultSet.record(liveResult, data -> recorded[0] = data)) {
+            Assert.assertTrue(resultSet.next());
+        }
+        Assert.assertNull(recorded[0]);
+        Mockito.verify(liveResult).close();
+    }
+
+    @Test
+    public void testInvalidAccess() throws SQLException {
+        ResultSet resultSet = JDBCSnapshotResultSet.replay(recordRows());
+        // Not positioned on a row yet
+        assertFails(() -> resultSet.getString(1));
+        Assert.assertTrue(resultSet.next());
+        assertFails(() -> resultSet.getString(0));
+        assertFails(() -> resultSet.getString(7));
+        assertFails(() -> resultSet.getString("missing"));
+        assertFails(() -> resultSet.findColumn("missing"));
+        // Values which can't be converted
+        assertFails(() -> resultSet.getInt("name"));
+        assertFails(() -> resultSet.getTimestamp("name"));
+        assertFails(() -> resultSet.unwrap(Connection.class));
+        assertFails(resultSet::getCursorName);
+        Assert.assertFalse(resultSet.isWrapperFor(Connection.class));
+        Assert.assertEquals(ResultSet.TYPE_FORWARD_ONLY, resultSet.getType());
+        Assert.assertEquals(ResultSet.CONCUR_READ_ONLY, resultSet.getConcurrency());
+
+        Assert.assertFalse(resultSet.isClosed());
+        resultSet.close();
+        Assert.assertTrue(resultSet.isClosed());
+        assertFails(resultSet::next);
+        // Repeated close is ignored
+        resultSet.close();
+    }
+
+    @Test
+    public void testCorruptedData() {
+        assertFails(() -> JDBCSnapshotResultSet.replay(new byte[]{1, 2, 3}));
+    }
+
+    private static void assertRows(ResultSet resultSet) throws SQLException {
+        Assert.assertEquals(0, resultSet.getRow());
+        Assert.assertTrue(resultSet.next());
+        Assert.assertEquals(1, resultSet.getRow());
+
+        // Column labels are case-insensitive
+        Assert.assertEquals(1, resultSet.findColumn("oid"));
+        Assert.assertEquals(42L, resultSet.getLong(1));
+        Assert.assertEquals(42, resultSet.getInt("OID"));
+        Assert.assertEquals("42", resultSet.getString("Oid"));
+        Assert.assertEquals(new BigDecimal("42"), resultSet.getBigDecimal(1));
+        Assert.assertEquals(Long.valueOf(42), resultSet.getObject(1));
+        Assert.assertFalse(resultSet.wasNull());
+
+        Assert.assertEquals("table_a", resultSet.getString("name"));
+        Assert.assertEquals(TIMESTAMP, resultSet.getTimestamp(3));
+        Assert.assertEquals(TIMESTAMP.getTime(), resultSet.getDate(3).getTime());
+        Assert.assertEquals(TIMESTAMP.toLocalDateTime(), resultSet.getObject(3, LocalDateTime.class));
+        // Driver specific types are converted to standard ones
+        Assert.assertEquals("r", resultSet.getString("kind"));
+        Assert.assertEquals(new BigDecimal("12345678901234567890"), resultSet.getBigDecimal("size"));
+        Assert.assertEquals("12345678901234567890", resultSet.getString("size"));
+        Assert.assertArrayEquals(new Object[]{1, 2}, (Object[]) resultSet.getArray("flags").getArray());
+        Assert.assertArrayEquals(new Object[]{1, 2}, (Object[]) ((Array) resultSet.getObject("flags")).getArray());
+        Assert.assertEquals("{1,2}", resultSet.getString("flags"));
+
+        Assert.assertTrue(resultSet.next());
+        Assert.assertEquals(2, resultSet.getRow());
+        // Nulls of primitive getters are zeros
+        Assert.assertEquals(0L, resultSet.getLong(1));
+        Assert.assertTrue(resultSet.wasNull());
+        Assert.assertFalse(resultSet.getBoolean(1));
+        Assert.assertNull(resultSet.getObject(1));
+        Assert.assertNull(resultSet.getTimestamp(3));
+        Assert.assertTrue(resultSet.wasNull());
+        Assert.assertEquals("table_a", resultSet.getString("name"));
+        Assert.assertFalse(resultSet.wasNull());
+        Assert.assertEquals(7, resultSet.getInt("kind"));
+        Assert.assertEquals("7", resultSet.getString("kind"));
+        Assert.assertEquals(1.5, resultSet.getDouble("size"), 0);
+        Assert.assertTrue(resultSet.getBoolean("flags"));
+
+        Assert.assertFalse(resultSet.next());
+        Assert.assertEquals(0, resultSet.getRow());
+    }
+
+    private static byte[] recordRows() throws SQLException {
+        byte[][] recorded = new byte[1][];
+        try (ResultSet resultSet = JDBCSnapshotResultSet.record(mockLiveResult(), data -> recorded[0] = data)) {
+            while (resultSet.next()) {
+                // Read all rows
+            }
+        }
+        Assert.assertNotNull(recorded[0]);
+        return recorded[0];
+    }
+
+    private static JDBCResultSet mockLiveResult() throws SQLException {
+        ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(6);
+        mockColumn(metaData, 1, "OID", Types.BIGINT, "int8");
+        mockColumn(metaData, 2, "name", Types.VARCHAR, "text");
+        mockColumn(metaData, 3, "created", Types.TIMESTAMP, "timestamp");
+        mockColumn(metaData, 4, "kind", Types.CHAR, "char");
+        mockColumn(metaData, 5, "size", Types.NUMERIC, null);
+        mockColumn(metaData, 6, "flags", Types.ARRAY, "_int4");
+
+        Array flags = Mockito.mock(Array.class);
+        Mockito.when(flags.getArray()).thenReturn(new int[]{1, 2});
+
+        JDBCResultSet liveResult = Mockito.mock(JDBCResultSet.class);
+        Mockito.when(liveResult.getMetaData()).thenReturn(metaData);
+        Mockito.when(liveResult.next()).thenReturn(true, true, false);
+        Mockito.when(liveResult.getObject(1)).thenReturn(42L, (Object) null);
+        Mockito.when(liveResult.getObject(2)).thenReturn("table_a", "table_a");
+        Mockito.when(liveResult.getObject(3)).thenReturn(TIMESTAMP, (Object) null);
+        Mockito.when(liveResult.getObject(4)).thenReturn('r', (short) 7);
+        Mockito.when(liveResult.getObject(5)).thenReturn(new BigInteger("12345678901234567890"), 1.5f);
+        Mockito.when(liveResult.getObject(6)).thenReturn(flags, true);
+        return liveResult;
+    }
+
+    private static void mockColumn(ResultSetMetaData metaData, int index, String label, int type, String typeName) throws SQLException {
+        Mockito.when(metaData.getColumnLabel(index)).thenReturn(label);
+        Mockito.when(metaData.getColumnType(index)).thenReturn(type);
+        Mockito.when(metaData.getColumnTypeName(index)).thenReturn(typeName);
+    }
+
+    private static void assertFails(SQLRunnable runnable) {
+        try {
+            runnable.run();
+            Assert.fail("SQLException expected");
+        } catch (SQLException e) {
+            // Expected
+        }
+    }
+
+    private interface SQLRunnable {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.exec;
+
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SQLInsertGrouperTest {
+    @Mock
+    private SQLDialect dialect;
+
+    private SQLInsertGrouper grouper;
+
+    @Before
+    public void init() {
+        Mockito.when(dialect.getStringEscapeCharacter()).thenReturn('\\');
+        grouper = new SQLInsertGrouper(dialect, SQLInsertGrouper.MAX_GROUP_ROWS);
+    }
+
+    @Test
+    public void parseSimpleInsert() {
+        SQLInsertGrouper.InsertRow row = parse("INSERT INTO t (a, b)\n  VALUES (1, -2)  ");
+        Assert.assertNotNull(row);
+        Assert.assertEquals("INSERT INTO t (a, b) VALUES", row.prefix());
+        Assert.assertEquals("(1, -2)", row.row());
+    }
+
+    @Test
+    public void parseQuotedCommasAndParentheses() {
+        assertRow("(1, 'a,b', \"c)d\")", parse("insert into t values (1, 'a,b', \"c)d\")"));
+        assertRow("(1, 'it\\'s (x', 'y')", parse("insert into t values (1, 'it\\'s (x', 'y')"));
+        assertRow("(1, 'x''y,z')", parse("insert into t values (1, 'x''y,z')"));
+    }
+
+    @Test
+    public void parseNestedParentheses() {
+        assertRow("(1, f(2, (3 + 4)), g())", parse("INSERT INTO t VALUES (1, f(2, (3 + 4)), g())"));
+    }
+
+    @Test
+    public void rejectUnsupportedStatements() {
+        Assert.assertNull(parse("INSERT INTO t VALUES (1, 2), (3, 4)"));
+        Assert.assertNull(parse("INSERT INTO t VALUES (1, 2) RETURNING id"));
+        Assert.assertNull(parse("INSERT INTO t VALUES (1, 2 -- comment\n)"));
+        Assert.assertNull(parse("INSERT INTO t VALUES (1, /* comment */ 2)"));
+        Assert.assertNull(parse("INSERT INTO t VALUES (1, 'unclosed)"));
+        Assert.assertNull(parse("INSERT INTO t VALUES (1, (2)"));
+        Assert.assertNull(parse("INSERT INTO t SELECT * FROM s"));
+        Assert.assertNull(parse("UPDATE t SET a = 1"));
+    }
+
+    @Test
+    public void groupSameTargetOnly() {
+        SQLInsertGrouper.InsertRow first = parse("INSERT INTO t (a, b) VALUES (1, 'x')");
+        SQLInsertGrouper.InsertRow sameTarget = parse("INSERT  INTO t (a, b)\n VALUES (2, 'y')");
+        SQLInsertGrouper.InsertRow otherTable = parse("INSERT INTO t2 (a, b) VALUES (3, 'z')");
+        SQLInsertGrouper.InsertRow otherColumns = parse("INSERT INTO t (b, a) VALUES (4, 'w')");
+        SQLInsertGrouper.InsertRow noColumns = parse("INSERT INTO t VALUES (5, 'v')");
+        List<SQLInsertGrouper.InsertRow> group = List.of(first);
+        int length = first.prefix().length() + first.row().length();
+
+        Assert.assertFalse(grouper.canAppend(group, length, otherTable));
+        Assert.assertFalse(grouper.canAppend(group, length, otherColumns));
+        Assert.assertFalse(grouper.canAppend(group, length, noColumns));
+        Assert.assertTrue(grouper.canAppend(group, length, sameTarget));
+        Assert.assertTrue(grouper.canAppend(List.of(otherColumns), length, parse("INSERT INTO t (b, a) VALUES (6, 'u')")));
+    }
+
+    @Test
+    public void groupRowsLimit() {
+        SQLInsertGrouper limited = new SQLInsertGrouper(dialect, 2);
+        SQLInsertGrouper.InsertRow row = parse("INSERT INTO t VALUES (1)");
+        Assert.assertTrue(limited.canAppend(List.of(row), 0, row));
+        Assert.assertFalse(limited.canAppend(List.of(row, row), 0, row));
+        Assert.assertFalse(grouper.canAppend(List.of(row), SQLInsertGrouper.MAX_GROUP_LENGTH, row));
+    }
+
+    @Test
+    public void makeGroupQuery() {
+        List<SQLInsertGrouper.InsertRow> group = List.of(
+            parse("INSERT INTO t (a, b) VALUES (1, 'a,b')"),
+            parse("INSERT INTO t (a, b) VALUES (2, f(3))"));
+        Assert.assertEquals(
+            "INSERT INTO t (a, b) VALUES\n(1, 'a,b'),\n(2, f(3))",
+            grouper.makeGroupQuery(group));
+    }
+
+    @Test
+    public void noEscapeCharacter() {
+        Mockito.when(dialect.getStringEscapeCharacter()).thenReturn((char) 0);
+        SQLInsertGrouper plain = new SQLInsertGrouper(dialect, SQLInsertGrouper.MAX_GROUP_ROWS);
+        Assert.assertEquals("('a\\', 2)", plain.parseInsert(new SQLQuery(null, "INSERT INTO t VALUES ('a\\', 2)")).row());
+    }
+
+    private SQLInsertGrouper.InsertRow parse(String text) {
+        return grouper.parseInsert(new SQLQuery(null, text));
+    }
+
+    private static void assertRow(String expected, SQLInsertGrouper.InsertRow row) {
+        Assert.assertNotNull(row);
+        Assert.assertEquals(expected, row.row());
+    }
+}
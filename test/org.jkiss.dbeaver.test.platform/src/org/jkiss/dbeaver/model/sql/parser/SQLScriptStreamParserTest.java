@@ -0,0 +1,160 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
+import org.jkiss.dbeaver.model.connection.DBPDriver;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCDatabaseMetaData;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCSQLDialect;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.sql.SQLDialectMetadataRegistry;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SQLScriptStreamParserTest {
+    @Mock
+    private JDBCDataSource dataSource;
+    @Mock
+    private DBPDataSourceContainer dataSourceContainer;
+    @Mock
+    private JDBCSession session;
+    @Mock
+    private JDBCDatabaseMetaData databaseMetaData;
+    @Mock
+    private DBPDriver driver;
+
+    @Before
+    public void init() {
+        DBPConnectionConfiguration connectionConfiguration = new DBPConnectionConfiguration();
+        DBPPreferenceStore preferenceStore = DBWorkbench.getPlatform().getPreferenceStore();
+        Mockito.when(dataSource.getContainer()).thenReturn(dataSourceContainer);
+        Mockito.lenient().when(dataSourceContainer.getConnectionConfiguration()).thenReturn(connectionConfiguration);
+        Mockito.lenient().when(dataSourceContainer.getActualConnectionConfiguration()).thenReturn(connectionConfiguration);
+        Mockito.when(dataSourceContainer.getPreferenceStore()).thenReturn(preferenceStore);
+        Mockito.lenient().when(dataSourceContainer.getDriver()).thenReturn(driver);
+    }
+
+    @Test
+    public void parseDelimiterSplitAcrossChunks() throws Exception {
+        setDialect("sqlserver");
+        String script = "select 1 from t1\nGO\nselect 2 from t2\nGO\nselect 3 from t3;\nselect 4 from t4\nGO\n";
+        assertParse(script, null);
+    }
+
+    @Test
+    public void parseQuoteSpanningChunks() throws Exception {
+        setDialect("postgresql");
+        String script = "insert into t values ('a;b;c', 'it''s; here');\n" +
+            "select \"col;umn\" from t;\n" +
+            "select 2;\n";
+        assertParse(script, new String[]{
+            "insert into t values ('a;b;c', 'it''s; here')",
+            "select \"col;umn\" from t",
+            "select 2"
+        });
+    }
+
+    @Test
+    public void parseCommentSpanningChunks() throws Exception {
+        setDialect("postgresql");
+        String script = "select 1;\n" +
+            "/* first; second;\n third; */ select 2;\n" +
+            "-- line; comment\n" +
+            "select 3;\n";
+        assertParse(script, null);
+    }
+
+    @Test
+    public void parseDollarQuoteSpanningChunks() throws Exception {
+        setDialect("postgresql");
+        String script = "create function f() returns int as $$\n" +
+            "begin\n" +
+            "  perform 1;\n" +
+            "  return 2;\n" +
+            "end;\n" +
+            "$$ language plpgsql;\n" +
+            "select f();\n";
+        assertParse(script, null);
+    }
+
+    @Test
+    public void parseTooLongStatement() throws Exception {
+        setDialect("postgresql");
+        int chunkSize = 4;
+        String script = "select '" + "x".repeat(chunkSize * SQLScriptStreamParser.MAX_PENDING_CHUNKS * 2) + "';\nselect 1;\n";
+        try (SQLScriptStreamParser parser = new SQLScriptStreamParser(dataSource, new StringReader(script), chunkSize)) {
+            parser.hasNext();
+            Assert.fail("Too long statement must fail");
+        } catch (UncheckedIOException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    /**
+     * Checks that all chunk sizes give the same queries as the parse of the whole script
+     */
+    private void assertParse(String script, String[] expected) throws IOException {
+        List<String> wholeScript = getTexts(SQLScriptParser.parseScript(dataSource, script));
+        if (expected != null) {
+            Assert.assertEquals(List.of(expected), wholeScript);
+        }
+        for (int chunkSize = 3; chunkSize <= script.length(); chunkSize++) {
+            List<SQLScriptElement> elements = new ArrayList<>();
+            try (SQLScriptStreamParser parser = new SQLScriptStreamParser(dataSource, new StringReader(script), chunkSize)) {
+                parser.forEachRemaining(elements::add);
+            }
+            Assert.assertEquals("Chunk size " + chunkSize, wholeScript, getTexts(elements));
+        }
+    }
+
+    private static List<String> getTexts(List<SQLScriptElement> elements) {
+        List<String> texts = new ArrayList<>(elements.size());
+        for (SQLScriptElement element : elements) {
+            texts.add(element.getText());
+        }
+        return texts;
+    }
+
+    private void setDialect(String name) throws DBException {
+        SQLDialectMetadataRegistry registry = DBWorkbench.getPlatform().getSQLDialectRegistry();
+        if (name.equals("sqlserver")) {
+            Mockito.when(driver.getSampleURL()).thenReturn("jdbc:sqlserver://localhost;user=MyUserName;password=*****;");
+        }
+        SQLDialect dialect = registry.getDialect(name).createInstance();
+        ((JDBCSQLDialect) dialect).initDriverSettings(session, dataSource, databaseMetaData);
+        Mockito.when(dataSource.getSQLDialect()).thenReturn(dialect);
+    }
+}
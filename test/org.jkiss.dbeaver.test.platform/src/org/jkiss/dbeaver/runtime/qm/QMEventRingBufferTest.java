@@ -0,0 +1,101 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.model.qm.QMEventAction;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QMEventRingBufferTest {
+
+    @Test
+    public void testDrainInOrder() {
+        QMEventRingBuffer buffer = new QMEventRingBuffer(8);
+        List<QMMetaEvent> events = new ArrayList<>();
+        for (int lap = 0; lap < 3; lap++) {
+            List<QMMetaEvent> expected = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                QMMetaEvent event = createEvent();
+                expected.add(event);
+                buffer.add(event);
+            }
+            events.clear();
+            Assert.assertEquals(5, buffer.drainTo(events));
+            Assert.assertEquals(expected, events);
+        }
+        Assert.assertEquals(0, buffer.takeDroppedCount());
+    }
+
+    @Test
+    public void testDropWhenFull() {
+        QMEventRingBuffer buffer = new QMEventRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(createEvent()));
+        }
+        // Producer must not wait for consumer
+        Assert.assertFalse(buffer.offer(createEvent()));
+        buffer.add(createEvent());
+        buffer.add(createEvent());
+        Assert.assertEquals(2, buffer.takeDroppedCount());
+        Assert.assertEquals(0, buffer.takeDroppedCount());
+
+        List<QMMetaEvent> events = new ArrayList<>();
+        Assert.assertEquals(4, buffer.drainTo(events));
+        buffer.add(createEvent());
+        Assert.assertEquals(0, buffer.takeDroppedCount());
+        Assert.assertEquals(1, buffer.drainTo(events));
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        QMEventRingBuffer buffer = new QMEventRingBuffer(1 << 10);
+        int producerCount = 4;
+        int eventsPerProducer = 10_000;
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < producerCount; i++) {
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < eventsPerProducer; j++) {
+                    buffer.add(createEvent());
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        List<QMMetaEvent> events = new ArrayList<>();
+        long received = 0;
+        boolean alive = true;
+        while (alive) {
+            alive = false;
+            for (Thread producer : producers) {
+                alive |= producer.isAlive();
+            }
+            received += buffer.drainTo(events);
+            events.clear();
+        }
+        received += buffer.drainTo(events);
+        Assert.assertEquals((long) producerCount * eventsPerProducer, received + buffer.takeDroppedCount());
+    }
+
+    private static QMMetaEvent createEvent() {
+        return new QMMetaEvent(null, QMEventAction.UPDATE, null);
+    }
+
+}
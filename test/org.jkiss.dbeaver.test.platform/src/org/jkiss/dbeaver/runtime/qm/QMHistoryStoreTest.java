@@ -0,0 +1,370 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.QMEventAction;
+import org.jkiss.dbeaver.model.qm.QMEventCursor;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.jkiss.dbeaver.model.qm.QMMetaEventEntity;
+import org.jkiss.dbeaver.model.qm.filters.QMDateRange;
+import org.jkiss.dbeaver.model.qm.filters.QMEventCriteria;
+import org.jkiss.dbeaver.model.qm.filters.QMEventStatus;
+import org.jkiss.dbeaver.model.qm.meta.QMMConnectionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMProjectInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class QMHistoryStoreTest {
+
+    private static final long BASE_TIME = 1_700_000_000_000L;
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private Path folder;
+    private QMHistoryStore store;
+
+    @Before
+    public void init() throws IOException {
+        folder = Files.createTempDirectory("qm-history");
+        store = QMHistoryStore.open(folder, 0);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void reopenKeepsEntries() throws Exception {
+        store.append(List.of(
+            query(BASE_TIME, BASE_TIME + 10, "ds1", "select 1", false),
+            query(BASE_TIME + 20, BASE_TIME + 30, "ds1", "select 2", true)));
+        store.append(List.of(
+            new QMMetaEvent(queryInfo(BASE_TIME + 40, BASE_TIME + 50, "ds1", "select 3", false), QMEventAction.BEGIN, "s1"),
+            query(BASE_TIME + 40, BASE_TIME + 50, "ds2", "select 3", false)));
+        reopen(0);
+
+        List<QMMetaEventEntity> events = readAll(new QMEventCriteria());
+        Assert.assertEquals(List.of(3L, 2L, 1L), getIds(events));
+        QMMStatementExecuteInfo exec = (QMMStatementExecuteInfo) events.get(1).getObject();
+        Assert.assertEquals("select 2", exec.getQueryString());
+        Assert.assertEquals(BASE_TIME + 20, exec.getOpenTime());
+        Assert.assertEquals(BASE_TIME + 30, exec.getCloseTime());
+        Assert.assertTrue(exec.hasError());
+        Assert.assertEquals("ds1", exec.getConnection().getContainerId());
+        Assert.assertEquals("General", exec.getConnection().getProjectInfo().getId());
+    }
+
+    @Test
+    public void recoverAfterTornWrite() throws Exception {
+        store.append(List.of(query(BASE_TIME, BASE_TIME + 10, "ds1", "select 1", false)));
+        store.append(List.of(query(BASE_TIME + 20, BASE_TIME + 30, "ds1", "select 2", false)));
+        store.append(List.of(query(BASE_TIME + 40, BASE_TIME + 50, "ds1", "select 3", false)));
+        store.close();
+
+        // Last record is written partially, index has half of the next entry
+        Path dataFile = folder.resolve("queries.dat");
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(dataFile) - 5);
+        }
+        Files.write(folder.resolve("queries.idx"), new byte[30], StandardOpenOption.APPEND);
+        store = QMHistoryStore.open(folder, 0);
+
+        Assert.assertEquals(List.of(2L, 1L), getIds(readAll(new QMEventCriteria())));
+        store.append(List.of(query(BASE_TIME + 60, BASE_TIME + 70, "ds1", "select 4", false)));
+        reopen(0);
+
+        List<QMMetaEventEntity> events = readAll(new QMEventCriteria());
+        Assert.assertEquals(List.of(3L, 2L, 1L), getIds(events));
+        Assert.assertEquals("select 4", ((QMMStatementExecuteInfo) events.get(0).getObject()).getQueryString());
+    }
+
+    @Test
+    public void resetBadFiles() throws Exception {
+        store.append(List.of(query(BASE_TIME, BASE_TIME + 10, "ds1", "select 1", false)));
+        store.close();
+        Files.write(folder.resolve("queries.idx"), new byte[16]);
+        store = QMHistoryStore.open(folder, 0);
+
+        Assert.assertTrue(readAll(new QMEventCriteria()).isEmpty());
+        store.append(List.of(query(BASE_TIME + 20, BASE_TIME + 30, "ds1", "select 2", false)));
+        Assert.assertEquals(1, readAll(new QMEventCriteria()).size());
+    }
+
+    @Test
+    public void purgeOldEntries() throws Exception {
+        store.append(List.of(
+            query(BASE_TIME - 10 * DAY, BASE_TIME - 10 * DAY + 10, "ds1", "select 1", false),
+            query(BASE_TIME - 5 * DAY, BASE_TIME - 5 * DAY + 10, "ds1", "select 2", false),
+            query(BASE_TIME - DAY, BASE_TIME - DAY + 10, "ds1", "select 3", false),
+            query(BASE_TIME, BASE_TIME + 10, "ds1", "select 4", false)));
+        store.close();
+        long dataSize = Files.size(folder.resolve("queries.dat"));
+
+        store = QMHistoryStore.open(folder, BASE_TIME - 3 * DAY);
+        Assert.assertTrue(Files.size(folder.resolve("queries.dat")) < dataSize);
+        // Ids are stable
+        Assert.assertEquals(List.of(4L, 3L), getIds(readAll(new QMEventCriteria())));
+
+        store.append(List.of(query(BASE_TIME + 20, BASE_TIME + 30, "ds1", "select 5", false)));
+        reopen(BASE_TIME - 3 * DAY);
+        List<QMMetaEventEntity> events = readAll(new QMEventCriteria());
+        Assert.assertEquals(List.of(5L, 4L, 3L), getIds(events));
+        Assert.assertEquals("select 3", ((QMMStatementExecuteInfo) events.get(2).getObject()).getQueryString());
+
+        reopen(BASE_TIME + DAY);
+        Assert.assertTrue(readAll(new QMEventCriteria()).isEmpty());
+        store.append(List.of(query(BASE_TIME + 2 * DAY, BASE_TIME + 2 * DAY + 10, "ds1", "select 6", false)));
+        Assert.assertEquals(List.of(6L), getIds(readAll(new QMEventCriteria())));
+    }
+
+    @Test
+    public void pageByLastEventId() throws Exception {
+        List<QMMetaEvent> events = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            events.add(query(BASE_TIME + i * 10, BASE_TIME + i * 10 + 5, "ds1", "select " + i, false));
+        }
+        store.append(events);
+
+        for (boolean desc : new boolean[] {true, false}) {
+            List<Long> ids = new ArrayList<>();
+            Long lastEventId = null;
+            while (true) {
+                QMEventCriteria criteria = new QMEventCriteria();
+                criteria.setDesc(desc);
+                criteria.setLastEventId(lastEventId);
+                List<QMMetaEventEntity> page = read(criteria, 3);
+                if (page.isEmpty()) {
+                    break;
+                }
+                ids.addAll(getIds(page));
+                lastEventId = page.get(page.size() - 1).getId();
+            }
+            Assert.assertEquals(desc ? List.of(7L, 6L, 5L, 4L, 3L, 2L, 1L) : List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), ids);
+        }
+    }
+
+    @Test
+    public void readAcrossIndexSegments() throws Exception {
+        // 3 entries per mapped segment
+        store.close();
+        store = QMHistoryStore.open(folder, 0, 3);
+        for (int i = 0; i < 4; i++) {
+            store.append(List.of(
+                query(BASE_TIME + i * 20, BASE_TIME + i * 20 + 5, "ds1", "select " + (i * 2 + 1), false),
+                query(BASE_TIME + i * 20 + 10, BASE_TIME + i * 20 + 15, "ds1", "select " + (i * 2 + 2), i == 2)));
+            // Cursor opened between appends remaps the last partial segment
+            Assert.assertEquals(i * 2 + 2, readAll(new QMEventCriteria()).size());
+        }
+        Assert.assertEquals(List.of(8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L), getIds(readAll(new QMEventCriteria())));
+
+        store.close();
+        store = QMHistoryStore.open(folder, 0, 3);
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setDesc(false);
+        List<QMMetaEventEntity> events = readAll(criteria);
+        Assert.assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), getIds(events));
+        for (int i = 0; i < events.size(); i++) {
+            Assert.assertEquals("select " + (i + 1), ((QMMStatementExecuteInfo) events.get(i).getObject()).getQueryString());
+        }
+
+        // Time range and status lookups cross the segment boundaries
+        criteria = new QMEventCriteria();
+        criteria.setStartDateRange(new QMDateRange(String.valueOf(BASE_TIME + 30), String.valueOf(BASE_TIME + 61)));
+        Assert.assertEquals(List.of(7L, 6L, 5L, 4L), getIds(readAll(criteria)));
+        criteria = new QMEventCriteria();
+        criteria.setEventStatuses(Set.of(QMEventStatus.FAILED));
+        Assert.assertEquals(List.of(6L), getIds(readAll(criteria)));
+        criteria = new QMEventCriteria();
+        criteria.setSearchString("select 7");
+        Assert.assertEquals(List.of(7L), getIds(readAll(criteria)));
+        try (QMEventCursor cursor = store.openCursor(new QMEventCriteria(), null)) {
+            Assert.assertEquals(8, cursor.getTotalSize());
+        }
+    }
+
+    @Test
+    public void scrollCursor() throws Exception {
+        store.append(List.of(
+            query(BASE_TIME, BASE_TIME + 10, "ds1", "select 1", false),
+            query(BASE_TIME + 20, BASE_TIME + 30, "ds1", "select 2", false),
+            query(BASE_TIME + 40, BASE_TIME + 50, "ds1", "select 3", false)));
+        VoidProgressMonitor monitor = new VoidProgressMonitor();
+        try (QMEventCursor cursor = store.openCursor(new QMEventCriteria(), null)) {
+            Assert.assertEquals(3, cursor.getTotalSize());
+            cursor.scroll(2, monitor);
+            Assert.assertEquals(1L, cursor.nextEvent(monitor).getId());
+            Assert.assertFalse(cursor.hasNextEvent(monitor));
+            cursor.scroll(0, monitor);
+            Assert.assertEquals(3L, cursor.nextEvent(monitor).getId());
+        }
+    }
+
+    @Test
+    public void filterByStatus() throws Exception {
+        store.append(List.of(
+            query(BASE_TIME, BASE_TIME + 10, "ds1", "select 1", false),
+            query(BASE_TIME + 20, BASE_TIME + 30, "ds1", "select 2", true)));
+
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setEventStatuses(Set.of(QMEventStatus.FAILED));
+        Assert.assertEquals(List.of(2L), getIds(readAll(criteria)));
+        criteria.setEventStatuses(Set.of(QMEventStatus.SUCCESS));
+        Assert.assertEquals(List.of(1L), getIds(readAll(criteria)));
+        criteria.setEventStatuses(Set.of(QMEventStatus.FAILED, QMEventStatus.SUCCESS));
+        Assert.assertEquals(List.of(2L, 1L), getIds(readAll(criteria)));
+    }
+
+    @Test
+    public void filterByIdsWithSameHash() throws Exception {
+        Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+        store.append(List.of(
+            query(BASE_TIME, BASE_TIME + 10, "Aa", "select 1", false),
+            query(BASE_TIME + 20, BASE_TIME + 30, "BB", "select 2", false)));
+
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setContainerId("BB");
+        Assert.assertEquals(List.of(2L), getIds(readAll(criteria)));
+        criteria = new QMEventCriteria();
+        criteria.setDriverIds(Set.of("driver-Aa"));
+        Assert.assertEquals(List.of(1L), getIds(readAll(criteria)));
+        criteria = new QMEventCriteria();
+        criteria.setProjectIds(Set.of("project-BB"));
+        Assert.assertEquals(List.of(2L), getIds(readAll(criteria)));
+    }
+
+    @Test
+    public void filterByStartTime() throws Exception {
+        store.append(List.of(
+            // Started before the range, finished within it
+            query(BASE_TIME - 1000, BASE_TIME + 100, "ds1", "select 1", false),
+            // Started within the range, finished after it
+            query(BASE_TIME + 500, BASE_TIME + 5000, "ds1", "select 2", false),
+            query(BASE_TIME + 600, BASE_TIME + 700, "ds1", "select 3", false),
+            query(BASE_TIME + 2000, BASE_TIME + 2100, "ds1", "select 4", false)));
+
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setStartDateRange(new QMDateRange(String.valueOf(BASE_TIME), String.valueOf(BASE_TIME + 1000)));
+        Assert.assertEquals(List.of(3L, 2L), getIds(readAll(criteria)));
+        reopen(0);
+        Assert.assertEquals(List.of(3L, 2L), getIds(readAll(criteria)));
+    }
+
+    @Test
+    public void searchText() throws Exception {
+        StringBuilder longQuery = new StringBuilder("select ");
+        for (int i = 0; i < 500; i++) {
+            longQuery.append("column_").append(i).append(", ");
+        }
+        longQuery.append("last_column from long_table");
+        store.append(List.of(
+            query(BASE_TIME, BASE_TIME + 10, "ds1", "SELECT * FROM Customers WHERE id = 1", false),
+            query(BASE_TIME + 20, BASE_TIME + 30, "ds1", "update orders set state = 'done'", false),
+            query(BASE_TIME + 40, BASE_TIME + 50, "ds1", longQuery.toString(), false)));
+
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setSearchString("from customers");
+        Assert.assertEquals(List.of(1L), getIds(readAll(criteria)));
+        criteria.setSearchString("LAST_COLUMN");
+        Assert.assertEquals(List.of(3L), getIds(readAll(criteria)));
+        criteria.setSearchString("Orders Set");
+        Assert.assertEquals(List.of(2L), getIds(readAll(criteria)));
+        criteria.setSearchString("delete");
+        Assert.assertTrue(readAll(criteria).isEmpty());
+    }
+
+    @Test
+    public void textSignatureIsSelective() {
+        long[] query = QMHistoryStore.getTextSignature("select id, name, created_at from customers where id = 1");
+        Assert.assertTrue(contains(query, QMHistoryStore.getTextSignature("customers")));
+        Assert.assertTrue(contains(query, QMHistoryStore.getTextSignature("created_at")));
+        Assert.assertFalse(contains(query, QMHistoryStore.getTextSignature("orders")));
+        Assert.assertFalse(contains(query, QMHistoryStore.getTextSignature("updated_at")));
+    }
+
+    private void reopen(long retainFrom) throws IOException {
+        store.close();
+        store = QMHistoryStore.open(folder, retainFrom);
+    }
+
+    private List<QMMetaEventEntity> readAll(QMEventCriteria criteria) throws DBException {
+        return read(criteria, Integer.MAX_VALUE);
+    }
+
+    private List<QMMetaEventEntity> read(QMEventCriteria criteria, int maxCount) throws DBException {
+        VoidProgressMonitor monitor = new VoidProgressMonitor();
+        List<QMMetaEventEntity> events = new ArrayList<>();
+        try (QMEventCursor cursor = store.openCursor(criteria, null)) {
+            while (events.size() < maxCount && cursor.hasNextEvent(monitor)) {
+                events.add(cursor.nextEvent(monitor));
+            }
+        }
+        return events;
+    }
+
+    private static List<Long> getIds(List<QMMetaEventEntity> events) {
+        return events.stream().map(QMMetaEventEntity::getId).toList();
+    }
+
+    private static boolean contains(long[] signature, long[] part) {
+        for (int i = 0; i < signature.length; i++) {
+            if ((signature[i] & part[i]) != part[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static QMMetaEvent query(long startTime, long endTime, String containerId, String text, boolean failed) {
+        return new QMMetaEvent(queryInfo(startTime, endTime, containerId, text, failed), QMEventAction.END, "s1");
+    }
+
+    private static QMMStatementExecuteInfo queryInfo(long startTime, long endTime, String containerId, String text, boolean failed) {
+        QMMConnectionInfo connection = QMMConnectionInfo.builder()
+            .setContainerId(containerId)
+            .setDriverId("driver-" + containerId)
+            .setProjectInfo(QMMProjectInfo.builder().setId(containerId.startsWith("ds") ? "General" : "project-" + containerId).build())
+            .build();
+        QMMStatementInfo statement = new QMMStatementInfo(startTime, endTime, connection, DBCExecutionPurpose.USER);
+        return new QMMStatementExecuteInfo(
+            startTime, endTime, statement, text, 0, failed ? 1 : 0, failed ? "Error" : null,
+            0, 0, false, null, null);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.tools.transfer.stream.importer.DataImporterCSV;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CSVChunkSplitterTest {
+
+    @Test
+    public void splitAtLineEnds() throws IOException {
+        String data = "a,b\n1,x\n2,y\n3,z\n";
+        // Chunk ends at the first line feed after the minimal chunk size
+        Assert.assertEquals(List.of("a,b\n1,x\n", "2,y\n3,z\n"), split(data, StandardCharsets.UTF_8, 5));
+        Assert.assertEquals(List.of("a,b\n", "1,x\n", "2,y\n", "3,z\n"), split(data, StandardCharsets.UTF_8, 1));
+        Assert.assertEquals(List.of(data), split(data, StandardCharsets.UTF_8, 100));
+    }
+
+    @Test
+    public void keepQuotedLineFeedsAcrossChunkBoundary() throws IOException {
+        String data = "a,b\n1,\"x\ny\nz\"\n2,\"q\"\n3,w";
+        // Both line feeds of the quoted value are past the chunk size and they are in different mapped windows
+        Assert.assertEquals(List.of("a,b\n1,\"x\ny\nz\"\n", "2,\"q\"\n", "3,w"), split(data, StandardCharsets.UTF_8, 6));
+    }
+
+    @Test
+    public void skipEscapedQuotes() throws IOException {
+        String data = "1,\"x\\\"\ny\"\n2,\"\\\\\"\n3,\"p\"\"\nq\"\n4\n";
+        // Escaped quote and doubled quote do not close quoted values, escaped escape char does
+        Assert.assertEquals(List.of("1,\"x\\\"\ny\"\n", "2,\"\\\\\"\n", "3,\"p\"\"\nq\"\n", "4\n"), split(data, StandardCharsets.UTF_8, 1));
+    }
+
+    @Test
+    public void skipByteOrderMark() throws IOException {
+        Path file = writeTempFile("\uFEFFa\nb\n", StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DataImporterCSV.ChunkSplitter splitter = new DataImporterCSV.ChunkSplitter(channel, StandardCharsets.UTF_8, '"', '\\', 1);
+            Assert.assertTrue(splitter.isFirstChunk());
+            Assert.assertEquals(3, splitter.getPosition());
+            Assert.assertEquals(5, splitter.nextChunk());
+            Assert.assertFalse(splitter.isFirstChunk());
+            Assert.assertEquals(7, splitter.nextChunk());
+            Assert.assertFalse(splitter.hasNext());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<String> split(String data, Charset charset, int chunkSize) throws IOException {
+        Path file = writeTempFile(data, charset);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] bytes = data.getBytes(charset);
+            DataImporterCSV.ChunkSplitter splitter = new DataImporterCSV.ChunkSplitter(channel, charset, '"', '\\', chunkSize);
+            List<String> chunks = new ArrayList<>();
+            while (splitter.hasNext()) {
+                int start = (int) splitter.getPosition();
+                int end = (int) splitter.nextChunk();
+                chunks.add(new String(bytes, start, end - start, charset));
+            }
+            return chunks;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Path writeTempFile(String data, Charset charset) throws IOException {
+        Path file = Files.createTempFile("dbeaver-test", ".csv");
+        Files.write(file, data.getBytes(charset));
+        return file;
+    }
+}
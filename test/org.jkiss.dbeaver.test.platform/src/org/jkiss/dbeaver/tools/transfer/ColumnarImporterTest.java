@@ -0,0 +1,296 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamProducerSettings;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.*;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.DataImporterArrow;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.DataImporterParquet;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.StreamImporterColumnar;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+public class ColumnarImporterTest {
+
+    private static final List<ColumnDescriptor> COLUMNS = List.of(
+        new ColumnDescriptor("bool_col", ColumnType.BOOLEAN),
+        new ColumnDescriptor("int_col", ColumnType.INT32),
+        new ColumnDescriptor("long_col", ColumnType.INT64),
+        new ColumnDescriptor("double_col", ColumnType.DOUBLE),
+        new ColumnDescriptor("decimal_col", ColumnType.DECIMAL, 10, 2),
+        new ColumnDescriptor("date_col", ColumnType.DATE),
+        new ColumnDescriptor("timestamp_col", ColumnType.TIMESTAMP),
+        new ColumnDescriptor("text_col", ColumnType.STRING),
+        new ColumnDescriptor("binary_col", ColumnType.BINARY)
+    );
+
+    private static final LocalDate DATE = LocalDate.of(2024, 2, 29);
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 2, 29, 13, 45, 30, 123_456_000);
+    private static final String LONG_TEXT = "twenty characters!!!";
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final StreamProducerSettings settings = new StreamProducerSettings();
+
+    @Test
+    public void testParquetReaderReadsRowGroups() throws IOException {
+        List<ColumnDescriptor> columns = List.of(new ColumnDescriptor("id", ColumnType.INT64));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ParquetWriter writer = new ParquetWriter(buffer, columns, CompressionCodec.SNAPPY, false);
+        for (int group = 0; group < 3; group++) {
+            ColumnVector vector = new ColumnVector(ColumnType.INT64, 10);
+            for (int i = 0; i < 10; i++) {
+                vector.appendLong(group * 10L + i);
+            }
+            writer.writeBatch(new ColumnVector[]{vector}, 10);
+        }
+        writer.finish();
+        Path file = writeTempFile(buffer.toByteArray(), ".parquet");
+        try (ParquetReader reader = new ParquetReader(file)) {
+            Assert.assertEquals(30, reader.getRowCount());
+            Assert.assertEquals("id", reader.getColumns().get(0).getName());
+            Assert.assertEquals(ColumnType.INT64, reader.getColumns().get(0).getType());
+            ColumnVector vector = new ColumnVector(ColumnType.INT64, 10);
+            for (int group = 0; group < 3; group++) {
+                Assert.assertEquals(10, reader.readBatch(new ColumnVector[]{vector}));
+                Assert.assertEquals(group * 10L, vector.getLong(0));
+                Assert.assertEquals(group * 10L + 9, vector.getLong(9));
+                vector.reset();
+            }
+            Assert.assertEquals(0, reader.readBatch(new ColumnVector[]{vector}));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testParquetReaderRejectsBadFiles() throws IOException {
+        assertParquetReadFails("PAR1".getBytes(StandardCharsets.US_ASCII), "too short");
+        assertParquetReadFails("PAR1 this is not a parquet file".getBytes(StandardCharsets.US_ASCII), "bad magic");
+
+        byte[] bytes = writeParquet(makeVectors());
+        // Metadata length points outside of the file
+        bytes[bytes.length - 5] = 0x7F;
+        assertParquetReadFails(bytes, "metadata length");
+    }
+
+    @Test
+    public void testParquetImporter() throws Exception {
+        Path file = writeTempFile(writeParquet(makeVectors()), ".parquet");
+        try {
+            StreamEntityMapping mapping = new StreamEntityMapping(file);
+            DataImporterParquet importer = new DataImporterParquet();
+            importer.init(mockSite(mapping));
+            assertColumnsInfo(importer.readColumnsInfo(mapping, new ByteArrayInputStream(new byte[0])));
+            mapping.getStreamColumns().addAll(importer.readColumnsInfo(mapping, new ByteArrayInputStream(new byte[0])));
+            assertRows(importRows(importer, mapping, new ByteArrayInputStream(new byte[0])));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testArrowImporter() throws Exception {
+        for (boolean useDictionary : new boolean[]{false, true}) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            ArrowWriter writer = new ArrowWriter(buffer, COLUMNS, CompressionCodec.LZ4_FRAME, useDictionary);
+            writer.writeBatch(makeVectors(), 3);
+            writer.finish();
+            StreamEntityMapping mapping = new StreamEntityMapping(Path.of("dummy.arrow"));
+            DataImporterArrow importer = new DataImporterArrow();
+            importer.init(mockSite(mapping));
+            assertColumnsInfo(importer.readColumnsInfo(mapping, new ByteArrayInputStream(buffer.toByteArray())));
+            mapping.getStreamColumns().addAll(importer.readColumnsInfo(mapping, new ByteArrayInputStream(buffer.toByteArray())));
+            assertRows(importRows(importer, mapping, new ByteArrayInputStream(buffer.toByteArray())));
+        }
+    }
+
+    @Test
+    public void testImportMaxRows() throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ArrowWriter writer = new ArrowWriter(buffer, COLUMNS, CompressionCodec.NONE, false);
+        writer.writeBatch(makeVectors(), 3);
+        writer.writeBatch(makeVectors(), 3);
+        writer.finish();
+        StreamEntityMapping mapping = new StreamEntityMapping(Path.of("dummy.arrow"));
+        DataImporterArrow importer = new DataImporterArrow();
+        importer.init(mockSite(mapping));
+        mapping.getStreamColumns().addAll(importer.readColumnsInfo(mapping, new ByteArrayInputStream(buffer.toByteArray())));
+
+        Assert.assertEquals(6, importRows(importer, mapping, new ByteArrayInputStream(buffer.toByteArray())).size());
+        settings.setMaxRows(4);
+        Assert.assertEquals(4, importRows(importer, mapping, new ByteArrayInputStream(buffer.toByteArray())).size());
+    }
+
+    private static void assertColumnsInfo(List<StreamDataImporterColumnInfo> columnsInfo) {
+        Assert.assertEquals(COLUMNS.size(), columnsInfo.size());
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            Assert.assertEquals(COLUMNS.get(i).getName(), columnsInfo.get(i).getName());
+        }
+        assertColumnType(columnsInfo.get(0), DBPDataKind.BOOLEAN, "BOOLEAN");
+        assertColumnType(columnsInfo.get(1), DBPDataKind.NUMERIC, "INTEGER");
+        assertColumnType(columnsInfo.get(2), DBPDataKind.NUMERIC, "BIGINT");
+        assertColumnType(columnsInfo.get(3), DBPDataKind.NUMERIC, "DOUBLE");
+        assertColumnType(columnsInfo.get(4), DBPDataKind.NUMERIC, "NUMERIC");
+        Assert.assertEquals(Integer.valueOf(10), columnsInfo.get(4).getPrecision());
+        Assert.assertEquals(Integer.valueOf(2), columnsInfo.get(4).getScale());
+        assertColumnType(columnsInfo.get(5), DBPDataKind.DATETIME, "DATE");
+        assertColumnType(columnsInfo.get(6), DBPDataKind.DATETIME, "TIMESTAMP");
+        assertColumnType(columnsInfo.get(7), DBPDataKind.STRING, "VARCHAR");
+        // String length is sampled from data and rounded up to the power of 2
+        Assert.assertEquals(32, columnsInfo.get(7).getMaxLength());
+        assertColumnType(columnsInfo.get(8), DBPDataKind.BINARY, "VARBINARY");
+    }
+
+    private static void assertColumnType(StreamDataImporterColumnInfo columnInfo, DBPDataKind dataKind, String typeName) {
+        Assert.assertEquals(columnInfo.getName(), dataKind, columnInfo.getDataKind());
+        Assert.assertEquals(columnInfo.getName(), typeName, columnInfo.getTypeName());
+    }
+
+    private static void assertRows(List<Object[]> rows) {
+        Assert.assertEquals(3, rows.size());
+
+        Object[] row = rows.get(0);
+        Assert.assertEquals(Boolean.TRUE, row[0]);
+        Assert.assertEquals(Integer.valueOf(-42), row[1]);
+        Assert.assertEquals(Long.valueOf(Long.MAX_VALUE), row[2]);
+        Assert.assertEquals(Double.valueOf(2.5), row[3]);
+        Assert.assertEquals(new BigDecimal("-12345678.90"), row[4]);
+        Assert.assertEquals(java.sql.Date.valueOf(DATE), row[5]);
+        Assert.assertEquals(Timestamp.valueOf(TIMESTAMP), row[6]);
+        Assert.assertEquals("caf\u00e9 \u4e2d", row[7]);
+        Assert.assertArrayEquals(new byte[]{0, 1, (byte) 0xFF}, (byte[]) row[8]);
+
+        row = rows.get(1);
+        Assert.assertEquals(Boolean.FALSE, row[0]);
+        Assert.assertEquals(LONG_TEXT, row[7]);
+
+        // Nulls are kept in every column type
+        for (Object value : rows.get(2)) {
+            Assert.assertNull(value);
+        }
+    }
+
+    private IStreamDataImporterSite mockSite(StreamEntityMapping mapping) {
+        IStreamDataImporterSite site = Mockito.mock(IStreamDataImporterSite.class);
+        Mockito.when(site.getProcessorProperties()).thenReturn(properties);
+        Mockito.when(site.getSourceObject()).thenReturn(mapping);
+        Mockito.when(site.getSettings()).thenReturn(settings);
+        return site;
+    }
+
+    /**
+     * Runs import and collects values passed to the consumer
+     */
+    private static List<Object[]> importRows(StreamImporterColumnar importer, StreamEntityMapping mapping, InputStream inputStream) throws DBException {
+        List<Object[]> rows = new ArrayList<>();
+        IDataTransferConsumer<?, ?> consumer = Mockito.mock(IDataTransferConsumer.class);
+        Mockito.doAnswer(invocation -> {
+            DBCResultSet resultSet = invocation.getArgument(1);
+            Object[] row = new Object[mapping.getStreamColumns().size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = resultSet.getAttributeValue(i);
+            }
+            rows.add(row);
+            return null;
+        }).when(consumer).fetchRow(Mockito.any(), Mockito.any());
+        DBPDataSource dataSource = Mockito.mock(DBPDataSource.class, Mockito.RETURNS_DEEP_STUBS);
+        importer.runImport(new VoidProgressMonitor(), dataSource, inputStream, consumer);
+        Mockito.verify(consumer).fetchEnd(Mockito.any(), Mockito.any());
+        Mockito.verify(consumer).close();
+        return rows;
+    }
+
+    private static ColumnVector[] makeVectors() {
+        ColumnVector[] vectors = new ColumnVector[COLUMNS.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new ColumnVector(COLUMNS.get(i).getType(), 3);
+        }
+        vectors[0].appendLong(1);
+        vectors[1].appendLong(-42);
+        vectors[2].appendLong(Long.MAX_VALUE);
+        vectors[3].appendDouble(2.5);
+        vectors[4].appendObject(new BigInteger("-1234567890"));
+        vectors[5].appendLong(DATE.toEpochDay());
+        vectors[6].appendLong(TIMESTAMP.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + TIMESTAMP.getNano() / 1000);
+        vectors[7].appendObject("caf\u00e9 \u4e2d".getBytes(StandardCharsets.UTF_8));
+        vectors[8].appendObject(new byte[]{0, 1, (byte) 0xFF});
+
+        vectors[0].appendLong(0);
+        vectors[1].appendLong(0);
+        vectors[2].appendLong(0);
+        vectors[3].appendDouble(0);
+        vectors[4].appendObject(BigInteger.ZERO);
+        vectors[5].appendLong(0);
+        vectors[6].appendLong(0);
+        vectors[7].appendObject(LONG_TEXT.getBytes(StandardCharsets.UTF_8));
+        vectors[8].appendObject(new byte[0]);
+
+        for (ColumnVector vector : vectors) {
+            vector.appendNull();
+        }
+        return vectors;
+    }
+
+    private static byte[] writeParquet(ColumnVector[] vectors) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ParquetWriter writer = new ParquetWriter(buffer, COLUMNS, CompressionCodec.GZIP, true);
+        writer.writeBatch(vectors, vectors[0].size());
+        writer.finish();
+        return buffer.toByteArray();
+    }
+
+    private static void assertParquetReadFails(byte[] bytes, String expectedMessage) throws IOException {
+        Path file = writeTempFile(bytes, ".parquet");
+        try (ParquetReader reader = new ParquetReader(file)) {
+            Assert.fail("Bad file was read: " + reader.getColumns());
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(expectedMessage));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Path writeTempFile(byte[] bytes, String suffix) throws IOException {
+        Path file = Files.createTempFile("dbeaver-test", suffix);
+        Files.write(file, bytes);
+        return file;
+    }
+}
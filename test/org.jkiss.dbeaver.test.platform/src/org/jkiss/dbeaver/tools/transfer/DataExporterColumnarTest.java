@@ -0,0 +1,329 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.columnar.*;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.DataExporterParquet;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.StreamExporterColumnar;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DataExporterColumnarTest {
+
+    private static final int ROW_COUNT = 1000;
+    private static final int BATCH_SIZE = 300;
+
+    private static final List<ColumnDescriptor> COLUMNS = List.of(
+        new ColumnDescriptor("bool_col", ColumnType.BOOLEAN),
+        new ColumnDescriptor("int_col", ColumnType.INT32),
+        new ColumnDescriptor("long_col", ColumnType.INT64),
+        new ColumnDescriptor("double_col", ColumnType.DOUBLE),
+        new ColumnDescriptor("decimal_col", ColumnType.DECIMAL, 12, 3),
+        new ColumnDescriptor("wide_decimal_col", ColumnType.DECIMAL, 38, 10),
+        new ColumnDescriptor("date_col", ColumnType.DATE),
+        new ColumnDescriptor("timestamp_col", ColumnType.TIMESTAMP),
+        new ColumnDescriptor("timestamp_tz_col", ColumnType.TIMESTAMP_TZ),
+        new ColumnDescriptor("status_col", ColumnType.STRING),
+        new ColumnDescriptor("text_col", ColumnType.STRING),
+        new ColumnDescriptor("binary_col", ColumnType.BINARY)
+    );
+
+    @Test
+    public void testParquetRoundTrip() throws IOException {
+        for (CompressionCodec codec : new CompressionCodec[]{CompressionCodec.NONE, CompressionCodec.SNAPPY, CompressionCodec.GZIP}) {
+            for (boolean useDictionary : new boolean[]{false, true}) {
+                ColumnVector[] source = makeVectors();
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                writeBatches(new ParquetWriter(buffer, COLUMNS, codec, useDictionary), source);
+                Path file = Files.createTempFile("dbeaver-test", ".parquet");
+                try {
+                    Files.write(file, buffer.toByteArray());
+                    try (ParquetReader reader = new ParquetReader(file)) {
+                        Assert.assertEquals(ROW_COUNT, reader.getRowCount());
+                        assertReadBack(codec + " dictionary=" + useDictionary, reader, source);
+                    }
+                } finally {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testArrowRoundTrip() throws IOException {
+        for (CompressionCodec codec : new CompressionCodec[]{CompressionCodec.NONE, CompressionCodec.LZ4_FRAME}) {
+            for (boolean useDictionary : new boolean[]{false, true}) {
+                ColumnVector[] source = makeVectors();
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                writeBatches(new ArrowWriter(buffer, COLUMNS, codec, useDictionary), source);
+                try (ArrowReader reader = new ArrowReader(new ByteArrayInputStream(buffer.toByteArray()))) {
+                    assertReadBack(codec + " dictionary=" + useDictionary, reader, source);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyRoundTrip() throws IOException {
+        ByteArrayOutputStream parquet = new ByteArrayOutputStream();
+        new ParquetWriter(parquet, COLUMNS, CompressionCodec.SNAPPY, true).finish();
+        Path file = Files.createTempFile("dbeaver-test", ".parquet");
+        try {
+            Files.write(file, parquet.toByteArray());
+            try (ParquetReader reader = new ParquetReader(file)) {
+                assertColumns(reader.getColumns());
+                Assert.assertEquals(0, reader.readBatch(makeEmptyVectors()));
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        ByteArrayOutputStream arrow = new ByteArrayOutputStream();
+        new ArrowWriter(arrow, COLUMNS, CompressionCodec.NONE, true).finish();
+        try (ArrowReader reader = new ArrowReader(new ByteArrayInputStream(arrow.toByteArray()))) {
+            assertColumns(reader.getColumns());
+            Assert.assertEquals(0, reader.readBatch(makeEmptyVectors()));
+        }
+    }
+
+    @Test
+    public void testExportDecimalWithoutRounding() throws Exception {
+        DBDAttributeBinding attribute = mockAttribute("amount", DBPDataKind.NUMERIC, Types.DECIMAL, "DECIMAL", 5, 2);
+        ColumnVector vector = exportAndRead(attribute, new BigDecimal("1.230"), new BigDecimal("-999.99"), 42L, null);
+        Assert.assertEquals(ColumnType.DECIMAL, vector.getType());
+        Assert.assertEquals(BigInteger.valueOf(123), vector.getObject(0));
+        Assert.assertEquals(BigInteger.valueOf(-99999), vector.getObject(1));
+        Assert.assertEquals(BigInteger.valueOf(4200), vector.getObject(2));
+        Assert.assertTrue(vector.isNull(3));
+
+        // Extra fraction digits are not rounded
+        assertExportFails(attribute, new BigDecimal("1.234"));
+        // Value doesn't fit precision
+        assertExportFails(attribute, new BigDecimal("1000.00"));
+    }
+
+    @Test
+    public void testExportIntegersWithoutTruncation() throws Exception {
+        DBDAttributeBinding signedInt = mockAttribute("signed_int", DBPDataKind.NUMERIC, Types.INTEGER, "INT", 10, 0);
+        ColumnVector vector = exportAndRead(signedInt, Integer.MAX_VALUE, -5L);
+        Assert.assertEquals(ColumnType.INT32, vector.getType());
+        Assert.assertEquals(Integer.MAX_VALUE, vector.getLong(0));
+        Assert.assertEquals(-5, vector.getLong(1));
+        assertExportFails(signedInt, 4_000_000_000L);
+        assertExportFails(signedInt, new BigDecimal("1.5"));
+
+        DBDAttributeBinding unsignedInt = mockAttribute("unsigned_int", DBPDataKind.NUMERIC, Types.INTEGER, "INT UNSIGNED", 10, 0);
+        vector = exportAndRead(unsignedInt, 4_000_000_000L);
+        Assert.assertEquals(ColumnType.INT64, vector.getType());
+        Assert.assertEquals(4_000_000_000L, vector.getLong(0));
+
+        DBDAttributeBinding unsignedBigint = mockAttribute("unsigned_bigint", DBPDataKind.NUMERIC, Types.BIGINT, "BIGINT UNSIGNED", 20, 0);
+        BigInteger maxUnsigned = new BigInteger("18446744073709551615");
+        vector = exportAndRead(unsignedBigint, maxUnsigned);
+        Assert.assertEquals(ColumnType.DECIMAL, vector.getType());
+        Assert.assertEquals(maxUnsigned, vector.getObject(0));
+
+        DBDAttributeBinding signedBigint = mockAttribute("signed_bigint", DBPDataKind.NUMERIC, Types.BIGINT, "BIGINT", 19, 0);
+        assertExportFails(signedBigint, maxUnsigned);
+    }
+
+    private static void writeBatches(ColumnarWriter writer, ColumnVector[] source) throws IOException {
+        ColumnVector[] batch = makeEmptyVectors();
+        for (int row = 0; row < ROW_COUNT; row++) {
+            for (int i = 0; i < batch.length; i++) {
+                batch[i].appendFrom(source[i], row);
+            }
+            if (batch[0].size() == BATCH_SIZE || row == ROW_COUNT - 1) {
+                writer.writeBatch(batch, batch[0].size());
+                for (ColumnVector vector : batch) {
+                    vector.reset();
+                }
+            }
+        }
+        writer.finish();
+    }
+
+    private static void assertReadBack(String message, ColumnarReader reader, ColumnVector[] source) throws IOException {
+        assertColumns(reader.getColumns());
+        ColumnVector[] target = makeEmptyVectors();
+        int rowCount = 0;
+        for (int count = reader.readBatch(target); count > 0; count = reader.readBatch(target)) {
+            rowCount += count;
+        }
+        Assert.assertEquals(message, ROW_COUNT, rowCount);
+        for (int i = 0; i < source.length; i++) {
+            Assert.assertEquals(message, ROW_COUNT, target[i].size());
+            for (int row = 0; row < ROW_COUNT; row++) {
+                String position = message + " " + COLUMNS.get(i).getName() + "[" + row + "]";
+                Assert.assertEquals(position, source[i].isNull(row), target[i].isNull(row));
+                if (source[i].isNull(row)) {
+                    continue;
+                }
+                switch (source[i].getType()) {
+                    case DOUBLE:
+                        Assert.assertEquals(position, source[i].getDouble(row), target[i].getDouble(row), 0);
+                        break;
+                    case DECIMAL:
+                        Assert.assertEquals(position, source[i].getObject(row), target[i].getObject(row));
+                        break;
+                    case STRING:
+                    case BINARY:
+                        Assert.assertArrayEquals(position, (byte[]) source[i].getObject(row), (byte[]) target[i].getObject(row));
+                        break;
+                    default:
+                        Assert.assertEquals(position, source[i].getLong(row), target[i].getLong(row));
+                        break;
+                }
+            }
+        }
+    }
+
+    private static void assertColumns(List<ColumnDescriptor> columns) {
+        Assert.assertEquals(COLUMNS.size(), columns.size());
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            Assert.assertEquals(COLUMNS.get(i).toString(), columns.get(i).toString());
+        }
+    }
+
+    private static ColumnVector[] makeEmptyVectors() {
+        ColumnVector[] vectors = new ColumnVector[COLUMNS.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new ColumnVector(COLUMNS.get(i).getType(), 16);
+        }
+        return vectors;
+    }
+
+    private static ColumnVector[] makeVectors() {
+        ColumnVector[] vectors = makeEmptyVectors();
+        String[] statuses = {"NEW", "ACTIVE", "CLOSED"};
+        for (int row = 0; row < ROW_COUNT; row++) {
+            boolean isNull = row % 7 == 3;
+            for (int i = 0; i < vectors.length; i++) {
+                if (isNull && i % 2 == 0) {
+                    vectors[i].appendNull();
+                }
+            }
+            if (!isNull) {
+                vectors[0].appendLong(row % 2);
+            }
+            vectors[1].appendLong(row % 5 == 0 ? Integer.MIN_VALUE + row : row * 1000L);
+            if (!isNull) {
+                vectors[2].appendLong(row % 5 == 0 ? Long.MAX_VALUE - row : -row * 1_000_000_007L);
+            }
+            vectors[3].appendDouble(row / 3.0);
+            if (!isNull) {
+                vectors[4].appendObject(BigInteger.valueOf(row * 12345L - 6_000_000L));
+            }
+            vectors[5].appendObject(BigInteger.TEN.pow(37).subtract(BigInteger.valueOf(row)).negate());
+            if (!isNull) {
+                vectors[6].appendLong(18_000 + row);
+            }
+            vectors[7].appendLong(1_700_000_000_000_000L + row * 1_000_001L);
+            if (!isNull) {
+                vectors[8].appendLong(-86_400_000_000L * row);
+            }
+            // Later batches add new dictionary values
+            vectors[9].appendObject((row < BATCH_SIZE ? statuses[row % 2] : statuses[row % 3]).getBytes(StandardCharsets.UTF_8));
+            if (!isNull) {
+                vectors[10].appendObject(("text " + row + " \u00e9\u4e2d").getBytes(StandardCharsets.UTF_8));
+            }
+            vectors[11].appendObject(new byte[]{(byte) row, (byte) (row >> 8), 0, -1});
+        }
+        return vectors;
+    }
+
+    private static DBDAttributeBinding mockAttribute(String name, DBPDataKind dataKind, int typeID, String typeName, int precision, int scale) {
+        DBDAttributeBinding attribute = Mockito.mock(DBDAttributeBinding.class);
+        Mockito.when(attribute.getName()).thenReturn(name);
+        Mockito.when(attribute.getDataKind()).thenReturn(dataKind);
+        Mockito.when(attribute.getTypeID()).thenReturn(typeID);
+        Mockito.when(attribute.getTypeName()).thenReturn(typeName);
+        Mockito.when(attribute.getPrecision()).thenReturn(precision);
+        Mockito.when(attribute.getScale()).thenReturn(scale);
+        return attribute;
+    }
+
+    private static void assertExportFails(DBDAttributeBinding attribute, Object value) {
+        try {
+            exportAndRead(attribute, value);
+            Assert.fail("Value " + value + " must not be exported to " + attribute.getTypeName() + " column");
+        } catch (DBException e) {
+            // Expected
+        } catch (IOException e) {
+            Assert.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * Exports values of single attribute in Parquet and reads them back
+     */
+    private static ColumnVector exportAndRead(DBDAttributeBinding attribute, Object... values) throws DBException, IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        IStreamDataExporterSite site = Mockito.mock(IStreamDataExporterSite.class);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(StreamExporterColumnar.PROP_BATCH_SIZE, 2);
+        Mockito.when(site.getProperties()).thenReturn(properties);
+        Mockito.when(site.getAttributes()).thenReturn(new DBDAttributeBinding[]{attribute});
+        Mockito.when(site.getOutputStream()).thenReturn(buffer);
+
+        DataExporterParquet exporter = new DataExporterParquet();
+        exporter.init(site);
+        DBCSession session = Mockito.mock(DBCSession.class);
+        exporter.exportHeader(session);
+        for (Object value : values) {
+            exporter.exportRow(session, Mockito.mock(DBCResultSet.class), new Object[]{value});
+        }
+        exporter.exportFooter(new VoidProgressMonitor());
+
+        Path file = Files.createTempFile("dbeaver-test", ".parquet");
+        try {
+            Files.write(file, buffer.toByteArray());
+            try (ParquetReader reader = new ParquetReader(file)) {
+                ColumnVector vector = new ColumnVector(reader.getColumns().get(0).getType(), values.length);
+                ColumnVector[] vectors = {vector};
+                while (reader.readBatch(vectors) > 0) {
+                    // Read all row groups
+                }
+                Assert.assertEquals(values.length, vector.size());
+                return vector;
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamProducerSettings;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.DataImporterJSONL;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JSONLImporterTest {
+    private static final Path DUMMY_FILE = Path.of("dummy.jsonl");
+
+    private final DataImporterJSONL importer = new DataImporterJSONL();
+    private final StreamEntityMapping mapping = new StreamEntityMapping(DUMMY_FILE);
+    private final Map<String, Object> properties = new HashMap<>();
+    private final StreamProducerSettings settings = new StreamProducerSettings();
+
+    @Before
+    public void init() throws DBException {
+        IStreamDataImporterSite site = Mockito.mock(IStreamDataImporterSite.class);
+        Mockito.when(site.getProcessorProperties()).thenReturn(properties);
+        Mockito.when(site.getSourceObject()).thenReturn(mapping);
+        Mockito.when(site.getSettings()).thenReturn(settings);
+        importer.init(site);
+    }
+
+    @Test
+    public void readColumnNamesFromAllLines() throws DBException {
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo(
+            "{\"a\": 1, \"b\": \"x\"}\n" +
+            "\n" +
+            "{\"c\": true, \"a\": 2}\n");
+        Assert.assertEquals(3, columnsInfo.size());
+        Assert.assertEquals("a", columnsInfo.get(0).getName());
+        Assert.assertEquals("b", columnsInfo.get(1).getName());
+        Assert.assertEquals("c", columnsInfo.get(2).getName());
+    }
+
+    @Test
+    public void guessColumnTypes() throws DBException {
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo(
+            "{\"int\": 1, \"real\": 1, \"bool\": false, \"text\": \"abc\", \"object\": {\"x\": [1, 2]}, \"empty\": null}\n" +
+            "{\"int\": 9223372036854775807, \"real\": 2.5, \"bool\": true, \"text\": 10, \"object\": null, \"empty\": null}\n");
+        Assert.assertEquals(6, columnsInfo.size());
+        assertColumnType(columnsInfo.get(0), DBPDataKind.NUMERIC, "INTEGER");
+        // Integer column is widened by fractional values
+        assertColumnType(columnsInfo.get(1), DBPDataKind.NUMERIC, "REAL");
+        assertColumnType(columnsInfo.get(2), DBPDataKind.BOOLEAN, "BOOLEAN");
+        // String wins over numbers
+        assertColumnType(columnsInfo.get(3), DBPDataKind.STRING, "VARCHAR");
+        assertColumnType(columnsInfo.get(4), DBPDataKind.STRING, "VARCHAR");
+        // Type of column with nulls only can't be guessed
+        assertColumnType(columnsInfo.get(5), DBPDataKind.STRING, "VARCHAR");
+    }
+
+    @Test
+    public void guessColumnTypesOverSamples() throws DBException {
+        properties.put("columnTypeSamplesCount", 2);
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo(
+            "{\"a\": 1}\n" +
+            "\n" +
+            "{\"a\": 2}\n" +
+            "{\"a\": \"text\", \"b\": 3}\n");
+        Assert.assertEquals(1, columnsInfo.size());
+        assertColumnType(columnsInfo.get(0), DBPDataKind.NUMERIC, "INTEGER");
+    }
+
+    @Test
+    public void failOnInvalidLine() {
+        try {
+            readColumnsInfo("{\"a\": 1}\n[1, 2]\n");
+            Assert.fail("Array line was accepted");
+        } catch (DBException e) {
+            Assert.assertEquals("Line 2 is not a JSON object", e.getMessage());
+        }
+        try {
+            readColumnsInfo("{\"a\": 1}\n\n{\"a\": \n");
+            Assert.fail("Malformed line was accepted");
+        } catch (DBException e) {
+            Assert.assertEquals("Invalid JSON at line 3", e.getMessage());
+        }
+    }
+
+    @Test
+    public void importRows() throws DBException {
+        String data =
+            "\uFEFF{\"id\": 1, \"name\": \"caf\\u00e9\", \"score\": 2.50, \"tags\": [\"a\", \"b\"], \"active\": true}\n" +
+            "{\"name\": null, \"id\": 2}\n" +
+            "\n" +
+            "{\"id\": 3, \"score\": 1e400, \"extra\": {\"k\": \"v\"}}\n";
+        properties.put("columnTypeSamplesCount", 2);
+        mapping.getStreamColumns().addAll(readColumnsInfo(data));
+        Assert.assertEquals(5, mapping.getStreamColumns().size());
+
+        List<Object[]> rows = importRows(data);
+        Assert.assertEquals(3, rows.size());
+        Assert.assertArrayEquals(new Object[]{1L, "caf\u00e9", new BigDecimal("2.50"), "[\"a\",\"b\"]", true}, rows.get(0));
+        // Missing keys are nulls, keys which were not sampled are skipped
+        Assert.assertArrayEquals(new Object[]{2L, null, null, null, null}, rows.get(1));
+        Assert.assertEquals(new BigDecimal("1e400"), rows.get(2)[2]);
+
+        settings.setMaxRows(2);
+        Assert.assertEquals(2, importRows(data).size());
+    }
+
+    private static void assertColumnType(StreamDataImporterColumnInfo columnInfo, DBPDataKind dataKind, String typeName) {
+        Assert.assertEquals(columnInfo.getName(), dataKind, columnInfo.getDataKind());
+        Assert.assertEquals(columnInfo.getName(), typeName, columnInfo.getTypeName());
+    }
+
+    private List<StreamDataImporterColumnInfo> readColumnsInfo(String data) throws DBException {
+        return importer.readColumnsInfo(mapping, new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<Object[]> importRows(String data) throws DBException {
+        List<Object[]> rows = new ArrayList<>();
+        IDataTransferConsumer<?, ?> consumer = Mockito.mock(IDataTransferConsumer.class);
+        Mockito.doAnswer(invocation -> {
+            DBCResultSet resultSet = invocation.getArgument(1);
+            Object[] row = new Object[mapping.getStreamColumns().size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = resultSet.getAttributeValue(i);
+            }
+            rows.add(row);
+            return null;
+        }).when(consumer).fetchRow(Mockito.any(), Mockito.any());
+        DBPDataSource dataSource = Mockito.mock(DBPDataSource.class, Mockito.RETURNS_DEEP_STUBS);
+        importer.runImport(new VoidProgressMonitor(), dataSource, new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), consumer);
+        return rows;
+    }
+}
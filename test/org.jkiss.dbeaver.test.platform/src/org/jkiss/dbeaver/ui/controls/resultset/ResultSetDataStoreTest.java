@@ -0,0 +1,223 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.jkiss.dbeaver.ui.controls.resultset.ResultSetDataStore.PAGE_SIZE;
+
+public class ResultSetDataStoreTest {
+
+    private Path spillFolder;
+
+    @Before
+    public void init() throws IOException {
+        spillFolder = Files.createTempDirectory("rs-pages");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(spillFolder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void readRowsOfAllPages() {
+        ResultSetDataStore store = new ResultSetDataStore();
+        int rowCount = PAGE_SIZE * 3 + 10;
+        for (int i = 0; i < rowCount; i++) {
+            Assert.assertEquals(i, store.addRow(createRow(i)));
+        }
+        Assert.assertEquals(rowCount, store.getRowCount());
+        Assert.assertEquals(7, store.getColumnCount());
+        for (int i = 0; i < rowCount; i++) {
+            assertRow(i, store.getValues(i));
+        }
+
+        // Value of another type switches page column to plain objects
+        store.setValue(5, 0, "five");
+        Assert.assertEquals("five", store.getValue(5, 0));
+        Assert.assertEquals(4, store.getValue(4, 0));
+        store.setValue(6, 1, null);
+        Assert.assertNull(store.getValue(6, 1));
+        Assert.assertEquals(7L, store.getValue(7, 1));
+        Assert.assertEquals(4, store.getHotPageCount());
+        store.dispose();
+    }
+
+    @Test
+    public void spillAndReadBack() {
+        ResultSetDataStore store = new ResultSetDataStore(PAGE_SIZE * 2, spillFolder);
+        int rowCount = PAGE_SIZE * 8;
+        for (int i = 0; i < rowCount; i++) {
+            store.addRow(createRow(i));
+            Assert.assertTrue(store.getHotPageCount() <= 2);
+        }
+        Assert.assertFalse(store.isRowInMemory(0));
+
+        // Pages are loaded back in any order
+        for (int page : new int[] {3, 0, 7, 5, 1, 6, 2, 4}) {
+            for (int i = page * PAGE_SIZE; i < (page + 1) * PAGE_SIZE; i += 97) {
+                assertRow(i, store.getValues(i));
+            }
+            Assert.assertTrue(store.isRowInMemory(page * PAGE_SIZE));
+            Assert.assertTrue(store.getHotPageCount() <= 2);
+        }
+        store.dispose();
+    }
+
+    @Test
+    public void updateSpilledRows() {
+        ResultSetDataStore store = new ResultSetDataStore(PAGE_SIZE * 2, spillFolder);
+        int rowCount = PAGE_SIZE * 4;
+        for (int i = 0; i < rowCount; i++) {
+            store.addRow(createRow(i));
+        }
+        Assert.assertFalse(store.isRowInMemory(10));
+        store.setValue(10, 4, "updated");
+        store.setValues(11, new Object[] {-1, -1L});
+
+        // Evict updated page and read it back
+        for (int i = PAGE_SIZE; i < rowCount; i += PAGE_SIZE) {
+            store.getValue(i, 0);
+        }
+        Assert.assertFalse(store.isRowInMemory(10));
+        Assert.assertEquals("updated", store.getValue(10, 4));
+        Assert.assertArrayEquals(new Object[] {-1, -1L, null, null, null, null, null}, store.getValues(11));
+        assertRow(12, store.getValues(12));
+        store.dispose();
+    }
+
+    @Test
+    public void dictionaryFallbackToRawStrings() {
+        ResultSetDataStore store = new ResultSetDataStore(PAGE_SIZE, spillFolder);
+        // Column 0: few distinct values, column 1: all values are unique,
+        // column 2: low cardinality at first, then mid-cardinality
+        for (int i = 0; i < PAGE_SIZE * 3; i++) {
+            store.addRow(new Object[] {"status" + (i % 10), "name" + i, i < 1000 ? "kind" + (i % 5) : "code" + (i % 2000)});
+        }
+        for (int page = 0; page < 3; page++) {
+            int row = page * PAGE_SIZE;
+            Assert.assertTrue(store.isDictionaryEncoded(row, 0));
+            Assert.assertFalse(store.isDictionaryEncoded(row, 1));
+            Assert.assertFalse(store.isDictionaryEncoded(row, 2));
+        }
+
+        // Both encodings survive spilling
+        for (int i = 0; i < PAGE_SIZE * 3; i++) {
+            Assert.assertEquals("status" + (i % 10), store.getValue(i, 0));
+            Assert.assertEquals("name" + i, store.getValue(i, 1));
+            Assert.assertEquals(i < 1000 ? "kind" + (i % 5) : "code" + (i % 2000), store.getValue(i, 2));
+        }
+        // New value in a dictionary column of a loaded page
+        store.setValue(1, 0, "other");
+        Assert.assertEquals("other", store.getValue(1, 0));
+        Assert.assertEquals("status2", store.getValue(2, 0));
+        store.dispose();
+    }
+
+    @Test
+    public void clockGivesSecondChance() {
+        ResultSetDataStore store = new ResultSetDataStore(PAGE_SIZE * 3, spillFolder);
+        for (int i = 0; i < PAGE_SIZE * 4; i++) {
+            store.addRow(new Object[] {i});
+        }
+        // The first page was evicted when the fourth page was added
+        Assert.assertFalse(store.isRowInMemory(0));
+        Assert.assertTrue(store.isRowInMemory(PAGE_SIZE));
+        Assert.assertTrue(store.isRowInMemory(PAGE_SIZE * 2));
+
+        // Second page is used again, so the third one is evicted instead of it
+        Assert.assertEquals(PAGE_SIZE + 1, store.getValue(PAGE_SIZE + 1, 0));
+        Assert.assertEquals(1, store.getValue(1, 0));
+        Assert.assertTrue(store.isRowInMemory(0));
+        Assert.assertTrue(store.isRowInMemory(PAGE_SIZE));
+        Assert.assertFalse(store.isRowInMemory(PAGE_SIZE * 2));
+        Assert.assertTrue(store.isRowInMemory(PAGE_SIZE * 3));
+        Assert.assertEquals(3, store.getHotPageCount());
+        store.dispose();
+    }
+
+    @Test
+    public void keepPagesWithComplexValues() {
+        ResultSetDataStore store = new ResultSetDataStore(PAGE_SIZE * 2, spillFolder);
+        Object complexValue = new Object();
+        store.addRow(new Object[] {1, complexValue});
+        for (int i = 1; i < PAGE_SIZE * 4; i++) {
+            store.addRow(new Object[] {i, "value " + i});
+        }
+        // Page can't be serialized
+        Assert.assertTrue(store.isRowInMemory(0));
+        Assert.assertSame(complexValue, store.getValue(0, 1));
+        Assert.assertEquals("value 1", store.getValue(1, 1));
+        store.dispose();
+    }
+
+    @Test
+    public void dispose() throws IOException {
+        ResultSetDataStore store = new ResultSetDataStore(PAGE_SIZE * 2, spillFolder);
+        for (int i = 0; i < PAGE_SIZE * 4; i++) {
+            store.addRow(createRow(i));
+        }
+        Assert.assertFalse(store.isRowInMemory(0));
+        store.dispose();
+
+        Assert.assertTrue(store.isDisposed());
+        Assert.assertEquals(0, countFiles());
+        Assert.assertNull(store.getValue(0, 0));
+        Assert.assertEquals(-1, store.tryAddRow(createRow(0)));
+        Assert.assertThrows(IllegalStateException.class, () -> store.addRow(createRow(0)));
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spillFolder)) {
+            return files.count();
+        }
+    }
+
+    private static Object[] createRow(int index) {
+        return new Object[] {
+            index,
+            (long) index,
+            index / 4.0,
+            index % 3 == 0,
+            index % 5 == 0 ? null : "row " + (index % 100),
+            BigDecimal.valueOf(index, 2),
+            index % 2 == 0 ? LocalDate.ofEpochDay(index) : new Timestamp(index * 1000L)
+        };
+    }
+
+    private static void assertRow(int index, Object[] values) {
+        Assert.assertArrayEquals("Row " + index, createRow(index), values);
+    }
+
+}